@@ -0,0 +1,134 @@
+package com.optimaxx.management.security.audit;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Encodes one insert body of audit rows with the string-concatenating encoder the publisher used before
+ * {@link AuditRowBuffer}, and with the buffer encoders. Run with {@code mvn -Pjmh test-compile exec:exec}, which
+ * passes {@code -prof gc} so {@code gc.alloc.rate.norm} shows the bytes allocated per body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditRowEncoderBenchmark {
+
+    private static final DateTimeFormatter CLICKHOUSE_TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+
+    @Param({"1", "500"})
+    private int rowCount;
+
+    private List<ActivityLog> activityLogs;
+    private AuditRowBuffer rows;
+
+    @Setup
+    public void setUp() {
+        activityLogs = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            ActivityLog activityLog = new ActivityLog();
+            ReflectionTestUtils.setField(activityLog, "id", UUID.randomUUID());
+            activityLog.setStoreId(UUID.randomUUID());
+            activityLog.setActorUserId(UUID.randomUUID());
+            activityLog.setActorRole("STAFF");
+            activityLog.setAction("SALE_CREATED");
+            activityLog.setResourceType("SALE_TRANSACTION");
+            activityLog.setResourceId(UUID.randomUUID().toString());
+            activityLog.setBeforeJson(null);
+            activityLog.setAfterJson("{\"amount\":\"149.90\",\"customer\":\"Jane \\\"J\\\" Doe\",\"note\":\"line one\nline two\"}");
+            activityLog.setRequestId(UUID.randomUUID().toString());
+            activityLog.setIpAddress("10.0.0." + (i % 250));
+            activityLog.setUserAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 14_5) AppleWebKit/605.1.15 Safari/605.1.15");
+            activityLog.setOccurredAt(Instant.parse("2026-01-05T10:15:30.123Z").plusMillis(i));
+            activityLogs.add(activityLog);
+        }
+        rows = new AuditRowBuffer(16 * 1024);
+    }
+
+    @Benchmark
+    public byte[] legacyJsonEachRow() {
+        List<String> lines = new ArrayList<>(activityLogs.size());
+        for (ActivityLog activityLog : activityLogs) {
+            lines.add(toJsonEachRow(activityLog));
+        }
+        return (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int jsonEachRow() {
+        return encode(JsonEachRowEncoder.INSTANCE);
+    }
+
+    @Benchmark
+    public int rowBinary() {
+        return encode(RowBinaryEncoder.INSTANCE);
+    }
+
+    private int encode(AuditRowEncoder encoder) {
+        rows.reset();
+        for (ActivityLog activityLog : activityLogs) {
+            encoder.encode(activityLog, rows);
+            rows.endRow();
+        }
+        return rows.size();
+    }
+
+    private static String toJsonEachRow(ActivityLog logItem) {
+        return "{" +
+                "\"event_id\":\"" + safe(logItem.getId()) + "\"," +
+                "\"timestamp\":\"" + formatTimestamp(logItem.getOccurredAt()) + "\"," +
+                "\"actor_user_id\":\"" + safe(logItem.getActorUserId()) + "\"," +
+                "\"actor_role\":\"" + escape(logItem.getActorRole()) + "\"," +
+                "\"action\":\"" + escape(logItem.getAction()) + "\"," +
+                "\"resource_type\":\"" + escape(logItem.getResourceType()) + "\"," +
+                "\"resource_id\":\"" + escape(logItem.getResourceId()) + "\"," +
+                "\"before_json\":\"" + escape(logItem.getBeforeJson()) + "\"," +
+                "\"after_json\":\"" + escape(logItem.getAfterJson()) + "\"," +
+                "\"request_id\":\"" + escape(logItem.getRequestId()) + "\"," +
+                "\"ip_address\":\"" + escape(logItem.getIpAddress()) + "\"," +
+                "\"user_agent\":\"" + escape(logItem.getUserAgent()) + "\"," +
+                "\"store_id\":\"" + safe(logItem.getStoreId()) + "\"" +
+                "}";
+    }
+
+    private static String safe(Object value) {
+        return value == null ? "" : escape(String.valueOf(value));
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+
+    private static String formatTimestamp(Instant instant) {
+        return instant == null ? "" : CLICKHOUSE_TIMESTAMP_FORMATTER.format(instant);
+    }
+}
@@ -1,12 +1,8 @@
 package com.optimaxx.management.application;
 
 import com.optimaxx.management.domain.model.ActivityLog;
-import com.optimaxx.management.domain.model.InventoryItem;
-import com.optimaxx.management.domain.model.User;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
-import com.optimaxx.management.domain.repository.InventoryItemRepository;
-import com.optimaxx.management.domain.repository.SaleTransactionRepository;
-import com.optimaxx.management.domain.repository.UserRepository;
+import com.optimaxx.management.domain.repository.SalesRollupTotal;
 import com.optimaxx.management.interfaces.rest.dto.ActivityLogEventResponse;
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsCategoryTrendItem;
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsCategoryTrendResponse;
@@ -15,17 +11,21 @@ import com.optimaxx.management.interfaces.rest.dto.AnalyticsLowStockItem;
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsRevenueSummaryResponse;
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsStaffPerformanceItem;
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsStaffPerformanceResponse;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.SalesRollupService;
 import com.optimaxx.management.security.StoreContext;
+import com.optimaxx.management.security.UsernameDirectory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Analytics service for the Admin Analytics Dashboard.
@@ -35,19 +35,19 @@ import org.springframework.transaction.annotation.Transactional;
 @PreAuthorize("hasAnyRole('OWNER', 'ADMIN')")
 public class AdminAnalyticsService {
 
-    private final SaleTransactionRepository saleTransactionRepository;
+    private final SalesRollupService salesRollupService;
     private final ActivityLogRepository activityLogRepository;
-    private final InventoryItemRepository inventoryItemRepository;
-    private final UserRepository userRepository;
+    private final UsernameDirectory usernameDirectory;
+    private final LowStockMonitor lowStockMonitor;
 
-    public AdminAnalyticsService(SaleTransactionRepository saleTransactionRepository,
+    public AdminAnalyticsService(SalesRollupService salesRollupService,
                                  ActivityLogRepository activityLogRepository,
-                                 InventoryItemRepository inventoryItemRepository,
-                                 UserRepository userRepository) {
-        this.saleTransactionRepository = saleTransactionRepository;
+                                 UsernameDirectory usernameDirectory,
+                                 LowStockMonitor lowStockMonitor) {
+        this.salesRollupService = salesRollupService;
         this.activityLogRepository = activityLogRepository;
-        this.inventoryItemRepository = inventoryItemRepository;
-        this.userRepository = userRepository;
+        this.usernameDirectory = usernameDirectory;
+        this.lowStockMonitor = lowStockMonitor;
     }
 
     /**
@@ -58,13 +58,15 @@ public class AdminAnalyticsService {
     public AnalyticsRevenueSummaryResponse getRevenueSummary(Instant from, Instant to) {
         UUID storeId = StoreContext.currentStoreId();
 
-        BigDecimal totalRevenue = saleTransactionRepository.sumRevenueInRange(storeId, from, to);
-        if (totalRevenue == null) {
-            totalRevenue = BigDecimal.ZERO;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long count = 0;
+        for (SalesRollupTotal total : salesRollupService.totals(storeId, from, to)) {
+            if (total.revenueAmount() != null) {
+                totalRevenue = totalRevenue.add(total.revenueAmount());
+            }
+            count += total.transactionCount();
         }
 
-        long count = saleTransactionRepository.countInRange(storeId, from, to);
-
         BigDecimal avg = (count == 0)
                 ? BigDecimal.ZERO
                 : totalRevenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
@@ -79,14 +81,10 @@ public class AdminAnalyticsService {
     public AnalyticsCategoryTrendResponse getCategoryTrend(Instant from, Instant to) {
         UUID storeId = StoreContext.currentStoreId();
 
-        List<Object[]> rows = saleTransactionRepository.revenueByCategory(storeId, from, to);
-
-        List<AnalyticsCategoryTrendItem> items = rows.stream()
-                .map(row -> {
-                    String category = row[0] == null ? "UNKNOWN" : row[0].toString();
-                    BigDecimal revenue = row[1] == null ? BigDecimal.ZERO : (BigDecimal) row[1];
-                    return new AnalyticsCategoryTrendItem(category, revenue);
-                })
+        List<AnalyticsCategoryTrendItem> items = salesRollupService.totals(storeId, from, to).stream()
+                .map(total -> new AnalyticsCategoryTrendItem(
+                        total.category() == null ? "UNKNOWN" : total.category(),
+                        total.grossAmount() == null ? BigDecimal.ZERO : total.grossAmount()))
                 .toList();
 
         return new AnalyticsCategoryTrendResponse(items, from, to);
@@ -102,26 +100,25 @@ public class AdminAnalyticsService {
 
         List<Object[]> rows = activityLogRepository.staffActionCounts(storeId, from, to);
 
-        List<AnalyticsStaffPerformanceItem> staff = new ArrayList<>();
+        List<UUID> userIds = new ArrayList<>(rows.size());
+        List<Long> actionCounts = new ArrayList<>(rows.size());
         for (Object[] row : rows) {
-            UUID userId = null;
             try {
-                userId = UUID.fromString(row[0].toString());
+                userIds.add(UUID.fromString(row[0].toString()));
             } catch (IllegalArgumentException ignored) {
                 // Corrupted actor_user_id – skip
                 continue;
             }
+            actionCounts.add(((Number) row[1]).longValue());
+        }
 
-            long actionCount = ((Number) row[1]).longValue();
-
-            // Best-effort username enrichment – user may have been soft-deleted
-            String username = "unknown";
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isPresent()) {
-                username = userOpt.get().getUsername();
-            }
+        // Best-effort username enrichment in one lookup – user may have been soft-deleted
+        Map<UUID, String> usernames = usernameDirectory.usernames(userIds);
 
-            staff.add(new AnalyticsStaffPerformanceItem(userId, username, actionCount));
+        List<AnalyticsStaffPerformanceItem> staff = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            UUID userId = userIds.get(i);
+            staff.add(new AnalyticsStaffPerformanceItem(userId, usernames.getOrDefault(userId, "unknown"), actionCounts.get(i)));
         }
 
         // Sort descending by actionCount
@@ -131,23 +128,20 @@ public class AdminAnalyticsService {
     }
 
     /**
-     * Returns all inventory items currently at or below their configured minimum quantity threshold.
+     * Returns the current store's inventory items at or below their configured minimum quantity threshold,
+     * served from the incrementally maintained low-stock set.
      */
     @Transactional(readOnly = true)
     public List<AnalyticsLowStockItem> getLowStockAlerts() {
-        List<InventoryItem> items = inventoryItemRepository.findLowStockItems();
-
-        return items.stream()
-                .map(item -> new AnalyticsLowStockItem(
-                        item.getId(),
-                        item.getSku(),
-                        item.getName(),
-                        item.getCategory(),
-                        item.getQuantity(),
-                        item.getMinQuantity(),
-                        item.getMinQuantity() - item.getQuantity()
-                ))
-                .toList();
+        return lowStockMonitor.lowStockItems(StoreContext.currentStoreId());
+    }
+
+    /**
+     * Opens an SSE stream that starts with the current low-stock set and then pushes each item
+     * entering, changing within, or leaving the low-stock state for the current store.
+     */
+    public SseEmitter streamLowStockAlerts() {
+        return lowStockMonitor.subscribe(StoreContext.currentStoreId());
     }
 
     /**
@@ -162,10 +156,13 @@ public class AdminAnalyticsService {
 
         List<ActivityLog> logs = activityLogRepository.findHighRiskEvents(storeId, limit);
 
+        Map<UUID, String> usernames = usernameDirectory.actorUsernames(logs);
+
         List<ActivityLogEventResponse> events = logs.stream()
                 .map(log -> new ActivityLogEventResponse(
                         log.getId(),
                         log.getActorUserId(),
+                        usernames.get(log.getActorUserId()),
                         log.getActorRole(),
                         log.getAction(),
                         log.getResourceType(),
@@ -43,6 +43,9 @@ public class ActivityLog extends BaseEntity {
     @Column(name = "occurred_at", nullable = false)
     private Instant occurredAt;
 
+    @Column(name = "sale_transaction_id")
+    private UUID saleTransactionId;
+
     public UUID getActorUserId() { return actorUserId; }
     public void setActorUserId(UUID actorUserId) { this.actorUserId = actorUserId; }
     public String getActorRole() { return actorRole; }
@@ -65,4 +68,6 @@ public class ActivityLog extends BaseEntity {
     public void setUserAgent(String userAgent) { this.userAgent = userAgent; }
     public Instant getOccurredAt() { return occurredAt; }
     public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+    public UUID getSaleTransactionId() { return saleTransactionId; }
+    public void setSaleTransactionId(UUID saleTransactionId) { this.saleTransactionId = saleTransactionId; }
 }
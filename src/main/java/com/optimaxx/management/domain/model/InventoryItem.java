@@ -3,12 +3,14 @@ package com.optimaxx.management.domain.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "inventory_items")
+@Table(name = "inventory_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventory_items_store_sku", columnNames = {"store_id", "sku"}))
 public class InventoryItem extends BaseEntity {
 
-    @Column(name = "sku", nullable = false, unique = true, length = 80)
+    @Column(name = "sku", nullable = false, length = 80)
     private String sku;
 
     @Column(name = "name", nullable = false, length = 160)
@@ -23,6 +25,10 @@ public class InventoryItem extends BaseEntity {
     @Column(name = "min_quantity", nullable = false)
     private int minQuantity;
 
+    // Maintained in SQL together with the hold rows; never written through the entity.
+    @Column(name = "reserved_quantity", nullable = false, insertable = false, updatable = false)
+    private int reservedQuantity;
+
     public String getSku() {
         return sku;
     }
@@ -55,6 +61,10 @@ public class InventoryItem extends BaseEntity {
         this.quantity = quantity;
     }
 
+    public int getReservedQuantity() {
+        return reservedQuantity;
+    }
+
     public int getMinQuantity() {
         return minQuantity;
     }
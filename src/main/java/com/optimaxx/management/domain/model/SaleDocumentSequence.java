@@ -0,0 +1,62 @@
+package com.optimaxx.management.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "sale_document_sequences",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sale_document_sequences_scope",
+                columnNames = {"store_id", "document_type", "business_date"}))
+public class SaleDocumentSequence {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "store_id", nullable = false)
+    private UUID storeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false, length = 16)
+    private SaleDocumentType documentType;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "last_value", nullable = false)
+    private long lastValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getStoreId() {
+        return storeId;
+    }
+
+    public SaleDocumentType getDocumentType() {
+        return documentType;
+    }
+
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    public long getLastValue() {
+        return lastValue;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.optimaxx.management.domain.model;
+
+public enum SaleDocumentType {
+    RECEIPT("RCP"),
+    INVOICE("INV");
+
+    private final String prefix;
+
+    SaleDocumentType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+}
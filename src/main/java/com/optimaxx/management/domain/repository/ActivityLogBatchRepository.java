@@ -0,0 +1,21 @@
+package com.optimaxx.management.domain.repository;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import java.util.List;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ActivityLogBatchRepository {
+
+    /**
+     * Inserts the logs with one JDBC batch, assigning ids and creation timestamps to those that lack them.
+     * Runs in its own transaction because it is called after the originating transaction has completed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void insertActivityLogs(List<ActivityLog> activityLogs);
+
+    /**
+     * Assigns ids to logs that are published without being inserted, such as those of rolled-back transactions.
+     */
+    void assignActivityLogIds(List<ActivityLog> activityLogs);
+}
@@ -0,0 +1,91 @@
+package com.optimaxx.management.domain.repository;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ActivityLogBatchRepositoryImpl implements ActivityLogBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO activity_logs (id, store_id, actor_user_id, actor_role, action, resource_type, resource_id, " +
+            "before_json, after_json, request_id, ip_address, user_agent, occurred_at, sale_transaction_id, " +
+            "created_at, updated_at, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public ActivityLogBatchRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void insertActivityLogs(List<ActivityLog> activityLogs) {
+        if (activityLogs.isEmpty()) {
+            return;
+        }
+
+        assignActivityLogIds(activityLogs);
+        Instant now = Instant.now();
+        for (ActivityLog activityLog : activityLogs) {
+            if (activityLog.getCreatedAt() == null) {
+                activityLog.setCreatedAt(now);
+            }
+            if (activityLog.getUpdatedAt() == null) {
+                activityLog.setUpdatedAt(now);
+            }
+        }
+
+        new JdbcTemplate(dataSource).batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ActivityLog log = activityLogs.get(i);
+                ps.setObject(1, log.getId());
+                ps.setObject(2, log.getStoreId());
+                ps.setObject(3, log.getActorUserId());
+                ps.setString(4, log.getActorRole());
+                ps.setString(5, log.getAction());
+                ps.setString(6, log.getResourceType());
+                ps.setString(7, log.getResourceId());
+                ps.setString(8, log.getBeforeJson());
+                ps.setString(9, log.getAfterJson());
+                ps.setString(10, log.getRequestId());
+                ps.setString(11, log.getIpAddress());
+                ps.setString(12, log.getUserAgent());
+                ps.setObject(13, utc(log.getOccurredAt()));
+                ps.setObject(14, log.getSaleTransactionId(), Types.OTHER);
+                ps.setObject(15, utc(log.getCreatedAt()));
+                ps.setObject(16, utc(log.getUpdatedAt()));
+                ps.setBoolean(17, log.isDeleted());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return activityLogs.size();
+            }
+        });
+    }
+
+    @Override
+    public void assignActivityLogIds(List<ActivityLog> activityLogs) {
+        for (ActivityLog activityLog : activityLogs) {
+            if (activityLog.getId() == null) {
+                // The id has no setter; it is written to the field, as Hibernate does for rows it inserts.
+                new DirectFieldAccessor(activityLog).setPropertyValue("id", UUID.randomUUID());
+            }
+        }
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -9,20 +9,18 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface ActivityLogRepository extends JpaRepository<ActivityLog, UUID>, JpaSpecificationExecutor<ActivityLog> {
+public interface ActivityLogRepository extends JpaRepository<ActivityLog, UUID>, JpaSpecificationExecutor<ActivityLog>,
+        ActivityLogBatchRepository {
 
     List<ActivityLog> findByStoreIdAndResourceTypeAndResourceIdAndDeletedFalseOrderByOccurredAtDesc(UUID storeId,
                                                                                                      String resourceType,
                                                                                                      String resourceId);
 
-    @org.springframework.data.jpa.repository.Query(
-        value = "SELECT * FROM activity_logs a WHERE a.store_id = :storeId AND a.is_deleted = false AND " +
-                "( (a.resource_type = 'SALE_TRANSACTION' AND a.resource_id = :transactionId) OR " +
-                "  (a.resource_type = 'INVENTORY' AND (CAST(a.after_json AS jsonb) ->> 'saleTransactionId') = :transactionId) ) " +
-                "ORDER BY a.occurred_at DESC", 
-        nativeQuery = true)
-    List<ActivityLog> findUnifiedTimelineForSaleTransaction(@org.springframework.data.repository.query.Param("storeId") UUID storeId,
-                                                            @org.springframework.data.repository.query.Param("transactionId") String transactionId);
+    @Query("SELECT a FROM ActivityLog a " +
+           "WHERE a.storeId = :storeId AND a.saleTransactionId = :transactionId AND a.deleted = false " +
+           "ORDER BY a.occurredAt DESC")
+    List<ActivityLog> findUnifiedTimelineForSaleTransaction(@Param("storeId") UUID storeId,
+                                                            @Param("transactionId") UUID transactionId);
 
     // ── Analytics queries ────────────────────────────────────────────────────
 
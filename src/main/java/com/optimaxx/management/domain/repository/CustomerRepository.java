@@ -1,6 +1,7 @@
 package com.optimaxx.management.domain.repository;
 
 import com.optimaxx.management.domain.model.Customer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,6 +11,8 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
     Optional<Customer> findByIdAndDeletedFalse(UUID id);
 
+    List<Customer> findByIdInAndDeletedFalse(Collection<UUID> ids);
+
     List<Customer> findByDeletedFalseOrderByCreatedAtDesc();
 
     List<Customer> findByDeletedFalseAndFirstNameContainingIgnoreCaseOrDeletedFalseAndLastNameContainingIgnoreCaseOrderByCreatedAtDesc(
@@ -0,0 +1,12 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InventoryHold(UUID id,
+                            UUID storeId,
+                            UUID cartId,
+                            UUID inventoryItemId,
+                            int quantity,
+                            Instant expiresAt) {
+}
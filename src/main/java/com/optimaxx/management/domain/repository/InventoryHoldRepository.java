@@ -0,0 +1,47 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InventoryHoldRepository {
+
+    /**
+     * Writes the hold and raises the item's reserved quantity in one statement, provided the item belongs to the
+     * hold's store and has enough unheld stock. Returns the unheld quantity left, or empty when the hold was not
+     * placed.
+     */
+    Optional<Integer> insertHold(InventoryHold hold);
+
+    /**
+     * Deletes a hold of the store and gives its units back. Returns the deleted hold, or empty when there was
+     * no such hold.
+     */
+    Optional<InventoryHold> deleteHold(UUID holdId, UUID storeId);
+
+    /**
+     * Row-locks the active items among {@code inventoryItemIds} in id order and returns their unheld quantity.
+     * Until the surrounding transaction ends no hold or sale can change what is returned here.
+     */
+    Map<UUID, Integer> lockAvailableQuantities(Collection<UUID> inventoryItemIds);
+
+    /**
+     * Deletes the cart's holds of the store on the given items and lowers the reserved quantities with them.
+     * Returns the deleted holds so a caller can put back exactly these.
+     */
+    List<InventoryHold> claimHolds(UUID storeId, UUID cartId, Collection<UUID> inventoryItemIds);
+
+    /**
+     * Re-inserts holds returned by {@link #claimHolds} and raises the reserved quantities again.
+     */
+    void restoreHolds(List<InventoryHold> holds);
+
+    /**
+     * Deletes holds that expired at {@code now}, for one item or for all items when {@code inventoryItemId} is
+     * {@code null}. Returns the released holds.
+     */
+    List<InventoryHold> releaseExpiredHolds(Instant now, UUID inventoryItemId);
+}
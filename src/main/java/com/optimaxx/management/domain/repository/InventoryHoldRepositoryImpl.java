@@ -0,0 +1,151 @@
+package com.optimaxx.management.domain.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+public class InventoryHoldRepositoryImpl implements InventoryHoldRepository {
+
+    // The guarded UPDATE takes the item's row lock, so the unheld-stock check and the reservation cannot
+    // interleave with a sale decrementing the same item. No hold row is written when the UPDATE matches nothing.
+    private static final String INSERT_HOLD_SQL =
+            "WITH reserved AS (" +
+            "UPDATE inventory_items SET reserved_quantity = reserved_quantity + :quantity " +
+            "WHERE id = :itemId AND store_id = :storeId AND is_deleted = FALSE AND quantity - reserved_quantity >= :quantity " +
+            "RETURNING id, quantity - reserved_quantity AS available_quantity" +
+            "), inserted AS (" +
+            "INSERT INTO inventory_holds (id, store_id, cart_id, inventory_item_id, quantity, expires_at, created_at) " +
+            "SELECT :id, :storeId, :cartId, r.id, :quantity, :expiresAt, now() FROM reserved r RETURNING id" +
+            ") SELECT r.available_quantity FROM reserved r JOIN inserted ON TRUE";
+
+    private static final String HOLD_COLUMNS = "id, store_id, cart_id, inventory_item_id, quantity, expires_at";
+
+    private static final String DELETE_HOLD_SQL =
+            "WITH deleted AS (" +
+            "DELETE FROM inventory_holds WHERE id = :id AND store_id = :storeId RETURNING " + HOLD_COLUMNS +
+            "), released AS (" +
+            "UPDATE inventory_items i SET reserved_quantity = i.reserved_quantity - d.quantity " +
+            "FROM deleted d WHERE i.id = d.inventory_item_id" +
+            ") SELECT " + HOLD_COLUMNS + " FROM deleted";
+
+    private static final String LOCK_SQL =
+            "SELECT id, quantity - reserved_quantity AS available_quantity FROM inventory_items " +
+            "WHERE id IN (:ids) AND is_deleted = FALSE ORDER BY id FOR UPDATE";
+
+    private static final String CLAIM_SQL =
+            "WITH claimed AS (" +
+            "DELETE FROM inventory_holds WHERE store_id = :storeId AND cart_id = :cartId AND inventory_item_id IN (:itemIds) " +
+            "RETURNING " + HOLD_COLUMNS +
+            "), released AS (" +
+            "UPDATE inventory_items i SET reserved_quantity = i.reserved_quantity - c.quantity " +
+            "FROM (SELECT inventory_item_id, SUM(quantity) AS quantity FROM claimed GROUP BY inventory_item_id) c " +
+            "WHERE i.id = c.inventory_item_id" +
+            ") SELECT " + HOLD_COLUMNS + " FROM claimed";
+
+    private static final String RESTORE_SQL =
+            "WITH restored AS (" +
+            "INSERT INTO inventory_holds (id, store_id, cart_id, inventory_item_id, quantity, expires_at, created_at) " +
+            "VALUES (:id, :storeId, :cartId, :itemId, :quantity, :expiresAt, now()) RETURNING inventory_item_id, quantity" +
+            ") UPDATE inventory_items i SET reserved_quantity = i.reserved_quantity + r.quantity " +
+            "FROM restored r WHERE i.id = r.inventory_item_id";
+
+    private static final String RELEASE_EXPIRED_SQL =
+            "WITH expired AS (" +
+            "DELETE FROM inventory_holds WHERE expires_at <= :now AND (:itemId::uuid IS NULL OR inventory_item_id = :itemId::uuid) " +
+            "RETURNING " + HOLD_COLUMNS +
+            "), released AS (" +
+            "UPDATE inventory_items i SET reserved_quantity = i.reserved_quantity - e.quantity " +
+            "FROM (SELECT inventory_item_id, SUM(quantity) AS quantity FROM expired GROUP BY inventory_item_id) e " +
+            "WHERE i.id = e.inventory_item_id" +
+            ") SELECT " + HOLD_COLUMNS + " FROM expired";
+
+    private final DataSource dataSource;
+
+    public InventoryHoldRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Optional<Integer> insertHold(InventoryHold hold) {
+        List<Integer> available = new NamedParameterJdbcTemplate(dataSource).queryForList(INSERT_HOLD_SQL,
+                holdParams(hold), Integer.class);
+        return available.isEmpty() ? Optional.empty() : Optional.of(available.get(0));
+    }
+
+    @Override
+    public Optional<InventoryHold> deleteHold(UUID holdId, UUID storeId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", holdId).addValue("storeId", storeId);
+        return new NamedParameterJdbcTemplate(dataSource).query(DELETE_HOLD_SQL, params, this::mapHold).stream().findFirst();
+    }
+
+    @Override
+    public Map<UUID, Integer> lockAvailableQuantities(Collection<UUID> inventoryItemIds) {
+        Map<UUID, Integer> available = new LinkedHashMap<>();
+        if (inventoryItemIds.isEmpty()) {
+            return available;
+        }
+        new NamedParameterJdbcTemplate(dataSource).query(LOCK_SQL, new MapSqlParameterSource("ids", inventoryItemIds),
+                rs -> {
+                    available.put(rs.getObject("id", UUID.class), rs.getInt("available_quantity"));
+                });
+        return available;
+    }
+
+    @Override
+    public List<InventoryHold> claimHolds(UUID storeId, UUID cartId, Collection<UUID> inventoryItemIds) {
+        if (cartId == null || inventoryItemIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("storeId", storeId)
+                .addValue("cartId", cartId)
+                .addValue("itemIds", inventoryItemIds);
+        return new NamedParameterJdbcTemplate(dataSource).query(CLAIM_SQL, params, this::mapHold);
+    }
+
+    @Override
+    public void restoreHolds(List<InventoryHold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = holds.stream().map(this::holdParams).toArray(SqlParameterSource[]::new);
+        new NamedParameterJdbcTemplate(dataSource).batchUpdate(RESTORE_SQL, batch);
+    }
+
+    @Override
+    public List<InventoryHold> releaseExpiredHolds(Instant now, UUID inventoryItemId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("now", now.atOffset(ZoneOffset.UTC))
+                .addValue("itemId", inventoryItemId);
+        return new NamedParameterJdbcTemplate(dataSource).query(RELEASE_EXPIRED_SQL, params, this::mapHold);
+    }
+
+    private InventoryHold mapHold(ResultSet rs, int rowNum) throws SQLException {
+        return new InventoryHold(
+                rs.getObject("id", UUID.class),
+                rs.getObject("store_id", UUID.class),
+                rs.getObject("cart_id", UUID.class),
+                rs.getObject("inventory_item_id", UUID.class),
+                rs.getInt("quantity"),
+                rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+    }
+
+    private MapSqlParameterSource holdParams(InventoryHold hold) {
+        return new MapSqlParameterSource("id", hold.id())
+                .addValue("storeId", hold.storeId())
+                .addValue("cartId", hold.cartId())
+                .addValue("itemId", hold.inventoryItemId())
+                .addValue("quantity", hold.quantity())
+                .addValue("expiresAt", hold.expiresAt().atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,18 @@
+package com.optimaxx.management.domain.repository;
+
+import java.util.List;
+import java.util.UUID;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface InventoryItemImportRepository {
+
+    /**
+     * Upserts the rows for one store as a single JDBC batch keyed by the store's SKU. The result holds the
+     * driver's update count per row, which may be {@link java.sql.Statement#SUCCESS_NO_INFO} when the driver
+     * executed the row without reporting how many rows it touched. New and revived SKUs get ledger movements
+     * for their imported quantity in the same transaction. Callers pass distinct SKUs; a repeated SKU is
+     * written as an update of the first row and keeps its quantity.
+     */
+    @Transactional
+    int[] upsertImportRows(UUID storeId, List<InventoryItemImportRow> rows);
+}
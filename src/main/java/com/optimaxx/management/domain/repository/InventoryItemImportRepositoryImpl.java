@@ -0,0 +1,122 @@
+package com.optimaxx.management.domain.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class InventoryItemImportRepositoryImpl implements InventoryItemImportRepository {
+
+    // Existing rows keep their stock level: quantities only change through movements. A soft-deleted SKU
+    // is restored with the imported quantity. The conflict key is the store's SKU, so other stores are untouched.
+    private static final String UPSERT_SQL =
+            "INSERT INTO inventory_items (id, store_id, sku, name, category, quantity, min_quantity, created_at, updated_at, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now(), now(), FALSE) " +
+            "ON CONFLICT (store_id, sku) DO UPDATE SET " +
+            "name = EXCLUDED.name, " +
+            "category = EXCLUDED.category, " +
+            "min_quantity = EXCLUDED.min_quantity, " +
+            "quantity = CASE WHEN inventory_items.is_deleted THEN EXCLUDED.quantity ELSE inventory_items.quantity END, " +
+            "is_deleted = FALSE, deleted_at = NULL, deleted_by = NULL, updated_at = now()";
+
+    // Items without any movement or snapshot yet get their imported stock as an opening balance, so the ledger
+    // nets to the item quantity. The claimed idempotency key keeps it to one opening movement per item.
+    private static final String OPENING_BALANCE_SQL =
+            "WITH candidates AS (" +
+            "SELECT i.store_id, i.id, i.quantity, 'inventory:' || i.id || ':opening' AS idempotency_key " +
+            "FROM inventory_items i " +
+            "WHERE i.store_id = ? AND i.sku = ANY (?) AND i.is_deleted = FALSE AND i.quantity <> 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory_movements m WHERE m.inventory_item_id = i.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory_stock_snapshots p WHERE p.inventory_item_id = i.id)" +
+            "), claimed AS (" +
+            "INSERT INTO inventory_movement_keys (idempotency_key, created_at) SELECT idempotency_key, now() FROM candidates " +
+            "ON CONFLICT (idempotency_key) DO NOTHING RETURNING idempotency_key" +
+            ") INSERT INTO inventory_movements (id, store_id, inventory_item_id, movement_type, quantity_delta, reason, moved_at, " +
+            "source_type, idempotency_key, created_at, updated_at, is_deleted) " +
+            "SELECT gen_random_uuid(), c.store_id, c.id, 'IN', c.quantity, 'Opening balance', now(), " +
+            "'INVENTORY_IMPORT', c.idempotency_key, now(), now(), FALSE " +
+            "FROM candidates c JOIN claimed k ON k.idempotency_key = c.idempotency_key " +
+            "ON CONFLICT (idempotency_key) WHERE idempotency_key IS NOT NULL DO NOTHING";
+
+    // SKUs that are active before the upsert keep their quantity; every other row in the batch is inserted or
+    // revived with the imported quantity. The row locks hold that split until the batch commits.
+    private static final String LOCK_ACTIVE_SKUS_SQL =
+            "SELECT sku FROM inventory_items WHERE store_id = ? AND sku = ANY (?) AND is_deleted = FALSE ORDER BY id FOR UPDATE";
+
+    // A revived SKU still carries the ledger of its earlier life, so it gets an ADJUST for whatever separates
+    // the imported quantity from that ledger's net (latest snapshot plus the movements after it).
+    private static final String REVIVE_BALANCE_SQL =
+            "INSERT INTO inventory_movements (id, store_id, inventory_item_id, movement_type, quantity_delta, reason, moved_at, " +
+            "source_type, created_at, updated_at, is_deleted) " +
+            "SELECT gen_random_uuid(), i.store_id, i.id, 'ADJUST', i.quantity - l.net, 'Import balance', now(), " +
+            "'INVENTORY_IMPORT', now(), now(), FALSE " +
+            "FROM inventory_items i " +
+            "LEFT JOIN LATERAL (" +
+            "SELECT p.as_of, p.quantity FROM inventory_stock_snapshots p " +
+            "WHERE p.inventory_item_id = i.id ORDER BY p.as_of DESC LIMIT 1" +
+            ") s ON TRUE " +
+            "CROSS JOIN LATERAL (" +
+            "SELECT COALESCE(s.quantity, 0) + COALESCE(SUM(m.quantity_delta), 0) AS net FROM inventory_movements m " +
+            "WHERE m.inventory_item_id = i.id AND m.is_deleted = FALSE AND (s.as_of IS NULL OR m.moved_at > s.as_of)" +
+            ") l " +
+            "WHERE i.store_id = ? AND i.sku = ANY (?) AND i.is_deleted = FALSE AND i.quantity <> l.net";
+
+    private final DataSource dataSource;
+
+    public InventoryItemImportRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public int[] upsertImportRows(UUID storeId, List<InventoryItemImportRow> rows) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Object[] skus = rows.stream().map(InventoryItemImportRow::sku).toArray();
+        Set<String> activeSkus = new HashSet<>(jdbcTemplate.query(
+                connection -> skuStatement(connection, LOCK_ACTIVE_SKUS_SQL, storeId, skus),
+                (rs, rowNum) -> rs.getString("sku")));
+
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                InventoryItemImportRow row = rows.get(i);
+                ps.setObject(1, UUID.randomUUID());
+                ps.setObject(2, storeId);
+                ps.setString(3, row.sku());
+                ps.setString(4, row.name());
+                ps.setString(5, row.category());
+                ps.setInt(6, row.quantity());
+                ps.setInt(7, row.minQuantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        jdbcTemplate.update(connection -> skuStatement(connection, OPENING_BALANCE_SQL, storeId, skus));
+
+        Object[] changedSkus = rows.stream().map(InventoryItemImportRow::sku).filter(sku -> !activeSkus.contains(sku)).toArray();
+        if (changedSkus.length > 0) {
+            jdbcTemplate.update(connection -> skuStatement(connection, REVIVE_BALANCE_SQL, storeId, changedSkus));
+        }
+        return counts;
+    }
+
+    private PreparedStatement skuStatement(Connection connection, String sql, UUID storeId, Object[] skus) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        ps.setObject(1, storeId);
+        ps.setArray(2, connection.createArrayOf("varchar", skus));
+        return ps;
+    }
+}
@@ -0,0 +1,8 @@
+package com.optimaxx.management.domain.repository;
+
+public record InventoryItemImportRow(String sku,
+                                     String name,
+                                     String category,
+                                     int quantity,
+                                     int minQuantity) {
+}
@@ -1,24 +1,74 @@
 package com.optimaxx.management.domain.repository;
 
 import com.optimaxx.management.domain.model.InventoryItem;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface InventoryItemRepository extends JpaRepository<InventoryItem, UUID> {
+public interface InventoryItemRepository extends JpaRepository<InventoryItem, UUID>,
+        JpaSpecificationExecutor<InventoryItem>,
+        InventoryItemImportRepository,
+        InventoryHoldRepository {
 
-    boolean existsBySkuAndDeletedFalse(String sku);
+    boolean existsByStoreIdAndSkuAndDeletedFalse(UUID storeId, String sku);
 
     Optional<InventoryItem> findByIdAndDeletedFalse(UUID id);
 
-    List<InventoryItem> findByDeletedFalseOrderByNameAsc();
+    /**
+     * Loads items that are not dirty-checked. Stock paths change quantities only through the statements below
+     * and copy the returned value onto these instances, so flushing never writes a whole row back over edits
+     * saved since the load.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<InventoryItem> findReadOnlyByIdAndDeletedFalse(UUID id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<InventoryItem> findReadOnlyByIdIn(Collection<UUID> ids);
+
+    List<InventoryItem> findByStoreIdAndDeletedFalseOrderByNameAsc(UUID storeId);
+
+    @Query("SELECT DISTINCT i.storeId FROM InventoryItem i WHERE i.deleted = false")
+    List<UUID> findActiveStoreIds();
 
     org.springframework.data.domain.Page<InventoryItem> findByCategoryAndQuantityGreaterThanAndDeletedFalse(String category, int quantity, org.springframework.data.domain.Pageable pageable);
 
+    /**
+     * Decrements stock only when enough unheld stock is on hand and returns the remaining quantity. The check
+     * and the write happen in one statement, so concurrent sales of the same item cannot both pass and units
+     * held for other carts stay on the shelf; an empty result means the item is missing or short.
+     */
+    @Query(value = "UPDATE inventory_items SET quantity = quantity - :quantity, updated_at = now() " +
+                   "WHERE id = :id AND is_deleted = false AND quantity - reserved_quantity >= :quantity " +
+                   "RETURNING quantity",
+           nativeQuery = true)
+    Optional<Integer> decrementQuantityIfAvailable(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    @Query(value = "UPDATE inventory_items SET quantity = quantity + :quantity, updated_at = now() " +
+                   "WHERE id = :id AND is_deleted = false " +
+                   "RETURNING quantity",
+           nativeQuery = true)
+    Optional<Integer> incrementQuantity(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    /**
+     * Row-locks the item until the surrounding transaction ends and returns its quantity, so a change computed
+     * from it cannot interleave with another movement of the same item.
+     */
+    @Query(value = "SELECT quantity FROM inventory_items WHERE id = :id AND is_deleted = false FOR UPDATE",
+           nativeQuery = true)
+    Optional<Integer> lockQuantity(@Param("id") UUID id);
+
     // ── Analytics queries ────────────────────────────────────────────────────
 
-    @Query("SELECT i FROM InventoryItem i WHERE i.deleted = false AND i.quantity <= i.minQuantity ORDER BY (i.quantity - i.minQuantity) ASC")
-    List<InventoryItem> findLowStockItems();
+    @Query("SELECT i FROM InventoryItem i " +
+           "WHERE i.storeId = :storeId AND i.deleted = false AND i.quantity <= i.minQuantity " +
+           "ORDER BY (i.quantity - i.minQuantity) ASC")
+    List<InventoryItem> findLowStockItems(@Param("storeId") UUID storeId);
 }
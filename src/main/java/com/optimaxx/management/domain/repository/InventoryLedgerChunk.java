@@ -0,0 +1,7 @@
+package com.optimaxx.management.domain.repository;
+
+import java.util.UUID;
+
+public record InventoryLedgerChunk(UUID lastItemId,
+                                   int itemCount) {
+}
@@ -0,0 +1,9 @@
+package com.optimaxx.management.domain.repository;
+
+import java.util.UUID;
+
+public record InventoryLedgerMismatch(UUID inventoryItemId,
+                                      String sku,
+                                      int quantity,
+                                      long ledgerQuantity) {
+}
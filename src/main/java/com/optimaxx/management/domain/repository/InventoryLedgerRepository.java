@@ -0,0 +1,39 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface InventoryLedgerRepository {
+
+    List<UUID> findLedgerStoreIds();
+
+    /**
+     * Returns the next id range of at most {@code chunkSize} active items after {@code afterItemId}, or
+     * {@code null} once the store is exhausted. Only the primary-key index is read.
+     */
+    InventoryLedgerChunk findLedgerChunk(UUID storeId, UUID afterItemId, int chunkSize);
+
+    /**
+     * Compares item quantities with their latest stock snapshot plus the net of later movements for items in
+     * {@code (afterItemId, lastItemId]} using one aggregate query, returning only the items that disagree.
+     */
+    List<InventoryLedgerMismatch> findLedgerMismatches(UUID storeId, UUID afterItemId, UUID lastItemId);
+
+    /**
+     * Writes a snapshot as of {@code asOf} for every item in the range that has movements since its previous
+     * snapshot. Returns the number of snapshots written.
+     */
+    int snapshotStock(UUID storeId, UUID afterItemId, UUID lastItemId, Instant asOf);
+
+    /**
+     * Moves up to {@code limit} movements older than {@code cutoff} into the archive table. Only movements
+     * already covered by a snapshot of their item are moved, so snapshot plus tail stays exact.
+     */
+    int archiveMovements(Instant cutoff, int limit);
+
+    /**
+     * Stock level of an item at {@code at}: the latest snapshot not after it plus the movements in between.
+     */
+    InventoryStockPoint findStockAt(UUID inventoryItemId, Instant at);
+}
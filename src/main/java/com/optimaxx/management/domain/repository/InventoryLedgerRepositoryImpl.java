@@ -0,0 +1,154 @@
+package com.optimaxx.management.domain.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class InventoryLedgerRepositoryImpl implements InventoryLedgerRepository {
+
+    private static final String STORE_IDS_SQL =
+            "SELECT DISTINCT store_id FROM inventory_items WHERE is_deleted = FALSE";
+
+    private static final String CHUNK_SQL =
+            "SELECT id, count(*) OVER () AS item_count FROM (" +
+            "SELECT id FROM inventory_items WHERE store_id = ? AND is_deleted = FALSE AND id > ? ORDER BY id LIMIT ?" +
+            ") chunk ORDER BY id DESC LIMIT 1";
+
+    private static final String LATEST_SNAPSHOT_SQL =
+            "LEFT JOIN LATERAL (" +
+            "SELECT p.as_of, p.quantity FROM inventory_stock_snapshots p " +
+            "WHERE p.inventory_item_id = i.id AND p.as_of <= :asOf ORDER BY p.as_of DESC LIMIT 1" +
+            ") s ON TRUE ";
+
+    // Plain reads under READ COMMITTED: no row locks are taken, so stock writers are never blocked. Both sides
+    // are read by the same statement and therefore see the same snapshot.
+    private static final String MISMATCH_SQL =
+            "SELECT i.id, i.sku, i.quantity, COALESCE(s.quantity, 0) + COALESCE(SUM(m.quantity_delta), 0) AS ledger_quantity " +
+            "FROM inventory_items i " +
+            LATEST_SNAPSHOT_SQL +
+            "LEFT JOIN inventory_movements m ON m.inventory_item_id = i.id AND m.is_deleted = FALSE " +
+            "AND (s.as_of IS NULL OR m.moved_at > s.as_of) " +
+            "WHERE i.store_id = :storeId AND i.is_deleted = FALSE AND i.id > :afterItemId AND i.id <= :lastItemId " +
+            "GROUP BY i.id, i.sku, i.quantity, s.quantity " +
+            "HAVING i.quantity <> COALESCE(s.quantity, 0) + COALESCE(SUM(m.quantity_delta), 0)";
+
+    // Each snapshot chains from the previous one, so it only has to read the movements since then. Items
+    // without activity in that window keep their previous snapshot.
+    private static final String SNAPSHOT_SQL =
+            "INSERT INTO inventory_stock_snapshots (id, store_id, inventory_item_id, as_of, quantity, created_at) " +
+            "SELECT gen_random_uuid(), i.store_id, i.id, :asOf, COALESCE(s.quantity, 0) + t.net, now() " +
+            "FROM inventory_items i " +
+            LATEST_SNAPSHOT_SQL +
+            "JOIN LATERAL (" +
+            "SELECT SUM(m.quantity_delta) AS net FROM inventory_movements m " +
+            "WHERE m.inventory_item_id = i.id AND m.is_deleted = FALSE AND m.moved_at <= :asOf " +
+            "AND (s.as_of IS NULL OR m.moved_at > s.as_of)" +
+            ") t ON t.net IS NOT NULL " +
+            "WHERE i.store_id = :storeId AND i.is_deleted = FALSE AND i.id > :afterItemId AND i.id <= :lastItemId " +
+            "ON CONFLICT (inventory_item_id, as_of) DO NOTHING";
+
+    private static final String MOVEMENT_COLUMNS =
+            "id, store_id, inventory_item_id, movement_type, quantity_delta, reason, moved_at, source_type, source_id, " +
+            "idempotency_key, created_at, created_by, updated_at, updated_by, is_deleted, deleted_at, deleted_by";
+
+    // Archived keys stay registered in inventory_movement_keys, which is never archived, so a replay of a key
+    // whose movement has left the hot table is still recognised.
+    private static final String ARCHIVE_SQL =
+            "WITH batch AS (" +
+            "SELECT m.id FROM inventory_movements m " +
+            "WHERE m.moved_at < :cutoff AND EXISTS (" +
+            "SELECT 1 FROM inventory_stock_snapshots s WHERE s.inventory_item_id = m.inventory_item_id AND s.as_of >= m.moved_at) " +
+            "ORDER BY m.moved_at LIMIT :limit FOR UPDATE SKIP LOCKED" +
+            "), moved AS (" +
+            "DELETE FROM inventory_movements m USING batch b WHERE m.id = b.id RETURNING " + qualified("m") +
+            "), registered AS (" +
+            "INSERT INTO inventory_movement_keys (idempotency_key, created_at) " +
+            "SELECT idempotency_key, now() FROM moved WHERE idempotency_key IS NOT NULL " +
+            "ON CONFLICT (idempotency_key) DO NOTHING" +
+            ") INSERT INTO inventory_movements_archive (" + MOVEMENT_COLUMNS + ") SELECT " + MOVEMENT_COLUMNS + " FROM moved";
+
+    // Archived movements are included in the tail: a movement may be archived against a snapshot later
+    // than the one this query starts from.
+    private static final String STOCK_AT_SQL =
+            "SELECT s.as_of, COALESCE(s.quantity, 0) + COALESCE((" +
+            "SELECT SUM(t.quantity_delta) FROM (" +
+            "SELECT quantity_delta, moved_at FROM inventory_movements WHERE inventory_item_id = :itemId AND is_deleted = FALSE " +
+            "UNION ALL " +
+            "SELECT quantity_delta, moved_at FROM inventory_movements_archive WHERE inventory_item_id = :itemId AND is_deleted = FALSE" +
+            ") t WHERE t.moved_at <= :asOf AND (s.as_of IS NULL OR t.moved_at > s.as_of)" +
+            "), 0) AS quantity " +
+            "FROM (SELECT :itemId::uuid AS id) i " +
+            LATEST_SNAPSHOT_SQL;
+
+    private final DataSource dataSource;
+
+    public InventoryLedgerRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<UUID> findLedgerStoreIds() {
+        return new JdbcTemplate(dataSource).queryForList(STORE_IDS_SQL, UUID.class);
+    }
+
+    @Override
+    public InventoryLedgerChunk findLedgerChunk(UUID storeId, UUID afterItemId, int chunkSize) {
+        List<InventoryLedgerChunk> chunks = new JdbcTemplate(dataSource).query(CHUNK_SQL,
+                (rs, rowNum) -> new InventoryLedgerChunk(rs.getObject("id", UUID.class), rs.getInt("item_count")),
+                storeId, afterItemId, chunkSize);
+        return chunks.isEmpty() ? null : chunks.get(0);
+    }
+
+    @Override
+    public List<InventoryLedgerMismatch> findLedgerMismatches(UUID storeId, UUID afterItemId, UUID lastItemId) {
+        MapSqlParameterSource params = rangeParams(storeId, afterItemId, lastItemId)
+                .addValue("asOf", Instant.now().atOffset(ZoneOffset.UTC));
+        return new NamedParameterJdbcTemplate(dataSource).query(MISMATCH_SQL, params,
+                (rs, rowNum) -> new InventoryLedgerMismatch(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("sku"),
+                        rs.getInt("quantity"),
+                        rs.getLong("ledger_quantity")));
+    }
+
+    @Override
+    public int snapshotStock(UUID storeId, UUID afterItemId, UUID lastItemId, Instant asOf) {
+        MapSqlParameterSource params = rangeParams(storeId, afterItemId, lastItemId)
+                .addValue("asOf", asOf.atOffset(ZoneOffset.UTC));
+        return new NamedParameterJdbcTemplate(dataSource).update(SNAPSHOT_SQL, params);
+    }
+
+    @Override
+    public int archiveMovements(Instant cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("cutoff", cutoff.atOffset(ZoneOffset.UTC))
+                .addValue("limit", limit);
+        return new NamedParameterJdbcTemplate(dataSource).update(ARCHIVE_SQL, params);
+    }
+
+    @Override
+    public InventoryStockPoint findStockAt(UUID inventoryItemId, Instant at) {
+        MapSqlParameterSource params = new MapSqlParameterSource("itemId", inventoryItemId)
+                .addValue("asOf", at.atOffset(ZoneOffset.UTC));
+        return new NamedParameterJdbcTemplate(dataSource).queryForObject(STOCK_AT_SQL, params,
+                (rs, rowNum) -> {
+                    Timestamp asOf = rs.getTimestamp("as_of");
+                    return new InventoryStockPoint(asOf == null ? null : asOf.toInstant(), rs.getLong("quantity"));
+                });
+    }
+
+    private static String qualified(String alias) {
+        return alias + "." + MOVEMENT_COLUMNS.replace(", ", ", " + alias + ".");
+    }
+
+    private MapSqlParameterSource rangeParams(UUID storeId, UUID afterItemId, UUID lastItemId) {
+        return new MapSqlParameterSource("storeId", storeId)
+                .addValue("afterItemId", afterItemId)
+                .addValue("lastItemId", lastItemId);
+    }
+}
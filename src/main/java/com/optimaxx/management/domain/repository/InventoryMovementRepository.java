@@ -1,14 +1,43 @@
 package com.optimaxx.management.domain.repository;
 
 import com.optimaxx.management.domain.model.InventoryMovement;
-import java.util.List;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, UUID> {
-
-    List<InventoryMovement> findByDeletedFalseOrderByMovedAtDesc();
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, UUID>, InventoryLedgerRepository {
 
     Optional<InventoryMovement> findByIdempotencyKeyAndDeletedFalse(String idempotencyKey);
+
+    /**
+     * Inserts a movement unless its idempotency key was used before and returns the number of rows written, so
+     * a zero means the key was seen before. The key is claimed in {@code inventory_movement_keys}, which keeps
+     * keys of archived movements too. Rows without a key always insert.
+     */
+    @Modifying
+    @Query(value = "WITH claimed AS (" +
+                   "INSERT INTO inventory_movement_keys (idempotency_key, created_at) " +
+                   "SELECT CAST(:idempotencyKey AS VARCHAR), now() WHERE CAST(:idempotencyKey AS VARCHAR) IS NOT NULL " +
+                   "ON CONFLICT (idempotency_key) DO NOTHING RETURNING idempotency_key" +
+                   ") INSERT INTO inventory_movements (id, store_id, inventory_item_id, movement_type, quantity_delta, reason, " +
+                   "moved_at, source_type, source_id, idempotency_key, created_at, updated_at, is_deleted) " +
+                   "SELECT :id, :storeId, :inventoryItemId, :movementType, :quantityDelta, :reason, " +
+                   ":movedAt, :sourceType, :sourceId, :idempotencyKey, now(), now(), false " +
+                   "WHERE CAST(:idempotencyKey AS VARCHAR) IS NULL OR EXISTS (SELECT 1 FROM claimed) " +
+                   "ON CONFLICT (idempotency_key) WHERE idempotency_key IS NOT NULL DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("storeId") UUID storeId,
+                       @Param("inventoryItemId") UUID inventoryItemId,
+                       @Param("movementType") String movementType,
+                       @Param("quantityDelta") int quantityDelta,
+                       @Param("reason") String reason,
+                       @Param("movedAt") Instant movedAt,
+                       @Param("sourceType") String sourceType,
+                       @Param("sourceId") UUID sourceId,
+                       @Param("idempotencyKey") String idempotencyKey);
 }
@@ -0,0 +1,7 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+
+public record InventoryStockPoint(Instant snapshotAsOf,
+                                  long quantity) {
+}
@@ -0,0 +1,14 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface SaleDocumentCounterRepository {
+
+    /**
+     * Reserves {@code blockSize} numbers for the given store/document/day with one upsert and returns the highest
+     * reserved value. Runs in the caller's transaction: the counter row stays locked until that transaction ends,
+     * and a rollback gives the numbers back.
+     */
+    long allocate(UUID id, UUID storeId, String documentType, LocalDate businessDate, int blockSize);
+}
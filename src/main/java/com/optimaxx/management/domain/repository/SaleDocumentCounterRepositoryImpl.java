@@ -0,0 +1,33 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class SaleDocumentCounterRepositoryImpl implements SaleDocumentCounterRepository {
+
+    private static final String ALLOCATE_SQL =
+            "INSERT INTO sale_document_sequences (id, store_id, document_type, business_date, last_value, updated_at) " +
+            "VALUES (:id, :storeId, :documentType, :businessDate, :blockSize, now()) " +
+            "ON CONFLICT (store_id, document_type, business_date) " +
+            "DO UPDATE SET last_value = sale_document_sequences.last_value + EXCLUDED.last_value, updated_at = now() " +
+            "RETURNING last_value";
+
+    private final DataSource dataSource;
+
+    public SaleDocumentCounterRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public long allocate(UUID id, UUID storeId, String documentType, LocalDate businessDate, int blockSize) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id)
+                .addValue("storeId", storeId)
+                .addValue("documentType", documentType)
+                .addValue("businessDate", businessDate)
+                .addValue("blockSize", blockSize);
+        return new NamedParameterJdbcTemplate(dataSource).queryForObject(ALLOCATE_SQL, params, Long.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.optimaxx.management.domain.repository;
+
+import com.optimaxx.management.domain.model.SaleDocumentSequence;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SaleDocumentSequenceRepository extends JpaRepository<SaleDocumentSequence, UUID>,
+        SaleDocumentCounterRepository {
+}
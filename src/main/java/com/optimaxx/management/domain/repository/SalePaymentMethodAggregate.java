@@ -0,0 +1,10 @@
+package com.optimaxx.management.domain.repository;
+
+import com.optimaxx.management.domain.model.SalePaymentMethod;
+import java.math.BigDecimal;
+
+public record SalePaymentMethodAggregate(SalePaymentMethod paymentMethod,
+                                         long transactionCount,
+                                         BigDecimal grossAmount,
+                                         BigDecimal refundedAmount) {
+}
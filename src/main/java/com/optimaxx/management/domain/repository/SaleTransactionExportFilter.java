@@ -0,0 +1,14 @@
+package com.optimaxx.management.domain.repository;
+
+import com.optimaxx.management.domain.model.SalePaymentMethod;
+import java.time.Instant;
+import java.util.UUID;
+
+public record SaleTransactionExportFilter(UUID storeId,
+                                          Instant from,
+                                          Instant to,
+                                          String searchPattern,
+                                          SalePaymentMethod paymentMethod,
+                                          String sortField,
+                                          boolean ascending) {
+}
@@ -0,0 +1,12 @@
+package com.optimaxx.management.domain.repository;
+
+import java.util.function.Consumer;
+
+public interface SaleTransactionExportRepository {
+
+    /**
+     * Streams matching sales through a server-side cursor, handing each row to the consumer as it is read.
+     * Must run inside a transaction so the JDBC driver can honour the fetch size instead of buffering the result.
+     */
+    void streamExportRows(SaleTransactionExportFilter filter, int fetchSize, Consumer<SaleTransactionExportRow> consumer);
+}
@@ -0,0 +1,75 @@
+package com.optimaxx.management.domain.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class SaleTransactionExportRepositoryImpl implements SaleTransactionExportRepository {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "occurredAt", "occurred_at",
+            "amount", "amount",
+            "receiptNumber", "receipt_number",
+            "customerName", "customer_name"
+    );
+
+    private final DataSource dataSource;
+
+    public SaleTransactionExportRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void streamExportRows(SaleTransactionExportFilter filter, int fetchSize, Consumer<SaleTransactionExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT receipt_number, occurred_at, customer_name, amount, refunded_amount, payment_method, status " +
+                "FROM sale_transactions WHERE store_id = :storeId AND is_deleted = FALSE");
+        MapSqlParameterSource params = new MapSqlParameterSource("storeId", filter.storeId());
+
+        if (filter.from() != null) {
+            sql.append(" AND occurred_at >= :from");
+            params.addValue("from", filter.from().atOffset(ZoneOffset.UTC));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND occurred_at <= :to");
+            params.addValue("to", filter.to().atOffset(ZoneOffset.UTC));
+        }
+        if (filter.paymentMethod() != null) {
+            sql.append(" AND payment_method = :paymentMethod");
+            params.addValue("paymentMethod", filter.paymentMethod().name());
+        }
+        if (filter.searchPattern() != null) {
+            sql.append(" AND (lower(customer_name) LIKE :pattern ESCAPE '\\' OR lower(receipt_number) LIKE :pattern ESCAPE '\\')");
+            params.addValue("pattern", filter.searchPattern());
+        }
+
+        String column = SORT_COLUMNS.getOrDefault(filter.sortField(), "occurred_at");
+        String direction = filter.ascending() ? "ASC" : "DESC";
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction).append(", id ").append(direction);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(Math.max(fetchSize, 1));
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(sql.toString(), params, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    private SaleTransactionExportRow mapRow(ResultSet rs) throws SQLException {
+        OffsetDateTime occurredAt = rs.getObject("occurred_at", OffsetDateTime.class);
+        return new SaleTransactionExportRow(
+                rs.getString("receipt_number"),
+                occurredAt == null ? null : occurredAt.toInstant(),
+                rs.getString("customer_name"),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("refunded_amount"),
+                rs.getString("payment_method"),
+                rs.getString("status")
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.optimaxx.management.domain.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record SaleTransactionExportRow(String receiptNumber,
+                                       Instant occurredAt,
+                                       String customerName,
+                                       BigDecimal amount,
+                                       BigDecimal refundedAmount,
+                                       String paymentMethod,
+                                       String status) {
+}
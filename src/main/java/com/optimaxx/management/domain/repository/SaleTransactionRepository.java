@@ -1,17 +1,35 @@
 package com.optimaxx.management.domain.repository;
 
 import com.optimaxx.management.domain.model.Customer;
+import com.optimaxx.management.domain.model.SalePaymentMethod;
 import com.optimaxx.management.domain.model.SaleTransaction;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface SaleTransactionRepository extends JpaRepository<SaleTransaction, UUID> {
+public interface SaleTransactionRepository extends JpaRepository<SaleTransaction, UUID>,
+        JpaSpecificationExecutor<SaleTransaction>,
+        SaleTransactionExportRepository,
+        SalesRollupRepository {
+
+    @Override
+    @EntityGraph(attributePaths = "transactionType")
+    Page<SaleTransaction> findAll(Specification<SaleTransaction> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "transactionType")
+    List<SaleTransaction> findAll(Specification<SaleTransaction> spec, Sort sort);
 
     boolean existsByCustomerAndDeletedFalse(Customer customer);
 
@@ -22,44 +40,20 @@ public interface SaleTransactionRepository extends JpaRepository<SaleTransaction
 
     Optional<SaleTransaction> findTopByCustomerAndDeletedFalseOrderByOccurredAtDesc(Customer customer);
 
-    Optional<SaleTransaction> findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(UUID storeId, String prefix);
-
-    Optional<SaleTransaction> findTopByStoreIdAndInvoiceNumberStartingWithOrderByInvoiceNumberDesc(UUID storeId, String prefix);
-
     Optional<SaleTransaction> findByIdAndDeletedFalse(UUID id);
 
     Optional<SaleTransaction> findByReceiptNumberAndDeletedFalse(String receiptNumber);
 
-    boolean existsByStoreIdAndReceiptNumberAndDeletedFalse(UUID storeId, String receiptNumber);
-
-    List<SaleTransaction> findByDeletedFalseOrderByOccurredAtDesc();
-
-    List<SaleTransaction> findByOccurredAtGreaterThanEqualAndDeletedFalseOrderByOccurredAtDesc(Instant occurredAt);
-
-    // ── Analytics queries ────────────────────────────────────────────────────
-
-    @Query("SELECT coalesce(sum(s.amount), 0) FROM SaleTransaction s " +
-           "WHERE s.storeId = :storeId AND s.deleted = false " +
-           "  AND s.occurredAt >= :from AND s.occurredAt <= :to " +
-           "  AND s.status IN (com.optimaxx.management.domain.model.SaleTransactionStatus.COMPLETED, " +
-           "                   com.optimaxx.management.domain.model.SaleTransactionStatus.REFUNDED)")
-    BigDecimal sumRevenueInRange(@Param("storeId") UUID storeId,
-                                 @Param("from") Instant from,
-                                 @Param("to") Instant to);
-
-    @Query("SELECT count(s) FROM SaleTransaction s " +
-           "WHERE s.storeId = :storeId AND s.deleted = false " +
-           "  AND s.occurredAt >= :from AND s.occurredAt <= :to")
-    long countInRange(@Param("storeId") UUID storeId,
-                      @Param("from") Instant from,
-                      @Param("to") Instant to);
-
-    @Query("SELECT s.transactionType.category, coalesce(sum(s.amount), 0) " +
+    @Query("SELECT new com.optimaxx.management.domain.repository.SalePaymentMethodAggregate(" +
+           "       s.paymentMethod, count(s), sum(s.amount), sum(s.refundedAmount)) " +
            "FROM SaleTransaction s " +
            "WHERE s.storeId = :storeId AND s.deleted = false " +
-           "  AND s.occurredAt >= :from AND s.occurredAt <= :to " +
-           "GROUP BY s.transactionType.category")
-    List<Object[]> revenueByCategory(@Param("storeId") UUID storeId,
-                                     @Param("from") Instant from,
-                                     @Param("to") Instant to);
+           "  AND (:from IS NULL OR s.occurredAt >= :from) " +
+           "  AND (:to IS NULL OR s.occurredAt <= :to) " +
+           "  AND (:paymentMethod IS NULL OR s.paymentMethod = :paymentMethod) " +
+           "GROUP BY s.paymentMethod")
+    List<SalePaymentMethodAggregate> summarizeByPaymentMethod(@Param("storeId") UUID storeId,
+                                                              @Param("from") Instant from,
+                                                              @Param("to") Instant to,
+                                                              @Param("paymentMethod") SalePaymentMethod paymentMethod);
 }
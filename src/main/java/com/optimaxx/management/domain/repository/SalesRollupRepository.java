@@ -0,0 +1,33 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SalesRollupRepository {
+
+    /**
+     * Marks the hours of the given sale timestamps for rebuilding. Must run in the transaction that writes the
+     * sales so that the mark becomes visible together with them.
+     */
+    void markRollupBuckets(UUID storeId, Collection<Instant> occurredAts);
+
+    List<UUID> findRollupStoreIds();
+
+    /**
+     * Returns the start of the oldest marked hour below {@code openBucket}, or {@code openBucket} when every
+     * closed hour is rolled up. Rollups are complete for all buckets before the returned instant.
+     */
+    Instant findRollupWatermark(UUID storeId, Instant openBucket);
+
+    /**
+     * Consumes the marks of up to {@code limit} closed hours and rebuilds those hours and their days.
+     * Returns the number of hours rebuilt.
+     */
+    @Transactional
+    int rollUpBuckets(UUID storeId, Instant openBucket, int limit);
+
+    List<SalesRollupTotal> sumSalesRollup(UUID storeId, SalesRollupWindow window);
+}
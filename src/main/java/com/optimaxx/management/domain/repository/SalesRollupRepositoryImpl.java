@@ -0,0 +1,166 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class SalesRollupRepositoryImpl implements SalesRollupRepository {
+
+    private static final String MARK_SQL =
+            "INSERT INTO sales_rollup_marks (store_id, bucket_start) VALUES (?, ?)";
+
+    private static final String STORE_IDS_SQL =
+            "SELECT DISTINCT store_id FROM sales_rollup_marks";
+
+    private static final String WATERMARK_SQL =
+            "SELECT min(bucket_start) FROM sales_rollup_marks WHERE store_id = ? AND bucket_start < ?";
+
+    // Only marks committed before this statement are consumed; a sale still in flight keeps its mark for the
+    // next run, so the rebuild below always sees every sale whose mark it removed.
+    private static final String CLAIM_SQL =
+            "WITH batch AS (" +
+            "SELECT DISTINCT bucket_start FROM sales_rollup_marks " +
+            "WHERE store_id = :storeId AND bucket_start < :openBucket ORDER BY bucket_start LIMIT :limit" +
+            ") DELETE FROM sales_rollup_marks m USING batch b " +
+            "WHERE m.store_id = :storeId AND m.bucket_start = b.bucket_start RETURNING m.bucket_start";
+
+    private static final String CLEAR_HOURLY_SQL =
+            "DELETE FROM sales_rollup_hourly WHERE store_id = :storeId AND bucket_start IN (:buckets)";
+
+    // Rollups are keyed by transaction type; the category is joined at read time, so a type that changes
+    // category moves its rolled-up history along with its raw sales.
+    private static final String REBUILD_HOURLY_SQL =
+            "INSERT INTO sales_rollup_hourly " +
+            "(store_id, bucket_start, transaction_type_id, payment_method, transaction_count, gross_amount, revenue_amount, updated_at) " +
+            "SELECT s.store_id, date_trunc('hour', s.occurred_at, 'UTC'), s.transaction_type_id, s.payment_method, count(*), " +
+            "sum(s.amount), sum(CASE WHEN s.status IN ('COMPLETED', 'REFUNDED') THEN s.amount ELSE 0 END), now() " +
+            "FROM sale_transactions s " +
+            "WHERE s.store_id = :storeId AND s.is_deleted = FALSE " +
+            "AND s.occurred_at >= :from AND s.occurred_at < :to " +
+            "AND date_trunc('hour', s.occurred_at, 'UTC') IN (:buckets) " +
+            "GROUP BY s.store_id, date_trunc('hour', s.occurred_at, 'UTC'), s.transaction_type_id, s.payment_method";
+
+    private static final String CLEAR_DAILY_SQL =
+            "DELETE FROM sales_rollup_daily WHERE store_id = :storeId AND bucket_start IN (:days)";
+
+    private static final String REBUILD_DAILY_SQL =
+            "INSERT INTO sales_rollup_daily " +
+            "(store_id, bucket_start, transaction_type_id, payment_method, transaction_count, gross_amount, revenue_amount, updated_at) " +
+            "SELECT store_id, date_trunc('day', bucket_start, 'UTC'), transaction_type_id, payment_method, sum(transaction_count), " +
+            "sum(gross_amount), sum(revenue_amount), now() " +
+            "FROM sales_rollup_hourly " +
+            "WHERE store_id = :storeId AND bucket_start >= :from AND bucket_start < :to " +
+            "AND date_trunc('day', bucket_start, 'UTC') IN (:days) " +
+            "GROUP BY store_id, date_trunc('day', bucket_start, 'UTC'), transaction_type_id, payment_method";
+
+    private static final String TOTALS_SQL =
+            "SELECT t.category, sum(parts.transaction_count) AS transaction_count, sum(parts.gross_amount) AS gross_amount, " +
+            "sum(parts.revenue_amount) AS revenue_amount FROM (" +
+            "SELECT s.transaction_type_id, count(*) AS transaction_count, sum(s.amount) AS gross_amount, " +
+            "sum(CASE WHEN s.status IN ('COMPLETED', 'REFUNDED') THEN s.amount ELSE 0 END) AS revenue_amount " +
+            "FROM sale_transactions s " +
+            "WHERE s.store_id = :storeId AND s.is_deleted = FALSE " +
+            "AND ((s.occurred_at >= :from AND s.occurred_at < :rollupFrom) OR (s.occurred_at >= :rollupTo AND s.occurred_at <= :to)) " +
+            "GROUP BY s.transaction_type_id " +
+            "UNION ALL " +
+            "SELECT transaction_type_id, sum(transaction_count), sum(gross_amount), sum(revenue_amount) FROM sales_rollup_hourly " +
+            "WHERE store_id = :storeId " +
+            "AND ((bucket_start >= :rollupFrom AND bucket_start < :dailyFrom) OR (bucket_start >= :dailyTo AND bucket_start < :rollupTo)) " +
+            "GROUP BY transaction_type_id " +
+            "UNION ALL " +
+            "SELECT transaction_type_id, sum(transaction_count), sum(gross_amount), sum(revenue_amount) FROM sales_rollup_daily " +
+            "WHERE store_id = :storeId AND bucket_start >= :dailyFrom AND bucket_start < :dailyTo " +
+            "GROUP BY transaction_type_id" +
+            ") parts JOIN transaction_types t ON t.id = parts.transaction_type_id GROUP BY t.category";
+
+    private final DataSource dataSource;
+
+    public SalesRollupRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void markRollupBuckets(UUID storeId, Collection<Instant> occurredAts) {
+        if (occurredAts.isEmpty()) {
+            return;
+        }
+        TreeSet<Instant> buckets = new TreeSet<>();
+        occurredAts.forEach(occurredAt -> buckets.add(occurredAt.truncatedTo(ChronoUnit.HOURS)));
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach(bucket -> rows.add(new Object[]{storeId, bucket.atOffset(ZoneOffset.UTC)}));
+        new JdbcTemplate(dataSource).batchUpdate(MARK_SQL, rows);
+    }
+
+    @Override
+    public List<UUID> findRollupStoreIds() {
+        return new JdbcTemplate(dataSource).queryForList(STORE_IDS_SQL, UUID.class);
+    }
+
+    @Override
+    public Instant findRollupWatermark(UUID storeId, Instant openBucket) {
+        OffsetDateTime oldest = new JdbcTemplate(dataSource).queryForObject(WATERMARK_SQL, OffsetDateTime.class,
+                storeId, openBucket.atOffset(ZoneOffset.UTC));
+        return oldest == null ? openBucket : oldest.toInstant();
+    }
+
+    @Override
+    public int rollUpBuckets(UUID storeId, Instant openBucket, int limit) {
+        NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(dataSource);
+        MapSqlParameterSource claim = new MapSqlParameterSource("storeId", storeId)
+                .addValue("openBucket", openBucket.atOffset(ZoneOffset.UTC))
+                .addValue("limit", limit);
+        TreeSet<Instant> hours = new TreeSet<>(jdbc.query(CLAIM_SQL, claim,
+                (rs, rowNum) -> rs.getObject("bucket_start", OffsetDateTime.class).toInstant()));
+        if (hours.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource hourly = new MapSqlParameterSource("storeId", storeId)
+                .addValue("buckets", utc(hours))
+                .addValue("from", hours.first().atOffset(ZoneOffset.UTC))
+                .addValue("to", hours.last().plus(1, ChronoUnit.HOURS).atOffset(ZoneOffset.UTC));
+        jdbc.update(CLEAR_HOURLY_SQL, hourly);
+        jdbc.update(REBUILD_HOURLY_SQL, hourly);
+
+        TreeSet<Instant> days = new TreeSet<>();
+        hours.forEach(hour -> days.add(hour.truncatedTo(ChronoUnit.DAYS)));
+        MapSqlParameterSource daily = new MapSqlParameterSource("storeId", storeId)
+                .addValue("days", utc(days))
+                .addValue("from", days.first().atOffset(ZoneOffset.UTC))
+                .addValue("to", days.last().plus(1, ChronoUnit.DAYS).atOffset(ZoneOffset.UTC));
+        jdbc.update(CLEAR_DAILY_SQL, daily);
+        jdbc.update(REBUILD_DAILY_SQL, daily);
+        return hours.size();
+    }
+
+    @Override
+    public List<SalesRollupTotal> sumSalesRollup(UUID storeId, SalesRollupWindow window) {
+        MapSqlParameterSource params = new MapSqlParameterSource("storeId", storeId)
+                .addValue("from", window.from().atOffset(ZoneOffset.UTC))
+                .addValue("rollupFrom", window.rollupFrom().atOffset(ZoneOffset.UTC))
+                .addValue("dailyFrom", window.dailyFrom().atOffset(ZoneOffset.UTC))
+                .addValue("dailyTo", window.dailyTo().atOffset(ZoneOffset.UTC))
+                .addValue("rollupTo", window.rollupTo().atOffset(ZoneOffset.UTC))
+                .addValue("to", window.to().atOffset(ZoneOffset.UTC));
+        return new NamedParameterJdbcTemplate(dataSource).query(TOTALS_SQL, params,
+                (rs, rowNum) -> new SalesRollupTotal(
+                        rs.getString("category"),
+                        rs.getLong("transaction_count"),
+                        rs.getBigDecimal("gross_amount"),
+                        rs.getBigDecimal("revenue_amount")));
+    }
+
+    private static List<OffsetDateTime> utc(Collection<Instant> instants) {
+        return instants.stream().map(instant -> instant.atOffset(ZoneOffset.UTC)).toList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.optimaxx.management.domain.repository;
+
+import java.math.BigDecimal;
+
+public record SalesRollupTotal(String category,
+                               long transactionCount,
+                               BigDecimal grossAmount,
+                               BigDecimal revenueAmount) {
+}
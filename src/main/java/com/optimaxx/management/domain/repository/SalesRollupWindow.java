@@ -0,0 +1,16 @@
+package com.optimaxx.management.domain.repository;
+
+import java.time.Instant;
+
+/**
+ * Splits an inclusive {@code [from, to]} range into the parts served by each source: raw sales for
+ * {@code [from, rollupFrom)} and {@code [rollupTo, to]}, hourly rollups for {@code [rollupFrom, dailyFrom)} and
+ * {@code [dailyTo, rollupTo)}, and daily rollups for {@code [dailyFrom, dailyTo)}.
+ */
+public record SalesRollupWindow(Instant from,
+                                Instant rollupFrom,
+                                Instant dailyFrom,
+                                Instant dailyTo,
+                                Instant rollupTo,
+                                Instant to) {
+}
@@ -1,6 +1,7 @@
 package com.optimaxx.management.domain.repository;
 
 import com.optimaxx.management.domain.model.TransactionType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +13,8 @@ public interface TransactionTypeRepository extends JpaRepository<TransactionType
 
     Optional<TransactionType> findByIdAndDeletedFalse(UUID id);
 
+    List<TransactionType> findByIdInAndDeletedFalse(Collection<UUID> ids);
+
     List<TransactionType> findByDeletedFalseOrderBySortOrderAscNameAsc();
 
     List<TransactionType> findByActiveTrueAndDeletedFalseOrderBySortOrderAscNameAsc();
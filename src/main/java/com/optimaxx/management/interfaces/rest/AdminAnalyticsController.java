@@ -8,11 +8,13 @@ import com.optimaxx.management.interfaces.rest.dto.AnalyticsRevenueSummaryRespon
 import com.optimaxx.management.interfaces.rest.dto.AnalyticsStaffPerformanceResponse;
 import java.time.Instant;
 import java.util.List;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Admin Analytics Dashboard endpoints.
@@ -76,6 +78,16 @@ public class AdminAnalyticsController {
         return adminAnalyticsService.getLowStockAlerts();
     }
 
+    /**
+     * GET /api/v1/admin/analytics/low-stock/stream
+     * Server-sent events: a "snapshot" event with the current low-stock items, then a "low-stock"
+     * event whenever an item enters (ENTERED), moves within (UPDATED) or leaves (CLEARED) the set.
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts() {
+        return adminAnalyticsService.streamLowStockAlerts();
+    }
+
     /**
      * GET /api/v1/admin/analytics/high-risk-events
      * Returns the most recent high-risk audit events (e.g. deletions, role changes, refunds).
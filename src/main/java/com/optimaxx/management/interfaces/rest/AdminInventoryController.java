@@ -2,11 +2,18 @@ package com.optimaxx.management.interfaces.rest;
 
 import com.optimaxx.management.interfaces.rest.dto.AdminCreateInventoryItemRequest;
 import com.optimaxx.management.interfaces.rest.dto.AdminUpdateInventoryItemRequest;
+import com.optimaxx.management.interfaces.rest.dto.InventoryImportResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryItemCursorPageResponse;
 import com.optimaxx.management.interfaces.rest.dto.InventoryItemResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryStockAtResponse;
 import com.optimaxx.management.interfaces.rest.dto.InventoryStockChangeRequest;
+import com.optimaxx.management.security.InventoryImportService;
 import com.optimaxx.management.security.InventoryService;
+import com.optimaxx.management.security.InventorySnapshotService;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,16 +22,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/api/v1/admin/inventory/items")
 public class AdminInventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryImportService inventoryImportService;
+    private final InventorySnapshotService inventorySnapshotService;
 
-    public AdminInventoryController(InventoryService inventoryService) {
+    public AdminInventoryController(InventoryService inventoryService,
+                                    InventoryImportService inventoryImportService,
+                                    InventorySnapshotService inventorySnapshotService) {
         this.inventoryService = inventoryService;
+        this.inventoryImportService = inventoryImportService;
+        this.inventorySnapshotService = inventorySnapshotService;
     }
 
     @PostMapping
@@ -37,6 +52,21 @@ public class AdminInventoryController {
         return inventoryService.listItems();
     }
 
+    @GetMapping(params = "cursor")
+    public InventoryItemCursorPageResponse listByCursor(@RequestParam(value = "q", required = false) String query,
+                                                        @RequestParam(value = "category", required = false) String category,
+                                                        @RequestParam(value = "lowStock", defaultValue = "false") boolean lowStock,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "size", defaultValue = "50") int size,
+                                                        @RequestParam(value = "sort", defaultValue = "name,asc") String sort) {
+        return inventoryService.listItemsByCursor(query, category, lowStock, cursor, size, sort);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public InventoryImportResponse importItems(@RequestParam("file") MultipartFile file) {
+        return inventoryImportService.importCsv(file);
+    }
+
     @PatchMapping("/{itemId}")
     public InventoryItemResponse update(@PathVariable UUID itemId,
                                         @RequestBody AdminUpdateInventoryItemRequest request) {
@@ -54,4 +84,10 @@ public class AdminInventoryController {
                                              @RequestBody InventoryStockChangeRequest request) {
         return inventoryService.changeStock(itemId, request);
     }
+
+    @GetMapping("/{itemId}/stock")
+    public InventoryStockAtResponse stockAt(@PathVariable UUID itemId,
+                                            @RequestParam("at") Instant at) {
+        return inventorySnapshotService.stockAt(itemId, at);
+    }
 }
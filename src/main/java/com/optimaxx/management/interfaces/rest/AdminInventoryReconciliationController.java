@@ -0,0 +1,29 @@
+package com.optimaxx.management.interfaces.rest;
+
+import com.optimaxx.management.interfaces.rest.dto.InventoryReconciliationReportResponse;
+import com.optimaxx.management.security.InventoryReconciliationService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/inventory/reconciliation")
+public class AdminInventoryReconciliationController {
+
+    private final InventoryReconciliationService inventoryReconciliationService;
+
+    public AdminInventoryReconciliationController(InventoryReconciliationService inventoryReconciliationService) {
+        this.inventoryReconciliationService = inventoryReconciliationService;
+    }
+
+    @GetMapping
+    public InventoryReconciliationReportResponse lastReport() {
+        return inventoryReconciliationService.lastReport();
+    }
+
+    @PostMapping
+    public InventoryReconciliationReportResponse run() {
+        return inventoryReconciliationService.reconcileCurrentStore();
+    }
+}
@@ -0,0 +1,48 @@
+package com.optimaxx.management.interfaces.rest;
+
+import com.optimaxx.management.interfaces.rest.dto.CreateInventoryHoldRequest;
+import com.optimaxx.management.interfaces.rest.dto.InventoryHoldResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLookupResponse;
+import com.optimaxx.management.security.InventoryHoldService;
+import com.optimaxx.management.security.InventoryService;
+import java.util.UUID;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/sales/inventory")
+public class SalesInventoryController {
+
+    private final InventoryService inventoryService;
+    private final InventoryHoldService inventoryHoldService;
+
+    public SalesInventoryController(InventoryService inventoryService,
+                                    InventoryHoldService inventoryHoldService) {
+        this.inventoryService = inventoryService;
+        this.inventoryHoldService = inventoryHoldService;
+    }
+
+    @GetMapping("/lookup")
+    public InventoryLookupResponse lookup(@RequestParam("q") String query,
+                                          @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return inventoryService.lookup(query, limit);
+    }
+
+    @PostMapping("/holds")
+    public InventoryHoldResponse placeHold(@RequestBody CreateInventoryHoldRequest request) {
+        return inventoryHoldService.placeHold(request);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable UUID holdId) {
+        inventoryHoldService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
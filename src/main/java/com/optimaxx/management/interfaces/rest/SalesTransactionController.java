@@ -1,8 +1,12 @@
 package com.optimaxx.management.interfaces.rest;
 
+import com.optimaxx.management.domain.repository.SaleTransactionExportFilter;
+import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionBatchRequest;
 import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionRequest;
 import com.optimaxx.management.interfaces.rest.dto.ReceiptVerificationResponse;
 import com.optimaxx.management.interfaces.rest.dto.RefundSaleTransactionRequest;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionBatchResponse;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionCursorPageResponse;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionDetailResponse;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionResponse;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionSummaryResponse;
@@ -23,6 +27,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/sales/transactions")
@@ -39,6 +44,11 @@ public class SalesTransactionController {
         return salesTransactionService.create(request);
     }
 
+    @PostMapping("/batch")
+    public SaleTransactionBatchResponse createBatch(@RequestBody CreateSaleTransactionBatchRequest request) {
+        return salesTransactionService.createBatch(request);
+    }
+
     @GetMapping
     public Page<SaleTransactionResponse> list(@RequestParam(value = "from", required = false)
                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
@@ -52,6 +62,19 @@ public class SalesTransactionController {
         return salesTransactionService.list(from, to, query, paymentMethod, page, size, sort);
     }
 
+    @GetMapping(params = "cursor")
+    public SaleTransactionCursorPageResponse listByCursor(@RequestParam(value = "from", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                          @RequestParam(value = "to", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                          @RequestParam(value = "q", required = false) String query,
+                                                          @RequestParam(value = "paymentMethod", required = false) String paymentMethod,
+                                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                                          @RequestParam(value = "sort", defaultValue = "occurredAt,desc") String sort) {
+        return salesTransactionService.listByCursor(from, to, query, paymentMethod, cursor, size, sort);
+    }
+
     @GetMapping("/verify")
     public ReceiptVerificationResponse verify(@RequestParam("receiptNumber") String receiptNumber) {
         return salesTransactionService.verifyReceipt(receiptNumber);
@@ -80,6 +103,25 @@ public class SalesTransactionController {
                 .body(salesTransactionService.exportCsv(from, to, query, paymentMethod, sort));
     }
 
+    @GetMapping(value = "/export", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamCsv(@RequestParam(value = "from", required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                           @RequestParam(value = "to", required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                           @RequestParam(value = "q", required = false) String query,
+                                                           @RequestParam(value = "paymentMethod", required = false) String paymentMethod,
+                                                           @RequestParam(value = "sort", defaultValue = "occurredAt,desc") String sort,
+                                                           @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        SaleTransactionExportFilter filter = salesTransactionService.exportFilter(from, to, query, paymentMethod, sort);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=sales-transactions.csv")
+                .contentType(MediaType.parseMediaType("text/csv"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(outputStream -> salesTransactionService.writeCsv(filter, outputStream, gzip));
+    }
+
     @GetMapping("/{transactionId}/invoice")
     public ResponseEntity<byte[]> invoice(@PathVariable UUID transactionId) {
         return ResponseEntity.ok()
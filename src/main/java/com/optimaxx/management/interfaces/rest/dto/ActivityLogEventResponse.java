@@ -5,6 +5,7 @@ import java.util.UUID;
 
 public record ActivityLogEventResponse(UUID id,
                                        UUID actorUserId,
+                                       String actorUsername,
                                        String actorRole,
                                        String action,
                                        String resourceType,
@@ -0,0 +1,8 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.UUID;
+
+public record CreateInventoryHoldRequest(UUID cartId,
+                                         UUID inventoryItemId,
+                                         Integer quantity) {
+}
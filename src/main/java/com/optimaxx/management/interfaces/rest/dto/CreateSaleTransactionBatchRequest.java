@@ -0,0 +1,6 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.List;
+
+public record CreateSaleTransactionBatchRequest(List<CreateSaleTransactionRequest> transactions) {
+}
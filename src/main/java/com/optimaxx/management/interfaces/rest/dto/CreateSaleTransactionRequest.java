@@ -13,7 +13,21 @@ public record CreateSaleTransactionRequest(UUID transactionTypeId,
                                            String paymentReference,
                                            UUID inventoryItemId,
                                            Integer inventoryQuantity,
-                                           List<SaleTransactionLineItemRequest> items) {
+                                           List<SaleTransactionLineItemRequest> items,
+                                           UUID cartId) {
+
+    public CreateSaleTransactionRequest(UUID transactionTypeId,
+                                        UUID customerId,
+                                        String customerName,
+                                        BigDecimal amount,
+                                        String notes,
+                                        String paymentMethod,
+                                        String paymentReference,
+                                        UUID inventoryItemId,
+                                        Integer inventoryQuantity,
+                                        List<SaleTransactionLineItemRequest> items) {
+        this(transactionTypeId, customerId, customerName, amount, notes, paymentMethod, paymentReference, inventoryItemId, inventoryQuantity, items, null);
+    }
 
     public CreateSaleTransactionRequest(UUID transactionTypeId,
                                         UUID customerId,
@@ -24,6 +38,6 @@ public record CreateSaleTransactionRequest(UUID transactionTypeId,
                                         String paymentReference,
                                         UUID inventoryItemId,
                                         Integer inventoryQuantity) {
-        this(transactionTypeId, customerId, customerName, amount, notes, paymentMethod, paymentReference, inventoryItemId, inventoryQuantity, null);
+        this(transactionTypeId, customerId, customerName, amount, notes, paymentMethod, paymentReference, inventoryItemId, inventoryQuantity, null, null);
     }
 }
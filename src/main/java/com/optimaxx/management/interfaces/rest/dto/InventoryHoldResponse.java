@@ -0,0 +1,12 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InventoryHoldResponse(UUID holdId,
+                                    UUID cartId,
+                                    UUID inventoryItemId,
+                                    int quantity,
+                                    int availableQuantity,
+                                    Instant expiresAt) {
+}
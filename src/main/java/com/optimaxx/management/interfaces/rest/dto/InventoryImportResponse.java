@@ -0,0 +1,11 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.List;
+
+public record InventoryImportResponse(long processedRows,
+                                      long importedRows,
+                                      long unconfirmedRows,
+                                      long rejectedRows,
+                                      List<InventoryImportRowError> errors,
+                                      boolean errorsTruncated) {
+}
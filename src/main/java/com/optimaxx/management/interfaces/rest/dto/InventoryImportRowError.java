@@ -0,0 +1,6 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+public record InventoryImportRowError(long line,
+                                      String sku,
+                                      String error) {
+}
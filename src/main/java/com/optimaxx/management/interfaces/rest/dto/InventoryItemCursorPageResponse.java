@@ -0,0 +1,8 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.List;
+
+public record InventoryItemCursorPageResponse(List<InventoryItemResponse> items,
+                                              String nextCursor,
+                                              boolean hasNext) {
+}
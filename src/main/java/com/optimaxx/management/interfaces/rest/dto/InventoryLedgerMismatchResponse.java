@@ -0,0 +1,10 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.UUID;
+
+public record InventoryLedgerMismatchResponse(UUID itemId,
+                                              String sku,
+                                              int quantity,
+                                              long ledgerQuantity,
+                                              long drift) {
+}
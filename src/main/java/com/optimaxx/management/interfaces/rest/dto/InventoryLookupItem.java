@@ -0,0 +1,11 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.UUID;
+
+public record InventoryLookupItem(UUID id,
+                                  String sku,
+                                  String name,
+                                  String category,
+                                  int quantity,
+                                  int availableQuantity) {
+}
@@ -0,0 +1,7 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.List;
+
+public record InventoryLookupResponse(InventoryLookupItem exactMatch,
+                                      List<InventoryLookupItem> suggestions) {
+}
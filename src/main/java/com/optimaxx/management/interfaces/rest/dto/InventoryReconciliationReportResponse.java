@@ -0,0 +1,14 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record InventoryReconciliationReportResponse(UUID storeId,
+                                                    Instant startedAt,
+                                                    Instant finishedAt,
+                                                    long itemsChecked,
+                                                    long mismatchCount,
+                                                    List<InventoryLedgerMismatchResponse> mismatches,
+                                                    boolean mismatchesTruncated) {
+}
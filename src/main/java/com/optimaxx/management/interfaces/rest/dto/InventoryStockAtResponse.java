@@ -0,0 +1,11 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InventoryStockAtResponse(UUID itemId,
+                                       String sku,
+                                       Instant at,
+                                       long quantity,
+                                       Instant snapshotAsOf) {
+}
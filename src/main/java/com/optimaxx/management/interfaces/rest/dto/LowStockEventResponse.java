@@ -0,0 +1,8 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.time.Instant;
+
+public record LowStockEventResponse(String type,
+                                    AnalyticsLowStockItem item,
+                                    Instant occurredAt) {
+}
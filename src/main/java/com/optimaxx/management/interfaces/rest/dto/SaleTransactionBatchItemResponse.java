@@ -0,0 +1,7 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+public record SaleTransactionBatchItemResponse(int index,
+                                               String status,
+                                               SaleTransactionResponse transaction,
+                                               String error) {
+}
@@ -0,0 +1,8 @@
+package com.optimaxx.management.interfaces.rest.dto;
+
+import java.util.List;
+
+public record SaleTransactionBatchResponse(int createdCount,
+                                           int rejectedCount,
+                                           List<SaleTransactionBatchItemResponse> results) {
+}
@@ -0,0 +1,15 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({
+        LowStockProperties.class,
+        InventoryReconciliationProperties.class,
+        InventorySnapshotProperties.class,
+        InventoryLookupProperties.class,
+        InventoryHoldProperties.class
+})
+public class InventoryConfig {
+}
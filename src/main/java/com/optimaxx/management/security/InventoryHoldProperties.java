@@ -0,0 +1,7 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inventory.holds")
+public record InventoryHoldProperties(long ttlSeconds, long sweepIntervalMs) {
+}
@@ -0,0 +1,103 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.repository.InventoryHold;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.CreateInventoryHoldRequest;
+import com.optimaxx.management.interfaces.rest.dto.InventoryHoldResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * TTL-bound cart holds stored in {@code inventory_holds}. Every hold change also moves the item's
+ * {@code reserved_quantity} in the same statement, under the item's row lock, so a new hold and a sale decrement
+ * are checked against the same unheld stock and cannot both take the last units. A completing sale claims its
+ * cart's holds inside its own transaction; they come back if that transaction rolls back.
+ */
+@Service
+public class InventoryHoldService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryLookupIndex inventoryLookupIndex;
+    private final Duration ttl;
+
+    public InventoryHoldService(InventoryItemRepository inventoryItemRepository,
+                                InventoryLookupIndex inventoryLookupIndex,
+                                InventoryHoldProperties properties) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.inventoryLookupIndex = inventoryLookupIndex;
+        this.ttl = Duration.ofSeconds(properties.ttlSeconds() > 0 ? properties.ttlSeconds() : 900);
+    }
+
+    public InventoryHoldResponse placeHold(CreateInventoryHoldRequest request) {
+        if (request == null || request.cartId() == null || request.inventoryItemId() == null
+                || request.quantity() == null || request.quantity() <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "cartId, inventoryItemId and positive quantity are required");
+        }
+
+        UUID storeId = StoreContext.currentStoreId();
+        InventoryHold hold = new InventoryHold(UUID.randomUUID(), storeId, request.cartId(), request.inventoryItemId(),
+                request.quantity(), Instant.now().plus(ttl));
+        Optional<Integer> available = inventoryItemRepository.insertHold(hold);
+        if (available.isEmpty() && !releaseExpired(hold.inventoryItemId()).isEmpty()) {
+            available = inventoryItemRepository.insertHold(hold);
+        }
+        if (available.isEmpty()) {
+            inventoryItemRepository.findByIdAndDeletedFalse(hold.inventoryItemId())
+                    .filter(item -> storeId.equals(item.getStoreId()))
+                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
+            throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock");
+        }
+        inventoryLookupIndex.onItemsChanged(storeId, List.of(hold.inventoryItemId()));
+        return toResponse(hold, available.get());
+    }
+
+    public void releaseHold(UUID holdId) {
+        InventoryHold hold = inventoryItemRepository.deleteHold(holdId, StoreContext.currentStoreId())
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory hold not found"));
+        inventoryLookupIndex.onItemsChanged(hold.storeId(), List.of(hold.inventoryItemId()));
+    }
+
+    /**
+     * Takes the current store's holds of {@code cartId} on the given items for the sale written in the current
+     * transaction. The caller must already hold the item row locks. Returns the claimed holds.
+     */
+    public List<InventoryHold> claim(UUID cartId, Collection<UUID> inventoryItemIds) {
+        return inventoryItemRepository.claimHolds(StoreContext.currentStoreId(), cartId, inventoryItemIds);
+    }
+
+    /**
+     * Puts back holds claimed by a sale that was rejected within a larger transaction.
+     */
+    public void restore(List<InventoryHold> holds) {
+        inventoryItemRepository.restoreHolds(holds);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.holds.sweep-interval-ms:5000}")
+    public void sweepExpired() {
+        releaseExpired(null);
+    }
+
+    private List<InventoryHold> releaseExpired(UUID inventoryItemId) {
+        List<InventoryHold> released = inventoryItemRepository.releaseExpiredHolds(Instant.now(), inventoryItemId);
+        released.stream().collect(Collectors.groupingBy(InventoryHold::storeId,
+                        Collectors.mapping(InventoryHold::inventoryItemId, Collectors.toSet())))
+                .forEach(inventoryLookupIndex::onItemsChanged);
+        return released;
+    }
+
+    private static InventoryHoldResponse toResponse(InventoryHold hold, int availableQuantity) {
+        return new InventoryHoldResponse(hold.id(), hold.cartId(), hold.inventoryItemId(), hold.quantity(),
+                Math.max(availableQuantity, 0), hold.expiresAt());
+    }
+}
@@ -0,0 +1,336 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.repository.InventoryItemImportRow;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryImportResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryImportRowError;
+import com.optimaxx.management.security.audit.AuditEventType;
+import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@Service
+public class InventoryImportService {
+
+    static final int IMPORT_BATCH_SIZE = 1_000;
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final int MAX_FIELD_CHARS = 1_024;
+    private static final int MAX_SKU_LENGTH = 80;
+    private static final int MAX_NAME_LENGTH = 160;
+    private static final int MAX_CATEGORY_LENGTH = 80;
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final SecurityAuditService securityAuditService;
+    private final LowStockMonitor lowStockMonitor;
+    private final InventoryLookupIndex inventoryLookupIndex;
+
+    public InventoryImportService(InventoryItemRepository inventoryItemRepository,
+                                  SecurityAuditService securityAuditService,
+                                  LowStockMonitor lowStockMonitor,
+                                  InventoryLookupIndex inventoryLookupIndex) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.securityAuditService = securityAuditService;
+        this.lowStockMonitor = lowStockMonitor;
+        this.inventoryLookupIndex = inventoryLookupIndex;
+    }
+
+    public InventoryImportResponse importCsv(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "A CSV file is required");
+        }
+
+        try (InputStream input = file.getInputStream()) {
+            return importCsv(input);
+        } catch (IOException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, "CSV file could not be read");
+        }
+    }
+
+    /**
+     * Reads the CSV one record at a time and upserts accepted rows in batches of {@value #IMPORT_BATCH_SIZE}, so
+     * only the accepted SKUs are kept in memory, not the rows. Each batch commits on its own; rejected rows are
+     * reported by line number and do not stop the import. A SKU repeated within the file is rejected after its
+     * first accepted row: the upsert keeps the quantity of a SKU that is already active, so a later row would be
+     * counted as imported while its quantity was dropped. A failure part-way through is still audited with the
+     * counts reached.
+     */
+    public InventoryImportResponse importCsv(InputStream input) throws IOException {
+        UUID storeId = StoreContext.currentStoreId();
+        CsvRecordReader csv = new CsvRecordReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024));
+
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new ResponseStatusException(BAD_REQUEST, "CSV file is empty");
+        }
+        Map<String, Integer> columns = resolveColumns(header);
+
+        ImportTally tally = new ImportTally();
+        List<InventoryItemImportRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Long> batchLines = new ArrayList<>(IMPORT_BATCH_SIZE);
+        Map<String, Long> acceptedSkuLines = new HashMap<>();
+
+        try {
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+
+                long line = csv.recordLine();
+                tally.processed++;
+                String sku = normalizeSku(field(record, columns, "sku"));
+                String error = validate(record, columns, sku);
+                if (error != null) {
+                    tally.reject(line, sku, error);
+                    continue;
+                }
+                Long firstLine = acceptedSkuLines.putIfAbsent(sku, line);
+                if (firstLine != null) {
+                    tally.reject(line, sku, "Duplicate sku, first given on line " + firstLine);
+                    continue;
+                }
+
+                batch.add(new InventoryItemImportRow(
+                        sku,
+                        field(record, columns, "name").trim(),
+                        trimToNull(field(record, columns, "category")),
+                        parseCount(field(record, columns, "quantity")),
+                        parseCount(field(record, columns, "minquantity"))
+                ));
+                batchLines.add(line);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    flush(storeId, batch, batchLines, tally);
+                }
+            }
+            flush(storeId, batch, batchLines, tally);
+        } catch (IOException | RuntimeException exception) {
+            // Batches flushed before the failure stay committed, so the import is still recorded as it stood.
+            finish(storeId, tally, false);
+            throw exception;
+        }
+        finish(storeId, tally, true);
+
+        return new InventoryImportResponse(tally.processed, tally.imported, tally.unconfirmed, tally.rejected,
+                List.copyOf(tally.errors), tally.rejected > tally.errors.size());
+    }
+
+    private void finish(UUID storeId, ImportTally tally, boolean completed) {
+        lowStockMonitor.invalidate(storeId);
+        inventoryLookupIndex.invalidate(storeId);
+
+        securityAuditService.log(
+                AuditEventType.INVENTORY_ITEMS_IMPORTED,
+                null,
+                "INVENTORY",
+                "bulk-import",
+                "{\"processed\":" + tally.processed + ",\"imported\":" + tally.imported + ",\"unconfirmed\":" + tally.unconfirmed
+                        + ",\"rejected\":" + tally.rejected + ",\"completed\":" + completed + "}"
+        );
+    }
+
+    /**
+     * Writes one batch. A driver that executes a row without reporting its update count leaves that row
+     * unconfirmed rather than imported; a zero count means the row was not written.
+     */
+    private void flush(UUID storeId, List<InventoryItemImportRow> batch, List<Long> batchLines, ImportTally tally) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int[] counts = inventoryItemRepository.upsertImportRows(storeId, List.copyOf(batch));
+        for (int i = 0; i < batch.size(); i++) {
+            int count = i < counts.length ? counts[i] : 0;
+            if (count > 0) {
+                tally.imported++;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                tally.unconfirmed++;
+            } else {
+                tally.reject(batchLines.get(i), batch.get(i).sku(), "Row was not written");
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private Map<String, Integer> resolveColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.putIfAbsent(name, i);
+        }
+        if (!columns.containsKey("sku") || !columns.containsKey("name")) {
+            throw new ResponseStatusException(BAD_REQUEST, "CSV header must include sku and name columns");
+        }
+        return columns;
+    }
+
+    private String validate(List<String> record, Map<String, Integer> columns, String sku) {
+        String name = trimToNull(field(record, columns, "name"));
+        String category = trimToNull(field(record, columns, "category"));
+
+        if (sku == null || name == null) {
+            return "sku and name are required";
+        }
+        if (sku.length() > MAX_SKU_LENGTH) {
+            return "sku must be at most " + MAX_SKU_LENGTH + " characters";
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return "name must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        if (category != null && category.length() > MAX_CATEGORY_LENGTH) {
+            return "category must be at most " + MAX_CATEGORY_LENGTH + " characters";
+        }
+        if (parseCount(field(record, columns, "quantity")) < 0) {
+            return "quantity must be a non-negative integer";
+        }
+        if (parseCount(field(record, columns, "minquantity")) < 0) {
+            return "minQuantity must be a non-negative integer";
+        }
+        return null;
+    }
+
+    private String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private String normalizeSku(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses an optional non-negative count; blank means zero and anything unparseable yields {@code -1}.
+     */
+    private int parseCount(String value) {
+        String trimmed = trimToNull(value);
+        if (trimmed == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Integer.parseInt(trimmed), -1);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static final class ImportTally {
+        private long processed;
+        private long imported;
+        private long unconfirmed;
+        private long rejected;
+        private final List<InventoryImportRowError> errors = new ArrayList<>();
+
+        private void reject(long line, String sku, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new InventoryImportRowError(line, sku, error));
+            }
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks. Field length
+     * is capped so a malformed file cannot make a single record grow without bound.
+     */
+    private static final class CsvRecordReader {
+
+        private final PushbackReader reader;
+        private long line = 1;
+        private long recordLine;
+
+        private CsvRecordReader(BufferedReader reader) {
+            this.reader = new PushbackReader(reader, 1);
+        }
+
+        private long recordLine() {
+            return recordLine;
+        }
+
+        private List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            reader.unread(c);
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while ((c = reader.read()) != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next == '"') {
+                            append(field, '"');
+                            continue;
+                        }
+                        quoted = false;
+                        if (next != -1) {
+                            reader.unread(next);
+                        }
+                        continue;
+                    }
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(field, (char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        int next = reader.read();
+                        if (next != '\n' && next != -1) {
+                            reader.unread(next);
+                        }
+                    }
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    append(field, (char) c);
+                }
+            }
+
+            if (quoted) {
+                throw new ResponseStatusException(BAD_REQUEST, "Unterminated quoted field starting on line " + recordLine);
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private void append(StringBuilder field, char c) {
+            if (field.length() >= MAX_FIELD_CHARS) {
+                throw new ResponseStatusException(BAD_REQUEST, "CSV field too long on line " + recordLine);
+            }
+            field.append(c);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLookupItem;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-store in-memory SKU index for till scanning: a hash map for exact scans and a sorted map for prefix
+ * autocomplete. Entries carry the unheld quantity, so stock in other carts' holds is not offered again.
+ * <p>
+ * Stores are loaded at startup; a store that warm-up has not reached yet is loaded on the first lookup's
+ * thread, and concurrent first lookups share that load. After a commit, writers pass the ids of the items they
+ * changed and the background loader re-reads those rows; stale stores are re-read in the background and merged
+ * into the live maps. Every read-and-apply for a store runs under that store's lock, so whatever is applied last
+ * was also read last and an older state can never overwrite a newer one.
+ */
+@Component
+public class InventoryLookupIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLookupIndex.class);
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final Duration refreshInterval;
+    private final Map<UUID, StoreIndex> stores = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("inventory-lookup-loader").factory());
+
+    public InventoryLookupIndex(InventoryItemRepository inventoryItemRepository, InventoryLookupProperties properties) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.refreshInterval = Duration.ofSeconds(properties.refreshSeconds() > 0 ? properties.refreshSeconds() : 300);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        loader.execute(() -> {
+            try {
+                inventoryItemRepository.findActiveStoreIds().forEach(storeId -> reload(index(storeId)));
+            } catch (RuntimeException ex) {
+                log.warn("Inventory lookup warm-up failed; stores will load on first lookup", ex);
+            }
+        });
+    }
+
+    public InventoryLookupItem findBySku(UUID storeId, String sku) {
+        return loadedIndex(storeId).bySku.get(sku);
+    }
+
+    public List<InventoryLookupItem> findByPrefix(UUID storeId, String prefix, int limit) {
+        NavigableMap<String, InventoryLookupItem> matches = loadedIndex(storeId).sorted
+                .subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        List<InventoryLookupItem> items = new ArrayList<>(Math.min(limit, 16));
+        for (InventoryLookupItem item : matches.values()) {
+            if (items.size() == limit) {
+                break;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    public void onItemChanged(InventoryItem item) {
+        if (item != null && item.getId() != null && item.getStoreId() != null) {
+            onItemsChanged(item.getStoreId(), List.of(item.getId()));
+        }
+    }
+
+    public void onItemRemoved(InventoryItem item) {
+        onItemChanged(item);
+    }
+
+    /**
+     * Re-reads the given items of a store once the current transaction commits. Used for changes that do not go
+     * through an entity, such as holds placed, released or expired.
+     */
+    public void onItemsChanged(UUID storeId, Collection<UUID> inventoryItemIds) {
+        if (storeId == null || inventoryItemIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            StoreIndex index = stores.get(storeId);
+            if (index != null && index.pending.addAll(inventoryItemIds)) {
+                loader.execute(() -> refreshItems(index));
+            }
+        });
+    }
+
+    public void invalidate(UUID storeId) {
+        afterCommit(() -> {
+            StoreIndex index = stores.get(storeId);
+            if (index != null) {
+                loader.execute(() -> refresh(index));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private StoreIndex index(UUID storeId) {
+        return stores.computeIfAbsent(storeId, StoreIndex::new);
+    }
+
+    private StoreIndex loadedIndex(UUID storeId) {
+        StoreIndex index = index(storeId);
+        Instant loadedAt = index.loadedAt;
+        if (loadedAt == null) {
+            index.lock.lock();
+            try {
+                if (index.loadedAt == null) {
+                    reload(index);
+                }
+            } finally {
+                index.lock.unlock();
+            }
+        } else if (loadedAt.plus(refreshInterval).isBefore(Instant.now()) && index.refreshing.compareAndSet(false, true)) {
+            loader.execute(() -> refresh(index));
+        }
+        return index;
+    }
+
+    private void refresh(StoreIndex index) {
+        try {
+            reload(index);
+        } catch (RuntimeException ex) {
+            log.warn("Inventory lookup refresh failed for store {}", index.storeId, ex);
+        } finally {
+            index.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Reads the whole store and merges it into the live maps: rows are put, SKUs that are gone are removed, and
+     * lookups never see a half-filled index.
+     */
+    private void reload(StoreIndex index) {
+        index.lock.lock();
+        try {
+            index.pending.clear();
+            Set<String> loadedSkus = new HashSet<>();
+            for (InventoryItem item : inventoryItemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(index.storeId)) {
+                index.put(toView(item));
+                loadedSkus.add(item.getSku());
+            }
+            index.bySku.keySet().stream().filter(sku -> !loadedSkus.contains(sku)).toList().forEach(index::remove);
+            index.loadedAt = Instant.now();
+        } finally {
+            index.lock.unlock();
+        }
+    }
+
+    private void refreshItems(StoreIndex index) {
+        index.lock.lock();
+        try {
+            if (index.loadedAt == null || index.pending.isEmpty()) {
+                index.pending.clear();
+                return;
+            }
+            List<UUID> itemIds = List.copyOf(index.pending);
+            index.pending.removeAll(itemIds);
+            for (InventoryItem item : inventoryItemRepository.findAllById(itemIds)) {
+                if (item.isDeleted() || !index.storeId.equals(item.getStoreId())) {
+                    index.remove(item.getSku());
+                } else {
+                    index.put(toView(item));
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Inventory lookup item refresh failed for store {}", index.storeId, ex);
+        } finally {
+            index.lock.unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static InventoryLookupItem toView(InventoryItem item) {
+        return new InventoryLookupItem(item.getId(), item.getSku(), item.getName(), item.getCategory(), item.getQuantity(),
+                Math.max(item.getQuantity() - item.getReservedQuantity(), 0));
+    }
+
+    private static final class StoreIndex {
+        private final UUID storeId;
+        private final Map<String, InventoryLookupItem> bySku = new ConcurrentHashMap<>();
+        private final NavigableMap<String, InventoryLookupItem> sorted = new ConcurrentSkipListMap<>();
+        private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile Instant loadedAt;
+
+        private StoreIndex(UUID storeId) {
+            this.storeId = storeId;
+        }
+
+        private void put(InventoryLookupItem item) {
+            bySku.put(item.sku(), item);
+            sorted.put(item.sku(), item);
+        }
+
+        private void remove(String sku) {
+            bySku.remove(sku);
+            sorted.remove(sku);
+        }
+    }
+}
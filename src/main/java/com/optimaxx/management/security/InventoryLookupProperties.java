@@ -0,0 +1,7 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inventory.lookup")
+public record InventoryLookupProperties(long refreshSeconds) {
+}
@@ -0,0 +1,7 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inventory.reconciliation")
+public record InventoryReconciliationProperties(String cron, int chunkSize, int parallelism) {
+}
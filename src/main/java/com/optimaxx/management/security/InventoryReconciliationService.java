@@ -0,0 +1,184 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.repository.InventoryLedgerChunk;
+import com.optimaxx.management.domain.repository.InventoryLedgerMismatch;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLedgerMismatchResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryReconciliationReportResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Verifies that every item's quantity equals the net of its movement ledger. Items are split into primary-key
+ * ranges and each range is checked by one aggregate query on a virtual thread; the number of ranges in flight
+ * is capped so the job never takes more than a few pooled connections.
+ */
+@Service
+public class InventoryReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReconciliationService.class);
+    private static final UUID MIN_ITEM_ID = new UUID(0L, 0L);
+    private static final int MAX_REPORTED_MISMATCHES = 500;
+    private static final Comparator<InventoryLedgerMismatchResponse> BY_DRIFT =
+            Comparator.comparingLong((InventoryLedgerMismatchResponse mismatch) -> Math.abs(mismatch.drift())).reversed()
+                    .thenComparing(InventoryLedgerMismatchResponse::sku);
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Map<UUID, InventoryReconciliationReportResponse> lastReports = new ConcurrentHashMap<>();
+    private final Set<UUID> runningStores = ConcurrentHashMap.newKeySet();
+    private final Counter runCounter;
+    private final Counter mismatchCounter;
+    private final Timer runTimer;
+
+    public InventoryReconciliationService(InventoryMovementRepository inventoryMovementRepository,
+                                          InventoryReconciliationProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.chunkSize = properties.chunkSize() > 0 ? properties.chunkSize() : 5_000;
+        this.parallelism = properties.parallelism() > 0 ? properties.parallelism() : 4;
+
+        this.runCounter = Counter.builder("optimaxx.inventory.ledger.reconciliation.runs")
+                .description("Completed inventory ledger reconciliation runs")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("optimaxx.inventory.ledger.mismatches.found")
+                .description("Ledger mismatches found across reconciliation runs")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("optimaxx.inventory.ledger.reconciliation.duration")
+                .description("Duration of one store's inventory ledger reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.inventory.ledger.mismatches", this, InventoryReconciliationService::currentMismatchCount)
+                .description("Items whose quantity disagrees with their movement ledger at the last run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${inventory.reconciliation.cron:-}")
+    public void reconcileAllStores() {
+        for (UUID storeId : inventoryMovementRepository.findLedgerStoreIds()) {
+            try {
+                InventoryReconciliationReportResponse report = reconcile(storeId);
+                if (report.mismatchCount() > 0) {
+                    log.warn("Inventory ledger drift in store {}: {} of {} items", storeId, report.mismatchCount(), report.itemsChecked());
+                }
+            } catch (RuntimeException ex) {
+                log.error("Inventory ledger reconciliation failed for store {}", storeId, ex);
+            }
+        }
+    }
+
+    public InventoryReconciliationReportResponse reconcileCurrentStore() {
+        return reconcile(StoreContext.currentStoreId());
+    }
+
+    public InventoryReconciliationReportResponse lastReport() {
+        InventoryReconciliationReportResponse report = lastReports.get(StoreContext.currentStoreId());
+        if (report == null) {
+            throw new ResponseStatusException(NOT_FOUND, "No reconciliation has run for this store yet");
+        }
+        return report;
+    }
+
+    InventoryReconciliationReportResponse reconcile(UUID storeId) {
+        if (!runningStores.add(storeId)) {
+            throw new ResponseStatusException(CONFLICT, "Reconciliation is already running for this store");
+        }
+        try {
+            InventoryReconciliationReportResponse report = runTimer.record(() -> scan(storeId));
+            lastReports.put(storeId, report);
+            runCounter.increment();
+            mismatchCounter.increment(report.mismatchCount());
+            return report;
+        } finally {
+            runningStores.remove(storeId);
+        }
+    }
+
+    private InventoryReconciliationReportResponse scan(UUID storeId) {
+        Instant startedAt = Instant.now();
+        long itemsChecked = 0;
+        List<Future<List<InventoryLedgerMismatch>>> chunks = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(parallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            UUID after = MIN_ITEM_ID;
+            InventoryLedgerChunk chunk;
+            while ((chunk = inventoryMovementRepository.findLedgerChunk(storeId, after, chunkSize)) != null) {
+                itemsChecked += chunk.itemCount();
+                UUID from = after;
+                UUID to = chunk.lastItemId();
+                inFlight.acquire();
+                chunks.add(executor.submit(() -> {
+                    try {
+                        return inventoryMovementRepository.findLedgerMismatches(storeId, from, to);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                if (chunk.itemCount() < chunkSize) {
+                    break;
+                }
+                after = to;
+            }
+
+            long mismatchCount = 0;
+            List<InventoryLedgerMismatchResponse> mismatches = new ArrayList<>();
+            for (Future<List<InventoryLedgerMismatch>> future : chunks) {
+                for (InventoryLedgerMismatch mismatch : future.get()) {
+                    mismatchCount++;
+                    mismatches.add(toResponse(mismatch));
+                }
+            }
+            mismatches.sort(BY_DRIFT);
+            List<InventoryLedgerMismatchResponse> reported = mismatches.size() > MAX_REPORTED_MISMATCHES
+                    ? List.copyOf(mismatches.subList(0, MAX_REPORTED_MISMATCHES))
+                    : List.copyOf(mismatches);
+
+            return new InventoryReconciliationReportResponse(storeId, startedAt, Instant.now(), itemsChecked,
+                    mismatchCount, reported, mismatchCount > reported.size());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Reconciliation was interrupted");
+        } catch (ExecutionException ex) {
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Reconciliation failed", ex.getCause());
+        }
+    }
+
+    private double currentMismatchCount() {
+        return lastReports.values().stream().mapToLong(InventoryReconciliationReportResponse::mismatchCount).sum();
+    }
+
+    private static InventoryLedgerMismatchResponse toResponse(InventoryLedgerMismatch mismatch) {
+        return new InventoryLedgerMismatchResponse(
+                mismatch.inventoryItemId(),
+                mismatch.sku(),
+                mismatch.quantity(),
+                mismatch.ledgerQuantity(),
+                mismatch.quantity() - mismatch.ledgerQuantity()
+        );
+    }
+}
@@ -7,13 +7,21 @@ import com.optimaxx.management.domain.repository.InventoryItemRepository;
 import com.optimaxx.management.domain.repository.InventoryMovementRepository;
 import com.optimaxx.management.interfaces.rest.dto.AdminCreateInventoryItemRequest;
 import com.optimaxx.management.interfaces.rest.dto.AdminUpdateInventoryItemRequest;
+import com.optimaxx.management.interfaces.rest.dto.InventoryItemCursorPageResponse;
 import com.optimaxx.management.interfaces.rest.dto.InventoryItemResponse;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLookupResponse;
 import com.optimaxx.management.interfaces.rest.dto.InventoryStockChangeRequest;
 import com.optimaxx.management.security.audit.AuditEventType;
 import com.optimaxx.management.security.audit.SecurityAuditService;
+import jakarta.persistence.criteria.Predicate;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -24,16 +32,26 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @Service
 public class InventoryService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+    private static final int MAX_LOOKUP_SUGGESTIONS = 50;
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("name", "sku");
+
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
     private final SecurityAuditService securityAuditService;
+    private final LowStockMonitor lowStockMonitor;
+    private final InventoryLookupIndex inventoryLookupIndex;
 
     public InventoryService(InventoryItemRepository inventoryItemRepository,
                             InventoryMovementRepository inventoryMovementRepository,
-                            SecurityAuditService securityAuditService) {
+                            SecurityAuditService securityAuditService,
+                            LowStockMonitor lowStockMonitor,
+                            InventoryLookupIndex inventoryLookupIndex) {
         this.inventoryItemRepository = inventoryItemRepository;
         this.inventoryMovementRepository = inventoryMovementRepository;
         this.securityAuditService = securityAuditService;
+        this.lowStockMonitor = lowStockMonitor;
+        this.inventoryLookupIndex = inventoryLookupIndex;
     }
 
     @Transactional
@@ -43,7 +61,7 @@ public class InventoryService {
         }
 
         String normalizedSku = request.sku().trim().toUpperCase();
-        if (inventoryItemRepository.existsBySkuAndDeletedFalse(normalizedSku)) {
+        if (inventoryItemRepository.existsByStoreIdAndSkuAndDeletedFalse(StoreContext.currentStoreId(), normalizedSku)) {
             throw new ResponseStatusException(BAD_REQUEST, "SKU already exists");
         }
 
@@ -57,6 +75,12 @@ public class InventoryService {
         item.setDeleted(false);
 
         InventoryItem saved = inventoryItemRepository.save(item);
+        if (saved.getQuantity() != 0) {
+            recordMovement(saved, InventoryMovementType.IN, saved.getQuantity(), "Opening balance",
+                    "INVENTORY_ITEM_CREATED", "inventory:" + saved.getId() + ":opening");
+        }
+        lowStockMonitor.onItemCreated(saved);
+        inventoryLookupIndex.onItemChanged(saved);
 
         securityAuditService.log(AuditEventType.INVENTORY_ITEM_CREATED, null, "INVENTORY", saved.getSku(), "{\"quantity\":" + saved.getQuantity() + "}");
         return toResponse(saved);
@@ -64,13 +88,64 @@ public class InventoryService {
 
     @Transactional(readOnly = true)
     public List<InventoryItemResponse> listItems() {
-        var storeId = StoreContext.currentStoreId();
-        return inventoryItemRepository.findByDeletedFalseOrderByNameAsc().stream()
-                .filter(item -> (item.getStoreId() == null || storeId.equals(item.getStoreId())))
+        return inventoryItemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(StoreContext.currentStoreId()).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public InventoryItemCursorPageResponse listItemsByCursor(String query,
+                                                             String category,
+                                                             boolean lowStockOnly,
+                                                             String cursor,
+                                                             int size,
+                                                             String sort) {
+        if (size <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "size must be > 0");
+        }
+
+        int limit = Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        KeysetCursors.SortSpec sortSpec = KeysetCursors.parseSort(sort, "name", true, KEYSET_SORT_FIELDS);
+
+        Specification<InventoryItem> specification = listSpecification(query, category, lowStockOnly);
+        String normalizedCursor = trimToNull(cursor);
+        if (normalizedCursor != null) {
+            KeysetCursors.Cursor after = KeysetCursors.decode(normalizedCursor, sortSpec);
+            specification = specification.and(KeysetCursors.after(sortSpec.field(), after.value(), after.id(), sortSpec.ascending()));
+        }
+
+        Sort order = KeysetCursors.toSort(sortSpec);
+        List<InventoryItem> rows = inventoryItemRepository.findBy(specification,
+                fluentQuery -> fluentQuery.sortBy(order).limit(limit + 1).all());
+
+        boolean hasNext = rows.size() > limit;
+        List<InventoryItem> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? encodeCursor(sortSpec, pageRows.get(pageRows.size() - 1)) : null;
+
+        return new InventoryItemCursorPageResponse(pageRows.stream().map(this::toResponse).toList(), nextCursor, hasNext);
+    }
+
+    /**
+     * Till lookup served from the in-memory index: an exact SKU hit for scans plus SKU-prefix suggestions
+     * for typed input.
+     */
+    public InventoryLookupResponse lookup(String query, int limit) {
+        String code = trimToNull(query);
+        if (code == null) {
+            throw new ResponseStatusException(BAD_REQUEST, "q is required");
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be > 0");
+        }
+
+        UUID storeId = StoreContext.currentStoreId();
+        String normalizedCode = code.toUpperCase(Locale.ROOT);
+        return new InventoryLookupResponse(
+                inventoryLookupIndex.findBySku(storeId, normalizedCode),
+                inventoryLookupIndex.findByPrefix(storeId, normalizedCode, Math.min(limit, MAX_LOOKUP_SUGGESTIONS))
+        );
+    }
+
     @Transactional
     public InventoryItemResponse updateItem(UUID itemId, AdminUpdateInventoryItemRequest request) {
         if (request == null) {
@@ -87,8 +162,11 @@ public class InventoryService {
             item.setCategory(trimToNull(request.category()));
         }
         if (request.minQuantity() != null) {
+            int previousMinQuantity = item.getMinQuantity();
             item.setMinQuantity(request.minQuantity());
+            lowStockMonitor.onThresholdChanged(item, previousMinQuantity);
         }
+        inventoryLookupIndex.onItemChanged(item);
 
         return toResponse(item);
     }
@@ -99,47 +177,101 @@ public class InventoryService {
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
 
         item.setDeleted(true);
+        lowStockMonitor.onItemRemoved(item);
+        inventoryLookupIndex.onItemRemoved(item);
         securityAuditService.log(AuditEventType.INVENTORY_ITEM_DELETED, null, "INVENTORY", item.getSku(), "{}");
     }
 
+    /**
+     * Applies a manual movement. OUT takes only unheld stock, {@code quantity - reserved_quantity}, checked by the
+     * same statement that writes it, so units held for a cart stay on the shelf just as they do for sales.
+     */
     @Transactional
     public InventoryItemResponse changeStock(UUID itemId, InventoryStockChangeRequest request) {
         if (request == null || request.movementType() == null || request.quantity() == null || request.quantity() <= 0) {
             throw new ResponseStatusException(BAD_REQUEST, "movementType and positive quantity are required");
         }
 
-        InventoryItem item = inventoryItemRepository.findByIdAndDeletedFalse(itemId)
+        // The item is loaded read-only and stock is written by single statements, so neither a concurrent
+        // movement nor an edit saved since the load is overwritten.
+        InventoryItem item = inventoryItemRepository.findReadOnlyByIdAndDeletedFalse(itemId)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
 
         int delta = switch (request.movementType()) {
             case IN -> request.quantity();
             case OUT -> -request.quantity();
-            case ADJUST -> request.quantity();
+            // ADJUST sets an absolute level, so its ledger entry is the difference to the locked quantity.
+            case ADJUST -> request.quantity() - inventoryItemRepository.lockQuantity(itemId)
+                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
         };
 
-        if (request.movementType() == InventoryMovementType.OUT && item.getQuantity() < request.quantity()) {
-            throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock");
-        }
+        boolean out = request.movementType() == InventoryMovementType.OUT;
+        int quantity = (out
+                ? inventoryItemRepository.decrementQuantityIfAvailable(itemId, request.quantity())
+                : inventoryItemRepository.incrementQuantity(itemId, delta))
+                .orElseThrow(() -> out
+                        ? new ResponseStatusException(BAD_REQUEST, "Insufficient stock")
+                        : new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
 
-        if (request.movementType() == InventoryMovementType.ADJUST) {
-            item.setQuantity(request.quantity());
-        } else {
-            item.setQuantity(item.getQuantity() + delta);
-        }
+        int previousQuantity = quantity - delta;
+        item.setQuantity(quantity);
+
+        recordMovement(item, request.movementType(), delta, trimToNull(request.reason()), null, null);
+        lowStockMonitor.onStockChanged(item, previousQuantity);
+        inventoryLookupIndex.onItemChanged(item);
+
+        securityAuditService.log(AuditEventType.INVENTORY_STOCK_CHANGED, null, "INVENTORY", item.getSku(), "{\"movement\":\"" + request.movementType().name() + "\",\"delta\":" + delta + "}");
+
+        return toResponse(item);
+    }
 
+    private void recordMovement(InventoryItem item,
+                                InventoryMovementType movementType,
+                                int delta,
+                                String reason,
+                                String sourceType,
+                                String idempotencyKey) {
         InventoryMovement movement = new InventoryMovement();
         movement.setInventoryItem(item);
-        movement.setMovementType(request.movementType());
+        movement.setMovementType(movementType);
         movement.setQuantityDelta(delta);
-        movement.setReason(trimToNull(request.reason()));
+        movement.setReason(reason);
         movement.setMovedAt(Instant.now());
+        movement.setSourceType(sourceType);
+        movement.setIdempotencyKey(idempotencyKey);
         movement.setStoreId(StoreContext.currentStoreId());
         movement.setDeleted(false);
         inventoryMovementRepository.save(movement);
+    }
 
-        securityAuditService.log(AuditEventType.INVENTORY_STOCK_CHANGED, null, "INVENTORY", item.getSku(), "{\"movement\":\"" + request.movementType().name() + "\",\"delta\":" + delta + "}");
+    private Specification<InventoryItem> listSpecification(String query, String category, boolean lowStockOnly) {
+        UUID storeId = StoreContext.currentStoreId();
+        String normalizedQuery = trimToNull(query);
+        String normalizedCategory = trimToNull(category);
 
-        return toResponse(item);
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("storeId"), storeId));
+            predicates.add(cb.isFalse(root.get("deleted")));
+            if (normalizedCategory != null) {
+                predicates.add(cb.equal(root.get("category"), normalizedCategory));
+            }
+            if (lowStockOnly) {
+                predicates.add(cb.le(root.get("quantity"), root.get("minQuantity")));
+            }
+            if (normalizedQuery != null) {
+                String pattern = "%" + KeysetCursors.escapeLike(normalizedQuery.toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.<String>get("name")), pattern, '\\'),
+                        cb.like(cb.lower(root.<String>get("sku")), pattern, '\\')
+                ));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private String encodeCursor(KeysetCursors.SortSpec sortSpec, InventoryItem last) {
+        return KeysetCursors.encode(sortSpec, last.getId(), "sku".equals(sortSpec.field()) ? last.getSku() : last.getName());
     }
 
     private InventoryItemResponse toResponse(InventoryItem item) {
@@ -0,0 +1,11 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inventory.snapshots")
+public record InventorySnapshotProperties(String cron,
+                                          long lagSeconds,
+                                          int retentionDays,
+                                          int chunkSize,
+                                          int archiveBatchSize) {
+}
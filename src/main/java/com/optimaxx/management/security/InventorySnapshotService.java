@@ -0,0 +1,105 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryLedgerChunk;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.domain.repository.InventoryStockPoint;
+import com.optimaxx.management.interfaces.rest.dto.InventoryStockAtResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Writes periodic per-item stock snapshots and moves movements that are older than the retention window and
+ * covered by a snapshot into {@code inventory_movements_archive}. Stock at any point in time is then the latest
+ * snapshot plus a short tail of movements, however long the ledger has been running.
+ */
+@Service
+public class InventorySnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventorySnapshotService.class);
+    private static final UUID MIN_ITEM_ID = new UUID(0L, 0L);
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final Duration lag;
+    private final Duration retention;
+    private final int chunkSize;
+    private final int archiveBatchSize;
+
+    public InventorySnapshotService(InventoryItemRepository inventoryItemRepository,
+                                    InventoryMovementRepository inventoryMovementRepository,
+                                    InventorySnapshotProperties properties) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.lag = Duration.ofSeconds(properties.lagSeconds() > 0 ? properties.lagSeconds() : 300);
+        this.retention = Duration.ofDays(properties.retentionDays() > 0 ? properties.retentionDays() : 180);
+        this.chunkSize = properties.chunkSize() > 0 ? properties.chunkSize() : 5_000;
+        this.archiveBatchSize = properties.archiveBatchSize() > 0 ? properties.archiveBatchSize() : 5_000;
+    }
+
+    /**
+     * Snapshots are taken {@code lag} behind the clock so that movements still in open transactions, whose
+     * {@code moved_at} is set before commit, land after the snapshot instead of being missed by it.
+     */
+    @Scheduled(cron = "${inventory.snapshots.cron:-}")
+    public void snapshotAndCompact() {
+        Instant asOf = Instant.now().minus(lag);
+        long snapshots = 0;
+        for (UUID storeId : inventoryMovementRepository.findLedgerStoreIds()) {
+            snapshots += snapshotStore(storeId, asOf);
+        }
+        long archived = archiveMovements(Instant.now().minus(retention));
+        log.info("Inventory snapshot as of {}: {} snapshots written, {} movements archived", asOf, snapshots, archived);
+    }
+
+    public long snapshotStore(UUID storeId, Instant asOf) {
+        long written = 0;
+        UUID after = MIN_ITEM_ID;
+        InventoryLedgerChunk chunk;
+        while ((chunk = inventoryMovementRepository.findLedgerChunk(storeId, after, chunkSize)) != null) {
+            written += inventoryMovementRepository.snapshotStock(storeId, after, chunk.lastItemId(), asOf);
+            if (chunk.itemCount() < chunkSize) {
+                break;
+            }
+            after = chunk.lastItemId();
+        }
+        return written;
+    }
+
+    /**
+     * Archives in short batches, each its own transaction, so the hot table is never locked for long.
+     */
+    public long archiveMovements(Instant cutoff) {
+        long archived = 0;
+        int moved;
+        do {
+            moved = inventoryMovementRepository.archiveMovements(cutoff, archiveBatchSize);
+            archived += moved;
+        } while (moved == archiveBatchSize);
+        return archived;
+    }
+
+    @Transactional(readOnly = true)
+    public InventoryStockAtResponse stockAt(UUID itemId, Instant at) {
+        if (at == null) {
+            throw new ResponseStatusException(BAD_REQUEST, "at is required");
+        }
+
+        InventoryItem item = inventoryItemRepository.findByIdAndDeletedFalse(itemId)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
+
+        InventoryStockPoint point = inventoryMovementRepository.findStockAt(item.getId(), at);
+        return new InventoryStockAtResponse(item.getId(), item.getSku(), at, point.quantity(), point.snapshotAsOf());
+    }
+}
@@ -3,10 +3,21 @@ package com.optimaxx.management.security;
 import com.optimaxx.management.domain.model.InventoryItem;
 import com.optimaxx.management.domain.model.InventoryMovement;
 import com.optimaxx.management.domain.model.InventoryMovementType;
+import com.optimaxx.management.domain.repository.InventoryHold;
 import com.optimaxx.management.domain.repository.InventoryItemRepository;
 import com.optimaxx.management.domain.repository.InventoryMovementRepository;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -16,13 +27,24 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @Component
 public class InventoryStockCoordinator {
 
+    private static final String MOVEMENT_ITEM_FOREIGN_KEY = "fk_inventory_movements_item";
+
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
+    private final LowStockMonitor lowStockMonitor;
+    private final InventoryLookupIndex inventoryLookupIndex;
+    private final InventoryHoldService inventoryHoldService;
 
     public InventoryStockCoordinator(InventoryItemRepository inventoryItemRepository,
-                                     InventoryMovementRepository inventoryMovementRepository) {
+                                     InventoryMovementRepository inventoryMovementRepository,
+                                     LowStockMonitor lowStockMonitor,
+                                     InventoryLookupIndex inventoryLookupIndex,
+                                     InventoryHoldService inventoryHoldService) {
         this.inventoryItemRepository = inventoryItemRepository;
         this.inventoryMovementRepository = inventoryMovementRepository;
+        this.lowStockMonitor = lowStockMonitor;
+        this.inventoryLookupIndex = inventoryLookupIndex;
+        this.inventoryHoldService = inventoryHoldService;
     }
 
     public InventoryItem consume(UUID inventoryItemId,
@@ -31,37 +53,17 @@ public class InventoryStockCoordinator {
                                  String sourceType,
                                  UUID sourceId,
                                  String idempotencyKey) {
-        if (idempotencyKey != null) {
-            var existing = inventoryMovementRepository.findByIdempotencyKeyAndDeletedFalse(idempotencyKey);
-            if (existing.isPresent()) {
-                return existing.get().getInventoryItem();
-            }
-        }
-
-        InventoryItem item = inventoryItemRepository.findByIdAndDeletedFalse(inventoryItemId)
-                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
-
         if (quantity <= 0) {
             throw new ResponseStatusException(BAD_REQUEST, "inventoryQuantity must be greater than zero");
         }
-        if (item.getQuantity() < quantity) {
-            throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock");
-        }
 
-        item.setQuantity(item.getQuantity() - quantity);
-
-        InventoryMovement movement = new InventoryMovement();
-        movement.setInventoryItem(item);
-        movement.setMovementType(InventoryMovementType.OUT);
-        movement.setQuantityDelta(-quantity);
-        movement.setReason(reason);
-        movement.setMovedAt(Instant.now());
-        movement.setSourceType(sourceType);
-        movement.setSourceId(sourceId);
-        movement.setIdempotencyKey(idempotencyKey);
-        movement.setStoreId(StoreContext.currentStoreId());
-        movement.setDeleted(false);
-        inventoryMovementRepository.save(movement);
+        if (!recordMovement(inventoryItemId, InventoryMovementType.OUT, -quantity, reason, sourceType, sourceId, idempotencyKey)) {
+            return replayedItem(idempotencyKey, inventoryItemId);
+        }
+        InventoryItem item = activeItem(inventoryItemId);
+        item.setQuantity(decrement(inventoryItemId, quantity));
+        lowStockMonitor.onStockChanged(item, item.getQuantity() + quantity);
+        inventoryLookupIndex.onItemChanged(item);
 
         return item;
     }
@@ -72,35 +74,201 @@ public class InventoryStockCoordinator {
                                  String sourceType,
                                  UUID sourceId,
                                  String idempotencyKey) {
-        if (idempotencyKey != null) {
-            var existing = inventoryMovementRepository.findByIdempotencyKeyAndDeletedFalse(idempotencyKey);
-            if (existing.isPresent()) {
-                return existing.get().getInventoryItem();
+        if (quantity <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "inventoryQuantity must be greater than zero");
+        }
+
+        if (!recordMovement(inventoryItemId, InventoryMovementType.IN, quantity, reason, sourceType, sourceId, idempotencyKey)) {
+            return replayedItem(idempotencyKey, inventoryItemId);
+        }
+        InventoryItem item = activeItem(inventoryItemId);
+        item.setQuantity(inventoryItemRepository.incrementQuantity(inventoryItemId, quantity)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found")));
+        lowStockMonitor.onStockChanged(item, item.getQuantity() - quantity);
+        inventoryLookupIndex.onItemChanged(item);
+
+        return item;
+    }
+
+    /**
+     * Converts the current store's holds of the cart on these items into the sale being written in the current
+     * transaction, so the stock they reserved becomes available to it. The item rows are locked in id order
+     * first: no other cart can place a hold on the units this sale is about to take, and the claim rolls back
+     * together with the sale.
+     */
+    public void claimHolds(UUID cartId, Collection<UUID> inventoryItemIds) {
+        if (cartId == null || inventoryItemIds.isEmpty()) {
+            return;
+        }
+        inventoryItemRepository.lockAvailableQuantities(inventoryItemIds);
+        inventoryHoldService.claim(cartId, inventoryItemIds);
+    }
+
+    /**
+     * Takes stock for a batch of sales. The items are row-locked in id order before anything is read, so the
+     * unheld quantities seen here cannot change underneath the batch. Each sale then claims its cart's holds on
+     * its own items and is accepted while all of its lines still fit; a sale that does not fit is rejected on
+     * its own, and only the holds it claimed are put back, since another sale of the batch may share the cart.
+     * Movements are written afterwards through {@link #recordConsumptions} once the accepted sales have ids.
+     */
+    public StockAllocation allocate(List<StockDemand> demands) {
+        Set<UUID> itemIds = new HashSet<>();
+        demands.forEach(demand -> itemIds.addAll(demand.quantities().keySet()));
+        if (itemIds.isEmpty()) {
+            return new StockAllocation(Map.of(), Map.of());
+        }
+
+        Map<UUID, Integer> available = new HashMap<>(inventoryItemRepository.lockAvailableQuantities(itemIds));
+        Map<Integer, String> rejections = new HashMap<>();
+        Map<UUID, Integer> totals = new TreeMap<>();
+        for (int index = 0; index < demands.size(); index++) {
+            StockDemand demand = demands.get(index);
+            List<InventoryHold> claimed = inventoryHoldService.claim(demand.cartId(), demand.quantities().keySet());
+            claimed.forEach(hold -> available.computeIfPresent(hold.inventoryItemId(), (id, units) -> units + hold.quantity()));
+
+            String error = reserve(demand.quantities(), available);
+            if (error == null) {
+                demand.quantities().forEach((itemId, quantity) -> totals.merge(itemId, quantity, Integer::sum));
+                continue;
             }
+            inventoryHoldService.restore(claimed);
+            claimed.forEach(hold -> available.computeIfPresent(hold.inventoryItemId(), (id, units) -> units - hold.quantity()));
+            rejections.put(index, error);
         }
 
-        InventoryItem item = inventoryItemRepository.findByIdAndDeletedFalse(inventoryItemId)
-                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
+        Map<UUID, Integer> remaining = new HashMap<>();
+        for (Map.Entry<UUID, Integer> total : totals.entrySet()) {
+            remaining.put(total.getKey(), decrement(total.getKey(), total.getValue()));
+        }
+        Map<UUID, InventoryItem> items = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findReadOnlyByIdIn(totals.keySet())) {
+            int taken = totals.get(item.getId());
+            item.setQuantity(remaining.get(item.getId()));
+            lowStockMonitor.onStockChanged(item, item.getQuantity() + taken);
+            inventoryLookupIndex.onItemChanged(item);
+            items.put(item.getId(), item);
+        }
+        return new StockAllocation(items, rejections);
+    }
 
-        if (quantity <= 0) {
-            throw new ResponseStatusException(BAD_REQUEST, "inventoryQuantity must be greater than zero");
+    /**
+     * Writes the movements for stock already taken by {@link #allocate}. The keys come from freshly generated
+     * sale ids, so they are written with one batched insert rather than checked one by one.
+     */
+    public void recordConsumptions(List<StockConsumption> consumptions, Map<UUID, InventoryItem> items) {
+        if (consumptions.isEmpty()) {
+            return;
         }
 
-        item.setQuantity(item.getQuantity() + quantity);
-
-        InventoryMovement movement = new InventoryMovement();
-        movement.setInventoryItem(item);
-        movement.setMovementType(InventoryMovementType.IN);
-        movement.setQuantityDelta(quantity);
-        movement.setReason(reason);
-        movement.setMovedAt(Instant.now());
-        movement.setSourceType(sourceType);
-        movement.setSourceId(sourceId);
-        movement.setIdempotencyKey(idempotencyKey);
-        movement.setStoreId(StoreContext.currentStoreId());
-        movement.setDeleted(false);
-        inventoryMovementRepository.save(movement);
+        Instant movedAt = Instant.now();
+        UUID storeId = StoreContext.currentStoreId();
+        List<InventoryMovement> movements = new ArrayList<>(consumptions.size());
+        for (StockConsumption consumption : consumptions) {
+            InventoryMovement movement = new InventoryMovement();
+            movement.setInventoryItem(items.get(consumption.inventoryItemId()));
+            movement.setMovementType(InventoryMovementType.OUT);
+            movement.setQuantityDelta(-consumption.quantity());
+            movement.setReason(consumption.reason());
+            movement.setMovedAt(movedAt);
+            movement.setSourceType(consumption.sourceType());
+            movement.setSourceId(consumption.sourceId());
+            movement.setIdempotencyKey(consumption.idempotencyKey());
+            movement.setStoreId(storeId);
+            movement.setDeleted(false);
+            movements.add(movement);
+        }
+        inventoryMovementRepository.saveAll(movements);
+    }
 
-        return item;
+    private String reserve(Map<UUID, Integer> demand, Map<UUID, Integer> available) {
+        for (Map.Entry<UUID, Integer> entry : demand.entrySet()) {
+            Integer onHand = available.get(entry.getKey());
+            if (onHand == null) {
+                return "Inventory item not found";
+            }
+            if (onHand < entry.getValue()) {
+                return "Insufficient stock";
+            }
+        }
+        demand.forEach((itemId, quantity) -> available.merge(itemId, -quantity, Integer::sum));
+        return null;
+    }
+
+    /**
+     * Inserts the movement row before touching stock. The unique idempotency index turns a retried key into a
+     * no-op insert, so the stock update is skipped without a prior lookup; if the stock update then fails, the
+     * surrounding transaction rolls the movement back with it. The item is only loaded after a real insert, so
+     * replaying a key for an item deleted since still answers with the original result instead of a 404.
+     */
+    private boolean recordMovement(UUID inventoryItemId,
+                                   InventoryMovementType movementType,
+                                   int quantityDelta,
+                                   String reason,
+                                   String sourceType,
+                                   UUID sourceId,
+                                   String idempotencyKey) {
+        int inserted;
+        try {
+            inserted = inventoryMovementRepository.insertIfAbsent(
+                    UUID.randomUUID(),
+                    StoreContext.currentStoreId(),
+                    inventoryItemId,
+                    movementType.name(),
+                    quantityDelta,
+                    reason,
+                    Instant.now(),
+                    sourceType,
+                    sourceId,
+                    idempotencyKey
+            );
+        } catch (DataIntegrityViolationException ex) {
+            // Only the item foreign key means the item id does not exist at all; anything else is a real failure.
+            if (!violates(ex, MOVEMENT_ITEM_FOREIGN_KEY)) {
+                throw ex;
+            }
+            throw new ResponseStatusException(NOT_FOUND, "Inventory item not found");
+        }
+        return inserted > 0 || idempotencyKey == null;
+    }
+
+    private static boolean violates(Throwable ex, String constraintName) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && constraintName.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private InventoryItem replayedItem(String idempotencyKey, UUID inventoryItemId) {
+        return inventoryMovementRepository.findByIdempotencyKeyAndDeletedFalse(idempotencyKey)
+                .map(InventoryMovement::getInventoryItem)
+                .or(() -> inventoryItemRepository.findById(inventoryItemId))
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
+    }
+
+    private InventoryItem activeItem(UUID inventoryItemId) {
+        return inventoryItemRepository.findReadOnlyByIdAndDeletedFalse(inventoryItemId)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Inventory item not found"));
+    }
+
+    private int decrement(UUID inventoryItemId, int quantity) {
+        return inventoryItemRepository.decrementQuantityIfAvailable(inventoryItemId, quantity)
+                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Insufficient stock"));
+    }
+
+    public record StockDemand(UUID cartId, Map<UUID, Integer> quantities) {
+    }
+
+    public record StockAllocation(Map<UUID, InventoryItem> items, Map<Integer, String> rejections) {
+    }
+
+    public record StockConsumption(UUID inventoryItemId,
+                                   int quantity,
+                                   String reason,
+                                   String sourceType,
+                                   UUID sourceId,
+                                   String idempotencyKey) {
     }
 }
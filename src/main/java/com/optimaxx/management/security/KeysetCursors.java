@@ -0,0 +1,108 @@
+package com.optimaxx.management.security;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Keyset pagination shared by the list endpoints. A page is ordered by one sort field plus the id as tie-breaker,
+ * and the opaque cursor carries the sort it was issued for together with the last row's id and sort value, so a
+ * cursor replayed against a different sort is rejected instead of skipping rows.
+ */
+final class KeysetCursors {
+
+    private KeysetCursors() {
+    }
+
+    /**
+     * Parses {@code field[,asc|desc]}. A missing or unrecognised direction falls back to {@code defaultAscending}.
+     */
+    static SortSpec parseSort(String sort, String defaultField, boolean defaultAscending, Set<String> allowedFields) {
+        String field = defaultField;
+        boolean ascending = defaultAscending;
+
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.trim().split(",");
+            field = parts[0].trim();
+            if (parts.length > 1) {
+                String direction = parts[1].trim().toLowerCase(Locale.ROOT);
+                ascending = "asc".equals(direction) || (!"desc".equals(direction) && defaultAscending);
+            }
+        }
+
+        if (!allowedFields.contains(field)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Unsupported sort field");
+        }
+        return new SortSpec(field, ascending);
+    }
+
+    static Sort toSort(SortSpec sortSpec) {
+        Sort.Direction direction = sortSpec.ascending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, sortSpec.field()).and(Sort.by(direction, "id"));
+    }
+
+    static String encode(SortSpec sortSpec, UUID lastId, String lastValue) {
+        String raw = sortSpec.field() + "|" + (sortSpec.ascending() ? "asc" : "desc") + "|" + lastId + "|" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String cursor, SortSpec sortSpec) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+        if (!sortSpec.field().equals(parts[0]) || sortSpec.ascending() != "asc".equals(parts[1])) {
+            throw new ResponseStatusException(BAD_REQUEST, "Cursor does not match requested sort");
+        }
+        return new Cursor(parseValue(parts[2], UUID::fromString), parts[3]);
+    }
+
+    static <T> T parseValue(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Rows strictly after {@code (value, lastId)} in the page order.
+     */
+    static <E, Y extends Comparable<? super Y>> Specification<E> after(String field, Y value, UUID lastId, boolean ascending) {
+        return (root, criteriaQuery, cb) -> {
+            Path<Y> path = root.get(field);
+            Path<UUID> idPath = root.get("id");
+            Predicate beyondValue = ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            Predicate beyondId = ascending ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+            return cb.or(beyondValue, cb.and(cb.equal(path, value), beyondId));
+        };
+    }
+
+    /**
+     * Escapes LIKE wildcards for patterns matched with {@code '\\'} as the escape character.
+     */
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    record SortSpec(String field, boolean ascending) {
+    }
+
+    record Cursor(UUID id, String value) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.AnalyticsLowStockItem;
+import com.optimaxx.management.interfaces.rest.dto.LowStockEventResponse;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Keeps each store's low-stock set in memory and pushes threshold crossings to SSE subscribers. Stock writers
+ * report every quantity or threshold change, so the set is maintained incrementally; a periodic reload from the
+ * partial low-stock index picks up changes made by other nodes. Reloads and incremental changes for a store run
+ * under that store's lock, so a change committed while a reload is reading is applied after the reload lands
+ * instead of being overwritten by it.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Comparator<AnalyticsLowStockItem> BY_DEFICIT =
+            Comparator.comparingInt(AnalyticsLowStockItem::deficit).reversed().thenComparing(AnalyticsLowStockItem::sku);
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final Duration refreshInterval;
+    private final long streamTimeoutMillis;
+    private final Map<UUID, StoreState> stores = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("low-stock-notifier").factory());
+
+    public LowStockMonitor(InventoryItemRepository inventoryItemRepository, LowStockProperties properties) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.refreshInterval = Duration.ofSeconds(properties.refreshSeconds() > 0 ? properties.refreshSeconds() : 60);
+        this.streamTimeoutMillis = Duration.ofSeconds(properties.streamTimeoutSeconds() > 0 ? properties.streamTimeoutSeconds() : 1800).toMillis();
+    }
+
+    public List<AnalyticsLowStockItem> lowStockItems(UUID storeId) {
+        return snapshot(storeId).items().values().stream().sorted(BY_DEFICIT).toList();
+    }
+
+    public SseEmitter subscribe(UUID storeId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(storeId, ignored -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(ignored -> emitters.remove(emitter));
+
+        List<AnalyticsLowStockItem> current = lowStockItems(storeId);
+        notifier.execute(() -> send(emitters, emitter, "snapshot", current));
+        return emitter;
+    }
+
+    public void onStockChanged(InventoryItem item, int previousQuantity) {
+        publish(item, isLow(previousQuantity, item.getMinQuantity()), !item.isDeleted());
+    }
+
+    public void onThresholdChanged(InventoryItem item, int previousMinQuantity) {
+        publish(item, isLow(item.getQuantity(), previousMinQuantity), !item.isDeleted());
+    }
+
+    public void onItemCreated(InventoryItem item) {
+        publish(item, false, true);
+    }
+
+    public void onItemRemoved(InventoryItem item) {
+        publish(item, isLow(item.getQuantity(), item.getMinQuantity()), false);
+    }
+
+    public void invalidate(UUID storeId) {
+        afterCommit(() -> {
+            StoreState state = stores.get(storeId);
+            if (state != null) {
+                state.lock.lock();
+                try {
+                    state.snapshot = null;
+                } finally {
+                    state.lock.unlock();
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        notifier.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    private void publish(InventoryItem item, boolean wasLow, boolean active) {
+        if (item == null || item.getId() == null || item.getStoreId() == null) {
+            return;
+        }
+
+        UUID storeId = item.getStoreId();
+        AnalyticsLowStockItem view = toView(item);
+        boolean nowLow = active && isLow(item.getQuantity(), item.getMinQuantity());
+        afterCommit(() -> apply(storeId, view, wasLow, nowLow));
+    }
+
+    private void apply(UUID storeId, AnalyticsLowStockItem view, boolean wasLow, boolean nowLow) {
+        StoreState state = stores.get(storeId);
+        if (state != null) {
+            state.lock.lock();
+            try {
+                if (state.snapshot != null) {
+                    if (nowLow) {
+                        state.snapshot.items().put(view.id(), view);
+                    } else {
+                        state.snapshot.items().remove(view.id());
+                    }
+                }
+            } finally {
+                state.lock.unlock();
+            }
+        }
+
+        String type = wasLow == nowLow ? (nowLow ? "UPDATED" : null) : (nowLow ? "ENTERED" : "CLEARED");
+        Set<SseEmitter> emitters = subscribers.get(storeId);
+        if (type == null || emitters == null || emitters.isEmpty()) {
+            return;
+        }
+
+        LowStockEventResponse event = new LowStockEventResponse(type, view, Instant.now());
+        notifier.execute(() -> emitters.forEach(emitter -> send(emitters, emitter, "low-stock", event)));
+    }
+
+    private StoreSnapshot snapshot(UUID storeId) {
+        StoreState state = stores.computeIfAbsent(storeId, ignored -> new StoreState());
+        StoreSnapshot snapshot = state.snapshot;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+
+        state.lock.lock();
+        try {
+            snapshot = state.snapshot;
+            if (isFresh(snapshot)) {
+                return snapshot;
+            }
+            Map<UUID, AnalyticsLowStockItem> items = new ConcurrentHashMap<>();
+            inventoryItemRepository.findLowStockItems(storeId).forEach(item -> items.put(item.getId(), toView(item)));
+            StoreSnapshot loaded = new StoreSnapshot(items, Instant.now());
+            state.snapshot = loaded;
+            return loaded;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    private boolean isFresh(StoreSnapshot snapshot) {
+        return snapshot != null && snapshot.loadedAt().plus(refreshInterval).isAfter(Instant.now());
+    }
+
+    private void send(Set<SseEmitter> emitters, SseEmitter emitter, String name, Object payload) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(payload));
+        } catch (IOException | IllegalStateException ex) {
+            emitters.remove(emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean isLow(int quantity, int minQuantity) {
+        return quantity <= minQuantity;
+    }
+
+    private static AnalyticsLowStockItem toView(InventoryItem item) {
+        return new AnalyticsLowStockItem(
+                item.getId(),
+                item.getSku(),
+                item.getName(),
+                item.getCategory(),
+                item.getQuantity(),
+                item.getMinQuantity(),
+                item.getMinQuantity() - item.getQuantity()
+        );
+    }
+
+    private record StoreSnapshot(Map<UUID, AnalyticsLowStockItem> items, Instant loadedAt) {
+    }
+
+    private static final class StoreState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile StoreSnapshot snapshot;
+    }
+}
@@ -0,0 +1,7 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inventory.low-stock")
+public record LowStockProperties(long refreshSeconds, long streamTimeoutSeconds) {
+}
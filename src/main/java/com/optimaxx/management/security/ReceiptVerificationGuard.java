@@ -0,0 +1,218 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.interfaces.rest.dto.ReceiptVerificationResponse;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class ReceiptVerificationGuard {
+
+    private static final String KEY_PREFIX = "sales:receipt-verify:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxFailures;
+    private final Duration window;
+    private final Duration resultTtl;
+    private final ExpiringMap<Integer> failures;
+    private final ExpiringMap<ReceiptVerificationResponse> results;
+
+    public ReceiptVerificationGuard(ReceiptVerificationProperties properties,
+                                    ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+        this.maxFailures = properties.maxFailures() > 0 ? properties.maxFailures() : 5;
+        this.window = Duration.ofSeconds(properties.windowSeconds() > 0 ? properties.windowSeconds() : 60);
+        this.resultTtl = Duration.ofSeconds(Math.max(properties.resultCacheSeconds(), 0));
+        int maxEntries = properties.maxTrackedReceipts() > 0 ? properties.maxTrackedReceipts() : 10_000;
+        this.failures = new ExpiringMap<>(maxEntries);
+        this.results = new ExpiringMap<>(maxEntries);
+    }
+
+    public void checkAllowed(String receiptNumber) {
+        if (redisTemplate != null) {
+            try {
+                String failedCount = redisTemplate.opsForValue().get(failKey(receiptNumber));
+                if (failedCount != null && Integer.parseInt(failedCount) >= maxFailures) {
+                    throw tooManyAttempts();
+                }
+                return;
+            } catch (ResponseStatusException exception) {
+                throw exception;
+            } catch (RuntimeException ignored) {
+                // Redis is an optional shared layer; fall back to this node's counters.
+            }
+        }
+
+        Integer failedCount = failures.get(receiptNumber);
+        if (failedCount != null && failedCount >= maxFailures) {
+            throw tooManyAttempts();
+        }
+    }
+
+    public void onFailedVerification(String receiptNumber) {
+        if (redisTemplate != null) {
+            try {
+                Long failedCount = redisTemplate.opsForValue().increment(failKey(receiptNumber));
+                if (failedCount != null && failedCount == 1L) {
+                    redisTemplate.expire(failKey(receiptNumber), window);
+                }
+                return;
+            } catch (RuntimeException ignored) {
+                // Keep throttling active in-memory when Redis is unavailable.
+            }
+        }
+
+        failures.update(receiptNumber, 1, count -> count + 1, window);
+    }
+
+    public void onSuccessfulVerification(String receiptNumber, ReceiptVerificationResponse response) {
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.delete(failKey(receiptNumber));
+                if (!resultTtl.isZero()) {
+                    redisTemplate.opsForValue().set(resultKey(receiptNumber), encode(response), resultTtl);
+                }
+                return;
+            } catch (RuntimeException ignored) {
+                // Fall through to local bookkeeping.
+            }
+        }
+
+        failures.remove(receiptNumber);
+        if (!resultTtl.isZero()) {
+            results.put(receiptNumber, response, resultTtl);
+        }
+    }
+
+    public Optional<ReceiptVerificationResponse> cachedResult(String receiptNumber) {
+        if (resultTtl.isZero()) {
+            return Optional.empty();
+        }
+
+        if (redisTemplate != null) {
+            try {
+                String cached = redisTemplate.opsForValue().get(resultKey(receiptNumber));
+                return cached == null ? Optional.empty() : Optional.of(decode(receiptNumber, cached));
+            } catch (RuntimeException ignored) {
+                // Treat an unreachable cache as a miss.
+            }
+        }
+
+        return Optional.ofNullable(results.get(receiptNumber));
+    }
+
+    public void evict(String receiptNumber) {
+        if (receiptNumber == null) {
+            return;
+        }
+
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.delete(resultKey(receiptNumber));
+            } catch (RuntimeException ignored) {
+                // Cached results expire on their own shortly.
+            }
+        }
+        results.remove(receiptNumber);
+    }
+
+    public void clearAll() {
+        failures.clear();
+        results.clear();
+    }
+
+    private ResponseStatusException tooManyAttempts() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many verify attempts. Try again later.");
+    }
+
+    private String failKey(String receiptNumber) {
+        return KEY_PREFIX + receiptNumber + ":failed";
+    }
+
+    private String resultKey(String receiptNumber) {
+        return KEY_PREFIX + receiptNumber + ":result";
+    }
+
+    private String encode(ReceiptVerificationResponse response) {
+        return String.join("|",
+                response.invoiceNumber() == null ? "" : response.invoiceNumber(),
+                response.amount() == null ? "" : response.amount().toPlainString(),
+                response.status() == null ? "" : response.status(),
+                response.occurredAt() == null ? "" : response.occurredAt().toString());
+    }
+
+    private ReceiptVerificationResponse decode(String receiptNumber, String value) {
+        String[] parts = value.split("\\|", -1);
+        return new ReceiptVerificationResponse(
+                true,
+                receiptNumber,
+                parts[0].isEmpty() ? null : parts[0],
+                parts[1].isEmpty() ? null : new BigDecimal(parts[1]),
+                parts[2].isEmpty() ? null : parts[2],
+                parts[3].isEmpty() ? null : Instant.parse(parts[3])
+        );
+    }
+
+    /**
+     * Size-bounded map whose entries expire after a per-entry TTL; the least recently used entry is dropped
+     * once the bound is reached so a flood of distinct keys cannot grow memory without limit.
+     */
+    private static final class ExpiringMap<V> {
+
+        private final Map<String, Timed<V>> entries;
+
+        private ExpiringMap(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Timed<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized V get(String key) {
+            Timed<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt().isBefore(Instant.now())) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(String key, V value, Duration ttl) {
+            entries.put(key, new Timed<>(value, Instant.now().plus(ttl)));
+        }
+
+        synchronized void update(String key, V initial, UnaryOperator<V> remapping, Duration ttl) {
+            Timed<V> entry = entries.get(key);
+            if (entry == null || entry.expiresAt().isBefore(Instant.now())) {
+                entries.put(key, new Timed<>(initial, Instant.now().plus(ttl)));
+                return;
+            }
+            entries.put(key, new Timed<>(remapping.apply(entry.value()), entry.expiresAt()));
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        private record Timed<V>(V value, Instant expiresAt) {
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sales.receipt-verification")
+public record ReceiptVerificationProperties(int maxFailures,
+                                           long windowSeconds,
+                                           long resultCacheSeconds,
+                                           int maxTrackedReceipts) {
+}
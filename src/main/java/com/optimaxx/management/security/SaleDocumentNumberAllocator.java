@@ -0,0 +1,122 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.model.SaleDocumentType;
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class SaleDocumentNumberAllocator {
+
+    private final SaleDocumentSequenceRepository sequenceRepository;
+    private final int blockSize;
+    private final Map<BlockKey, SequenceBlock> blocks = new ConcurrentHashMap<>();
+
+    public SaleDocumentNumberAllocator(SaleDocumentSequenceRepository sequenceRepository,
+                                       SalesNumberingProperties properties) {
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = Math.max(1, properties.blockSize());
+    }
+
+    public String nextReceiptNumber(UUID storeId) {
+        return next(storeId, SaleDocumentType.RECEIPT);
+    }
+
+    public String nextInvoiceNumber(UUID storeId) {
+        return next(storeId, SaleDocumentType.INVOICE);
+    }
+
+    public List<String> nextReceiptNumbers(UUID storeId, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+
+        LocalDate businessDate = LocalDate.now(ZoneOffset.UTC);
+        long last = sequenceRepository.allocate(UUID.randomUUID(), storeId, SaleDocumentType.RECEIPT.name(), businessDate, count);
+        List<String> numbers = new ArrayList<>(count);
+        for (long sequence = last - count + 1; sequence <= last; sequence++) {
+            numbers.add(format(SaleDocumentType.RECEIPT, businessDate, sequence));
+        }
+        return numbers;
+    }
+
+    private String next(UUID storeId, SaleDocumentType documentType) {
+        LocalDate businessDate = LocalDate.now(ZoneOffset.UTC);
+        long sequence = blockSize == 1
+                ? allocate(storeId, documentType, businessDate)
+                : nextFromBlock(new BlockKey(storeId, documentType, businessDate));
+
+        return format(documentType, businessDate, sequence);
+    }
+
+    private String format(SaleDocumentType documentType, LocalDate businessDate, long sequence) {
+        return documentType.prefix() + "-" + businessDate.format(DateTimeFormatter.BASIC_ISO_DATE) + "-"
+                + String.format(Locale.ROOT, "%04d", sequence);
+    }
+
+    /**
+     * Hands out a number from the store's cached block, or reserves a new block in the caller's transaction and
+     * takes its first number. The rest of a new block is shared only once that transaction commits, so numbers
+     * that a rollback gives back to the counter are never handed out. Spare numbers of a block that commits while
+     * the cached block still has numbers left are skipped, leaving a gap as a restart does.
+     */
+    private long nextFromBlock(BlockKey key) {
+        if (!blocks.containsKey(key)) {
+            blocks.keySet().removeIf(existing -> !existing.businessDate().equals(key.businessDate()));
+        }
+
+        SequenceBlock block = blocks.computeIfAbsent(key, ignored -> new SequenceBlock());
+        synchronized (block) {
+            if (block.next <= block.last) {
+                return block.next++;
+            }
+        }
+
+        long last = allocate(key.storeId(), key.documentType(), key.businessDate());
+        long first = last - blockSize + 1;
+        afterCommit(() -> block.refill(first + 1, last));
+        return first;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private long allocate(UUID storeId, SaleDocumentType documentType, LocalDate businessDate) {
+        return sequenceRepository.allocate(UUID.randomUUID(), storeId, documentType.name(), businessDate, blockSize);
+    }
+
+    private record BlockKey(UUID storeId, SaleDocumentType documentType, LocalDate businessDate) {
+    }
+
+    private static final class SequenceBlock {
+        private long next = 1;
+        private long last = 0;
+
+        private synchronized void refill(long next, long last) {
+            if (this.next > this.last) {
+                this.next = next;
+                this.last = last;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.optimaxx.management.security;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({SalesNumberingProperties.class, ReceiptVerificationProperties.class, SalesRollupProperties.class})
+public class SalesConfig {
+}
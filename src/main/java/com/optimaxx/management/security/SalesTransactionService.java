@@ -1,6 +1,7 @@
 package com.optimaxx.management.security;
 
 import com.optimaxx.management.domain.model.Customer;
+import com.optimaxx.management.domain.model.InventoryItem;
 import com.optimaxx.management.domain.model.SalePaymentMethod;
 import com.optimaxx.management.domain.model.SaleTransaction;
 import com.optimaxx.management.domain.model.SaleTransactionItem;
@@ -10,12 +11,18 @@ import com.optimaxx.management.domain.model.TransactionType;
 import com.optimaxx.management.domain.model.TransactionTypeCategory;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
 import com.optimaxx.management.domain.repository.CustomerRepository;
+import com.optimaxx.management.domain.repository.SalePaymentMethodAggregate;
+import com.optimaxx.management.domain.repository.SaleTransactionExportFilter;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
+import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionBatchRequest;
 import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionRequest;
 import com.optimaxx.management.interfaces.rest.dto.ReceiptVerificationResponse;
 import com.optimaxx.management.interfaces.rest.dto.RefundSaleTransactionRequest;
 import com.optimaxx.management.interfaces.rest.dto.SalePaymentMethodSummaryResponse;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionBatchItemResponse;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionBatchResponse;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionCursorPageResponse;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionLineItemRequest;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionDetailResponse;
 import com.optimaxx.management.interfaces.rest.dto.SaleTransactionResponse;
@@ -24,22 +31,32 @@ import com.optimaxx.management.interfaces.rest.dto.SaleTransactionTimelineEventR
 import com.optimaxx.management.interfaces.rest.dto.UpdateSaleTransactionStatusRequest;
 import com.optimaxx.management.security.audit.AuditEventType;
 import com.optimaxx.management.security.audit.SecurityAuditService;
+import jakarta.persistence.criteria.Predicate;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,14 +64,17 @@ import org.springframework.web.server.ResponseStatusException;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
-import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 @Service
 public class SalesTransactionService {
 
-    private static final int RECEIPT_VERIFY_MAX_FAILURES = 5;
-    private static final long RECEIPT_VERIFY_WINDOW_SECONDS = 60;
-    private static final ConcurrentHashMap<String, VerifyAttempt> VERIFY_ATTEMPTS = new ConcurrentHashMap<>();
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int CSV_BUFFER_BYTES = 16 * 1024;
+    private static final String CSV_HEADER = "receiptNumber,occurredAt,customerName,amount,refundedAmount,netAmount,paymentMethod,status";
+    private static final Set<String> SORT_FIELDS = Set.of("occurredAt", "amount", "receiptNumber", "customerName");
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("occurredAt", "amount", "customerName");
 
     private final SaleTransactionRepository saleTransactionRepository;
     private final TransactionTypeRepository transactionTypeRepository;
@@ -62,94 +82,173 @@ public class SalesTransactionService {
     private final ActivityLogRepository activityLogRepository;
     private final SecurityAuditService securityAuditService;
     private final InventoryStockCoordinator inventoryStockCoordinator;
+    private final SaleDocumentNumberAllocator saleDocumentNumberAllocator;
+    private final ReceiptVerificationGuard receiptVerificationGuard;
 
     public SalesTransactionService(SaleTransactionRepository saleTransactionRepository,
                                    TransactionTypeRepository transactionTypeRepository,
                                    CustomerRepository customerRepository,
                                    ActivityLogRepository activityLogRepository,
                                    SecurityAuditService securityAuditService,
-                                   InventoryStockCoordinator inventoryStockCoordinator) {
+                                   InventoryStockCoordinator inventoryStockCoordinator,
+                                   SaleDocumentNumberAllocator saleDocumentNumberAllocator,
+                                   ReceiptVerificationGuard receiptVerificationGuard) {
         this.saleTransactionRepository = saleTransactionRepository;
         this.transactionTypeRepository = transactionTypeRepository;
         this.customerRepository = customerRepository;
         this.activityLogRepository = activityLogRepository;
         this.securityAuditService = securityAuditService;
         this.inventoryStockCoordinator = inventoryStockCoordinator;
+        this.saleDocumentNumberAllocator = saleDocumentNumberAllocator;
+        this.receiptVerificationGuard = receiptVerificationGuard;
     }
 
     @Transactional
     public SaleTransactionResponse create(CreateSaleTransactionRequest request) {
-        if (request == null || request.transactionTypeId() == null || request.amount() == null) {
-            throw new ResponseStatusException(BAD_REQUEST, "transactionTypeId and amount are required");
-        }
-        if (request.amount().signum() <= 0) {
-            throw new ResponseStatusException(BAD_REQUEST, "amount must be greater than zero");
-        }
+        validateCreateRequest(request);
 
         TransactionType transactionType = transactionTypeRepository.findByIdAndDeletedFalse(request.transactionTypeId())
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Transaction type not found"));
-
-        if (!transactionType.isActive()) {
-            throw new ResponseStatusException(BAD_REQUEST, "Transaction type is inactive");
-        }
-        if (transactionType.getCategory() != TransactionTypeCategory.SALE) {
-            throw new ResponseStatusException(BAD_REQUEST, "Transaction type category must be SALE");
-        }
+        validateSaleTransactionType(transactionType);
 
         List<SaleTransactionItem> lineItems = resolveLineItems(request);
 
         Customer customer = null;
-        String customerName = trimToNull(request.customerName());
-
         if (request.customerId() != null) {
             customer = customerRepository.findByIdAndDeletedFalse(request.customerId())
                     .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Customer not found"));
-            if (customer.getStoreId() != null && !StoreContext.currentStoreId().equals(customer.getStoreId())) {
-                throw new ResponseStatusException(BAD_REQUEST, "Customer does not belong to current store");
-            }
-            if (isBlank(customerName)) {
-                customerName = (customer.getFirstName() + " " + customer.getLastName()).trim();
-            }
-        }
-
-        if (isBlank(customerName)) {
-            throw new ResponseStatusException(BAD_REQUEST, "customerName or customerId is required");
         }
+        String customerName = resolveCustomerName(request, customer);
 
         UUID storeId = StoreContext.currentStoreId();
-
-        SaleTransaction saleTransaction = new SaleTransaction();
-        saleTransaction.setTransactionType(transactionType);
-        saleTransaction.setCustomer(customer);
-        saleTransaction.setCustomerName(customerName);
-        saleTransaction.setAmount(request.amount());
-        saleTransaction.setNotes(isBlank(request.notes()) ? null : request.notes().trim());
-        saleTransaction.setPaymentMethod(parsePaymentMethodOrDefault(request.paymentMethod()));
-        saleTransaction.setPaymentReference(trimToNull(request.paymentReference()));
-        saleTransaction.setOccurredAt(Instant.now());
-        saleTransaction.setStoreId(storeId);
-        saleTransaction.setReceiptNumber(generateReceiptNumber(storeId));
-        saleTransaction.setStatus(SaleTransactionStatus.COMPLETED);
-        saleTransaction.setInventoryItemId(request.inventoryItemId());
-        saleTransaction.setInventoryQuantity(request.inventoryQuantity());
-        saleTransaction.setStockReverted(false);
-        saleTransaction.setDeleted(false);
-        lineItems.forEach(saleTransaction::addItem);
+        SaleTransaction saleTransaction = newSaleTransaction(request, transactionType, customer, customerName, storeId,
+                saleDocumentNumberAllocator.nextReceiptNumber(storeId), lineItems);
 
         SaleTransaction saved = saleTransactionRepository.save(saleTransaction);
+        saleTransactionRepository.markRollupBuckets(storeId, List.of(saved.getOccurredAt()));
 
+        inventoryStockCoordinator.claimHolds(request.cartId(),
+                lineItems.stream().map(SaleTransactionItem::getInventoryItemId).toList());
         consumeLineItemStock(saved, lineItems);
 
-        securityAuditService.log(
-                AuditEventType.SALE_TRANSACTION_CREATED,
-                null,
-                "SALE_TRANSACTION",
-                String.valueOf(saved.getId()),
-                "{\"transactionType\":\"" + transactionType.getCode() + "\",\"amount\":" + request.amount() + ",\"paymentMethod\":\"" + saleTransaction.getPaymentMethod().name() + "\"}"
-        );
+        logSaleCreated(saved);
         return toResponse(saved);
     }
 
+    @Transactional
+    public SaleTransactionBatchResponse createBatch(CreateSaleTransactionBatchRequest request) {
+        if (request == null || request.transactions() == null || request.transactions().isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "transactions are required");
+        }
+        if (request.transactions().size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(BAD_REQUEST, "A batch can contain at most " + MAX_BATCH_SIZE + " transactions");
+        }
+
+        List<CreateSaleTransactionRequest> requests = request.transactions();
+        UUID storeId = StoreContext.currentStoreId();
+        SaleTransactionBatchItemResponse[] results = new SaleTransactionBatchItemResponse[requests.size()];
+
+        Set<UUID> transactionTypeIds = new HashSet<>();
+        Set<UUID> customerIds = new HashSet<>();
+        for (CreateSaleTransactionRequest item : requests) {
+            if (item != null && item.transactionTypeId() != null) {
+                transactionTypeIds.add(item.transactionTypeId());
+            }
+            if (item != null && item.customerId() != null) {
+                customerIds.add(item.customerId());
+            }
+        }
+        Map<UUID, TransactionType> transactionTypes = transactionTypeIds.isEmpty() ? Map.of()
+                : transactionTypeRepository.findByIdInAndDeletedFalse(transactionTypeIds).stream()
+                        .collect(Collectors.toMap(TransactionType::getId, Function.identity()));
+        Map<UUID, Customer> customers = customerIds.isEmpty() ? Map.of()
+                : customerRepository.findByIdInAndDeletedFalse(customerIds).stream()
+                        .collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+        List<PendingSale> pending = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            CreateSaleTransactionRequest item = requests.get(index);
+            try {
+                validateCreateRequest(item);
+                TransactionType transactionType = transactionTypes.get(item.transactionTypeId());
+                if (transactionType == null) {
+                    throw new ResponseStatusException(NOT_FOUND, "Transaction type not found");
+                }
+                validateSaleTransactionType(transactionType);
+
+                List<SaleTransactionItem> lineItems = resolveLineItems(item);
+
+                Customer customer = null;
+                if (item.customerId() != null) {
+                    customer = customers.get(item.customerId());
+                    if (customer == null) {
+                        throw new ResponseStatusException(NOT_FOUND, "Customer not found");
+                    }
+                }
+                String customerName = resolveCustomerName(item, customer);
+
+                pending.add(new PendingSale(index, item, transactionType, customer, customerName, lineItems));
+            } catch (ResponseStatusException ex) {
+                results[index] = rejected(index, ex);
+            }
+        }
+
+        List<InventoryStockCoordinator.StockDemand> demands = new ArrayList<>(pending.size());
+        for (PendingSale sale : pending) {
+            Map<UUID, Integer> quantities = new HashMap<>();
+            sale.lineItems().forEach(line -> quantities.merge(line.getInventoryItemId(), line.getQuantity(), Integer::sum));
+            demands.add(new InventoryStockCoordinator.StockDemand(sale.request().cartId(), quantities));
+        }
+        InventoryStockCoordinator.StockAllocation allocation = inventoryStockCoordinator.allocate(demands);
+        List<PendingSale> accepted = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            PendingSale sale = pending.get(i);
+            String stockError = allocation.rejections().get(i);
+            if (stockError == null) {
+                accepted.add(sale);
+            } else {
+                results[sale.index()] = new SaleTransactionBatchItemResponse(sale.index(), "REJECTED", null, stockError);
+            }
+        }
+
+        List<String> receiptNumbers = saleDocumentNumberAllocator.nextReceiptNumbers(storeId, accepted.size());
+        List<SaleTransaction> transactions = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingSale sale = accepted.get(i);
+            transactions.add(newSaleTransaction(sale.request(), sale.transactionType(), sale.customer(), sale.customerName(),
+                    storeId, receiptNumbers.get(i), sale.lineItems()));
+        }
+        List<SaleTransaction> saved = saleTransactionRepository.saveAll(transactions);
+        saleTransactionRepository.markRollupBuckets(storeId, saved.stream().map(SaleTransaction::getOccurredAt).toList());
+
+        List<InventoryStockCoordinator.StockConsumption> consumptions = new ArrayList<>();
+        List<SecurityAuditService.AuditEntry> auditEntries = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            SaleTransaction transaction = saved.get(i);
+            List<SaleTransactionItem> lineItems = accepted.get(i).lineItems();
+            for (int line = 0; line < lineItems.size(); line++) {
+                SaleTransactionItem lineItem = lineItems.get(line);
+                consumptions.add(new InventoryStockCoordinator.StockConsumption(
+                        lineItem.getInventoryItemId(),
+                        lineItem.getQuantity(),
+                        "SALE transaction " + transaction.getId(),
+                        "SALE_TRANSACTION",
+                        transaction.getId(),
+                        "sale:" + transaction.getId() + ":item:" + line + ":consume"
+                ));
+                InventoryItem inventoryItem = allocation.items().get(lineItem.getInventoryItemId());
+                auditEntries.add(stockDeductedEntry(transaction, lineItem, inventoryItem == null ? null : inventoryItem.getSku()));
+            }
+            auditEntries.add(saleCreatedEntry(transaction));
+            int index = accepted.get(i).index();
+            results[index] = new SaleTransactionBatchItemResponse(index, "CREATED", toResponse(transaction), null);
+        }
+        inventoryStockCoordinator.recordConsumptions(consumptions, allocation.items());
+        securityAuditService.logAll(auditEntries);
+
+        return new SaleTransactionBatchResponse(saved.size(), requests.size() - saved.size(), List.of(results));
+    }
+
     @Transactional(readOnly = true)
     public Page<SaleTransactionResponse> list(Instant from,
                                               Instant to,
@@ -162,13 +261,45 @@ public class SalesTransactionService {
             throw new ResponseStatusException(BAD_REQUEST, "page must be >= 0 and size must be > 0");
         }
 
-        List<SaleTransactionResponse> filtered = filterTransactions(from, to, query, paymentMethod, sort).stream()
-                .map(this::toResponse)
-                .toList();
+        KeysetCursors.SortSpec sortSpec = parseSort(sort);
+        return saleTransactionRepository
+                .findAll(listSpecification(from, to, query, paymentMethod), PageRequest.of(page, size, KeysetCursors.toSort(sortSpec)))
+                .map(this::toResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public SaleTransactionCursorPageResponse listByCursor(Instant from,
+                                                          Instant to,
+                                                          String query,
+                                                          String paymentMethod,
+                                                          String cursor,
+                                                          int size,
+                                                          String sort) {
+        if (size <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "size must be > 0");
+        }
 
-        int fromIndex = Math.min(page * size, filtered.size());
-        int toIndex = Math.min(fromIndex + size, filtered.size());
-        return new PageImpl<>(filtered.subList(fromIndex, toIndex), PageRequest.of(page, size), filtered.size());
+        int limit = Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        KeysetCursors.SortSpec sortSpec = parseSort(sort);
+        if (!KEYSET_SORT_FIELDS.contains(sortSpec.field())) {
+            throw new ResponseStatusException(BAD_REQUEST, "Unsupported sort field for cursor pagination");
+        }
+
+        Specification<SaleTransaction> specification = listSpecification(from, to, query, paymentMethod);
+        String normalizedCursor = trimToNull(cursor);
+        if (normalizedCursor != null) {
+            specification = specification.and(keysetSpecification(sortSpec, KeysetCursors.decode(normalizedCursor, sortSpec)));
+        }
+
+        Sort order = KeysetCursors.toSort(sortSpec);
+        List<SaleTransaction> rows = saleTransactionRepository.findBy(specification,
+                fluentQuery -> fluentQuery.sortBy(order).limit(limit + 1).project("transactionType").all());
+
+        boolean hasNext = rows.size() > limit;
+        List<SaleTransaction> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? encodeCursor(sortSpec, pageRows.get(pageRows.size() - 1)) : null;
+
+        return new SaleTransactionCursorPageResponse(pageRows.stream().map(this::toResponse).toList(), nextCursor, hasNext);
     }
 
     @Transactional(readOnly = true)
@@ -177,21 +308,65 @@ public class SalesTransactionService {
                             String query,
                             String paymentMethod,
                             String sort) {
-        return filterTransactions(from, to, query, paymentMethod, sort).stream()
+        Specification<SaleTransaction> specification = listSpecification(from, to, query, paymentMethod);
+        return saleTransactionRepository.findAll(specification, KeysetCursors.toSort(parseSort(sort))).stream()
                 .map(this::toResponse)
-                .map(row -> String.join(",",
-                        csvValue(row.receiptNumber()),
-                        csvValue(String.valueOf(row.occurredAt())),
-                        csvValue(row.customerName()),
-                        csvValue(String.valueOf(row.amount())),
-                        csvValue(String.valueOf(row.refundedAmount() == null ? BigDecimal.ZERO : row.refundedAmount())),
-                        csvValue(String.valueOf(row.amount().subtract(row.refundedAmount() == null ? BigDecimal.ZERO : row.refundedAmount()))),
-                        csvValue(row.paymentMethod()),
-                        csvValue(row.status())
-                ))
-                .collect(Collectors.joining("\n",
-                        "receiptNumber,occurredAt,customerName,amount,refundedAmount,netAmount,paymentMethod,status\n",
-                        "\n"));
+                .map(row -> csvLine(row.receiptNumber(), row.occurredAt(), row.customerName(), row.amount(),
+                        row.refundedAmount(), row.paymentMethod(), row.status()))
+                .collect(Collectors.joining("\n", CSV_HEADER + "\n", "\n"));
+    }
+
+    public SaleTransactionExportFilter exportFilter(Instant from,
+                                                    Instant to,
+                                                    String query,
+                                                    String paymentMethod,
+                                                    String sort) {
+        validateRange(from, to);
+        KeysetCursors.SortSpec sortSpec = parseSort(sort);
+        String normalizedQuery = trimToNull(query);
+        return new SaleTransactionExportFilter(
+                StoreContext.currentStoreId(),
+                from,
+                to,
+                normalizedQuery == null ? null : "%" + KeysetCursors.escapeLike(normalizedQuery.toLowerCase(Locale.ROOT)) + "%",
+                parsePaymentMethod(paymentMethod),
+                sortSpec.field(),
+                sortSpec.ascending()
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCsv(SaleTransactionExportFilter filter, OutputStream outputStream, boolean gzip) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, CSV_BUFFER_BYTES) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : outputStream, StandardCharsets.UTF_8), CSV_BUFFER_BYTES);
+
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        try {
+            saleTransactionRepository.streamExportRows(filter, EXPORT_FETCH_SIZE, row -> {
+                try {
+                    writer.write(csvLine(
+                            row.receiptNumber(),
+                            row.occurredAt(),
+                            row.customerName(),
+                            row.amount(),
+                            row.refundedAmount(),
+                            row.paymentMethod() == null ? SalePaymentMethod.CASH.name() : row.paymentMethod(),
+                            row.status() == null ? SaleTransactionStatus.COMPLETED.name() : row.status()
+                    ));
+                    writer.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
     }
 
     @Transactional(readOnly = true)
@@ -201,21 +376,16 @@ public class SalesTransactionService {
             throw new ResponseStatusException(BAD_REQUEST, "receiptNumber is required");
         }
 
-        VerifyAttempt attempt = VERIFY_ATTEMPTS.computeIfAbsent(normalized, k -> new VerifyAttempt(0, Instant.now()));
-        Instant now = Instant.now();
-        if (attempt.windowStart().plusSeconds(RECEIPT_VERIFY_WINDOW_SECONDS).isBefore(now)) {
-            attempt = new VerifyAttempt(0, now);
-            VERIFY_ATTEMPTS.put(normalized, attempt);
-        }
-        if (attempt.failures() >= RECEIPT_VERIFY_MAX_FAILURES) {
-            throw new ResponseStatusException(TOO_MANY_REQUESTS, "Too many verify attempts. Try again later.");
+        Optional<ReceiptVerificationResponse> cached = receiptVerificationGuard.cachedResult(normalized);
+        if (cached.isPresent()) {
+            return cached.get();
         }
 
-        VerifyAttempt finalAttempt = attempt;
+        receiptVerificationGuard.checkAllowed(normalized);
+
         return saleTransactionRepository.findByReceiptNumberAndDeletedFalse(normalized)
                 .map(tx -> {
-                    VERIFY_ATTEMPTS.remove(normalized);
-                    return new ReceiptVerificationResponse(
+                    ReceiptVerificationResponse response = new ReceiptVerificationResponse(
                             true,
                             tx.getReceiptNumber(),
                             tx.getInvoiceNumber(),
@@ -223,9 +393,11 @@ public class SalesTransactionService {
                             tx.getStatus() == null ? SaleTransactionStatus.COMPLETED.name() : tx.getStatus().name(),
                             tx.getOccurredAt()
                     );
+                    receiptVerificationGuard.onSuccessfulVerification(normalized, response);
+                    return response;
                 })
                 .orElseGet(() -> {
-                    VERIFY_ATTEMPTS.put(normalized, new VerifyAttempt(finalAttempt.failures() + 1, finalAttempt.windowStart()));
+                    receiptVerificationGuard.onFailedVerification(normalized);
                     return new ReceiptVerificationResponse(false, normalized, null, null, null, null);
                 });
     }
@@ -239,41 +411,16 @@ public class SalesTransactionService {
         UUID storeId = StoreContext.currentStoreId();
         SalePaymentMethod paymentMethodFilter = parsePaymentMethod(paymentMethod);
 
-        List<SaleTransaction> allTransactions = from == null
-                ? saleTransactionRepository.findByDeletedFalseOrderByOccurredAtDesc()
-                : saleTransactionRepository.findByOccurredAtGreaterThanEqualAndDeletedFalseOrderByOccurredAtDesc(from);
-
-        List<SaleTransaction> filtered = allTransactions.stream()
-                .filter(transaction -> transaction.getStoreId() == null || storeId.equals(transaction.getStoreId()))
-                .filter(transaction -> to == null || !transaction.getOccurredAt().isAfter(to))
-                .filter(transaction -> paymentMethodFilter == null || transaction.getPaymentMethod() == paymentMethodFilter)
-                .toList();
-
-        BigDecimal grossAmount = filtered.stream()
-                .map(SaleTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal refundedAmount = filtered.stream()
-                .map(transaction -> transaction.getRefundedAmount() == null ? BigDecimal.ZERO : transaction.getRefundedAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        List<SalePaymentMethodSummaryResponse> breakdown = filtered.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        transaction -> transaction.getPaymentMethod() == null ? SalePaymentMethod.CASH : transaction.getPaymentMethod()
-                ))
-                .entrySet()
+        List<SalePaymentMethodSummaryResponse> breakdown = saleTransactionRepository
+                .summarizeByPaymentMethod(storeId, from, to, paymentMethodFilter)
                 .stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> {
-                    BigDecimal gross = entry.getValue().stream()
-                            .map(SaleTransaction::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    BigDecimal refunded = entry.getValue().stream()
-                            .map(transaction -> transaction.getRefundedAmount() == null ? BigDecimal.ZERO : transaction.getRefundedAmount())
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .sorted(Comparator.comparing(SalePaymentMethodAggregate::paymentMethod))
+                .map(aggregate -> {
+                    BigDecimal gross = aggregate.grossAmount() == null ? BigDecimal.ZERO : aggregate.grossAmount();
+                    BigDecimal refunded = aggregate.refundedAmount() == null ? BigDecimal.ZERO : aggregate.refundedAmount();
                     return new SalePaymentMethodSummaryResponse(
-                            entry.getKey().name(),
-                            entry.getValue().size(),
+                            aggregate.paymentMethod().name(),
+                            aggregate.transactionCount(),
                             gross,
                             refunded,
                             gross.subtract(refunded)
@@ -281,8 +428,17 @@ public class SalesTransactionService {
                 })
                 .toList();
 
+        long transactionCount = 0;
+        BigDecimal grossAmount = BigDecimal.ZERO;
+        BigDecimal refundedAmount = BigDecimal.ZERO;
+        for (SalePaymentMethodSummaryResponse row : breakdown) {
+            transactionCount += row.transactionCount();
+            grossAmount = grossAmount.add(row.grossAmount());
+            refundedAmount = refundedAmount.add(row.refundedAmount());
+        }
+
         return new SaleTransactionSummaryResponse(
-                filtered.size(),
+                transactionCount,
                 grossAmount,
                 refundedAmount,
                 grossAmount.subtract(refundedAmount),
@@ -301,8 +457,9 @@ public class SalesTransactionService {
         }
 
         if (transaction.getInvoiceNumber() == null) {
-            transaction.setInvoiceNumber(generateInvoiceNumber(storeId));
+            transaction.setInvoiceNumber(saleDocumentNumberAllocator.nextInvoiceNumber(storeId));
             transaction.setInvoiceIssuedAt(Instant.now());
+            receiptVerificationGuard.evict(transaction.getReceiptNumber());
         }
 
         BigDecimal refunded = transaction.getRefundedAmount() == null ? BigDecimal.ZERO : transaction.getRefundedAmount();
@@ -338,7 +495,7 @@ public class SalesTransactionService {
         }
 
         List<SaleTransactionTimelineEventResponse> timeline = activityLogRepository
-                .findUnifiedTimelineForSaleTransaction(storeId, String.valueOf(transactionId))
+                .findUnifiedTimelineForSaleTransaction(storeId, transactionId)
                 .stream()
                 .map(this::toTimelineResponse)
                 .toList();
@@ -381,8 +538,10 @@ public class SalesTransactionService {
                 null,
                 "SALE_TRANSACTION",
                 String.valueOf(transaction.getId()),
-                "{\"refundAmount\":" + request.amount() + "}"
+                "{\"refundAmount\":" + request.amount() + "}",
+                transaction.getId()
         );
+        receiptVerificationGuard.evict(transaction.getReceiptNumber());
 
         return toResponse(transaction);
     }
@@ -410,13 +569,16 @@ public class SalesTransactionService {
             }
 
             transaction.setStatus(SaleTransactionStatus.CANCELED);
+            saleTransactionRepository.markRollupBuckets(transaction.getStoreId(), List.of(transaction.getOccurredAt()));
             securityAuditService.log(
                     AuditEventType.SALE_TRANSACTION_CANCELED,
                     null,
                     "SALE_TRANSACTION",
                     String.valueOf(transaction.getId()),
-                    "{\"status\":\"CANCELED\"}"
+                    "{\"status\":\"CANCELED\"}",
+                    transaction.getId()
             );
+            receiptVerificationGuard.evict(transaction.getReceiptNumber());
             return toResponse(transaction);
         }
 
@@ -496,7 +658,14 @@ public class SalesTransactionService {
     }
 
     private void consumeLineItemStock(SaleTransaction saved, List<SaleTransactionItem> lineItems) {
+        // Deduct in inventory id order so concurrent multi-item sales lock rows consistently.
+        List<Integer> lineOrder = new ArrayList<>();
         for (int i = 0; i < lineItems.size(); i++) {
+            lineOrder.add(i);
+        }
+        lineOrder.sort(Comparator.comparing(index -> lineItems.get(index).getInventoryItemId()));
+
+        for (int i : lineOrder) {
             SaleTransactionItem line = lineItems.get(i);
             var item = inventoryStockCoordinator.consume(
                     line.getInventoryItemId(),
@@ -506,14 +675,107 @@ public class SalesTransactionService {
                     saved.getId(),
                     "sale:" + saved.getId() + ":item:" + i + ":consume"
             );
-            securityAuditService.log(
-                    AuditEventType.SALE_STOCK_DEDUCTED,
-                    null,
-                    "INVENTORY",
-                    item.getSku(),
-                    "{\"saleTransactionId\":\"" + saved.getId() + "\",\"inventoryItemId\":\"" + line.getInventoryItemId() + "\",\"quantity\":" + line.getQuantity() + "}"
-            );
+            logStockDeducted(saved, line, item.getSku());
+        }
+    }
+
+    private void logStockDeducted(SaleTransaction saved, SaleTransactionItem line, String sku) {
+        log(stockDeductedEntry(saved, line, sku));
+    }
+
+    private void logSaleCreated(SaleTransaction saved) {
+        log(saleCreatedEntry(saved));
+    }
+
+    private void log(SecurityAuditService.AuditEntry entry) {
+        securityAuditService.log(entry.eventType(), null, entry.resourceType(), entry.resourceId(), entry.afterJson(),
+                entry.saleTransactionId());
+    }
+
+    private SecurityAuditService.AuditEntry stockDeductedEntry(SaleTransaction saved, SaleTransactionItem line, String sku) {
+        return new SecurityAuditService.AuditEntry(
+                AuditEventType.SALE_STOCK_DEDUCTED,
+                "INVENTORY",
+                sku,
+                "{\"saleTransactionId\":\"" + saved.getId() + "\",\"inventoryItemId\":\"" + line.getInventoryItemId() + "\",\"quantity\":" + line.getQuantity() + "}",
+                saved.getId()
+        );
+    }
+
+    private SecurityAuditService.AuditEntry saleCreatedEntry(SaleTransaction saved) {
+        return new SecurityAuditService.AuditEntry(
+                AuditEventType.SALE_TRANSACTION_CREATED,
+                "SALE_TRANSACTION",
+                String.valueOf(saved.getId()),
+                "{\"transactionType\":\"" + saved.getTransactionType().getCode() + "\",\"amount\":" + saved.getAmount() + ",\"paymentMethod\":\"" + saved.getPaymentMethod().name() + "\"}",
+                saved.getId()
+        );
+    }
+
+    private void validateCreateRequest(CreateSaleTransactionRequest request) {
+        if (request == null || request.transactionTypeId() == null || request.amount() == null) {
+            throw new ResponseStatusException(BAD_REQUEST, "transactionTypeId and amount are required");
+        }
+        if (request.amount().signum() <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "amount must be greater than zero");
+        }
+    }
+
+    private void validateSaleTransactionType(TransactionType transactionType) {
+        if (!transactionType.isActive()) {
+            throw new ResponseStatusException(BAD_REQUEST, "Transaction type is inactive");
+        }
+        if (transactionType.getCategory() != TransactionTypeCategory.SALE) {
+            throw new ResponseStatusException(BAD_REQUEST, "Transaction type category must be SALE");
+        }
+    }
+
+    private String resolveCustomerName(CreateSaleTransactionRequest request, Customer customer) {
+        String customerName = trimToNull(request.customerName());
+        if (customer != null) {
+            if (customer.getStoreId() != null && !StoreContext.currentStoreId().equals(customer.getStoreId())) {
+                throw new ResponseStatusException(BAD_REQUEST, "Customer does not belong to current store");
+            }
+            if (isBlank(customerName)) {
+                customerName = (customer.getFirstName() + " " + customer.getLastName()).trim();
+            }
+        }
+
+        if (isBlank(customerName)) {
+            throw new ResponseStatusException(BAD_REQUEST, "customerName or customerId is required");
         }
+        return customerName;
+    }
+
+    private SaleTransaction newSaleTransaction(CreateSaleTransactionRequest request,
+                                               TransactionType transactionType,
+                                               Customer customer,
+                                               String customerName,
+                                               UUID storeId,
+                                               String receiptNumber,
+                                               List<SaleTransactionItem> lineItems) {
+        SaleTransaction saleTransaction = new SaleTransaction();
+        saleTransaction.setTransactionType(transactionType);
+        saleTransaction.setCustomer(customer);
+        saleTransaction.setCustomerName(customerName);
+        saleTransaction.setAmount(request.amount());
+        saleTransaction.setNotes(isBlank(request.notes()) ? null : request.notes().trim());
+        saleTransaction.setPaymentMethod(parsePaymentMethodOrDefault(request.paymentMethod()));
+        saleTransaction.setPaymentReference(trimToNull(request.paymentReference()));
+        saleTransaction.setOccurredAt(Instant.now());
+        saleTransaction.setStoreId(storeId);
+        saleTransaction.setReceiptNumber(receiptNumber);
+        saleTransaction.setStatus(SaleTransactionStatus.COMPLETED);
+        saleTransaction.setInventoryItemId(request.inventoryItemId());
+        saleTransaction.setInventoryQuantity(request.inventoryQuantity());
+        saleTransaction.setStockReverted(false);
+        saleTransaction.setDeleted(false);
+        lineItems.forEach(saleTransaction::addItem);
+        return saleTransaction;
+    }
+
+    private SaleTransactionBatchItemResponse rejected(int index, ResponseStatusException ex) {
+        return new SaleTransactionBatchItemResponse(index, "REJECTED", null, ex.getReason());
     }
 
     private void releaseLineItemStock(SaleTransaction transaction, String reasonPrefix, String sourceType, String idempotencySuffix) {
@@ -589,83 +851,32 @@ public class SalesTransactionService {
         );
     }
 
-    private String generateInvoiceNumber(UUID storeId) {
-        String datePart = LocalDate.now(ZoneOffset.UTC).format(DateTimeFormatter.BASIC_ISO_DATE);
-        String prefix = "INV-" + datePart + "-";
-
-        int nextSequence = saleTransactionRepository
-                .findTopByStoreIdAndInvoiceNumberStartingWithOrderByInvoiceNumberDesc(storeId, prefix)
-                .map(SaleTransaction::getInvoiceNumber)
-                .map(number -> number.substring(prefix.length()))
-                .map(suffix -> {
-                    try {
-                        return Integer.parseInt(suffix);
-                    } catch (NumberFormatException ex) {
-                        return 0;
-                    }
-                })
-                .orElse(0) + 1;
-
-        return prefix + String.format(Locale.ROOT, "%04d", nextSequence);
-    }
-
-    private String generateReceiptNumber(UUID storeId) {
-        String datePart = LocalDate.now(ZoneOffset.UTC).format(DateTimeFormatter.BASIC_ISO_DATE);
-        String prefix = "RCP-" + datePart + "-";
-
-        int nextSequence = saleTransactionRepository
-                .findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(storeId, prefix)
-                .map(transaction -> transaction.getReceiptNumber())
-                .map(number -> number.substring(prefix.length()))
-                .map(suffix -> {
-                    try {
-                        return Integer.parseInt(suffix);
-                    } catch (NumberFormatException ex) {
-                        return 0;
-                    }
-                })
-                .orElse(0) + 1;
-
-        for (int i = nextSequence; i < nextSequence + 10; i++) {
-            String candidate = prefix + String.format(Locale.ROOT, "%04d", i);
-            if (!saleTransactionRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(storeId, candidate)) {
-                return candidate;
-            }
-        }
-
-        throw new ResponseStatusException(BAD_REQUEST, "Could not generate unique receipt number");
-    }
-
-    private List<SaleTransaction> filterTransactions(Instant from,
-                                                     Instant to,
-                                                     String query,
-                                                     String paymentMethod,
-                                                     String sort) {
-        validateRange(from, to);
-
-        List<SaleTransaction> transactions = from == null
-                ? saleTransactionRepository.findByDeletedFalseOrderByOccurredAtDesc()
-                : saleTransactionRepository.findByOccurredAtGreaterThanEqualAndDeletedFalseOrderByOccurredAtDesc(from);
-
-        var storeId = StoreContext.currentStoreId();
-        String normalizedQuery = trimToNull(query);
-        SalePaymentMethod paymentMethodFilter = parsePaymentMethod(paymentMethod);
-
-        return transactions.stream()
-                .filter(transaction -> (transaction.getStoreId() == null || storeId.equals(transaction.getStoreId())))
-                .filter(transaction -> to == null || !transaction.getOccurredAt().isAfter(to))
-                .filter(transaction -> matchesQuery(transaction, normalizedQuery))
-                .filter(transaction -> paymentMethodFilter == null || transaction.getPaymentMethod() == paymentMethodFilter)
-                .sorted(resolveSort(sort))
-                .toList();
-    }
-
     private void validateRange(Instant from, Instant to) {
         if (from != null && to != null && from.isAfter(to)) {
             throw new ResponseStatusException(BAD_REQUEST, "from cannot be after to");
         }
     }
 
+    private String csvLine(String receiptNumber,
+                           Instant occurredAt,
+                           String customerName,
+                           BigDecimal amount,
+                           BigDecimal refundedAmount,
+                           String paymentMethod,
+                           String status) {
+        BigDecimal refunded = refundedAmount == null ? BigDecimal.ZERO : refundedAmount;
+        return String.join(",",
+                csvValue(receiptNumber),
+                csvValue(String.valueOf(occurredAt)),
+                csvValue(customerName),
+                csvValue(String.valueOf(amount)),
+                csvValue(String.valueOf(refunded)),
+                csvValue(String.valueOf(amount.subtract(refunded))),
+                csvValue(paymentMethod),
+                csvValue(status)
+        );
+    }
+
     private String csvValue(String value) {
         if (value == null) {
             return "";
@@ -693,39 +904,59 @@ public class SalesTransactionService {
         return pdf.getBytes(StandardCharsets.UTF_8);
     }
 
-    private boolean matchesQuery(SaleTransaction transaction, String normalizedQuery) {
-        if (normalizedQuery == null) {
-            return true;
-        }
-
-        String q = normalizedQuery.toLowerCase(Locale.ROOT);
-        String customerName = transaction.getCustomerName() == null ? "" : transaction.getCustomerName().toLowerCase(Locale.ROOT);
-        String receiptNumber = transaction.getReceiptNumber() == null ? "" : transaction.getReceiptNumber().toLowerCase(Locale.ROOT);
-        return customerName.contains(q) || receiptNumber.contains(q);
+    private KeysetCursors.SortSpec parseSort(String sort) {
+        return KeysetCursors.parseSort(sort, "occurredAt", false, SORT_FIELDS);
     }
 
-    private Comparator<SaleTransaction> resolveSort(String sort) {
-        String normalized = trimToNull(sort);
-        String field = "occurredAt";
-        String direction = "desc";
+    private Specification<SaleTransaction> listSpecification(Instant from,
+                                                             Instant to,
+                                                             String query,
+                                                             String paymentMethod) {
+        validateRange(from, to);
 
-        if (normalized != null) {
-            String[] parts = normalized.split(",");
-            field = parts[0].trim();
-            if (parts.length > 1) {
-                direction = parts[1].trim().toLowerCase(Locale.ROOT);
+        UUID storeId = StoreContext.currentStoreId();
+        String normalizedQuery = trimToNull(query);
+        SalePaymentMethod paymentMethodFilter = parsePaymentMethod(paymentMethod);
+
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isFalse(root.get("deleted")));
+            predicates.add(cb.equal(root.get("storeId"), storeId));
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), from));
             }
-        }
+            if (to != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("occurredAt"), to));
+            }
+            if (paymentMethodFilter != null) {
+                predicates.add(cb.equal(root.get("paymentMethod"), paymentMethodFilter));
+            }
+            if (normalizedQuery != null) {
+                String pattern = "%" + KeysetCursors.escapeLike(normalizedQuery.toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.<String>get("customerName")), pattern, '\\'),
+                        cb.like(cb.lower(root.<String>get("receiptNumber")), pattern, '\\')
+                ));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
 
-        Comparator<SaleTransaction> comparator = switch (field) {
-            case "amount" -> Comparator.comparing(SaleTransaction::getAmount, Comparator.nullsLast(BigDecimal::compareTo));
-            case "receiptNumber" -> Comparator.comparing(SaleTransaction::getReceiptNumber, Comparator.nullsLast(String::compareTo));
-            case "customerName" -> Comparator.comparing(SaleTransaction::getCustomerName, Comparator.nullsLast(String::compareTo));
-            case "occurredAt" -> Comparator.comparing(SaleTransaction::getOccurredAt, Comparator.nullsLast(Instant::compareTo));
-            default -> throw new ResponseStatusException(BAD_REQUEST, "Unsupported sort field");
+    private Specification<SaleTransaction> keysetSpecification(KeysetCursors.SortSpec sortSpec, KeysetCursors.Cursor cursor) {
+        return switch (sortSpec.field()) {
+            case "amount" -> KeysetCursors.after("amount", KeysetCursors.parseValue(cursor.value(), BigDecimal::new), cursor.id(), sortSpec.ascending());
+            case "customerName" -> KeysetCursors.after("customerName", cursor.value(), cursor.id(), sortSpec.ascending());
+            default -> KeysetCursors.after("occurredAt", KeysetCursors.parseValue(cursor.value(), Instant::parse), cursor.id(), sortSpec.ascending());
         };
+    }
 
-        return "asc".equals(direction) ? comparator : comparator.reversed();
+    private String encodeCursor(KeysetCursors.SortSpec sortSpec, SaleTransaction last) {
+        String value = switch (sortSpec.field()) {
+            case "amount" -> last.getAmount().toPlainString();
+            case "customerName" -> last.getCustomerName();
+            default -> last.getOccurredAt().toString();
+        };
+        return KeysetCursors.encode(sortSpec, last.getId(), value);
     }
 
     private SalePaymentMethod parsePaymentMethodOrDefault(String value) {
@@ -756,6 +987,11 @@ public class SalesTransactionService {
         return value == null || value.isBlank();
     }
 
-    private record VerifyAttempt(int failures, Instant windowStart) {
+    private record PendingSale(int index,
+                               CreateSaleTransactionRequest request,
+                               TransactionType transactionType,
+                               Customer customer,
+                               String customerName,
+                               List<SaleTransactionItem> lineItems) {
     }
 }
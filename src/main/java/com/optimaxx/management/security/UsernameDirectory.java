@@ -0,0 +1,90 @@
+package com.optimaxx.management.security;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import com.optimaxx.management.domain.model.User;
+import com.optimaxx.management.domain.repository.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived userId to username cache shared by the analytics and audit views. Callers resolve a whole page
+ * of actors at once; ids that are not cached are loaded with a single {@code findAllById}, so rendering a view
+ * costs at most one users query however many distinct actors it shows. Only found usernames are cached: system
+ * events carry a fresh random actor id each, so caching misses would fill the cache with ids that never repeat
+ * and evict the real actors.
+ */
+@Component
+public class UsernameDirectory {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final int MAX_ENTRIES = 10_000;
+    private static final String SYSTEM_ACTOR_ROLE = "SYSTEM";
+
+    private final UserRepository userRepository;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public UsernameDirectory(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns the usernames of the actors of the given audit rows. System events have no account behind their
+     * actor id, so they are skipped without a lookup.
+     */
+    public Map<UUID, String> actorUsernames(Collection<ActivityLog> logs) {
+        return usernames(logs.stream()
+                .filter(log -> !SYSTEM_ACTOR_ROLE.equals(log.getActorRole()))
+                .map(ActivityLog::getActorUserId)
+                .toList());
+    }
+
+    /**
+     * Returns the usernames of the given users; ids without an account are left out of the result.
+     */
+    public Map<UUID, String> usernames(Collection<UUID> userIds) {
+        Map<UUID, String> usernames = new HashMap<>();
+        Set<UUID> misses = new LinkedHashSet<>();
+        Instant now = Instant.now();
+        for (UUID userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            Entry entry = entries.get(userId);
+            if (entry == null || !entry.expiresAt().isAfter(now)) {
+                misses.add(userId);
+            } else {
+                usernames.put(userId, entry.username());
+            }
+        }
+        if (misses.isEmpty()) {
+            return usernames;
+        }
+
+        List<User> users = userRepository.findAllById(misses);
+        if (entries.size() + users.size() > MAX_ENTRIES) {
+            entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+            if (entries.size() + users.size() > MAX_ENTRIES) {
+                entries.clear();
+            }
+        }
+
+        Instant expiresAt = now.plus(TTL);
+        for (User user : users) {
+            usernames.put(user.getId(), user.getUsername());
+            entries.put(user.getId(), new Entry(user.getUsername(), expiresAt));
+        }
+        return usernames;
+    }
+
+    private record Entry(String username, Instant expiresAt) {
+    }
+}
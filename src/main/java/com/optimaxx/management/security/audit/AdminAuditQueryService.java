@@ -4,7 +4,9 @@ import com.optimaxx.management.domain.model.ActivityLog;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
 import com.optimaxx.management.interfaces.rest.dto.ActivityLogEventResponse;
 import com.optimaxx.management.security.StoreContext;
+import com.optimaxx.management.security.UsernameDirectory;
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,9 +20,11 @@ import org.springframework.transaction.annotation.Transactional;
 public class AdminAuditQueryService {
 
     private final ActivityLogRepository activityLogRepository;
+    private final UsernameDirectory usernameDirectory;
 
-    public AdminAuditQueryService(ActivityLogRepository activityLogRepository) {
+    public AdminAuditQueryService(ActivityLogRepository activityLogRepository, UsernameDirectory usernameDirectory) {
         this.activityLogRepository = activityLogRepository;
+        this.usernameDirectory = usernameDirectory;
     }
 
     @Transactional(readOnly = true)
@@ -52,13 +56,16 @@ public class AdminAuditQueryService {
             spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("occurredAt"), to));
         }
 
-        return activityLogRepository.findAll(spec, pageable).map(this::toResponse);
+        Page<ActivityLog> logs = activityLogRepository.findAll(spec, pageable);
+        Map<UUID, String> usernames = usernameDirectory.actorUsernames(logs.getContent());
+        return logs.map(log -> toResponse(log, usernames.get(log.getActorUserId())));
     }
 
-    private ActivityLogEventResponse toResponse(ActivityLog log) {
+    private ActivityLogEventResponse toResponse(ActivityLog log, String actorUsername) {
         return new ActivityLogEventResponse(
                 log.getId(),
                 log.getActorUserId(),
+                actorUsername,
                 log.getActorRole(),
                 log.getAction(),
                 log.getResourceType(),
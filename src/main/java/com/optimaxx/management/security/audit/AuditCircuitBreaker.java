@@ -0,0 +1,116 @@
+package com.optimaxx.management.security.audit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Closed / open / half-open breaker in front of the ClickHouse endpoint. It opens after {@code failureThreshold}
+ * consecutive failed inserts and stays open for a backoff that doubles with every failed probe, with random
+ * jitter so that nodes do not probe in lockstep, and never exceeds {@code maxBackoffMs}. Only an unreachable,
+ * timing-out or failing server counts as a failure; a request the server refuses does not. Once the backoff has elapsed
+ * a single caller is let through as the half-open probe; its outcome closes the breaker or opens it again.
+ */
+final class AuditCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AuditCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double jitter;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private long openedAt;
+    private long retryAt;
+    private long openedCount;
+
+    AuditCircuitBreaker(ClickhouseAuditCircuitProperties properties, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(properties.getFailureThreshold(), 1);
+        this.initialBackoffNanos = Duration.ofMillis(Math.max(properties.getInitialBackoffMs(), 1)).toNanos();
+        this.maxBackoffNanos = Math.max(Duration.ofMillis(properties.getMaxBackoffMs()).toNanos(), initialBackoffNanos);
+        this.jitter = Math.min(Math.max(properties.getJitter(), 0), 1);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a caller on the request path may send. Only a closed breaker lets these through; probing is left
+     * to the background flush so that request threads never wait on a ClickHouse that is known to be down.
+     */
+    synchronized boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Whether the background flush may send. While open, the first call after the backoff has elapsed moves
+     * the breaker to half-open and becomes the probe.
+     */
+    synchronized boolean tryProbe() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && nanoClock.getAsLong() - retryAt >= 0) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns how long the breaker had been open when this success closed it, or {@code null} if it was closed.
+     */
+    synchronized Duration onSuccess() {
+        consecutiveFailures = 0;
+        consecutiveOpens = 0;
+        if (state == State.CLOSED) {
+            return null;
+        }
+        state = State.CLOSED;
+        Duration open = Duration.ofNanos(nanoClock.getAsLong() - openedAt);
+        log.info("ClickHouse audit circuit closed after {} ms", open.toMillis());
+        return open;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            openedAt = nanoClock.getAsLong();
+            openedCount++;
+            open();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized long openedCount() {
+        return openedCount;
+    }
+
+    private void open() {
+        long backoff = initialBackoffNanos << Math.min(consecutiveOpens, 30);
+        if (backoff <= 0 || backoff > maxBackoffNanos) {
+            backoff = maxBackoffNanos;
+        }
+        if (jitter > 0) {
+            backoff += (long) (backoff * jitter * ThreadLocalRandom.current().nextDouble(-1, 1));
+            backoff = Math.min(backoff, maxBackoffNanos);
+        }
+        consecutiveOpens++;
+        state = State.OPEN;
+        retryAt = nanoClock.getAsLong() + backoff;
+        log.warn("ClickHouse audit circuit open after {} consecutive failures; next probe in {} ms",
+                consecutiveFailures, Duration.ofNanos(backoff).toMillis());
+    }
+}
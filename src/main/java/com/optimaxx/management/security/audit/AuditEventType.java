@@ -28,6 +28,7 @@ public enum AuditEventType {
     INVENTORY_ITEM_CREATED,
     INVENTORY_ITEM_DELETED,
     INVENTORY_STOCK_CHANGED,
+    INVENTORY_ITEMS_IMPORTED,
     SALE_STOCK_DEDUCTED,
     REPAIR_STOCK_DEDUCTED,
     REPAIR_STOCK_RELEASED,
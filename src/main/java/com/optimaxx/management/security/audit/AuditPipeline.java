@@ -0,0 +1,261 @@
+package com.optimaxx.management.security.audit;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import com.optimaxx.management.domain.repository.ActivityLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Takes audit writes off the request path. Events are captured on the caller's thread, handed to a bounded
+ * ring once the surrounding transaction completes, and written by a single consumer that batch-inserts them
+ * into {@code activity_logs} and publishes them to ClickHouse when a batch fills or the flush interval passes.
+ * Events of a rolled-back transaction still reach ClickHouse but not {@code activity_logs}, as with the
+ * synchronous writes. A full ring makes the caller write its event itself, so nothing is dropped; the same
+ * happens once the consumer has stopped at shutdown.
+ */
+@Component
+public class AuditPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPipeline.class);
+
+    private final ActivityLogRepository activityLogRepository;
+    private final ClickhouseAuditPublisher clickhouseAuditPublisher;
+    private final boolean async;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuditRingBuffer<PendingAudit> ring;
+    private final ExecutorService consumer;
+    private final Counter enqueuedCounter;
+    private final Counter overflowCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private volatile boolean running = true;
+    private volatile boolean stopped;
+    private volatile Thread consumerThread;
+    private volatile int batchFill;
+
+    public AuditPipeline(ActivityLogRepository activityLogRepository,
+                         ClickhouseAuditPublisher clickhouseAuditPublisher,
+                         AuditPipelineProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.activityLogRepository = activityLogRepository;
+        this.clickhouseAuditPublisher = clickhouseAuditPublisher;
+        this.async = !"sync".equalsIgnoreCase(properties.mode());
+        this.batchSize = properties.batchSize() > 0 ? properties.batchSize() : 200;
+        this.flushIntervalNanos = Duration.ofMillis(properties.flushIntervalMs() > 0 ? properties.flushIntervalMs() : 250).toNanos();
+        this.ring = new AuditRingBuffer<>(properties.capacity() > 0 ? properties.capacity() : 8_192);
+
+        this.enqueuedCounter = Counter.builder("optimaxx.audit.pipeline.enqueued")
+                .description("Audit events handed to the asynchronous writer")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("optimaxx.audit.pipeline.overflow")
+                .description("Audit events written on the caller's thread because the ring was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("optimaxx.audit.pipeline.failed")
+                .description("Audit events that could not be inserted into activity_logs")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("optimaxx.audit.pipeline.flush.duration")
+                .description("Duration of one audit batch write")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.pipeline.queue.size", ring, AuditRingBuffer::size)
+                .description("Audit events waiting in the ring")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.pipeline.queue.capacity", ring, AuditRingBuffer::capacity)
+                .description("Capacity of the audit ring")
+                .register(meterRegistry);
+
+        if (async) {
+            this.consumer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("audit-pipeline").factory());
+            this.consumer.execute(this::drainLoop);
+        } else {
+            this.consumer = null;
+        }
+    }
+
+    public void submit(ActivityLog activityLog) {
+        if (!async) {
+            ActivityLog saved = activityLogRepository.save(activityLog);
+            clickhouseAuditPublisher.publish(saved);
+            return;
+        }
+
+        handOff(List.of(activityLog));
+    }
+
+    /**
+     * Submits the events of one unit of work together, with one transaction callback and one wake-up of the
+     * consumer for the whole list.
+     */
+    public void submitAll(List<ActivityLog> activityLogs) {
+        if (activityLogs.isEmpty()) {
+            return;
+        }
+        if (!async) {
+            clickhouseAuditPublisher.publishAll(activityLogRepository.saveAll(activityLogs));
+            return;
+        }
+
+        handOff(activityLogs);
+    }
+
+    private void handOff(List<ActivityLog> activityLogs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(activityLogs, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                enqueue(activityLogs, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Stops the consumer after it has written what is queued. Events that arrive later, for example from
+     * transactions that complete while the context closes, are written on the caller's thread.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (consumer == null || stopped) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumerThread);
+        consumer.shutdown();
+        if (!consumer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Audit pipeline did not drain within 10s; {} events left unwritten", ring.size());
+            return;
+        }
+        stopped = true;
+        drainStopped();
+    }
+
+    private void enqueue(List<ActivityLog> activityLogs, boolean persist) {
+        List<PendingAudit> overflow = new ArrayList<>(0);
+        for (ActivityLog activityLog : activityLogs) {
+            PendingAudit pending = new PendingAudit(activityLog, persist);
+            if (stopped) {
+                overflow.add(pending);
+            } else if (ring.offer(pending)) {
+                enqueuedCounter.increment();
+            } else {
+                overflow.add(pending);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            overflowCounter.increment(overflow.size());
+            write(overflow);
+        }
+        if (stopped) {
+            // Offered while the consumer was stopping and after its last drain.
+            drainStopped();
+        } else if (ring.size() + batchFill >= batchSize) {
+            LockSupport.unpark(consumerThread);
+        }
+    }
+
+    /**
+     * Writes what is left in the ring once the consumer has terminated. The lock keeps the ring single-consumer
+     * between shutdown and late callers.
+     */
+    private synchronized void drainStopped() {
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        while (ring.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void drainLoop() {
+        consumerThread = Thread.currentThread();
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running) {
+            boolean wasEmpty = batch.isEmpty();
+            if (ring.drainTo(batch, batchSize - batch.size()) > 0 && wasEmpty) {
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+            batchFill = batch.size();
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            } else if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0) {
+                write(batch);
+                batch.clear();
+                batchFill = 0;
+            } else if (ring.size() + batch.size() < batchSize) {
+                LockSupport.parkNanos(deadline - System.nanoTime());
+            }
+        }
+
+        do {
+            write(batch);
+            batch.clear();
+        } while (ring.drainTo(batch, batchSize) > 0);
+    }
+
+    private void write(List<PendingAudit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ActivityLog> all = new ArrayList<>(batch.size());
+        List<ActivityLog> committed = new ArrayList<>(batch.size());
+        for (PendingAudit pending : batch) {
+            all.add(pending.activityLog());
+            if (pending.persist()) {
+                committed.add(pending.activityLog());
+            }
+        }
+
+        flushTimer.record(() -> {
+            insert(committed);
+            if (committed.size() < all.size()) {
+                activityLogRepository.assignActivityLogIds(all);
+            }
+            try {
+                clickhouseAuditPublisher.publishAll(all);
+            } catch (RuntimeException ex) {
+                log.warn("ClickHouse audit publish failed for {} events", all.size(), ex);
+            }
+        });
+    }
+
+    private void insert(List<ActivityLog> activityLogs) {
+        if (activityLogs.isEmpty()) {
+            return;
+        }
+        try {
+            activityLogRepository.insertActivityLogs(activityLogs);
+        } catch (RuntimeException batchFailure) {
+            log.warn("Audit batch insert of {} events failed, retrying one by one", activityLogs.size(), batchFailure);
+            for (ActivityLog activityLog : activityLogs) {
+                try {
+                    activityLogRepository.insertActivityLogs(List.of(activityLog));
+                } catch (RuntimeException ex) {
+                    failedCounter.increment();
+                    log.error("Audit event {} on {} {} could not be stored", activityLog.getAction(),
+                            activityLog.getResourceType(), activityLog.getResourceId(), ex);
+                }
+            }
+        }
+    }
+
+    private record PendingAudit(ActivityLog activityLog, boolean persist) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.optimaxx.management.security.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code mode} is {@code async} (default) or {@code sync}; sync writes every event on the caller's thread and
+ * transaction, as before the pipeline existed.
+ */
+@ConfigurationProperties(prefix = "audit.pipeline")
+public record AuditPipelineProperties(String mode, int capacity, int batchSize, long flushIntervalMs) {
+}
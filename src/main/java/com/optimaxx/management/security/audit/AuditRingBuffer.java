@@ -0,0 +1,71 @@
+package com.optimaxx.management.security.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring. Producers claim a slot with one compare-and-set on the tail
+ * and publish it through the slot's sequence number, so request threads never take a lock; {@link #offer}
+ * returns {@code false} instead of waiting when the ring is full. Only one thread may drain it.
+ */
+final class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final int mask;
+    private volatile long head;
+
+    AuditRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(minCapacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available < 0) {
+                return false;
+            }
+            if (available == 0 && tail.compareAndSet(position, position + 1)) {
+                slots.set(index, element);
+                sequences.set(index, position + 1);
+                return true;
+            }
+        }
+    }
+
+    int drainTo(List<E> target, int limit) {
+        int drained = 0;
+        long position = head;
+        while (drained < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(slots.getAndSet(index, null));
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(tail.get() - head, 0);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,178 @@
+package com.optimaxx.management.security.audit;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that encoded audit rows are written into back to back, remembering where each row ends.
+ * One buffer is reused per thread, so encoding a batch allocates nothing once the buffer has grown to size.
+ */
+final class AuditRowBuffer {
+
+    private static final int MAX_RETAINED_BYTES = 4 * 1024 * 1024;
+
+    private final int initialCapacity;
+    private byte[] bytes;
+    private int size;
+    private int[] rowEnds = new int[64];
+    private int rowCount;
+
+    AuditRowBuffer(int initialCapacity) {
+        this.initialCapacity = Math.max(initialCapacity, 64);
+        this.bytes = new byte[this.initialCapacity];
+    }
+
+    /**
+     * Empties the buffer, dropping an oversized backing array so that one huge batch is not retained forever.
+     */
+    void reset() {
+        if (bytes.length > MAX_RETAINED_BYTES) {
+            bytes = new byte[initialCapacity];
+        }
+        size = 0;
+        rowCount = 0;
+    }
+
+    void endRow() {
+        if (rowCount == rowEnds.length) {
+            rowEnds = Arrays.copyOf(rowEnds, rowCount * 2);
+        }
+        rowEnds[rowCount++] = size;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    int rowStart(int row) {
+        return row == 0 ? 0 : rowEnds[row - 1];
+    }
+
+    int rowEnd(int row) {
+        return rowEnds[row];
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void write(int value) {
+        if (size == bytes.length) {
+            grow(1);
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    void write(byte[] source, int offset, int length) {
+        if (bytes.length - size < length) {
+            grow(length);
+        }
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    void writeLongLE(long value) {
+        if (bytes.length - size < Long.BYTES) {
+            grow(Long.BYTES);
+        }
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[size++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    void writeVarUInt(long value) {
+        while ((value & ~0x7FL) != 0) {
+            write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        write((int) value);
+    }
+
+    /**
+     * Writes {@code value} as UTF-8 without an intermediate {@code byte[]}. Unpaired surrogates become {@code ?}.
+     */
+    void writeUtf8(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                write(c);
+            } else {
+                i = writeUtf8(value, i);
+            }
+        }
+    }
+
+    /**
+     * Writes the non-ASCII character at {@code index}, and its low surrogate if it has one, and returns the index
+     * of the last character consumed.
+     */
+    int writeUtf8(String value, int index) {
+        char c = value.charAt(index);
+        if (c < 0x800) {
+            write(0xC0 | (c >> 6));
+            write(0x80 | (c & 0x3F));
+            return index;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            write(0xF0 | (codePoint >> 18));
+            write(0x80 | ((codePoint >> 12) & 0x3F));
+            write(0x80 | ((codePoint >> 6) & 0x3F));
+            write(0x80 | (codePoint & 0x3F));
+            return index + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            write('?');
+            return index;
+        }
+        write(0xE0 | (c >> 12));
+        write(0x80 | ((c >> 6) & 0x3F));
+        write(0x80 | (c & 0x3F));
+        return index;
+    }
+
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * View for stream APIs such as {@code GZIPOutputStream} that appends to this buffer.
+     */
+    OutputStream asOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int value) {
+                AuditRowBuffer.this.write(value);
+            }
+
+            @Override
+            public void write(byte[] source, int offset, int length) {
+                AuditRowBuffer.this.write(source, offset, length);
+            }
+        };
+    }
+
+    private void grow(int needed) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + needed));
+    }
+}
@@ -0,0 +1,43 @@
+package com.optimaxx.management.security.audit;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+
+/**
+ * Encodes activity logs as rows of {@code audit_events} in one ClickHouse input format. Rows are written straight
+ * into a reusable {@link AuditRowBuffer}; an encoded row is self-delimiting, so a batch body is simply the rows
+ * concatenated.
+ */
+interface AuditRowEncoder {
+
+    /**
+     * Tag stored with each spooled row so that rows are replayed in the format they were encoded in.
+     */
+    byte id();
+
+    /**
+     * ClickHouse input format name, as used in {@code INSERT ... FORMAT}.
+     */
+    String format();
+
+    void encode(ActivityLog activityLog, AuditRowBuffer out);
+
+    static AuditRowEncoder forFormat(String format) {
+        if (format == null || format.isBlank() || JsonEachRowEncoder.INSTANCE.format().equalsIgnoreCase(format)) {
+            return JsonEachRowEncoder.INSTANCE;
+        }
+        if (RowBinaryEncoder.INSTANCE.format().equalsIgnoreCase(format)) {
+            return RowBinaryEncoder.INSTANCE;
+        }
+        throw new IllegalArgumentException("Unsupported ClickHouse audit format: " + format);
+    }
+
+    static AuditRowEncoder forId(byte id) {
+        if (id == JsonEachRowEncoder.INSTANCE.id()) {
+            return JsonEachRowEncoder.INSTANCE;
+        }
+        if (id == RowBinaryEncoder.INSTANCE.id()) {
+            return RowBinaryEncoder.INSTANCE;
+        }
+        return null;
+    }
+}
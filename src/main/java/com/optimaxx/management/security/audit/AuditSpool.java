@@ -0,0 +1,492 @@
+package com.optimaxx.management.security.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only, segmented on-disk queue for audit rows that ClickHouse did not accept. Each record is framed as
+ * {@code length | crc32 | format id | encoded row}; segments rotate at a size limit and the oldest whole segment
+ * is evicted once the spool outgrows its cap. A cursor file records how far delivery has got, so undelivered rows
+ * survive restarts. Delivery is at least once: a crash between a successful insert and the cursor update resends
+ * that batch. On recovery a torn or corrupt tail is truncated at the last valid frame.
+ *
+ * <p>Rows that ClickHouse rejects on their own are moved to a dead-letter file in the same frame format, so
+ * they neither block the rows behind them nor get lost. The spool holds a file lock on its directory while
+ * open, and a second spool on the same directory, in this process or another, fails to open.
+ */
+final class AuditSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSpool.class);
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CURSOR_FILE = "cursor";
+    private static final String DEAD_LETTER_FILE = "dead-letter.spool";
+    private static final String LOCK_FILE = "lock";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private boolean open;
+    private FileChannel lockChannel;
+    private FileChannel writer;
+    private long readSegment;
+    private long readOffset;
+    private long pendingRecords;
+    private long droppedRecords;
+    private long quarantinedRecords;
+    private long totalBytes;
+
+    AuditSpool(Path directory, long segmentBytes, long maxBytes) {
+        this.directory = directory;
+        this.segmentBytes = Math.max(segmentBytes, 4_096);
+        this.maxBytes = Math.max(maxBytes, this.segmentBytes * 2);
+    }
+
+    /**
+     * Creates the directory, takes its lock and recovers what earlier runs left behind.
+     *
+     * @throws IllegalStateException if another spool holds the directory
+     */
+    synchronized void open() throws IOException {
+        ensureOpen(true);
+    }
+
+    /**
+     * Appends the rows of {@code rows} from {@code fromRow} on, tagged with the id of the format they were
+     * encoded in.
+     */
+    synchronized void append(byte format, AuditRowBuffer rows, int fromRow) throws IOException {
+        int count = rows.rowCount() - fromRow;
+        if (count <= 0) {
+            return;
+        }
+        ensureOpen(true);
+
+        ByteBuffer frames = frames(format, rows, fromRow, rows.rowCount());
+        int length = frames.remaining();
+        Segment active = segments.lastEntry().getValue();
+        if (active.size > 0 && active.size + length > segmentBytes) {
+            active = rotate();
+        }
+        while (frames.hasRemaining()) {
+            writer.write(frames);
+        }
+        writer.force(false);
+
+        active.size += length;
+        active.records += count;
+        totalBytes += length;
+        pendingRecords += count;
+        enforceLimit();
+    }
+
+    /**
+     * Reads up to {@code maxRecords} undelivered rows of one format from the oldest segment into {@code rows},
+     * without consuming them.
+     */
+    synchronized Batch read(int maxRecords, AuditRowBuffer rows) throws IOException {
+        rows.reset();
+        if (!ensureOpen(false)) {
+            return Batch.EMPTY;
+        }
+
+        while (true) {
+            Segment segment = segments.get(readSegment);
+            if (segment == null) {
+                return Batch.EMPTY;
+            }
+
+            long startOffset = readOffset;
+            long position = startOffset;
+            boolean corrupt = false;
+            byte format = 0;
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                while (rows.rowCount() < maxRecords && position < segment.size) {
+                    byte[] payload = readFrame(channel, position, segment.size);
+                    if (payload == null || payload.length == 0) {
+                        corrupt = true;
+                        break;
+                    }
+                    if (rows.rowCount() == 0) {
+                        format = payload[0];
+                    } else if (payload[0] != format) {
+                        break;
+                    }
+                    rows.write(payload, 1, payload.length - 1);
+                    rows.endRow();
+                    position += HEADER_BYTES + payload.length;
+                }
+            }
+
+            if (corrupt && rows.rowCount() == 0) {
+                log.error("Corrupt audit spool record in {} at offset {}; skipping the rest of the segment", segment.path, position);
+                moveCursor(segment.id, segment.size);
+                long remaining = countPending();
+                droppedRecords += pendingRecords - remaining;
+                pendingRecords = remaining;
+                if (segment.id == segments.lastKey()) {
+                    return Batch.EMPTY;
+                }
+                continue;
+            }
+            if (rows.rowCount() > 0) {
+                return new Batch(format, rows.rowCount(), segment.id, startOffset, position);
+            }
+            if (segment.id == segments.lastKey()) {
+                return Batch.EMPTY;
+            }
+            deleteSegment(segment);
+            moveCursor(segments.ceilingKey(segment.id), 0);
+        }
+    }
+
+    synchronized void acknowledge(Batch batch) throws IOException {
+        if (batch.rowCount() == 0 || batch.segmentId() != readSegment || batch.endOffset() <= readOffset) {
+            return;
+        }
+
+        pendingRecords -= batch.rowCount();
+        Segment segment = segments.get(readSegment);
+        if (batch.endOffset() >= segment.size && segment.id != segments.lastKey()) {
+            deleteSegment(segment);
+            moveCursor(segments.ceilingKey(segment.id), 0);
+        } else {
+            moveCursor(readSegment, batch.endOffset());
+        }
+    }
+
+    /**
+     * Appends rows {@code [from, to)} to the dead-letter file. They are kept for inspection and manual replay
+     * and are not counted as pending.
+     */
+    synchronized void quarantine(byte format, AuditRowBuffer rows, int from, int to) throws IOException {
+        if (to <= from) {
+            return;
+        }
+        ensureOpen(true);
+
+        ByteBuffer frames = frames(format, rows, from, to);
+        try (FileChannel deadLetter = FileChannel.open(directory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (frames.hasRemaining()) {
+                deadLetter.write(frames);
+            }
+            deadLetter.force(false);
+        }
+        quarantinedRecords += to - from;
+    }
+
+    /**
+     * Acknowledges the first {@code rowCount} rows of {@code batch}.
+     */
+    synchronized void acknowledge(Batch batch, int rowCount) throws IOException {
+        if (rowCount >= batch.rowCount()) {
+            acknowledge(batch);
+            return;
+        }
+        Segment segment = segments.get(batch.segmentId());
+        if (rowCount <= 0 || segment == null) {
+            return;
+        }
+        long endOffset = batch.startOffset();
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            for (int row = 0; row < rowCount; row++) {
+                header.clear();
+                readFully(channel, header, endOffset);
+                endOffset += HEADER_BYTES + header.getInt(0);
+            }
+        }
+        acknowledge(new Batch(batch.format(), rowCount, batch.segmentId(), batch.startOffset(), endOffset));
+    }
+
+    synchronized long pendingRecords() {
+        return pendingRecords;
+    }
+
+    synchronized long droppedRecords() {
+        return droppedRecords;
+    }
+
+    synchronized long quarantinedRecords() {
+        return quarantinedRecords;
+    }
+
+    synchronized long bytes() {
+        return totalBytes;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    synchronized void close() throws IOException {
+        try {
+            if (writer != null) {
+                writer.force(true);
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            open = false;
+            if (lockChannel != null) {
+                // Closing the channel releases the lock.
+                lockChannel.close();
+                lockChannel = null;
+            }
+        }
+    }
+
+    private boolean ensureOpen(boolean create) throws IOException {
+        if (open) {
+            return true;
+        }
+        if (!create && !Files.isDirectory(directory)) {
+            return false;
+        }
+        Files.createDirectories(directory);
+        lock();
+        try {
+            recover();
+        } catch (IOException | RuntimeException ex) {
+            lockChannel.close();
+            lockChannel = null;
+            throw ex;
+        }
+        open = true;
+        return true;
+    }
+
+    private void lock() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            acquired = null;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        if (acquired == null) {
+            channel.close();
+            throw new IllegalStateException("Audit spool directory " + directory + " is in use by another spool");
+        }
+        lockChannel = channel;
+    }
+
+    private static ByteBuffer frames(byte format, AuditRowBuffer rows, int from, int to) {
+        int length = rows.rowEnd(to - 1) - rows.rowStart(from) + (to - from) * (HEADER_BYTES + 1);
+        ByteBuffer frames = ByteBuffer.allocate(length);
+        CRC32 crc = new CRC32();
+        byte[] data = rows.array();
+        for (int row = from; row < to; row++) {
+            int start = rows.rowStart(row);
+            int rowLength = rows.rowEnd(row) - start;
+            crc.reset();
+            crc.update(format);
+            crc.update(data, start, rowLength);
+            frames.putInt(rowLength + 1).putInt((int) crc.getValue()).put(format).put(data, start, rowLength);
+        }
+        return frames.flip();
+    }
+
+    private void recover() throws IOException {
+        segments.clear();
+        totalBytes = 0;
+        pendingRecords = 0;
+        readSegment = 0;
+        readOffset = 0;
+
+        Path cursor = directory.resolve(CURSOR_FILE);
+        if (Files.exists(cursor)) {
+            String[] parts = Files.readString(cursor).trim().split(" ");
+            readSegment = Long.parseLong(parts[0]);
+            readOffset = Long.parseLong(parts[1]);
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            if (id < readSegment) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            Segment segment = scan(id, path);
+            segments.put(id, segment);
+            totalBytes += segment.size;
+            pendingRecords += id == readSegment ? countFrom(segment, readOffset) : segment.records;
+        }
+
+        if (segments.isEmpty()) {
+            readSegment = Math.max(readSegment, 1);
+            readOffset = 0;
+        } else if (readSegment < segments.firstKey()) {
+            readSegment = segments.firstKey();
+            readOffset = 0;
+        }
+        moveCursor(readSegment, readOffset);
+
+        // Always append to a fresh segment so nothing is written after a tail that was cut short.
+        openWriter(segments.isEmpty() ? readSegment : segments.lastKey() + 1);
+        if (pendingRecords > 0) {
+            log.info("Recovered {} undelivered audit events from {}", pendingRecords, directory);
+        }
+    }
+
+    private Segment scan(long id, Path path) throws IOException {
+        Segment segment = new Segment(id, path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            long position = 0;
+            byte[] payload;
+            while (position < fileSize && (payload = readFrame(channel, position, fileSize)) != null) {
+                position += HEADER_BYTES + payload.length;
+                segment.records++;
+            }
+            if (position < fileSize) {
+                log.warn("Truncating audit spool segment {} from {} to {} bytes", path, fileSize, position);
+                channel.truncate(position);
+            }
+            segment.size = position;
+        }
+        return segment;
+    }
+
+    private Segment rotate() throws IOException {
+        writer.force(true);
+        writer.close();
+        return openWriter(segments.lastKey() + 1);
+    }
+
+    private Segment openWriter(long id) throws IOException {
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        Segment segment = new Segment(id, path);
+        segment.size = writer.size();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void enforceLimit() throws IOException {
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Map.Entry<Long, Segment> oldest = segments.firstEntry();
+            Segment segment = oldest.getValue();
+            long lost = segment.id == readSegment ? countFrom(segment, readOffset) : segment.records;
+            droppedRecords += lost;
+            pendingRecords -= lost;
+            log.warn("Audit spool over {} bytes; evicting {} undelivered events from {}", maxBytes, lost, segment.path);
+            deleteSegment(segment);
+            if (segment.id >= readSegment) {
+                moveCursor(segments.firstKey(), 0);
+            }
+        }
+    }
+
+    private void deleteSegment(Segment segment) throws IOException {
+        segments.remove(segment.id);
+        totalBytes -= segment.size;
+        Files.deleteIfExists(segment.path);
+    }
+
+    private void moveCursor(long segmentId, long offset) throws IOException {
+        readSegment = segmentId;
+        readOffset = offset;
+        Path temp = directory.resolve(CURSOR_FILE + ".tmp");
+        Files.writeString(temp, segmentId + " " + offset);
+        Files.move(temp, directory.resolve(CURSOR_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long countFrom(Segment segment, long offset) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            long position = offset;
+            byte[] payload;
+            while (position < segment.size && (payload = readFrame(channel, position, segment.size)) != null) {
+                position += HEADER_BYTES + payload.length;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long countPending() throws IOException {
+        long pending = 0;
+        for (Segment segment : segments.tailMap(readSegment, true).values()) {
+            pending += segment.id == readSegment ? countFrom(segment, readOffset) : segment.records;
+        }
+        return pending;
+    }
+
+    private static byte[] readFrame(FileChannel channel, long position, long limit) throws IOException {
+        if (limit - position < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, position);
+        int length = header.getInt(0);
+        int expectedCrc = header.getInt(4);
+        if (length < 0 || length > limit - position - HEADER_BYTES) {
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        return payload.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of audit spool segment");
+            }
+        }
+    }
+
+    record Batch(byte format, int rowCount, long segmentId, long startOffset, long endOffset) {
+
+        static final Batch EMPTY = new Batch((byte) 0, 0, -1, 0, 0);
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private long size;
+        private long records;
+
+        private Segment(long id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+}
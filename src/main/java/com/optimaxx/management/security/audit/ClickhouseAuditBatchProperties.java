@@ -0,0 +1,44 @@
+package com.optimaxx.management.security.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "clickhouse.audit.batch")
+public class ClickhouseAuditBatchProperties {
+
+    private int maxRows = 1000;
+    private boolean compress = true;
+    private boolean asyncInsert = false;
+    private String format = "JSONEachRow";
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public boolean isAsyncInsert() {
+        return asyncInsert;
+    }
+
+    public void setAsyncInsert(boolean asyncInsert) {
+        this.asyncInsert = asyncInsert;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
@@ -6,6 +6,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableScheduling
-@EnableConfigurationProperties({ClickhouseProperties.class, ClickhouseAuditRetryProperties.class})
+@EnableConfigurationProperties({
+        ClickhouseProperties.class,
+        ClickhouseAuditRetryProperties.class,
+        ClickhouseAuditBatchProperties.class,
+        ClickhouseAuditSpoolProperties.class,
+        ClickhouseAuditCircuitProperties.class,
+        AuditPipelineProperties.class
+})
 public class ClickhouseAuditConfig {
 }
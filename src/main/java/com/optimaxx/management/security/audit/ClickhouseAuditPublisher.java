@@ -1,8 +1,13 @@
 package com.optimaxx.management.security.audit;
 
 import com.optimaxx.management.domain.model.ActivityLog;
+import java.util.List;
 
 public interface ClickhouseAuditPublisher {
 
     void publish(ActivityLog activityLog);
+
+    default void publishAll(List<ActivityLog> activityLogs) {
+        activityLogs.forEach(this::publish);
+    }
 }
@@ -5,27 +5,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "clickhouse.audit.retry")
 public class ClickhouseAuditRetryProperties {
 
-    private int maxQueueSize = 1000;
-    private int maxAttempts = 5;
     private long fixedDelayMs = 5000;
     private int flushBatchSize = 100;
 
-    public int getMaxQueueSize() {
-        return maxQueueSize;
-    }
-
-    public void setMaxQueueSize(int maxQueueSize) {
-        this.maxQueueSize = maxQueueSize;
-    }
-
-    public int getMaxAttempts() {
-        return maxAttempts;
-    }
-
-    public void setMaxAttempts(int maxAttempts) {
-        this.maxAttempts = maxAttempts;
-    }
-
     public long getFixedDelayMs() {
         return fixedDelayMs;
     }
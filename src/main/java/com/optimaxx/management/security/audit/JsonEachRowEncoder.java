@@ -0,0 +1,189 @@
+package com.optimaxx.management.security.audit;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * {@code JSONEachRow} encoder that escapes each value in a single pass while writing its UTF-8 bytes, and prints
+ * UUIDs and timestamps digit by digit, so no intermediate strings are built. Missing values are written as
+ * empty strings and every row ends with a newline.
+ */
+final class JsonEachRowEncoder implements AuditRowEncoder {
+
+    static final JsonEachRowEncoder INSTANCE = new JsonEachRowEncoder();
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EVENT_ID = key("{\"event_id\":\"");
+    private static final byte[] TIMESTAMP = key("\",\"timestamp\":\"");
+    private static final byte[] ACTOR_USER_ID = key("\",\"actor_user_id\":\"");
+    private static final byte[] ACTOR_ROLE = key("\",\"actor_role\":\"");
+    private static final byte[] ACTION = key("\",\"action\":\"");
+    private static final byte[] RESOURCE_TYPE = key("\",\"resource_type\":\"");
+    private static final byte[] RESOURCE_ID = key("\",\"resource_id\":\"");
+    private static final byte[] BEFORE_JSON = key("\",\"before_json\":\"");
+    private static final byte[] AFTER_JSON = key("\",\"after_json\":\"");
+    private static final byte[] REQUEST_ID = key("\",\"request_id\":\"");
+    private static final byte[] IP_ADDRESS = key("\",\"ip_address\":\"");
+    private static final byte[] USER_AGENT = key("\",\"user_agent\":\"");
+    private static final byte[] STORE_ID = key("\",\"store_id\":\"");
+    private static final byte[] ROW_END = key("\"}\n");
+
+    private JsonEachRowEncoder() {
+    }
+
+    @Override
+    public byte id() {
+        return 'J';
+    }
+
+    @Override
+    public String format() {
+        return "JSONEachRow";
+    }
+
+    @Override
+    public void encode(ActivityLog activityLog, AuditRowBuffer out) {
+        write(out, EVENT_ID);
+        writeUuid(out, activityLog.getId());
+        write(out, TIMESTAMP);
+        writeTimestamp(out, activityLog.getOccurredAt());
+        write(out, ACTOR_USER_ID);
+        writeUuid(out, activityLog.getActorUserId());
+        write(out, ACTOR_ROLE);
+        writeEscaped(out, activityLog.getActorRole());
+        write(out, ACTION);
+        writeEscaped(out, activityLog.getAction());
+        write(out, RESOURCE_TYPE);
+        writeEscaped(out, activityLog.getResourceType());
+        write(out, RESOURCE_ID);
+        writeEscaped(out, activityLog.getResourceId());
+        write(out, BEFORE_JSON);
+        writeEscaped(out, activityLog.getBeforeJson());
+        write(out, AFTER_JSON);
+        writeEscaped(out, activityLog.getAfterJson());
+        write(out, REQUEST_ID);
+        writeEscaped(out, activityLog.getRequestId());
+        write(out, IP_ADDRESS);
+        writeEscaped(out, activityLog.getIpAddress());
+        write(out, USER_AGENT);
+        writeEscaped(out, activityLog.getUserAgent());
+        write(out, STORE_ID);
+        writeUuid(out, activityLog.getStoreId());
+        write(out, ROW_END);
+    }
+
+    private static void writeEscaped(AuditRowBuffer out, String value) {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                i = out.writeUtf8(value, i);
+            } else if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c >= 0x20) {
+                out.write(c);
+            } else if (c == '\n') {
+                out.write('\\');
+                out.write('n');
+            } else if (c == '\r') {
+                out.write('\\');
+                out.write('r');
+            } else if (c == '\t') {
+                out.write('\\');
+                out.write('t');
+            } else {
+                out.write('\\');
+                out.write('u');
+                out.write('0');
+                out.write('0');
+                out.write(HEX[c >> 4]);
+                out.write(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    private static void writeUuid(AuditRowBuffer out, UUID value) {
+        if (value == null) {
+            return;
+        }
+        long high = value.getMostSignificantBits();
+        long low = value.getLeastSignificantBits();
+        writeHex(out, high >>> 32, 8);
+        out.write('-');
+        writeHex(out, high >>> 16, 4);
+        out.write('-');
+        writeHex(out, high, 4);
+        out.write('-');
+        writeHex(out, low >>> 48, 4);
+        out.write('-');
+        writeHex(out, low, 12);
+    }
+
+    private static void writeHex(AuditRowBuffer out, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.write(HEX[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd HH:mm:ss.SSS} in UTC, converting epoch days to a civil date directly.
+     */
+    private static void writeTimestamp(AuditRowBuffer out, Instant instant) {
+        if (instant == null) {
+            return;
+        }
+        long epochSecond = instant.getEpochSecond();
+        long days = Math.floorDiv(epochSecond, 86_400);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400);
+
+        long shifted = days + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        long dayOfEra = shifted - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        writeDigits(out, year, 4);
+        out.write('-');
+        writeDigits(out, month, 2);
+        out.write('-');
+        writeDigits(out, day, 2);
+        out.write(' ');
+        writeDigits(out, secondOfDay / 3_600, 2);
+        out.write(':');
+        writeDigits(out, secondOfDay / 60 % 60, 2);
+        out.write(':');
+        writeDigits(out, secondOfDay % 60, 2);
+        out.write('.');
+        writeDigits(out, instant.getNano() / 1_000_000, 3);
+    }
+
+    private static void writeDigits(AuditRowBuffer out, long value, int digits) {
+        if (value < 0 || value >= POWERS_OF_TEN[digits]) {
+            byte[] text = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            out.write(text, 0, text.length);
+            return;
+        }
+        for (int divisor = POWERS_OF_TEN[digits - 1]; divisor > 0; divisor /= 10) {
+            out.write('0' + (int) (value / divisor % 10));
+        }
+    }
+
+    private static void write(AuditRowBuffer out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static byte[] key(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
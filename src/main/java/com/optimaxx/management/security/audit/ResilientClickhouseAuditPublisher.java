@@ -2,102 +2,219 @@ package com.optimaxx.management.security.audit;
 
 import com.optimaxx.management.domain.model.ActivityLog;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.Base64;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
-public class ResilientClickhouseAuditPublisher implements ClickhouseAuditPublisher {
+public class ResilientClickhouseAuditPublisher implements ClickhouseAuditPublisher, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(ResilientClickhouseAuditPublisher.class);
-    private static final String INSERT_QUERY = "INSERT INTO audit_events FORMAT JSONEachRow";
-    private static final DateTimeFormatter CLICKHOUSE_TIMESTAMP_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+    private static final String INSERT_QUERY = "INSERT INTO audit_events FORMAT ";
+    private static final String ASYNC_INSERT_SETTINGS = "&async_insert=1&wait_for_async_insert=1";
+    private static final int POOLED_BUFFERS = 4;
 
     private final ClickhouseProperties clickhouseProperties;
     private final ClickhouseAuditRetryProperties retryProperties;
+    private final ClickhouseAuditBatchProperties batchProperties;
     private final HttpClient httpClient;
-    private final Queue<PendingAudit> retryQueue = new ConcurrentLinkedQueue<>();
+    private final AuditRowEncoder encoder;
+    private final String endpoint;
+    private final AuditSpool spool;
+    private final AuditCircuitBreaker circuitBreaker;
+    private final Timer insertSuccessTimer;
+    private final Timer insertFailureTimer;
+    private final Timer circuitOpenTimer;
+    private final Counter shortCircuitedCounter;
     private final AtomicLong droppedCount = new AtomicLong(0);
     private final AtomicLong publishFailureCount = new AtomicLong(0);
     private final AtomicLong retryAttemptCount = new AtomicLong(0);
     private final AtomicLong publishedSuccessCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final BlockingQueue<Buffers> bufferPool = new ArrayBlockingQueue<>(POOLED_BUFFERS);
 
     public ResilientClickhouseAuditPublisher(ClickhouseProperties clickhouseProperties,
                                         ClickhouseAuditRetryProperties retryProperties,
+                                        ClickhouseAuditBatchProperties batchProperties,
+                                        ClickhouseAuditSpoolProperties spoolProperties,
+                                        ClickhouseAuditCircuitProperties circuitProperties,
                                         MeterRegistry meterRegistry) {
         this.clickhouseProperties = clickhouseProperties;
         this.retryProperties = retryProperties;
+        this.batchProperties = batchProperties;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(2))
                 .build();
+        this.encoder = AuditRowEncoder.forFormat(batchProperties.getFormat());
+        this.endpoint = endpoint(encoder);
 
-        Gauge.builder("optimaxx.audit.retry.queue.size", this, ResilientClickhouseAuditPublisher::getPendingQueueSize)
-                .description("Pending audit events waiting for ClickHouse retry")
+        this.spool = new AuditSpool(Path.of(spoolProperties.getDirectory()), spoolProperties.getSegmentBytes(),
+                spoolProperties.getMaxBytes());
+        if (!isBlank(clickhouseProperties.url())) {
+            try {
+                spool.open();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not open the audit spool in " + spoolProperties.getDirectory(), ex);
+            }
+        }
+        this.circuitBreaker = new AuditCircuitBreaker(circuitProperties, System::nanoTime);
+
+        Gauge.builder("optimaxx.audit.spool.pending", this, ResilientClickhouseAuditPublisher::getPendingQueueSize)
+                .description("Audit events spooled to disk waiting for ClickHouse")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.spool.bytes", spool, AuditSpool::bytes)
+                .description("Size of the on-disk audit spool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.spool.segments", spool, AuditSpool::segmentCount)
+                .description("Segment files in the on-disk audit spool")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.spool.dropped", this, ResilientClickhouseAuditPublisher::getDroppedCount)
+                .description("Audit events lost because the spool was full, corrupt or unwritable")
+                .register(meterRegistry);
+        FunctionCounter.builder("optimaxx.audit.clickhouse.rejected", rejectedCount, AtomicLong::get)
+                .description("Audit events ClickHouse rejected on their own")
+                .register(meterRegistry);
+        Gauge.builder("optimaxx.audit.spool.quarantined", spool, AuditSpool::quarantinedRecords)
+                .description("Rejected audit events moved to the dead-letter file since startup")
                 .register(meterRegistry);
-        Gauge.builder("optimaxx.audit.retry.dropped.count", this, p -> p.getDroppedCount())
-                .description("Dropped audit events in retry buffer")
+
+        Gauge.builder("optimaxx.audit.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("ClickHouse audit circuit state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        FunctionCounter.builder("optimaxx.audit.circuit.opened", circuitBreaker, AuditCircuitBreaker::openedCount)
+                .description("Times the ClickHouse audit circuit opened")
+                .register(meterRegistry);
+        this.shortCircuitedCounter = Counter.builder("optimaxx.audit.circuit.short.circuited")
+                .description("Audit events spooled without a ClickHouse attempt because the circuit was open")
+                .register(meterRegistry);
+        this.circuitOpenTimer = Timer.builder("optimaxx.audit.circuit.open.duration")
+                .description("How long the ClickHouse audit circuit stayed open")
                 .register(meterRegistry);
+        this.insertSuccessTimer = insertTimer(meterRegistry, "success");
+        this.insertFailureTimer = insertTimer(meterRegistry, "failure");
     }
 
     @Override
     public void publish(ActivityLog activityLog) {
-        if (activityLog == null || isBlank(clickhouseProperties.url())) {
+        if (activityLog == null) {
             return;
         }
+        publishAll(List.of(activityLog));
+    }
 
-        String payload = toJsonEachRow(activityLog);
-        if (!sendPayload(payload)) {
-            enqueue(payload, 1);
+    /**
+     * Encodes the logs in the configured format into a pooled buffer and sends them in bodies of
+     * up to {@code maxRows} rows, one HTTP insert each. Rows of a failed insert are spooled to disk, as are all
+     * rows while the circuit is open. A body that ClickHouse rejects is bisected, so only a row that is rejected
+     * on its own is moved to the dead-letter file.
+     */
+    @Override
+    public void publishAll(List<ActivityLog> activityLogs) {
+        if (activityLogs == null || activityLogs.isEmpty() || isBlank(clickhouseProperties.url())) {
+            return;
+        }
+
+        int maxRows = Math.max(batchProperties.getMaxRows(), 1);
+        Buffers buffers = acquireBuffers();
+        try {
+            AuditRowBuffer rows = buffers.rows;
+            rows.reset();
+            for (ActivityLog activityLog : activityLogs) {
+                if (activityLog == null) {
+                    continue;
+                }
+                encoder.encode(activityLog, rows);
+                rows.endRow();
+                if (rows.rowCount() == maxRows) {
+                    sendOrSpool(rows, buffers);
+                    rows.reset();
+                }
+            }
+            if (rows.rowCount() > 0) {
+                sendOrSpool(rows, buffers);
+            }
+        } finally {
+            releaseBuffers(buffers);
         }
     }
 
+    /**
+     * Drains the spool in inserts of up to {@code flushBatchSize} rows, oldest first, until it is empty or an
+     * insert fails. Rejected rows and rows in an unknown format are quarantined and acknowledged, so they never
+     * hold up the rows behind them; a failed insert stops the drain because the next one would fail alike. Rows
+     * delivered or quarantined before a failure are acknowledged. While the circuit is open this is a no-op
+     * until the backoff allows a probe.
+     */
     @Scheduled(fixedDelayString = "${clickhouse.audit.retry.fixed-delay-ms:5000}")
     public void flushRetryQueue() {
+        if (isBlank(clickhouseProperties.url())) {
+            return;
+        }
         int batchSize = Math.max(retryProperties.getFlushBatchSize(), 1);
-        for (int i = 0; i < batchSize; i++) {
-            PendingAudit pending = retryQueue.poll();
-            if (pending == null) {
-                return;
-            }
-
-            retryAttemptCount.incrementAndGet();
-            boolean success = sendPayload(pending.payload());
-            if (!success) {
-                int nextAttempt = pending.attempts() + 1;
-                if (nextAttempt > Math.max(retryProperties.getMaxAttempts(), 1)) {
-                    droppedCount.incrementAndGet();
-                    log.warn("Dropping ClickHouse audit after {} attempts", pending.attempts());
-                } else {
-                    enqueue(pending.payload(), nextAttempt);
+        Buffers buffers = acquireBuffers();
+        try {
+            AuditSpool.Batch batch;
+            while ((batch = spool.read(batchSize, buffers.rows)).rowCount() > 0) {
+                AuditRowEncoder batchEncoder = AuditRowEncoder.forId(batch.format());
+                if (batchEncoder == null) {
+                    log.error("Quarantining {} spooled audit events in unknown format {}", batch.rowCount(), batch.format());
+                    spool.quarantine(batch.format(), buffers.rows, 0, batch.rowCount());
+                    spool.acknowledge(batch);
+                    continue;
+                }
+                if (!circuitBreaker.tryProbe()) {
+                    return;
+                }
+                retryAttemptCount.addAndGet(batch.rowCount());
+                int handled = deliver(batchEncoder, buffers.rows, 0, batch.rowCount(), buffers);
+                spool.acknowledge(batch, handled);
+                if (handled < batch.rowCount()) {
+                    return;
                 }
             }
+        } catch (IOException ex) {
+            log.error("Reading the audit spool failed", ex);
+        } finally {
+            releaseBuffers(buffers);
         }
     }
 
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        spool.close();
+    }
+
     public int getPendingQueueSize() {
-        return retryQueue.size();
+        return (int) spool.pendingRecords();
     }
 
     public long getDroppedCount() {
-        return droppedCount.get();
+        return droppedCount.get() + spool.droppedRecords();
     }
 
     public long getPublishFailureCount() {
@@ -112,25 +229,111 @@ public class ResilientClickhouseAuditPublisher implements ClickhouseAuditPublish
         return publishedSuccessCount.get();
     }
 
-    private void enqueue(String payload, int attempts) {
-        int maxQueueSize = Math.max(retryProperties.getMaxQueueSize(), 1);
-        if (retryQueue.size() >= maxQueueSize) {
-            retryQueue.poll();
-            droppedCount.incrementAndGet();
-            log.warn("ClickHouse audit retry queue full, dropping oldest event");
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getQuarantinedCount() {
+        return spool.quarantinedRecords();
+    }
+
+    public String getCircuitState() {
+        return circuitBreaker.state().name();
+    }
+
+    /**
+     * Takes encode and compress buffers from a small pool shared by the pipeline consumer, the retry flush and
+     * any synchronous caller, so buffers are not allocated per (virtual) thread. A caller that finds the pool
+     * empty gets fresh buffers, which are kept on release while the pool has room.
+     */
+    private Buffers acquireBuffers() {
+        Buffers buffers = bufferPool.poll();
+        return buffers != null ? buffers : new Buffers();
+    }
+
+    private void releaseBuffers(Buffers buffers) {
+        bufferPool.offer(buffers);
+    }
+
+    private void sendOrSpool(AuditRowBuffer rows, Buffers buffers) {
+        int handled = 0;
+        if (!circuitBreaker.allowRequest()) {
+            shortCircuitedCounter.increment(rows.rowCount());
+        } else if ((handled = deliver(encoder, rows, 0, rows.rowCount(), buffers)) == rows.rowCount()) {
+            return;
+        }
+        try {
+            spool.append(encoder.id(), rows, handled);
+        } catch (IOException ex) {
+            droppedCount.addAndGet(rows.rowCount() - handled);
+            log.error("Could not spool {} undelivered audit events", rows.rowCount() - handled, ex);
         }
-        retryQueue.offer(new PendingAudit(payload, attempts));
     }
 
-    private boolean sendPayload(String payload) {
-        String endpoint = clickhouseProperties.url() + "?query=" + URLEncoder.encode(INSERT_QUERY, StandardCharsets.UTF_8);
+    /**
+     * Sends rows {@code [from, to)} and returns the index of the first row that was neither delivered nor
+     * quarantined, which is {@code to} when all of them were. A rejected body is split in halves that are sent
+     * in order; a single rejected row goes to the dead-letter file. Bisecting stops at the first failed insert,
+     * so the rows from there on can be kept for a retry.
+     */
+    private int deliver(AuditRowEncoder rowEncoder, AuditRowBuffer rows, int from, int to, Buffers buffers) {
+        Outcome outcome = sendRows(rowEncoder, rows, from, to, buffers);
+        if (outcome == Outcome.DELIVERED) {
+            return to;
+        }
+        if (outcome != Outcome.REJECTED) {
+            return from;
+        }
+        if (to - from == 1) {
+            rejectedCount.incrementAndGet();
+            try {
+                spool.quarantine(rowEncoder.id(), rows, from, to);
+                log.error("ClickHouse rejected an audit row on its own; moved it to the dead-letter file");
+            } catch (IOException ex) {
+                droppedCount.incrementAndGet();
+                log.error("ClickHouse rejected an audit row on its own and it could not be quarantined", ex);
+            }
+            return to;
+        }
+        int middle = (from + to) >>> 1;
+        int handled = deliver(rowEncoder, rows, from, middle, buffers);
+        return handled < middle ? handled : deliver(rowEncoder, rows, middle, to, buffers);
+    }
+
+    private Outcome sendRows(AuditRowEncoder rowEncoder, AuditRowBuffer rows, int from, int to, Buffers buffers) {
+        long startedAt = System.nanoTime();
+        Outcome outcome = send(rowEncoder, rows, from, to, buffers);
+        (outcome == Outcome.DELIVERED ? insertSuccessTimer : insertFailureTimer)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (outcome == Outcome.FAILED) {
+            circuitBreaker.onFailure();
+        } else {
+            // Any other answer, even an error, came from a server that is up and responding.
+            Duration open = circuitBreaker.onSuccess();
+            if (open != null) {
+                circuitOpenTimer.record(open);
+            }
+        }
+        return outcome;
+    }
 
+    private Outcome send(AuditRowEncoder rowEncoder, AuditRowBuffer rows, int from, int to, Buffers buffers) {
+        int rowCount = to - from;
+        int offset = rows.rowStart(from);
+        int length = rows.rowEnd(to - 1) - offset;
         try {
             HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                    .uri(URI.create(endpoint))
+                    .uri(URI.create(rowEncoder == encoder ? endpoint : endpoint(rowEncoder)))
                     .timeout(Duration.ofSeconds(3))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(payload));
+                    .header("Content-Type", rowEncoder == JsonEachRowEncoder.INSTANCE ? "application/json" : "application/octet-stream");
+
+            if (batchProperties.isCompress()) {
+                AuditRowBuffer compressed = gzip(rows.array(), offset, length, buffers.compressed);
+                requestBuilder.header("Content-Encoding", "gzip");
+                requestBuilder.POST(HttpRequest.BodyPublishers.ofByteArray(compressed.array(), 0, compressed.size()));
+            } else {
+                requestBuilder.POST(HttpRequest.BodyPublishers.ofByteArray(rows.array(), offset, length));
+            }
 
             if (!isBlank(clickhouseProperties.username())) {
                 String password = clickhouseProperties.password() == null ? "" : clickhouseProperties.password();
@@ -141,62 +344,75 @@ public class ResilientClickhouseAuditPublisher implements ClickhouseAuditPublish
             HttpResponse<String> response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() >= 300) {
                 publishFailureCount.incrementAndGet();
-                log.warn("ClickHouse audit publish failed with status {}: {}", response.statusCode(), response.body());
-                return false;
+                log.warn("ClickHouse audit publish of {} rows failed with status {}: {}", rowCount, response.statusCode(), response.body());
+                return outcome(response.statusCode());
             }
-            publishedSuccessCount.incrementAndGet();
-            return true;
+            publishedSuccessCount.addAndGet(rowCount);
+            return Outcome.DELIVERED;
         } catch (IOException | InterruptedException ex) {
             if (ex instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
             }
             publishFailureCount.incrementAndGet();
-            log.warn("ClickHouse audit publish failed: {}", ex.getMessage());
-            return false;
+            log.warn("ClickHouse audit publish of {} rows failed: {}", rowCount, ex.getMessage());
+            return Outcome.FAILED;
         }
     }
 
-    private String toJsonEachRow(ActivityLog logItem) {
-        return "{" +
-                "\"event_id\":\"" + safe(logItem.getId()) + "\"," +
-                "\"timestamp\":\"" + formatTimestamp(logItem.getOccurredAt()) + "\"," +
-                "\"actor_user_id\":\"" + safe(logItem.getActorUserId()) + "\"," +
-                "\"actor_role\":\"" + escape(logItem.getActorRole()) + "\"," +
-                "\"action\":\"" + escape(logItem.getAction()) + "\"," +
-                "\"resource_type\":\"" + escape(logItem.getResourceType()) + "\"," +
-                "\"resource_id\":\"" + escape(logItem.getResourceId()) + "\"," +
-                "\"before_json\":\"" + escape(logItem.getBeforeJson()) + "\"," +
-                "\"after_json\":\"" + escape(logItem.getAfterJson()) + "\"," +
-                "\"request_id\":\"" + escape(logItem.getRequestId()) + "\"," +
-                "\"ip_address\":\"" + escape(logItem.getIpAddress()) + "\"," +
-                "\"user_agent\":\"" + escape(logItem.getUserAgent()) + "\"," +
-                "\"store_id\":\"" + safe(logItem.getStoreId()) + "\"" +
-                "}";
+    /**
+     * ClickHouse answers 400 when it cannot parse or convert a row and 413 when the body is too large; both go
+     * away by sending fewer rows. Server errors, 408 and 429 mean ClickHouse is down or overloaded. Other client
+     * errors, such as a missing table or bad credentials, fail every row alike until someone fixes them, but
+     * ClickHouse itself is healthy.
+     */
+    private static Outcome outcome(int statusCode) {
+        if (statusCode == 400 || statusCode == 413) {
+            return Outcome.REJECTED;
+        }
+        if (statusCode >= 500 || statusCode == 408 || statusCode == 429) {
+            return Outcome.FAILED;
+        }
+        return Outcome.REFUSED;
     }
 
-    private String safe(Object value) {
-        return value == null ? "" : escape(String.valueOf(value));
+    private static Timer insertTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("optimaxx.audit.clickhouse.insert")
+                .description("ClickHouse audit insert latency")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
-    private String escape(String value) {
-        if (value == null) {
-            return "";
+    private static AuditRowBuffer gzip(byte[] data, int offset, int length, AuditRowBuffer compressed) throws IOException {
+        compressed.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed.asOutputStream(), 8192)) {
+            gzip.write(data, offset, length);
         }
-        return value
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
+        return compressed;
     }
 
-    private String formatTimestamp(Instant instant) {
-        return instant == null ? "" : CLICKHOUSE_TIMESTAMP_FORMATTER.format(instant);
+    private String endpoint(AuditRowEncoder rowEncoder) {
+        return clickhouseProperties.url() + "?query=" + URLEncoder.encode(INSERT_QUERY + rowEncoder.format(), StandardCharsets.UTF_8)
+                + (batchProperties.isAsyncInsert() ? ASYNC_INSERT_SETTINGS : "");
     }
 
     private boolean isBlank(String value) {
         return value == null || value.isBlank();
     }
 
-    private record PendingAudit(String payload, int attempts) {
+    /**
+     * Result of one insert. Only {@code FAILED}, from an IO error, a timeout or an overloaded or failing server,
+     * counts against the circuit breaker.
+     */
+    private enum Outcome {
+        DELIVERED,
+        REJECTED,
+        REFUSED,
+        FAILED
+    }
+
+    private static final class Buffers {
+
+        private final AuditRowBuffer rows = new AuditRowBuffer(16 * 1024);
+        private final AuditRowBuffer compressed = new AuditRowBuffer(4 * 1024);
     }
 }
@@ -2,9 +2,10 @@ package com.optimaxx.management.security.audit;
 
 import com.optimaxx.management.domain.model.ActivityLog;
 import com.optimaxx.management.domain.model.User;
-import com.optimaxx.management.domain.repository.ActivityLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestAttributes;
@@ -16,18 +17,45 @@ public class SecurityAuditService {
 
     private static final String REQUEST_ID_ATTRIBUTE = "request_id";
 
-    private final ActivityLogRepository activityLogRepository;
-    private final ClickhouseAuditPublisher clickhouseAuditPublisher;
+    private final AuditPipeline auditPipeline;
 
-    public SecurityAuditService(ActivityLogRepository activityLogRepository,
-                                ClickhouseAuditPublisher clickhouseAuditPublisher) {
-        this.activityLogRepository = activityLogRepository;
-        this.clickhouseAuditPublisher = clickhouseAuditPublisher;
+    public SecurityAuditService(AuditPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
     }
 
     public void log(AuditEventType eventType, User actorUser, String resourceType, String resourceId, String afterJson) {
+        log(eventType, actorUser, resourceType, resourceId, afterJson, null);
+    }
+
+    public void log(AuditEventType eventType, User actorUser, String resourceType, String resourceId, String afterJson,
+                    UUID saleTransactionId) {
+        HttpServletRequest request = currentRequest();
+        auditPipeline.submit(newActivityLog(eventType, actorUser, resourceType, resourceId, afterJson, saleTransactionId,
+                request, resolveRequestId(request)));
+    }
+
+    /**
+     * Records several system events of one request together: the request metadata is resolved once and the
+     * pipeline receives the whole list in a single hand-off instead of one per event.
+     */
+    public void logAll(List<AuditEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
         HttpServletRequest request = currentRequest();
+        String requestId = resolveRequestId(request);
+        List<ActivityLog> activityLogs = new ArrayList<>(entries.size());
+        for (AuditEntry entry : entries) {
+            activityLogs.add(newActivityLog(entry.eventType(), null, entry.resourceType(), entry.resourceId(),
+                    entry.afterJson(), entry.saleTransactionId(), request, requestId));
+        }
+        auditPipeline.submitAll(activityLogs);
+    }
 
+    private ActivityLog newActivityLog(AuditEventType eventType, User actorUser, String resourceType, String resourceId,
+                                       String afterJson, UUID saleTransactionId, HttpServletRequest request,
+                                       String requestId) {
         ActivityLog activityLog = new ActivityLog();
         activityLog.setActorUserId(actorUser == null ? UUID.randomUUID() : actorUser.getId() == null ? UUID.randomUUID() : actorUser.getId());
         activityLog.setActorRole(actorUser == null || actorUser.getRole() == null ? "SYSTEM" : actorUser.getRole().name());
@@ -36,17 +64,16 @@ public class SecurityAuditService {
         activityLog.setResourceId(resourceId == null ? "n/a" : resourceId);
         activityLog.setBeforeJson("{}");
         activityLog.setAfterJson(afterJson == null ? "{}" : afterJson);
-        activityLog.setRequestId(resolveRequestId(request));
+        activityLog.setRequestId(requestId);
         activityLog.setIpAddress(resolveIpAddress(request));
         activityLog.setUserAgent(resolveUserAgent(request));
         activityLog.setOccurredAt(Instant.now());
+        activityLog.setSaleTransactionId(saleTransactionId);
         activityLog.setStoreId(actorUser == null || actorUser.getStoreId() == null
                 ? com.optimaxx.management.security.StoreContext.currentStoreId()
                 : actorUser.getStoreId());
         activityLog.setDeleted(false);
-
-        ActivityLog saved = activityLogRepository.save(activityLog);
-        clickhouseAuditPublisher.publish(saved);
+        return activityLog;
     }
 
     private HttpServletRequest currentRequest() {
@@ -95,4 +122,11 @@ public class SecurityAuditService {
     private String resolveUserAgent(HttpServletRequest request) {
         return request == null ? null : request.getHeader("User-Agent");
     }
+
+    public record AuditEntry(AuditEventType eventType,
+                             String resourceType,
+                             String resourceId,
+                             String afterJson,
+                             UUID saleTransactionId) {
+    }
 }
@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS idx_sale_transactions_store_keyset
+    ON sale_transactions (store_id, occurred_at DESC, id DESC)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_sale_transactions_store_payment_keyset
+    ON sale_transactions (store_id, payment_method, occurred_at DESC, id DESC)
+    WHERE is_deleted = FALSE;
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_sale_transactions_store_deleted_occurred
+    ON sale_transactions (store_id, is_deleted, occurred_at);
@@ -0,0 +1,34 @@
+CREATE TABLE IF NOT EXISTS sale_document_sequences (
+    id UUID PRIMARY KEY,
+    store_id UUID NOT NULL,
+    document_type VARCHAR(16) NOT NULL,
+    business_date DATE NOT NULL,
+    last_value BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT uk_sale_document_sequences_scope UNIQUE (store_id, document_type, business_date)
+);
+
+-- Seed counters from numbers already issued so allocation continues where the prefix scan left off.
+INSERT INTO sale_document_sequences (id, store_id, document_type, business_date, last_value, updated_at)
+SELECT md5(store_id::text || ':RECEIPT:' || substring(receipt_number FROM 5 FOR 8))::uuid,
+       store_id,
+       'RECEIPT',
+       to_date(substring(receipt_number FROM 5 FOR 8), 'YYYYMMDD'),
+       max(substring(receipt_number FROM 14)::BIGINT),
+       now()
+FROM sale_transactions
+WHERE receipt_number ~ '^RCP-[0-9]{8}-[0-9]+$'
+GROUP BY store_id, substring(receipt_number FROM 5 FOR 8)
+ON CONFLICT (store_id, document_type, business_date) DO NOTHING;
+
+INSERT INTO sale_document_sequences (id, store_id, document_type, business_date, last_value, updated_at)
+SELECT md5(store_id::text || ':INVOICE:' || substring(invoice_number FROM 5 FOR 8))::uuid,
+       store_id,
+       'INVOICE',
+       to_date(substring(invoice_number FROM 5 FOR 8), 'YYYYMMDD'),
+       max(substring(invoice_number FROM 14)::BIGINT),
+       now()
+FROM sale_transactions
+WHERE invoice_number ~ '^INV-[0-9]{8}-[0-9]+$'
+GROUP BY store_id, substring(invoice_number FROM 5 FOR 8)
+ON CONFLICT (store_id, document_type, business_date) DO NOTHING;
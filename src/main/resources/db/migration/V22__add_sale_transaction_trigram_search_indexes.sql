@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_sale_transactions_customer_name_trgm
+    ON sale_transactions USING gin (lower(customer_name) gin_trgm_ops)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_sale_transactions_receipt_number_trgm
+    ON sale_transactions USING gin (lower(receipt_number) gin_trgm_ops)
+    WHERE is_deleted = FALSE;
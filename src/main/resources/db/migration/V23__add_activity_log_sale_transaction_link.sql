@@ -0,0 +1,18 @@
+ALTER TABLE activity_logs ADD COLUMN IF NOT EXISTS sale_transaction_id UUID;
+
+UPDATE activity_logs
+SET sale_transaction_id = CAST(resource_id AS UUID)
+WHERE resource_type = 'SALE_TRANSACTION'
+  AND sale_transaction_id IS NULL
+  AND resource_id ~* '^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$';
+
+UPDATE activity_logs
+SET sale_transaction_id = CAST(CAST(after_json AS jsonb) ->> 'saleTransactionId' AS UUID)
+WHERE resource_type = 'INVENTORY'
+  AND action = 'SALE_STOCK_DEDUCTED'
+  AND sale_transaction_id IS NULL
+  AND (CAST(after_json AS jsonb) ->> 'saleTransactionId') ~* '^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$';
+
+CREATE INDEX IF NOT EXISTS idx_activity_logs_store_sale_transaction
+    ON activity_logs (store_id, sale_transaction_id, occurred_at DESC)
+    WHERE sale_transaction_id IS NOT NULL AND is_deleted = FALSE;
@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_inventory_items_store_deleted_name
+    ON inventory_items (store_id, is_deleted, name, id);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_items_store_deleted_sku
+    ON inventory_items (store_id, is_deleted, sku, id);
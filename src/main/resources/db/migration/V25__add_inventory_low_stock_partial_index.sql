@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_inventory_items_store_low_stock
+    ON inventory_items (store_id, (quantity - min_quantity))
+    WHERE is_deleted = FALSE AND quantity <= min_quantity;
@@ -0,0 +1,24 @@
+CREATE INDEX IF NOT EXISTS idx_inventory_items_store_id_active
+    ON inventory_items (store_id, id)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_item_delta
+    ON inventory_movements (inventory_item_id) INCLUDE (quantity_delta)
+    WHERE is_deleted = FALSE;
+
+-- Opening stock and absolute adjustments were not recorded as deltas before, so the ledger starts from a
+-- one-time baseline that brings every existing item's movement net in line with its current quantity.
+INSERT INTO inventory_movements (id, store_id, inventory_item_id, movement_type, quantity_delta, reason, moved_at,
+                                 source_type, idempotency_key, created_at, updated_at, is_deleted)
+SELECT gen_random_uuid(), i.store_id, i.id, 'ADJUST', i.quantity - COALESCE(l.net, 0), 'Ledger baseline', now(),
+       'LEDGER_BASELINE', 'inventory:' || i.id || ':opening', now(), now(), FALSE
+FROM inventory_items i
+LEFT JOIN (
+    SELECT inventory_item_id, SUM(quantity_delta) AS net
+    FROM inventory_movements
+    WHERE is_deleted = FALSE
+    GROUP BY inventory_item_id
+) l ON l.inventory_item_id = i.id
+WHERE i.is_deleted = FALSE
+  AND i.quantity <> COALESCE(l.net, 0)
+ON CONFLICT (idempotency_key) WHERE idempotency_key IS NOT NULL DO NOTHING;
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS inventory_stock_snapshots (
+    id UUID PRIMARY KEY,
+    store_id UUID NOT NULL,
+    inventory_item_id UUID NOT NULL,
+    as_of TIMESTAMPTZ NOT NULL,
+    quantity BIGINT NOT NULL,
+    created_at TIMESTAMPTZ,
+    CONSTRAINT uk_inventory_stock_snapshots_item_as_of UNIQUE (inventory_item_id, as_of),
+    CONSTRAINT fk_inventory_stock_snapshots_item FOREIGN KEY (inventory_item_id) REFERENCES inventory_items (id)
+);
+
+-- Cold storage for compacted movements; same layout as the hot table so rows move with INSERT ... SELECT *.
+CREATE TABLE IF NOT EXISTS inventory_movements_archive (LIKE inventory_movements INCLUDING DEFAULTS);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_archive_item_moved_at
+    ON inventory_movements_archive (inventory_item_id, moved_at);
+
+-- Ledger reads now sum only the movements after an item's latest snapshot.
+DROP INDEX IF EXISTS idx_inventory_movements_item_delta;
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_item_moved_at_delta
+    ON inventory_movements (inventory_item_id, moved_at) INCLUDE (quantity_delta)
+    WHERE is_deleted = FALSE;
@@ -0,0 +1,26 @@
+-- Cart holds are stored next to the stock they reserve. reserved_quantity is the sum of an item's hold rows and
+-- is changed by the same statement that writes them, so quantity - reserved_quantity is the unheld stock that
+-- both new holds and sales are checked against under the item's row lock.
+ALTER TABLE inventory_items
+    ADD COLUMN IF NOT EXISTS reserved_quantity INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE inventory_items
+    ADD CONSTRAINT ck_inventory_items_reserved_quantity CHECK (reserved_quantity >= 0);
+
+CREATE TABLE IF NOT EXISTS inventory_holds (
+    id UUID PRIMARY KEY,
+    store_id UUID NOT NULL,
+    cart_id UUID NOT NULL,
+    inventory_item_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT fk_inventory_holds_item FOREIGN KEY (inventory_item_id) REFERENCES inventory_items (id),
+    CONSTRAINT ck_inventory_holds_quantity CHECK (quantity > 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_holds_cart
+    ON inventory_holds (store_id, cart_id, inventory_item_id);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_holds_expires_at
+    ON inventory_holds (expires_at);
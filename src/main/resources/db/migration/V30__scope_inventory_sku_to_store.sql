@@ -0,0 +1,6 @@
+-- SKUs are unique per store, so two stores can stock the same product code. The CSV import upserts on this key.
+ALTER TABLE inventory_items
+    DROP CONSTRAINT IF EXISTS uk_inventory_items_sku;
+
+ALTER TABLE inventory_items
+    ADD CONSTRAINT uk_inventory_items_store_sku UNIQUE (store_id, sku);
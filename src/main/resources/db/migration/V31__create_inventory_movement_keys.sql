@@ -0,0 +1,12 @@
+-- Idempotency keys outlive the movements they guard: archiving deletes movements from the hot table, whose
+-- unique index would then accept a replay of an archived key. Rows here are never archived or deleted.
+CREATE TABLE IF NOT EXISTS inventory_movement_keys (
+    idempotency_key VARCHAR(120) PRIMARY KEY,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO inventory_movement_keys (idempotency_key, created_at)
+SELECT idempotency_key, COALESCE(created_at, now()) FROM inventory_movements WHERE idempotency_key IS NOT NULL
+UNION ALL
+SELECT idempotency_key, COALESCE(created_at, now()) FROM inventory_movements_archive WHERE idempotency_key IS NOT NULL
+ON CONFLICT (idempotency_key) DO NOTHING;
@@ -0,0 +1,36 @@
+-- Rollups are keyed by transaction type and the category is joined when they are read, so moving a type to
+-- another category regroups its history the same way as the raw tail. Rollups are derived data: the tables are
+-- recreated empty and every hour is marked for the catch-up job to rebuild.
+DROP TABLE IF EXISTS sales_rollup_hourly;
+DROP TABLE IF EXISTS sales_rollup_daily;
+
+CREATE TABLE IF NOT EXISTS sales_rollup_hourly (
+    store_id UUID NOT NULL,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    transaction_type_id UUID NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    gross_amount NUMERIC(14, 2) NOT NULL,
+    revenue_amount NUMERIC(14, 2) NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_sales_rollup_hourly PRIMARY KEY (store_id, bucket_start, transaction_type_id, payment_method)
+);
+
+CREATE TABLE IF NOT EXISTS sales_rollup_daily (
+    store_id UUID NOT NULL,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    transaction_type_id UUID NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    gross_amount NUMERIC(14, 2) NOT NULL,
+    revenue_amount NUMERIC(14, 2) NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_sales_rollup_daily PRIMARY KEY (store_id, bucket_start, transaction_type_id, payment_method)
+);
+
+DELETE FROM sales_rollup_marks;
+
+INSERT INTO sales_rollup_marks (store_id, bucket_start)
+SELECT DISTINCT store_id, date_trunc('hour', occurred_at, 'UTC')
+FROM sale_transactions
+WHERE is_deleted = FALSE;
@@ -18,6 +18,7 @@ import com.optimaxx.management.domain.repository.LensPrescriptionRepository;
 import com.optimaxx.management.domain.repository.PasswordResetTokenRepository;
 import com.optimaxx.management.domain.repository.RefreshTokenRepository;
 import com.optimaxx.management.domain.repository.RepairOrderRepository;
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
 import com.optimaxx.management.domain.repository.UserRepository;
@@ -84,6 +85,9 @@ class AdminAnalyticsIntegrationTest {
     @MockitoBean
     private SaleTransactionRepository saleTransactionRepository;
 
+    @MockitoBean
+    private SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
     @MockitoBean
     private CustomerRepository customerRepository;
 
@@ -326,7 +330,7 @@ class AdminAnalyticsIntegrationTest {
 
         AnalyticsHighRiskEventResponse response = new AnalyticsHighRiskEventResponse(
                 List.of(new ActivityLogEventResponse(
-                        eventId, actorId, "ADMIN", "USER_DELETED",
+                        eventId, actorId, "admin1", "ADMIN", "USER_DELETED",
                         "USER", "user-123",
                         "{}", "{\"deleted\":true}",
                         "req-1", "127.0.0.1", "MockAgent",
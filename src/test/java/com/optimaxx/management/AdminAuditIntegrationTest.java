@@ -19,6 +19,7 @@ import com.optimaxx.management.domain.repository.LensPrescriptionRepository;
 import com.optimaxx.management.domain.repository.PasswordResetTokenRepository;
 import com.optimaxx.management.domain.repository.RefreshTokenRepository;
 import com.optimaxx.management.domain.repository.RepairOrderRepository;
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.SitePageBlockRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
@@ -78,6 +79,9 @@ class AdminAuditIntegrationTest {
     @MockitoBean
     private SaleTransactionRepository saleTransactionRepository;
 
+    @MockitoBean
+    private SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
     @MockitoBean
     private CustomerRepository customerRepository;
 
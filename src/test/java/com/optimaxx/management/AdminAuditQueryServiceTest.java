@@ -6,6 +6,8 @@ import static org.mockito.Mockito.when;
 
 import com.optimaxx.management.domain.model.ActivityLog;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
+import com.optimaxx.management.domain.repository.UserRepository;
+import com.optimaxx.management.security.UsernameDirectory;
 import com.optimaxx.management.security.audit.AdminAuditQueryService;
 import java.time.Instant;
 import java.util.List;
@@ -36,7 +38,8 @@ class AdminAuditQueryServiceTest {
         when(activityLogRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class), any(org.springframework.data.domain.Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(log), PageRequest.of(0, 20), 1));
 
-        AdminAuditQueryService service = new AdminAuditQueryService(activityLogRepository);
+        AdminAuditQueryService service = new AdminAuditQueryService(activityLogRepository,
+                new UsernameDirectory(Mockito.mock(UserRepository.class)));
 
         var result = service.query(
                 null,
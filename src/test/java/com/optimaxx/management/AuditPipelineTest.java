@@ -0,0 +1,129 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import com.optimaxx.management.domain.repository.ActivityLogRepository;
+import com.optimaxx.management.security.audit.AuditPipeline;
+import com.optimaxx.management.security.audit.AuditPipelineProperties;
+import com.optimaxx.management.security.audit.ClickhouseAuditPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class AuditPipelineTest {
+
+    private final List<AuditPipeline> pipelines = new ArrayList<>();
+
+    @AfterEach
+    void shutDownPipelines() throws InterruptedException {
+        for (AuditPipeline pipeline : pipelines) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void shouldWriteQueuedEventsAsOneBatch() {
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        ClickhouseAuditPublisher clickhouseAuditPublisher = Mockito.mock(ClickhouseAuditPublisher.class);
+        AuditPipeline pipeline = pipeline(activityLogRepository, clickhouseAuditPublisher, 3);
+
+        pipeline.submit(createActivityLog());
+        pipeline.submit(createActivityLog());
+        pipeline.submit(createActivityLog());
+
+        verify(activityLogRepository, timeout(2_000)).insertActivityLogs(argThat(logs -> logs.size() == 3));
+        verify(clickhouseAuditPublisher, timeout(2_000)).publishAll(argThat(logs -> logs.size() == 3));
+        verify(activityLogRepository, never()).save(Mockito.any(ActivityLog.class));
+    }
+
+    @Test
+    void shouldOnlyPublishEventsOfRolledBackTransactions() {
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        ClickhouseAuditPublisher clickhouseAuditPublisher = Mockito.mock(ClickhouseAuditPublisher.class);
+        AuditPipeline pipeline = pipeline(activityLogRepository, clickhouseAuditPublisher, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            pipeline.submit(createActivityLog());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(clickhouseAuditPublisher, timeout(2_000)).publishAll(argThat(logs -> logs.size() == 1));
+        verify(activityLogRepository, never()).insertActivityLogs(anyList());
+        verify(activityLogRepository).assignActivityLogIds(argThat(logs -> logs.size() == 1));
+    }
+
+    @Test
+    void shouldWriteQueuedAndLateEventsOnShutdown() throws InterruptedException {
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        ClickhouseAuditPublisher clickhouseAuditPublisher = Mockito.mock(ClickhouseAuditPublisher.class);
+        AuditPipeline pipeline = pipeline(activityLogRepository, clickhouseAuditPublisher, 16);
+
+        pipeline.submit(createActivityLog());
+        pipeline.shutdown();
+        verify(activityLogRepository).insertActivityLogs(argThat(logs -> logs.size() == 1));
+
+        ActivityLog late = createActivityLog();
+        pipeline.submit(late);
+
+        verify(activityLogRepository).insertActivityLogs(List.of(late));
+        verify(clickhouseAuditPublisher).publishAll(List.of(late));
+    }
+
+    @Test
+    void shouldHandOffSubmittedListWithOneSynchronization() {
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        ClickhouseAuditPublisher clickhouseAuditPublisher = Mockito.mock(ClickhouseAuditPublisher.class);
+        AuditPipeline pipeline = pipeline(activityLogRepository, clickhouseAuditPublisher, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            pipeline.submitAll(List.of(createActivityLog(), createActivityLog(), createActivityLog()));
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(activityLogRepository, timeout(2_000)).insertActivityLogs(argThat(logs -> logs.size() == 3));
+    }
+
+    private AuditPipeline pipeline(ActivityLogRepository activityLogRepository,
+                                   ClickhouseAuditPublisher clickhouseAuditPublisher,
+                                   int batchSize) {
+        AuditPipeline pipeline = new AuditPipeline(activityLogRepository, clickhouseAuditPublisher,
+                new AuditPipelineProperties("async", 16, batchSize, 60_000), new SimpleMeterRegistry());
+        pipelines.add(pipeline);
+        return pipeline;
+    }
+
+    private ActivityLog createActivityLog() {
+        ActivityLog activityLog = new ActivityLog();
+        activityLog.setActorUserId(UUID.randomUUID());
+        activityLog.setActorRole("OWNER");
+        activityLog.setAction("LOGIN_SUCCESS");
+        activityLog.setResourceType("AUTH");
+        activityLog.setResourceId("owner");
+        activityLog.setRequestId(UUID.randomUUID().toString());
+        activityLog.setOccurredAt(Instant.now());
+        activityLog.setStoreId(UUID.randomUUID());
+        return activityLog;
+    }
+}
@@ -1,6 +1,7 @@
 package com.optimaxx.management;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -21,12 +22,14 @@ import com.optimaxx.management.domain.repository.InventoryItemRepository;
 import com.optimaxx.management.domain.repository.InventoryMovementRepository;
 import com.optimaxx.management.domain.repository.RepairOrderRepository;
 import com.optimaxx.management.domain.repository.LensPrescriptionRepository;
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
 import com.optimaxx.management.domain.repository.UserRepository;
 import com.optimaxx.management.application.AdminAnalyticsService;
 import com.optimaxx.management.security.ForgotPasswordAttemptService;
 import com.optimaxx.management.security.LoginAttemptService;
+import com.optimaxx.management.security.ReceiptVerificationGuard;
 import com.optimaxx.management.security.jwt.JwtTokenService;
 import java.time.Instant;
 import java.util.Map;
@@ -71,6 +74,9 @@ class AuthIntegrationTest {
     @Autowired
     private ForgotPasswordAttemptService forgotPasswordAttemptService;
 
+    @Autowired
+    private ReceiptVerificationGuard receiptVerificationGuard;
+
     @MockitoBean
     private UserRepository userRepository;
 
@@ -92,6 +98,9 @@ class AuthIntegrationTest {
     @MockitoBean
     private SaleTransactionRepository saleTransactionRepository;
 
+    @MockitoBean
+    private SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
     @MockitoBean
     private CustomerRepository customerRepository;
 
@@ -131,6 +140,7 @@ class AuthIntegrationTest {
         refreshTokenStore.clear();
         loginAttemptService.clearAll();
         forgotPasswordAttemptService.clearAll();
+        receiptVerificationGuard.clearAll();
 
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
             RefreshToken token = invocation.getArgument(0);
@@ -167,8 +177,8 @@ class AuthIntegrationTest {
         when(inventoryStockCoordinator.release(any(UUID.class), any(Integer.class), anyString(), anyString(), org.mockito.ArgumentMatchers.nullable(UUID.class), anyString()))
                 .thenReturn(stockItem);
 
-        when(saleTransactionRepository.findTopByStoreIdAndInvoiceNumberStartingWithOrderByInvoiceNumberDesc(any(UUID.class), anyString()))
-                .thenReturn(Optional.empty());
+        when(saleDocumentSequenceRepository.allocate(any(UUID.class), any(UUID.class), anyString(), any(java.time.LocalDate.class), anyInt()))
+                .thenReturn(1L);
     }
 
     @Test
@@ -663,11 +673,6 @@ class AuthIntegrationTest {
                 {"transactionTypeId":"%s","customerName":"Yusuf","amount":1200.50,"notes":"frame + lens"}
                 """.formatted(transactionTypeId);
 
-        when(saleTransactionRepository.findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(any(UUID.class), anyString()))
-                .thenReturn(Optional.empty());
-        when(saleTransactionRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(any(UUID.class), anyString()))
-                .thenReturn(false);
-
         mockMvc.perform(post("/api/v1/sales/transactions")
                         .header("Authorization", "Bearer " + staffToken)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -682,7 +687,8 @@ class AuthIntegrationTest {
         listed.setReceiptNumber("RCP-20260225-0001");
         listed.setAmount(new java.math.BigDecimal("1200.50"));
         listed.setOccurredAt(Instant.now());
-        when(saleTransactionRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(java.util.List.of(listed));
+        when(saleTransactionRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class), any(org.springframework.data.domain.Pageable.class)))
+                .thenReturn(new PageImpl<>(java.util.List.of(listed)));
 
         mockMvc.perform(get("/api/v1/sales/transactions")
                         .header("Authorization", "Bearer " + staffToken)
@@ -772,7 +778,7 @@ class AuthIntegrationTest {
         when(saleTransactionRepository.findByIdAndDeletedFalse(transactionId)).thenReturn(Optional.of(tx));
         when(activityLogRepository.findUnifiedTimelineForSaleTransaction(
                 UUID.fromString("00000000-0000-0000-0000-000000000001"),
-                transactionId.toString())).thenReturn(java.util.List.of(log));
+                transactionId)).thenReturn(java.util.List.of(log));
 
         mockMvc.perform(get("/api/v1/sales/transactions/{id}", transactionId)
                         .header("Authorization", "Bearer " + staffToken))
@@ -796,7 +802,9 @@ class AuthIntegrationTest {
         tx.setPaymentMethod(com.optimaxx.management.domain.model.SalePaymentMethod.CARD);
         tx.setOccurredAt(Instant.now());
 
-        when(saleTransactionRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(java.util.List.of(tx));
+        when(saleTransactionRepository.summarizeByPaymentMethod(any(UUID.class), any(), any(), any()))
+                .thenReturn(java.util.List.of(new com.optimaxx.management.domain.repository.SalePaymentMethodAggregate(
+                        tx.getPaymentMethod(), 1, tx.getAmount(), null)));
 
         mockMvc.perform(get("/api/v1/sales/transactions/summary")
                         .header("Authorization", "Bearer " + staffToken))
@@ -823,7 +831,8 @@ class AuthIntegrationTest {
         tx.setPaymentMethod(com.optimaxx.management.domain.model.SalePaymentMethod.CARD);
         tx.setOccurredAt(Instant.now());
 
-        when(saleTransactionRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(java.util.List.of(tx));
+        when(saleTransactionRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class), any(org.springframework.data.domain.Sort.class)))
+                .thenReturn(java.util.List.of(tx));
 
         mockMvc.perform(get("/api/v1/sales/transactions/export")
                         .header("Authorization", "Bearer " + staffToken))
@@ -1166,7 +1175,7 @@ class AuthIntegrationTest {
         item.setQuantity(10);
         item.setMinQuantity(2);
 
-        when(inventoryItemRepository.existsBySkuAndDeletedFalse("SKU-1")).thenReturn(false);
+        when(inventoryItemRepository.existsByStoreIdAndSkuAndDeletedFalse(any(java.util.UUID.class), anyString())).thenReturn(false);
         when(inventoryItemRepository.save(any(com.optimaxx.management.domain.model.InventoryItem.class))).thenReturn(item);
 
         mockMvc.perform(post("/api/v1/admin/inventory/items")
@@ -1176,7 +1185,7 @@ class AuthIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.sku").value("SKU-1"));
 
-        when(inventoryItemRepository.findByDeletedFalseOrderByNameAsc()).thenReturn(java.util.List.of(item));
+        when(inventoryItemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(any(java.util.UUID.class))).thenReturn(java.util.List.of(item));
 
         mockMvc.perform(get("/api/v1/admin/inventory/items")
                         .header("Authorization", "Bearer " + adminToken))
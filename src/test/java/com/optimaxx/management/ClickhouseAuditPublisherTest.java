@@ -2,27 +2,56 @@ package com.optimaxx.management;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.optimaxx.management.domain.model.ActivityLog;
+import com.optimaxx.management.security.audit.ClickhouseAuditBatchProperties;
+import com.optimaxx.management.security.audit.ClickhouseAuditCircuitProperties;
 import com.optimaxx.management.security.audit.ClickhouseAuditRetryProperties;
+import com.optimaxx.management.security.audit.ClickhouseAuditSpoolProperties;
 import com.optimaxx.management.security.audit.ClickhouseProperties;
 import com.optimaxx.management.security.audit.ResilientClickhouseAuditPublisher;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ClickhouseAuditPublisherTest {
 
+    @TempDir
+    Path spoolDirectory;
+
+    private final List<ResilientClickhouseAuditPublisher> publishers = new ArrayList<>();
+
+    @AfterEach
+    void closePublishers() throws IOException {
+        for (ResilientClickhouseAuditPublisher publisher : publishers) {
+            publisher.close();
+        }
+    }
+
     @Test
     void shouldIgnorePublishWhenClickhouseUrlIsBlank() {
         ClickhouseProperties properties = new ClickhouseProperties("", "", "");
         ClickhouseAuditRetryProperties retryProperties = new ClickhouseAuditRetryProperties();
-        ResilientClickhouseAuditPublisher publisher = new ResilientClickhouseAuditPublisher(properties, retryProperties, new SimpleMeterRegistry());
+        ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(properties, retryProperties, new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
 
         publisher.publish(createActivityLog());
         publisher.flushRetryQueue();
@@ -36,7 +65,7 @@ class ClickhouseAuditPublisherTest {
     void shouldNotThrowWhenClickhouseEndpointIsUnavailable() {
         ClickhouseProperties properties = new ClickhouseProperties("http://localhost:65534/default", "default", "");
         ClickhouseAuditRetryProperties retryProperties = new ClickhouseAuditRetryProperties();
-        ResilientClickhouseAuditPublisher publisher = new ResilientClickhouseAuditPublisher(properties, retryProperties, new SimpleMeterRegistry());
+        ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(properties, retryProperties, new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
 
         ActivityLog activityLog = createActivityLog();
 
@@ -47,11 +76,9 @@ class ClickhouseAuditPublisherTest {
     void shouldQueueFailedAuditForRetry() {
         ClickhouseProperties properties = new ClickhouseProperties("http://localhost:65534/default", "default", "");
         ClickhouseAuditRetryProperties retryProperties = new ClickhouseAuditRetryProperties();
-        retryProperties.setMaxQueueSize(10);
-        retryProperties.setMaxAttempts(2);
         retryProperties.setFlushBatchSize(5);
 
-        ResilientClickhouseAuditPublisher publisher = new ResilientClickhouseAuditPublisher(properties, retryProperties, new SimpleMeterRegistry());
+        ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(properties, retryProperties, new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
 
         publisher.publish(createActivityLog());
 
@@ -59,7 +86,98 @@ class ClickhouseAuditPublisherTest {
 
         publisher.flushRetryQueue();
 
-        assertThat(publisher.getDroppedCount()).isGreaterThanOrEqualTo(0);
+        assertThat(publisher.getPendingQueueSize()).isEqualTo(1);
+        assertThat(publisher.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void shouldDeliverSpooledAuditsAfterRestart() throws IOException {
+        ClickhouseAuditSpoolProperties spoolProperties = spoolProperties();
+        ResilientClickhouseAuditPublisher offline = track(new ResilientClickhouseAuditPublisher(
+                new ClickhouseProperties("http://localhost:65534/default", "default", ""),
+                new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties, new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+        offline.publishAll(List.of(createActivityLog(), createActivityLog()));
+        assertThat(offline.getPendingQueueSize()).isEqualTo(2);
+        offline.close();
+
+        AtomicReference<String> capturedBody = new AtomicReference<>("");
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            capturedBody.set(readBody(exchange));
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ResilientClickhouseAuditPublisher restarted = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties, new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+            restarted.flushRetryQueue();
+
+            assertThat(capturedBody.get().split("\n")).hasSize(2);
+            assertThat(restarted.getPendingQueueSize()).isZero();
+            assertThat(restarted.getPublishedSuccessCount()).isEqualTo(2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldQuarantineARejectedSpooledRowAndKeepDraining() throws IOException {
+        ClickhouseAuditSpoolProperties spoolProperties = spoolProperties();
+        ResilientClickhouseAuditPublisher offline = track(new ResilientClickhouseAuditPublisher(
+                new ClickhouseProperties("http://localhost:65534/default", "default", ""),
+                new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties, new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+        ActivityLog bad = createActivityLog();
+        bad.setResourceId("bad");
+        offline.publishAll(List.of(createActivityLog(), bad, createActivityLog()));
+        offline.publishAll(List.of(createActivityLog()));
+        assertThat(offline.getPendingQueueSize()).isEqualTo(4);
+        offline.close();
+
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            String body = readBody(exchange);
+            if (body.contains("\"resource_id\":\"bad\"")) {
+                exchange.sendResponseHeaders(400, -1);
+            } else {
+                delivered.addAll(List.of(body.split("\n")));
+                exchange.sendResponseHeaders(200, 0);
+            }
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ClickhouseAuditRetryProperties retryProperties = new ClickhouseAuditRetryProperties();
+            retryProperties.setFlushBatchSize(3);
+            ResilientClickhouseAuditPublisher restarted = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    retryProperties, new ClickhouseAuditBatchProperties(), spoolProperties, new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+            restarted.flushRetryQueue();
+
+            assertThat(delivered).hasSize(3);
+            assertThat(restarted.getQuarantinedCount()).isEqualTo(1);
+            assertThat(restarted.getPendingQueueSize()).isZero();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldFailFastWhenSpoolDirectoryIsInUse() {
+        ClickhouseProperties properties = new ClickhouseProperties("http://localhost:65534/default", "default", "");
+        track(new ResilientClickhouseAuditPublisher(properties, new ClickhouseAuditRetryProperties(),
+                new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+        assertThatThrownBy(() -> new ResilientClickhouseAuditPublisher(properties, new ClickhouseAuditRetryProperties(),
+                new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in use");
     }
 
     @Test
@@ -67,7 +185,7 @@ class ClickhouseAuditPublisherTest {
         AtomicReference<String> capturedBody = new AtomicReference<>("");
         HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
         server.createContext("/", exchange -> {
-            capturedBody.set(new String(exchange.getRequestBody().readAllBytes()));
+            capturedBody.set(readBody(exchange));
             exchange.sendResponseHeaders(200, 0);
             exchange.getResponseBody().close();
         });
@@ -76,7 +194,7 @@ class ClickhouseAuditPublisherTest {
         try {
             ClickhouseProperties properties = new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", "");
             ClickhouseAuditRetryProperties retryProperties = new ClickhouseAuditRetryProperties();
-            ResilientClickhouseAuditPublisher publisher = new ResilientClickhouseAuditPublisher(properties, retryProperties, new SimpleMeterRegistry());
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(properties, retryProperties, new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
 
             ActivityLog activityLog = createActivityLog();
             activityLog.setOccurredAt(Instant.parse("2026-06-29T17:28:23.290Z"));
@@ -90,6 +208,284 @@ class ClickhouseAuditPublisherTest {
         }
     }
 
+    @Test
+    void shouldSendBatchAsOneCompressedInsert() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicReference<String> capturedBody = new AtomicReference<>("");
+        AtomicReference<String> capturedEncoding = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            capturedEncoding.set(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            capturedBody.set(readBody(exchange));
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ClickhouseProperties properties = new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", "");
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(properties,
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(), new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+            publisher.publishAll(List.of(createActivityLog(), createActivityLog(), createActivityLog()));
+
+            assertThat(requests.get()).isEqualTo(1);
+            assertThat(capturedEncoding.get()).isEqualTo("gzip");
+            assertThat(capturedBody.get().split("\n")).hasSize(3);
+            assertThat(publisher.getPublishedSuccessCount()).isEqualTo(3);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldSpoolWithoutConnectingWhileCircuitIsOpen() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicReference<String> capturedBody = new AtomicReference<>("");
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            String body = readBody(exchange);
+            if (requests.incrementAndGet() == 1) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                capturedBody.set(body);
+                exchange.sendResponseHeaders(200, 0);
+            }
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ClickhouseAuditCircuitProperties circuitProperties = new ClickhouseAuditCircuitProperties();
+            circuitProperties.setFailureThreshold(1);
+            circuitProperties.setInitialBackoffMs(50);
+            circuitProperties.setJitter(0);
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(),
+                    circuitProperties, new SimpleMeterRegistry()));
+
+            publisher.publish(createActivityLog());
+            publisher.publish(createActivityLog());
+            publisher.flushRetryQueue();
+
+            assertThat(requests.get()).isEqualTo(1);
+            assertThat(publisher.getCircuitState()).isEqualTo("OPEN");
+            assertThat(publisher.getPendingQueueSize()).isEqualTo(2);
+
+            Thread.sleep(100);
+            publisher.flushRetryQueue();
+
+            assertThat(requests.get()).isEqualTo(2);
+            assertThat(capturedBody.get().split("\n")).hasSize(2);
+            assertThat(publisher.getCircuitState()).isEqualTo("CLOSED");
+            assertThat(publisher.getPendingQueueSize()).isZero();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldBisectARejectedBatchAndQuarantineOnlyTheBadRow() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            String body = readBody(exchange);
+            if (body.contains("\"resource_id\":\"bad\"")) {
+                exchange.sendResponseHeaders(400, -1);
+            } else {
+                delivered.addAll(List.of(body.split("\n")));
+                exchange.sendResponseHeaders(200, 0);
+            }
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(),
+                    new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+            ActivityLog bad = createActivityLog();
+            bad.setResourceId("bad");
+
+            publisher.publishAll(List.of(createActivityLog(), createActivityLog(), bad, createActivityLog()));
+
+            assertThat(delivered).hasSize(3).noneMatch(row -> row.contains("\"resource_id\":\"bad\""));
+            assertThat(requests.get()).isEqualTo(5);
+            assertThat(publisher.getRejectedCount()).isEqualTo(1);
+            assertThat(publisher.getQuarantinedCount()).isEqualTo(1);
+            assertThat(spoolDirectory.resolve("dead-letter.spool")).isNotEmptyFile();
+            assertThat(publisher.getPendingQueueSize()).isZero();
+            assertThat(publisher.getCircuitState()).isEqualTo("CLOSED");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldSpoolOnlyRowsAfterAFailureWhileBisecting() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            String body = readBody(exchange);
+            int request = requests.incrementAndGet();
+            if (body.contains("\"resource_id\":\"bad\"")) {
+                exchange.sendResponseHeaders(400, -1);
+            } else if (request == 5) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                exchange.sendResponseHeaders(200, 0);
+            }
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(),
+                    new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+            ActivityLog bad = createActivityLog();
+            bad.setResourceId("bad");
+
+            // [ok, bad | ok, ok]: the left half is bisected, then the right half fails and is spooled.
+            publisher.publishAll(List.of(createActivityLog(), bad, createActivityLog(), createActivityLog()));
+
+            assertThat(publisher.getPublishedSuccessCount()).isEqualTo(1);
+            assertThat(publisher.getRejectedCount()).isEqualTo(1);
+            assertThat(publisher.getPendingQueueSize()).isEqualTo(2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldNotOpenCircuitOnClientErrors() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            readBody(exchange);
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ClickhouseAuditCircuitProperties circuitProperties = new ClickhouseAuditCircuitProperties();
+            circuitProperties.setFailureThreshold(1);
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(),
+                    circuitProperties, new SimpleMeterRegistry()));
+
+            publisher.publish(createActivityLog());
+            publisher.publish(createActivityLog());
+
+            assertThat(requests.get()).isEqualTo(2);
+            assertThat(publisher.getCircuitState()).isEqualTo("CLOSED");
+            assertThat(publisher.getPendingQueueSize()).isEqualTo(2);
+            assertThat(publisher.getRejectedCount()).isZero();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldEscapeJsonEachRowValuesInOnePass() throws IOException {
+        AtomicReference<String> capturedBody = new AtomicReference<>("");
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            capturedBody.set(readBody(exchange));
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), new ClickhouseAuditBatchProperties(), spoolProperties(),
+                    new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+            ActivityLog activityLog = createActivityLog();
+            activityLog.setAfterJson("{\"note\":\"line1\nline2\ttab \u00e7\u00f6z\u00fcm \uD83D\uDE00\"}");
+            activityLog.setUserAgent("bell\u0007");
+
+            publisher.publish(activityLog);
+
+            assertThat(capturedBody.get())
+                    .contains("\"after_json\":\"{\\\"note\\\":\\\"line1\\nline2\\ttab \u00e7\u00f6z\u00fcm \uD83D\uDE00\\\"}\"")
+                    .contains("\"user_agent\":\"bell\\u0007\"")
+                    .endsWith("}\n");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldSendRowBinaryWhenConfigured() throws IOException {
+        AtomicReference<String> capturedQuery = new AtomicReference<>("");
+        AtomicReference<byte[]> capturedBody = new AtomicReference<>(new byte[0]);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            capturedQuery.set(exchange.getRequestURI().getQuery());
+            capturedBody.set(exchange.getRequestBody().readAllBytes());
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        try {
+            ClickhouseAuditBatchProperties batchProperties = new ClickhouseAuditBatchProperties();
+            batchProperties.setFormat("RowBinary");
+            batchProperties.setCompress(false);
+            ResilientClickhouseAuditPublisher publisher = track(new ResilientClickhouseAuditPublisher(
+                    new ClickhouseProperties("http://localhost:" + server.getAddress().getPort(), "", ""),
+                    new ClickhouseAuditRetryProperties(), batchProperties, spoolProperties(),
+                    new ClickhouseAuditCircuitProperties(), new SimpleMeterRegistry()));
+
+            ActivityLog activityLog = createActivityLog();
+            activityLog.setOccurredAt(Instant.parse("2026-06-29T17:28:23.290Z"));
+
+            publisher.publish(activityLog);
+
+            ByteBuffer body = ByteBuffer.wrap(capturedBody.get()).order(ByteOrder.LITTLE_ENDIAN);
+            assertThat(capturedQuery.get()).endsWith("FORMAT+RowBinary");
+            assertThat(body.getLong(16)).isEqualTo(activityLog.getOccurredAt().toEpochMilli());
+            assertThat(body.getLong(24)).isEqualTo(activityLog.getActorUserId().getMostSignificantBits());
+            assertThat(body.getLong(32)).isEqualTo(activityLog.getActorUserId().getLeastSignificantBits());
+            assertThat(body.get(40)).isEqualTo((byte) "OWNER".length());
+            assertThat(new String(capturedBody.get(), 41, 5, StandardCharsets.UTF_8)).isEqualTo("OWNER");
+            assertThat(body.getLong(body.limit() - 16)).isEqualTo(activityLog.getStoreId().getMostSignificantBits());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private ResilientClickhouseAuditPublisher track(ResilientClickhouseAuditPublisher publisher) {
+        publishers.add(publisher);
+        return publisher;
+    }
+
+    private ClickhouseAuditSpoolProperties spoolProperties() {
+        ClickhouseAuditSpoolProperties spoolProperties = new ClickhouseAuditSpoolProperties();
+        spoolProperties.setDirectory(spoolDirectory.toString());
+        return spoolProperties;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
     private ActivityLog createActivityLog() {
         ActivityLog activityLog = new ActivityLog();
         activityLog.setActorUserId(UUID.randomUUID());
@@ -0,0 +1,171 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.model.InventoryMovementType;
+import com.optimaxx.management.domain.repository.InventoryHold;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryStockChangeRequest;
+import com.optimaxx.management.security.InventoryHoldProperties;
+import com.optimaxx.management.security.InventoryHoldService;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.InventoryService;
+import com.optimaxx.management.security.InventoryStockCoordinator;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.StoreContext;
+import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+class InventoryHoldRepositoryTest extends PostgresRepositoryTest {
+
+    private final UUID storeId = StoreContext.currentStoreId();
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldNotHoldMoreThanUnheldStock() {
+        UUID itemId = item(5);
+
+        assertThat(inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 3))).contains(2);
+        assertThat(inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 3))).isEmpty();
+        assertThat(inventoryItemRepository.insertHold(new InventoryHold(UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), itemId, 1, Instant.now().plusSeconds(60)))).as("other store").isEmpty();
+
+        assertThat(reserved(itemId)).isEqualTo(3);
+        assertThat(holdCount(itemId)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepHeldUnitsOnTheShelfWhenDecrementing() {
+        UUID itemId = item(5);
+        inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 3));
+
+        assertThat(inventoryItemRepository.decrementQuantityIfAvailable(itemId, 3)).isEmpty();
+        assertThat(inventoryItemRepository.decrementQuantityIfAvailable(itemId, 2)).contains(3);
+        assertThat(inventoryItemRepository.decrementQuantityIfAvailable(itemId, 1)).isEmpty();
+        assertThat(inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 1))).isEmpty();
+    }
+
+    @Test
+    void shouldKeepHeldUnitsOnTheShelfForManualStockOut() {
+        UUID itemId = item(5);
+        inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 3));
+        InventoryService inventoryService = new InventoryService(inventoryItemRepository, inventoryMovementRepository,
+                Mockito.mock(SecurityAuditService.class), Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+
+        assertThatThrownBy(() -> inventoryService.changeStock(itemId, new InventoryStockChangeRequest(InventoryMovementType.OUT, 3, "damaged")))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Insufficient stock");
+        assertThat(inventoryService.changeStock(itemId, new InventoryStockChangeRequest(InventoryMovementType.OUT, 2, "damaged")).quantity())
+                .isEqualTo(3);
+        assertThat(reserved(itemId)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldClaimOnlyTheStoresCartHoldsOnTheRequestedItems() {
+        UUID cartId = UUID.randomUUID();
+        UUID frameId = item(5);
+        UUID lensId = item(5);
+        InventoryHold frameHold = hold(cartId, frameId, 2);
+        inventoryItemRepository.insertHold(frameHold);
+        inventoryItemRepository.insertHold(hold(cartId, lensId, 1));
+        inventoryItemRepository.insertHold(hold(UUID.randomUUID(), frameId, 1));
+        // Same cart id in another store, as a colliding client-generated id would produce.
+        inventoryItemRepository.restoreHolds(List.of(new InventoryHold(UUID.randomUUID(), UUID.randomUUID(), cartId,
+                frameId, 1, Instant.now().plusSeconds(60))));
+
+        List<InventoryHold> claimed = inventoryItemRepository.claimHolds(storeId, cartId, List.of(frameId));
+
+        assertThat(claimed).extracting(InventoryHold::id).containsExactly(frameHold.id());
+        assertThat(reserved(frameId)).isEqualTo(2);
+        assertThat(reserved(lensId)).isEqualTo(1);
+
+        inventoryItemRepository.restoreHolds(claimed);
+        assertThat(reserved(frameId)).isEqualTo(4);
+        assertThat(holdCount(frameId)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRestoreOnlyTheRejectedSalesClaimsAcrossABatch() {
+        UUID cartId = UUID.randomUUID();
+        UUID frameId = item(2);
+        UUID lensId = item(1);
+        inventoryItemRepository.insertHold(hold(cartId, frameId, 2));
+        inventoryItemRepository.insertHold(hold(cartId, lensId, 1));
+
+        InventoryHoldService holdService = new InventoryHoldService(inventoryItemRepository,
+                Mockito.mock(InventoryLookupIndex.class), new InventoryHoldProperties(900, 5000));
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(inventoryItemRepository, inventoryMovementRepository,
+                Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), holdService);
+        var allocation = coordinator.allocate(List.of(
+                new InventoryStockCoordinator.StockDemand(cartId, Map.of(frameId, 2)),
+                new InventoryStockCoordinator.StockDemand(cartId, Map.of(lensId, 2))
+        ));
+
+        assertThat(allocation.rejections()).containsOnly(Map.entry(1, "Insufficient stock"));
+        assertThat(quantity(frameId)).isZero();
+        assertThat(reserved(frameId)).isZero();
+        assertThat(holdCount(frameId)).isZero();
+        assertThat(quantity(lensId)).isEqualTo(1);
+        assertThat(reserved(lensId)).isEqualTo(1);
+        assertThat(holdCount(lensId)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseExpiredHolds() {
+        UUID itemId = item(5);
+        inventoryItemRepository.insertHold(new InventoryHold(UUID.randomUUID(), storeId, UUID.randomUUID(), itemId, 2,
+                Instant.now().minusSeconds(1)));
+        inventoryItemRepository.insertHold(hold(UUID.randomUUID(), itemId, 1));
+
+        assertThat(inventoryItemRepository.releaseExpiredHolds(Instant.now(), null)).extracting(InventoryHold::inventoryItemId)
+                .containsExactly(itemId);
+        assertThat(reserved(itemId)).isEqualTo(1);
+        assertThat(holdCount(itemId)).isEqualTo(1);
+    }
+
+    private UUID item(int quantity) {
+        InventoryItem item = new InventoryItem();
+        item.setStoreId(storeId);
+        item.setSku("HOLD-" + UUID.randomUUID());
+        item.setName("Held frame");
+        item.setQuantity(quantity);
+        item.setMinQuantity(0);
+        item.setDeleted(false);
+        return inventoryItemRepository.saveAndFlush(item).getId();
+    }
+
+    private InventoryHold hold(UUID cartId, UUID itemId, int quantity) {
+        return new InventoryHold(UUID.randomUUID(), storeId, cartId, itemId, quantity, Instant.now().plusSeconds(60));
+    }
+
+    private int quantity(UUID itemId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM inventory_items WHERE id = ?", Integer.class, itemId);
+    }
+
+    private int reserved(UUID itemId) {
+        return jdbcTemplate.queryForObject("SELECT reserved_quantity FROM inventory_items WHERE id = ?", Integer.class, itemId);
+    }
+
+    private int holdCount(UUID itemId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_holds WHERE inventory_item_id = ?", Integer.class, itemId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryHold;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.CreateInventoryHoldRequest;
+import com.optimaxx.management.security.InventoryHoldProperties;
+import com.optimaxx.management.security.InventoryHoldService;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.StoreContext;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.server.ResponseStatusException;
+
+class InventoryHoldServiceTest {
+
+    @Test
+    void shouldRetryHoldOnceExpiredHoldsWereReleased() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryLookupIndex lookupIndex = Mockito.mock(InventoryLookupIndex.class);
+        UUID itemId = UUID.randomUUID();
+        UUID storeId = StoreContext.currentStoreId();
+        when(itemRepository.insertHold(any(InventoryHold.class))).thenReturn(Optional.empty(), Optional.of(1));
+        when(itemRepository.releaseExpiredHolds(any(Instant.class), eq(itemId))).thenReturn(List.of(
+                new InventoryHold(UUID.randomUUID(), storeId, UUID.randomUUID(), itemId, 1, Instant.now().minusSeconds(1))));
+
+        InventoryHoldService service = new InventoryHoldService(itemRepository, lookupIndex, new InventoryHoldProperties(900, 5000));
+        var response = service.placeHold(new CreateInventoryHoldRequest(UUID.randomUUID(), itemId, 2));
+
+        assertThat(response.availableQuantity()).isEqualTo(1);
+        assertThat(response.expiresAt()).isAfter(Instant.now().plusSeconds(890));
+        verify(itemRepository, times(2)).insertHold(any(InventoryHold.class));
+        verify(lookupIndex).onItemsChanged(storeId, Set.of(itemId));
+        verify(lookupIndex).onItemsChanged(storeId, List.of(itemId));
+    }
+
+    @Test
+    void shouldTellMissingItemFromInsufficientStock() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryLookupIndex lookupIndex = Mockito.mock(InventoryLookupIndex.class);
+        UUID ownItemId = UUID.randomUUID();
+        UUID foreignItemId = UUID.randomUUID();
+        InventoryItem ownItem = new InventoryItem();
+        ownItem.setStoreId(StoreContext.currentStoreId());
+        InventoryItem foreignItem = new InventoryItem();
+        foreignItem.setStoreId(UUID.randomUUID());
+        when(itemRepository.findByIdAndDeletedFalse(ownItemId)).thenReturn(Optional.of(ownItem));
+        when(itemRepository.findByIdAndDeletedFalse(foreignItemId)).thenReturn(Optional.of(foreignItem));
+
+        InventoryHoldService service = new InventoryHoldService(itemRepository, lookupIndex, new InventoryHoldProperties(900, 5000));
+
+        assertThatThrownBy(() -> service.placeHold(new CreateInventoryHoldRequest(UUID.randomUUID(), ownItemId, 2)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Insufficient stock");
+        assertThatThrownBy(() -> service.placeHold(new CreateInventoryHoldRequest(UUID.randomUUID(), foreignItemId, 2)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Inventory item not found");
+    }
+
+    @Test
+    void shouldScopeReleaseAndClaimToCurrentStore() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryLookupIndex lookupIndex = Mockito.mock(InventoryLookupIndex.class);
+        UUID holdId = UUID.randomUUID();
+        UUID cartId = UUID.randomUUID();
+        UUID itemId = UUID.randomUUID();
+        UUID storeId = StoreContext.currentStoreId();
+
+        InventoryHoldService service = new InventoryHoldService(itemRepository, lookupIndex, new InventoryHoldProperties(900, 5000));
+
+        assertThatThrownBy(() -> service.releaseHold(holdId))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Inventory hold not found");
+        verify(itemRepository).deleteHold(holdId, storeId);
+
+        when(itemRepository.deleteHold(holdId, storeId)).thenReturn(Optional.of(
+                new InventoryHold(holdId, storeId, cartId, itemId, 1, Instant.now().plusSeconds(60))));
+        service.releaseHold(holdId);
+        verify(lookupIndex).onItemsChanged(storeId, List.of(itemId));
+
+        service.claim(cartId, List.of(itemId));
+        verify(itemRepository).claimHolds(storeId, cartId, List.of(itemId));
+    }
+}
@@ -0,0 +1,139 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.repository.InventoryItemImportRow;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.security.InventoryImportService;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.audit.AuditEventType;
+import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+class InventoryImportServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldUpsertValidRowsAndReportRejectedLines() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+
+        when(itemRepository.upsertImportRows(any(UUID.class), anyList())).thenReturn(new int[]{1, 1, Statement.SUCCESS_NO_INFO});
+
+        String csv = "sku,name,category,quantity,min_quantity\r\n"
+                + "sku-1,Frame,FRAME,10,2\r\n"
+                + "SKU-2,\"Lens, progressive \"\"HD\"\"\",LENS,,1\r\n"
+                + ",Missing sku,LENS,1,0\r\n"
+                + "SKU-4,Bad quantity,LENS,many,0\r\n"
+                + "\r\n"
+                + "SKU-5,Other store item,LENS,3,0\r\n";
+
+        InventoryImportService service = new InventoryImportService(itemRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+        var response = service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        ArgumentCaptor<List<InventoryItemImportRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(itemRepository, times(1)).upsertImportRows(eq(UUID.fromString("00000000-0000-0000-0000-000000000001")), rows.capture());
+        assertThat(rows.getValue()).extracting(InventoryItemImportRow::sku).containsExactly("SKU-1", "SKU-2", "SKU-5");
+        assertThat(rows.getValue().get(1).name()).isEqualTo("Lens, progressive \"HD\"");
+        assertThat(rows.getValue().get(1).quantity()).isZero();
+
+        assertThat(response.processedRows()).isEqualTo(5);
+        assertThat(response.importedRows()).isEqualTo(2);
+        assertThat(response.unconfirmedRows()).isEqualTo(1);
+        assertThat(response.rejectedRows()).isEqualTo(2);
+        assertThat(response.errors()).extracting(error -> error.line()).containsExactly(4L, 5L);
+        assertThat(response.errorsTruncated()).isFalse();
+
+        verify(auditService, times(1)).log(eq(AuditEventType.INVENTORY_ITEMS_IMPORTED), isNull(), eq("INVENTORY"), eq("bulk-import"), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectSkusRepeatedWithinTheFile() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+
+        when(itemRepository.upsertImportRows(any(UUID.class), anyList())).thenReturn(new int[]{1, 1});
+
+        String csv = "sku,name,quantity\n"
+                + "SKU-1,Frame,10\n"
+                + "SKU-2,,4\n"
+                + " sku-1 ,Frame again,5\n"
+                + "SKU-2,Lens,4\n"
+                + "SKU-2,Lens again,6\n";
+
+        InventoryImportService service = new InventoryImportService(itemRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+        var response = service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        ArgumentCaptor<List<InventoryItemImportRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(itemRepository).upsertImportRows(any(UUID.class), rows.capture());
+        assertThat(rows.getValue()).extracting(InventoryItemImportRow::quantity).containsExactly(10, 4);
+
+        assertThat(response.processedRows()).isEqualTo(5);
+        assertThat(response.importedRows()).isEqualTo(2);
+        assertThat(response.rejectedRows()).isEqualTo(3);
+        assertThat(response.errors()).extracting(error -> error.line()).containsExactly(3L, 4L, 6L);
+        assertThat(response.errors().get(1).error()).isEqualTo("Duplicate sku, first given on line 2");
+        assertThat(response.errors().get(2).error()).isEqualTo("Duplicate sku, first given on line 5");
+    }
+
+    @Test
+    void shouldAuditImportThatFailsAfterEarlierBatchesCommitted() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        LowStockMonitor lowStockMonitor = Mockito.mock(LowStockMonitor.class);
+
+        int[] fullBatch = new int[1_000];
+        Arrays.fill(fullBatch, 1);
+        when(itemRepository.upsertImportRows(any(UUID.class), anyList()))
+                .thenReturn(fullBatch)
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        StringBuilder csv = new StringBuilder("sku,name,quantity\n");
+        for (int i = 0; i < 1_500; i++) {
+            csv.append("SKU-").append(i).append(",Frame,1\n");
+        }
+
+        InventoryImportService service = new InventoryImportService(itemRepository, auditService, lowStockMonitor, Mockito.mock(InventoryLookupIndex.class));
+
+        assertThatThrownBy(() -> service.importCsv(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        ArgumentCaptor<String> details = ArgumentCaptor.forClass(String.class);
+        verify(auditService).log(eq(AuditEventType.INVENTORY_ITEMS_IMPORTED), isNull(), eq("INVENTORY"), eq("bulk-import"), details.capture());
+        assertThat(details.getValue()).contains("\"imported\":1000", "\"completed\":false");
+        verify(lowStockMonitor).invalidate(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+
+        InventoryImportService service = new InventoryImportService(itemRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+
+        assertThatThrownBy(() -> service.importCsv(new ByteArrayInputStream("code,title\nA,B\n".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(itemRepository, never()).upsertImportRows(any(UUID.class), anyList());
+    }
+}
@@ -0,0 +1,62 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.repository.InventoryItemImportRow;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class InventoryItemImportRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldImportTheSameSkuIntoTwoStores() {
+        UUID firstStore = UUID.randomUUID();
+        UUID secondStore = UUID.randomUUID();
+        String sku = "IMPORT-" + UUID.randomUUID();
+
+        int[] first = inventoryItemRepository.upsertImportRows(firstStore, List.of(new InventoryItemImportRow(sku, "Frame", null, 4, 1)));
+        int[] second = inventoryItemRepository.upsertImportRows(secondStore, List.of(new InventoryItemImportRow(sku, "Frame", null, 7, 1)));
+        int[] again = inventoryItemRepository.upsertImportRows(firstStore, List.of(new InventoryItemImportRow(sku, "Frame HD", null, 9, 2)));
+
+        assertThat(first).containsExactly(1);
+        assertThat(second).containsExactly(1);
+        assertThat(again).containsExactly(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM inventory_items WHERE store_id = ? AND sku = ?",
+                String.class, firstStore, sku)).isEqualTo("Frame HD");
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_items WHERE store_id = ? AND sku = ?",
+                Integer.class, secondStore, sku)).isEqualTo(7);
+    }
+
+    @Test
+    void shouldBalanceTheLedgerOfARevivedSku() {
+        UUID storeId = UUID.randomUUID();
+        String sku = "IMPORT-" + UUID.randomUUID();
+        inventoryItemRepository.upsertImportRows(storeId, List.of(new InventoryItemImportRow(sku, "Frame", null, 4, 1)));
+        UUID itemId = jdbcTemplate.queryForObject("SELECT id FROM inventory_items WHERE store_id = ? AND sku = ?",
+                UUID.class, storeId, sku);
+        jdbcTemplate.update("INSERT INTO inventory_movements (id, store_id, inventory_item_id, movement_type, quantity_delta, " +
+                "moved_at, created_at, updated_at, is_deleted) VALUES (?, ?, ?, 'OUT', -1, now(), now(), now(), FALSE)",
+                UUID.randomUUID(), storeId, itemId);
+        jdbcTemplate.update("UPDATE inventory_items SET quantity = 3, is_deleted = TRUE WHERE id = ?", itemId);
+
+        inventoryItemRepository.upsertImportRows(storeId, List.of(new InventoryItemImportRow(sku, "Frame", null, 10, 1)));
+        inventoryItemRepository.upsertImportRows(storeId, List.of(new InventoryItemImportRow(sku, "Frame", null, 20, 1)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_items WHERE id = ?", Integer.class, itemId))
+                .isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantity_delta) FROM inventory_movements WHERE inventory_item_id = ?",
+                Integer.class, itemId)).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_movements WHERE inventory_item_id = ? " +
+                "AND movement_type = 'ADJUST'", Integer.class, itemId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.domain.repository.InventoryStockPoint;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class InventoryLedgerRepositoryTest extends PostgresRepositoryTest {
+
+    private static final UUID MIN_ITEM_ID = new UUID(0L, 0L);
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    private final UUID storeId = UUID.randomUUID();
+    private UUID itemId;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedLedger() {
+        InventoryItem item = new InventoryItem();
+        item.setStoreId(storeId);
+        item.setSku("LEDGER-" + UUID.randomUUID());
+        item.setName("Ledger frame");
+        item.setQuantity(5);
+        item.setMinQuantity(0);
+        item.setDeleted(false);
+        itemId = inventoryItemRepository.saveAndFlush(item).getId();
+
+        move(10, daysAgo(200), "ledger:" + itemId + ":in");
+        move(-3, daysAgo(190), "ledger:" + itemId + ":sale");
+        move(-2, daysAgo(1), null);
+    }
+
+    @Test
+    void shouldSnapshotArchiveAndStillAnswerStockAt() {
+        assertThat(inventoryMovementRepository.snapshotStock(storeId, MIN_ITEM_ID, itemId, daysAgo(185))).isEqualTo(1);
+        assertThat(inventoryMovementRepository.snapshotStock(storeId, MIN_ITEM_ID, itemId, daysAgo(185))).as("same as_of").isZero();
+
+        assertThat(inventoryMovementRepository.archiveMovements(daysAgo(180), 10)).isEqualTo(2);
+        assertThat(count("inventory_movements")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT source_type || '|' || idempotency_key FROM inventory_movements_archive " +
+                "WHERE inventory_item_id = ? AND quantity_delta = -3", String.class, itemId))
+                .isEqualTo("LEDGER_TEST|ledger:" + itemId + ":sale");
+
+        InventoryStockPoint current = inventoryMovementRepository.findStockAt(itemId, now);
+        assertThat(current.quantity()).isEqualTo(5);
+        assertThat(current.snapshotAsOf()).isEqualTo(daysAgo(185));
+        assertThat(inventoryMovementRepository.findStockAt(itemId, daysAgo(195)).quantity()).isEqualTo(10);
+        assertThat(inventoryMovementRepository.findLedgerMismatches(storeId, MIN_ITEM_ID, itemId)).isEmpty();
+    }
+
+    @Test
+    void shouldNotArchiveMovementsNewerThanTheirSnapshot() {
+        inventoryMovementRepository.snapshotStock(storeId, MIN_ITEM_ID, itemId, daysAgo(195));
+
+        assertThat(inventoryMovementRepository.archiveMovements(daysAgo(180), 10)).isEqualTo(1);
+        assertThat(inventoryMovementRepository.findLedgerMismatches(storeId, MIN_ITEM_ID, itemId)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectReplayOfAnArchivedKey() {
+        inventoryMovementRepository.snapshotStock(storeId, MIN_ITEM_ID, itemId, daysAgo(185));
+        inventoryMovementRepository.archiveMovements(daysAgo(180), 10);
+
+        assertThat(move(-3, now, "ledger:" + itemId + ":sale")).isZero();
+        assertThat(move(-1, now, "ledger:" + itemId + ":new")).isEqualTo(1);
+        assertThat(move(-1, now, "ledger:" + itemId + ":new")).isZero();
+    }
+
+    private int move(int delta, Instant movedAt, String idempotencyKey) {
+        return inventoryMovementRepository.insertIfAbsent(UUID.randomUUID(), storeId, itemId, delta > 0 ? "IN" : "OUT",
+                delta, null, movedAt, "LEDGER_TEST", null, idempotencyKey);
+    }
+
+    private Instant daysAgo(int days) {
+        return now.minus(Duration.ofDays(days));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE inventory_item_id = ?", Integer.class, itemId);
+    }
+}
@@ -0,0 +1,158 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLookupItem;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.InventoryLookupProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InventoryLookupIndexTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void shouldServeExactAndPrefixLookupsFromMemory() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+
+        InventoryItem frame = item("FRAME-100", 4);
+        InventoryItem frameWide = item("FRAME-101", 2);
+        InventoryItem lens = item("LENS-1", 9);
+        ReflectionTestUtils.setField(lens, "reservedQuantity", 3);
+        when(itemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID)).thenReturn(List.of(lens, frameWide, frame));
+
+        InventoryLookupIndex index = new InventoryLookupIndex(itemRepository, new InventoryLookupProperties(3600));
+
+        assertThat(index.findBySku(STORE_ID, "LENS-1").quantity()).isEqualTo(9);
+        assertThat(index.findBySku(STORE_ID, "LENS-1").availableQuantity()).isEqualTo(6);
+        assertThat(index.findBySku(STORE_ID, "LENS")).isNull();
+        assertThat(index.findByPrefix(STORE_ID, "FRAME-10", 10)).extracting(InventoryLookupItem::sku)
+                .containsExactly("FRAME-100", "FRAME-101");
+        assertThat(index.findByPrefix(STORE_ID, "FRAME", 1)).extracting(InventoryLookupItem::sku).containsExactly("FRAME-100");
+
+        verify(itemRepository, times(1)).findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID);
+    }
+
+    @Test
+    void shouldApplyItemChangesAndRemovals() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+
+        InventoryItem frame = item("FRAME-100", 4);
+        InventoryItem created = item("FRAME-200", 6);
+        when(itemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID)).thenReturn(List.of(frame));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> rowsFor(invocation.getArgument(0), frame, created));
+
+        InventoryLookupIndex index = new InventoryLookupIndex(itemRepository, new InventoryLookupProperties(3600));
+        assertThat(index.findBySku(STORE_ID, "FRAME-100").quantity()).isEqualTo(4);
+
+        frame.setQuantity(1);
+        index.onItemChanged(frame);
+        index.onItemChanged(created);
+        await(() -> index.findByPrefix(STORE_ID, "FRAME", 10).size() == 2);
+        assertThat(index.findBySku(STORE_ID, "FRAME-100").quantity()).isEqualTo(1);
+
+        frame.setDeleted(true);
+        index.onItemRemoved(frame);
+        await(() -> index.findBySku(STORE_ID, "FRAME-100") == null);
+        assertThat(index.findByPrefix(STORE_ID, "FRAME", 10)).extracting(InventoryLookupItem::sku).containsExactly("FRAME-200");
+    }
+
+    @Test
+    void shouldKeepTheCommittedRowWhenChangesArriveOutOfOrder() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+
+        InventoryItem committed = item("FRAME-100", 4);
+        ReflectionTestUtils.setField(committed, "reservedQuantity", 1);
+        InventoryItem loaded = copy(committed, 9);
+        InventoryItem staleCopy = copy(committed, 7);
+        when(itemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID)).thenReturn(List.of(loaded));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> rowsFor(invocation.getArgument(0), committed));
+
+        InventoryLookupIndex index = new InventoryLookupIndex(itemRepository, new InventoryLookupProperties(3600));
+        assertThat(index.findBySku(STORE_ID, "FRAME-100").quantity()).isEqualTo(9);
+
+        // The later sale's notification runs first; the earlier one still carries the quantity it saw.
+        index.onItemChanged(committed);
+        index.onItemChanged(staleCopy);
+
+        await(() -> index.findBySku(STORE_ID, "FRAME-100").quantity() == 4);
+        Thread.sleep(50);
+        assertThat(index.findBySku(STORE_ID, "FRAME-100").quantity()).isEqualTo(4);
+        assertThat(index.findBySku(STORE_ID, "FRAME-100").availableQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldLoadAColdStoreOnceForConcurrentLookups() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRepository.findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(item("LENS-1", 9));
+        });
+
+        InventoryLookupIndex index = new InventoryLookupIndex(itemRepository, new InventoryLookupProperties(3600));
+        try (ExecutorService tills = Executors.newFixedThreadPool(4)) {
+            List<Future<InventoryLookupItem>> scans = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                scans.add(tills.submit(() -> index.findBySku(STORE_ID, "LENS-1")));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            for (Future<InventoryLookupItem> scan : scans) {
+                assertThat(scan.get(5, TimeUnit.SECONDS).quantity()).isEqualTo(9);
+            }
+        }
+
+        verify(itemRepository, times(1)).findByStoreIdAndDeletedFalseOrderByNameAsc(STORE_ID);
+    }
+
+    private InventoryItem copy(InventoryItem source, int quantity) {
+        InventoryItem copy = item(source.getSku(), quantity);
+        ReflectionTestUtils.setField(copy, "id", source.getId());
+        return copy;
+    }
+
+    private static List<InventoryItem> rowsFor(Iterable<UUID> ids, InventoryItem... rows) {
+        List<UUID> requested = new ArrayList<>();
+        ids.forEach(requested::add);
+        return Arrays.stream(rows).filter(row -> requested.contains(row.getId())).toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private InventoryItem item(String sku, int quantity) {
+        InventoryItem item = new InventoryItem();
+        ReflectionTestUtils.setField(item, "id", UUID.randomUUID());
+        item.setStoreId(STORE_ID);
+        item.setSku(sku);
+        item.setName(sku);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,71 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.repository.InventoryLedgerChunk;
+import com.optimaxx.management.domain.repository.InventoryLedgerMismatch;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.interfaces.rest.dto.InventoryLedgerMismatchResponse;
+import com.optimaxx.management.security.InventoryReconciliationProperties;
+import com.optimaxx.management.security.InventoryReconciliationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class InventoryReconciliationServiceTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    @Test
+    void shouldReconcileStoreInChunksAndReportDrift() {
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID firstBoundary = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID lastBoundary = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        when(movementRepository.findLedgerChunk(STORE_ID, MIN_ID, 2)).thenReturn(new InventoryLedgerChunk(firstBoundary, 2));
+        when(movementRepository.findLedgerChunk(STORE_ID, firstBoundary, 2)).thenReturn(new InventoryLedgerChunk(lastBoundary, 1));
+        when(movementRepository.findLedgerMismatches(STORE_ID, MIN_ID, firstBoundary))
+                .thenReturn(List.of(new InventoryLedgerMismatch(firstBoundary, "FRAME-1", 5, 7)));
+        when(movementRepository.findLedgerMismatches(STORE_ID, firstBoundary, lastBoundary))
+                .thenReturn(List.of(new InventoryLedgerMismatch(lastBoundary, "LENS-1", 12, 2)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryReconciliationService service = new InventoryReconciliationService(movementRepository,
+                new InventoryReconciliationProperties("-", 2, 2), meterRegistry);
+
+        var report = service.reconcileCurrentStore();
+
+        assertThat(report.itemsChecked()).isEqualTo(3);
+        assertThat(report.mismatchCount()).isEqualTo(2);
+        assertThat(report.mismatches()).extracting(InventoryLedgerMismatchResponse::sku).containsExactly("LENS-1", "FRAME-1");
+        assertThat(report.mismatches()).extracting(InventoryLedgerMismatchResponse::drift).containsExactly(10L, -2L);
+        assertThat(report.mismatchesTruncated()).isFalse();
+        assertThat(service.lastReport()).isEqualTo(report);
+        assertThat(meterRegistry.get("optimaxx.inventory.ledger.mismatches").gauge().value()).isEqualTo(2.0);
+
+        verify(movementRepository, times(2)).findLedgerChunk(eq(STORE_ID), any(UUID.class), eq(2));
+    }
+
+    @Test
+    void shouldReportCleanLedgerForEmptyStore() {
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+        when(movementRepository.findLedgerStoreIds()).thenReturn(List.of(STORE_ID));
+
+        InventoryReconciliationService service = new InventoryReconciliationService(movementRepository,
+                new InventoryReconciliationProperties("-", 0, 0), new SimpleMeterRegistry());
+        service.reconcileAllStores();
+
+        var report = service.lastReport();
+        assertThat(report.itemsChecked()).isZero();
+        assertThat(report.mismatches()).isEmpty();
+        verify(movementRepository, Mockito.never()).findLedgerMismatches(any(), any(), any());
+    }
+}
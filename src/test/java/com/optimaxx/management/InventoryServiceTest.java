@@ -3,6 +3,7 @@ package com.optimaxx.management;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -13,12 +14,20 @@ import com.optimaxx.management.domain.repository.InventoryItemRepository;
 import com.optimaxx.management.domain.repository.InventoryMovementRepository;
 import com.optimaxx.management.interfaces.rest.dto.AdminCreateInventoryItemRequest;
 import com.optimaxx.management.interfaces.rest.dto.InventoryStockChangeRequest;
+import com.optimaxx.management.security.InventoryLookupIndex;
 import com.optimaxx.management.security.InventoryService;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.StoreContext;
 import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 class InventoryServiceTest {
@@ -29,10 +38,10 @@ class InventoryServiceTest {
         InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
 
-        when(itemRepository.existsBySkuAndDeletedFalse("SKU-1")).thenReturn(false);
+        when(itemRepository.existsByStoreIdAndSkuAndDeletedFalse(StoreContext.currentStoreId(), "SKU-1")).thenReturn(false);
         when(itemRepository.save(any(InventoryItem.class))).thenAnswer(i -> i.getArgument(0));
 
-        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService);
+        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
         var response = service.createItem(new AdminCreateInventoryItemRequest("sku-1", "Lens", "LENS", 10, 2));
 
         assertThat(response.sku()).isEqualTo("SKU-1");
@@ -52,14 +61,41 @@ class InventoryServiceTest {
         item.setQuantity(10);
         item.setMinQuantity(2);
 
-        when(itemRepository.findByIdAndDeletedFalse(id)).thenReturn(Optional.of(item));
+        when(itemRepository.findReadOnlyByIdAndDeletedFalse(id)).thenReturn(Optional.of(item));
+        when(itemRepository.decrementQuantityIfAvailable(id, 3)).thenReturn(Optional.of(7));
         when(movementRepository.save(any(InventoryMovement.class))).thenAnswer(i -> i.getArgument(0));
 
-        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService);
+        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
         var response = service.changeStock(id, new InventoryStockChangeRequest(InventoryMovementType.OUT, 3, "sale"));
 
         assertThat(response.quantity()).isEqualTo(7);
         verify(movementRepository).save(any(InventoryMovement.class));
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRecordAdjustmentAsDifferenceToCurrentQuantity() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+
+        UUID id = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        item.setSku("SKU-1");
+        item.setName("Lens");
+        item.setQuantity(10);
+
+        when(itemRepository.findReadOnlyByIdAndDeletedFalse(id)).thenReturn(Optional.of(item));
+        when(itemRepository.lockQuantity(id)).thenReturn(Optional.of(10));
+        when(itemRepository.incrementQuantity(id, -6)).thenReturn(Optional.of(4));
+
+        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+        var response = service.changeStock(id, new InventoryStockChangeRequest(InventoryMovementType.ADJUST, 4, "count"));
+
+        ArgumentCaptor<InventoryMovement> movement = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertThat(response.quantity()).isEqualTo(4);
+        assertThat(movement.getValue().getQuantityDelta()).isEqualTo(-6);
     }
 
     @Test
@@ -72,11 +108,50 @@ class InventoryServiceTest {
         InventoryItem item = new InventoryItem();
         item.setQuantity(1);
 
-        when(itemRepository.findByIdAndDeletedFalse(id)).thenReturn(Optional.of(item));
+        when(itemRepository.findReadOnlyByIdAndDeletedFalse(id)).thenReturn(Optional.of(item));
+        when(itemRepository.decrementQuantityIfAvailable(id, 3)).thenReturn(Optional.empty());
 
-        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService);
+        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
 
         assertThatThrownBy(() -> service.changeStock(id, new InventoryStockChangeRequest(InventoryMovementType.OUT, 3, "sale")))
                 .isInstanceOf(ResponseStatusException.class);
     }
+
+    @Test
+    void shouldListItemsByCursor() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+
+        List<InventoryItem> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InventoryItem item = new InventoryItem();
+            ReflectionTestUtils.setField(item, "id", UUID.randomUUID());
+            item.setSku("SKU-" + i);
+            item.setName("Lens " + i);
+            item.setQuantity(5);
+            item.setMinQuantity(2);
+            rows.add(item);
+        }
+
+        when(itemRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        InventoryService service = new InventoryService(itemRepository, movementRepository, auditService, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+
+        var firstPage = service.listItemsByCursor("lens", "LENS", true, null, 2, "name,asc");
+        assertThat(firstPage.items()).hasSize(2);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.nextCursor()).isNotBlank();
+
+        when(itemRepository.findBy(any(Specification.class), any())).thenReturn(rows.subList(2, 3));
+        var secondPage = service.listItemsByCursor("lens", "LENS", true, firstPage.nextCursor(), 2, "name,asc");
+        assertThat(secondPage.items()).hasSize(1);
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.nextCursor()).isNull();
+
+        assertThatThrownBy(() -> service.listItemsByCursor(null, null, false, firstPage.nextCursor(), 2, "sku,asc"))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.listItemsByCursor(null, null, false, null, 2, "quantity,asc"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
 }
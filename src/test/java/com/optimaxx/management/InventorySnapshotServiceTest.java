@@ -0,0 +1,75 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryLedgerChunk;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.domain.repository.InventoryStockPoint;
+import com.optimaxx.management.security.InventorySnapshotProperties;
+import com.optimaxx.management.security.InventorySnapshotService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InventorySnapshotServiceTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void shouldSnapshotEveryChunkThenArchiveInBatches() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID minId = new UUID(0L, 0L);
+        UUID boundary = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID last = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        when(movementRepository.findLedgerStoreIds()).thenReturn(List.of(STORE_ID));
+        when(movementRepository.findLedgerChunk(STORE_ID, minId, 2)).thenReturn(new InventoryLedgerChunk(boundary, 2));
+        when(movementRepository.findLedgerChunk(STORE_ID, boundary, 2)).thenReturn(new InventoryLedgerChunk(last, 1));
+        when(movementRepository.snapshotStock(eq(STORE_ID), eq(minId), eq(boundary), any(Instant.class))).thenReturn(2);
+        when(movementRepository.snapshotStock(eq(STORE_ID), eq(boundary), eq(last), any(Instant.class))).thenReturn(1);
+        when(movementRepository.archiveMovements(any(Instant.class), eq(10))).thenReturn(10, 10, 4);
+
+        InventorySnapshotService service = new InventorySnapshotService(itemRepository, movementRepository,
+                new InventorySnapshotProperties("-", 300, 30, 2, 10));
+        service.snapshotAndCompact();
+
+        verify(movementRepository, times(2)).snapshotStock(eq(STORE_ID), any(UUID.class), any(UUID.class), any(Instant.class));
+        verify(movementRepository, times(3)).archiveMovements(any(Instant.class), eq(10));
+    }
+
+    @Test
+    void shouldReadStockAtFromSnapshotAndTail() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        ReflectionTestUtils.setField(item, "id", itemId);
+        item.setSku("FRAME-1");
+        Instant at = Instant.parse("2026-03-01T12:00:00Z");
+        Instant snapshotAsOf = Instant.parse("2026-03-01T02:00:00Z");
+
+        when(itemRepository.findByIdAndDeletedFalse(itemId)).thenReturn(Optional.of(item));
+        when(movementRepository.findStockAt(itemId, at)).thenReturn(new InventoryStockPoint(snapshotAsOf, 14));
+
+        InventorySnapshotService service = new InventorySnapshotService(itemRepository, movementRepository,
+                new InventorySnapshotProperties("-", 0, 0, 0, 0));
+        var response = service.stockAt(itemId, at);
+
+        assertThat(response.sku()).isEqualTo("FRAME-1");
+        assertThat(response.quantity()).isEqualTo(14);
+        assertThat(response.snapshotAsOf()).isEqualTo(snapshotAsOf);
+    }
+}
@@ -0,0 +1,142 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.model.InventoryMovementType;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.security.InventoryHoldService;
+import com.optimaxx.management.interfaces.rest.dto.InventoryStockChangeRequest;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.InventoryService;
+import com.optimaxx.management.security.InventoryStockCoordinator;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs concurrent consumers against the real conditional {@code UPDATE ... RETURNING}, each in its own
+ * committed transaction, so an oversell would show up in the stored quantity and the movement ledger.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryStockConcurrencyTest extends PostgresRepositoryTest {
+
+    private static final int STOCK = 20;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+    private InventoryStockCoordinator coordinator;
+    private UUID itemId;
+
+    @BeforeEach
+    void seedItem() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        coordinator = new InventoryStockCoordinator(inventoryItemRepository, inventoryMovementRepository,
+                Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+
+        InventoryItem item = new InventoryItem();
+        item.setStoreId(UUID.randomUUID());
+        item.setSku("CONC-" + UUID.randomUUID());
+        item.setName("Concurrency frame");
+        item.setQuantity(STOCK);
+        item.setMinQuantity(0);
+        item.setDeleted(false);
+        itemId = transactionTemplate.execute(status -> inventoryItemRepository.save(item).getId());
+    }
+
+    @AfterEach
+    void removeItem() {
+        jdbcTemplate.update("DELETE FROM inventory_movements WHERE inventory_item_id = ?", itemId);
+        jdbcTemplate.update("DELETE FROM inventory_items WHERE id = ?", itemId);
+    }
+
+    @Test
+    void shouldNotOversellUnderConcurrentConsumption() throws Exception {
+        int attempts = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String idempotencyKey = "concurrency:" + itemId + ":" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            coordinator.consume(itemId, 1, "sale", "SALE_TRANSACTION", null, idempotencyKey));
+                    sold.incrementAndGet();
+                } catch (ResponseStatusException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(sold.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(attempts - STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_items WHERE id = ?", Integer.class, itemId))
+                .isZero();
+        // Rejected consumers roll their movement back with the failed decrement.
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_movements WHERE inventory_item_id = ? AND movement_type = 'OUT'",
+                Integer.class, itemId)).isEqualTo(STOCK);
+    }
+
+    @Test
+    void shouldNotWriteBackItemEditsMadeWhileStockChanges() {
+        InventoryService inventoryService = new InventoryService(inventoryItemRepository, inventoryMovementRepository,
+                Mockito.mock(SecurityAuditService.class), Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            coordinator.consume(itemId, 2, "sale", "SALE_TRANSACTION", null, "edit:" + itemId);
+            inventoryService.changeStock(itemId, new InventoryStockChangeRequest(InventoryMovementType.ADJUST, 15, "count"));
+            // An admin edit that lands after the item was loaded, before the transaction flushes.
+            jdbcTemplate.update("UPDATE inventory_items SET name = 'Renamed frame', min_quantity = 4 WHERE id = ?", itemId);
+        });
+
+        assertThat(jdbcTemplate.queryForMap("SELECT name, min_quantity, quantity FROM inventory_items WHERE id = ?", itemId))
+                .containsEntry("name", "Renamed frame")
+                .containsEntry("min_quantity", 4)
+                .containsEntry("quantity", 15);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT quantity_delta FROM inventory_movements WHERE inventory_item_id = ?",
+                Integer.class, itemId)).containsExactlyInAnyOrder(-2, -3);
+    }
+}
@@ -0,0 +1,245 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.model.InventoryMovement;
+import com.optimaxx.management.domain.repository.InventoryHold;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.domain.repository.InventoryMovementRepository;
+import com.optimaxx.management.security.InventoryHoldService;
+import com.optimaxx.management.security.InventoryLookupIndex;
+import com.optimaxx.management.security.InventoryStockCoordinator;
+import com.optimaxx.management.security.LowStockMonitor;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+class InventoryStockCoordinatorTest {
+
+    @Test
+    void shouldRejectConsumptionWhenConditionalDecrementMatchesNoRow() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        item.setQuantity(5);
+
+        when(itemRepository.findReadOnlyByIdAndDeletedFalse(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.decrementQuantityIfAvailable(itemId, 2)).thenReturn(Optional.empty());
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+
+        assertThatThrownBy(() -> coordinator.consume(itemId, 2, "sale", "SALE_TRANSACTION", null, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Insufficient stock");
+        verify(movementRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldDecrementBatchTotalsInSortedIdOrder() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID lowId = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        UUID highId = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+        InventoryItem low = new InventoryItem();
+        ReflectionTestUtils.setField(low, "id", lowId);
+        low.setQuantity(10);
+        InventoryItem high = new InventoryItem();
+        ReflectionTestUtils.setField(high, "id", highId);
+        high.setQuantity(10);
+
+        when(itemRepository.lockAvailableQuantities(any())).thenReturn(Map.of(lowId, 10, highId, 10));
+        when(itemRepository.findReadOnlyByIdIn(any())).thenReturn(List.of(low, high));
+        when(itemRepository.decrementQuantityIfAvailable(highId, 1)).thenReturn(Optional.of(9));
+        when(itemRepository.decrementQuantityIfAvailable(lowId, 5)).thenReturn(Optional.of(5));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+        var allocation = coordinator.allocate(List.of(
+                new InventoryStockCoordinator.StockDemand(null, Map.of(highId, 1, lowId, 2)),
+                new InventoryStockCoordinator.StockDemand(null, Map.of(lowId, 3))
+        ));
+
+        InOrder inOrder = Mockito.inOrder(itemRepository);
+        inOrder.verify(itemRepository).decrementQuantityIfAvailable(lowId, 5);
+        inOrder.verify(itemRepository).decrementQuantityIfAvailable(highId, 1);
+        assertThat(allocation.rejections()).isEmpty();
+        assertThat(allocation.items().get(lowId).getQuantity()).isEqualTo(5);
+        assertThat(allocation.items().get(highId).getQuantity()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldRejectOnlyTheSaleThatNoLongerFits() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        ReflectionTestUtils.setField(item, "id", itemId);
+        item.setQuantity(3);
+
+        when(itemRepository.lockAvailableQuantities(any())).thenReturn(Map.of(itemId, 3));
+        when(itemRepository.findReadOnlyByIdIn(any())).thenReturn(List.of(item));
+        when(itemRepository.decrementQuantityIfAvailable(itemId, 3)).thenReturn(Optional.of(0));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+        var allocation = coordinator.allocate(List.of(
+                new InventoryStockCoordinator.StockDemand(null, Map.of(itemId, 2)),
+                new InventoryStockCoordinator.StockDemand(null, Map.of(itemId, 2)),
+                new InventoryStockCoordinator.StockDemand(null, Map.of(missingId, 1)),
+                new InventoryStockCoordinator.StockDemand(null, Map.of(itemId, 1))
+        ));
+
+        assertThat(allocation.rejections()).containsOnly(
+                Map.entry(1, "Insufficient stock"),
+                Map.entry(2, "Inventory item not found"));
+        verify(itemRepository).decrementQuantityIfAvailable(itemId, 3);
+        assertThat(allocation.items().get(itemId).getQuantity()).isZero();
+    }
+
+    @Test
+    void shouldRestoreOnlyTheHoldsClaimedByTheRejectedSale() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+        InventoryHoldService holdService = Mockito.mock(InventoryHoldService.class);
+
+        UUID cartId = UUID.randomUUID();
+        UUID frameId = UUID.randomUUID();
+        UUID lensId = UUID.randomUUID();
+        InventoryItem frame = new InventoryItem();
+        ReflectionTestUtils.setField(frame, "id", frameId);
+        InventoryHold frameHold = new InventoryHold(UUID.randomUUID(), UUID.randomUUID(), cartId, frameId, 2, Instant.now().plusSeconds(60));
+        InventoryHold lensHold = new InventoryHold(UUID.randomUUID(), UUID.randomUUID(), cartId, lensId, 1, Instant.now().plusSeconds(60));
+
+        // Both items are fully held by the cart; the lens sale asks for more than the hold covers.
+        when(itemRepository.lockAvailableQuantities(any())).thenReturn(Map.of(frameId, 0, lensId, 0));
+        when(holdService.claim(cartId, Set.of(frameId))).thenReturn(List.of(frameHold));
+        when(holdService.claim(cartId, Set.of(lensId))).thenReturn(List.of(lensHold));
+        when(itemRepository.decrementQuantityIfAvailable(frameId, 2)).thenReturn(Optional.of(0));
+        when(itemRepository.findReadOnlyByIdIn(any())).thenReturn(List.of(frame));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), holdService);
+        var allocation = coordinator.allocate(List.of(
+                new InventoryStockCoordinator.StockDemand(cartId, Map.of(frameId, 2)),
+                new InventoryStockCoordinator.StockDemand(cartId, Map.of(lensId, 2))
+        ));
+
+        assertThat(allocation.rejections()).containsOnly(Map.entry(1, "Insufficient stock"));
+        verify(holdService).restore(List.of(lensHold));
+        verify(holdService, never()).restore(List.of(frameHold));
+        verify(itemRepository, never()).decrementQuantityIfAvailable(eq(lensId), anyInt());
+    }
+
+    @Test
+    void shouldReplayRecordedKeyWithoutLoadingTheItem() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        item.setSku("SKU-1");
+        item.setQuantity(5);
+        item.setDeleted(true);
+        InventoryMovement movement = new InventoryMovement();
+        movement.setInventoryItem(item);
+
+        when(movementRepository.insertIfAbsent(any(UUID.class), any(UUID.class), eq(itemId), eq("OUT"), eq(-2), anyString(),
+                any(Instant.class), anyString(), any(), eq("sale:1:item:0:consume"))).thenReturn(0);
+        when(movementRepository.findByIdempotencyKeyAndDeletedFalse("sale:1:item:0:consume")).thenReturn(Optional.of(movement));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+        InventoryItem result = coordinator.consume(itemId, 2, "sale", "SALE_TRANSACTION", null, "sale:1:item:0:consume");
+
+        // The item was deleted after the first attempt; the replay still answers instead of a 404.
+        assertThat(result).isSameAs(item);
+        assertThat(result.getQuantity()).isEqualTo(5);
+        verify(itemRepository, never()).findByIdAndDeletedFalse(any());
+        verify(itemRepository, never()).decrementQuantityIfAvailable(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void shouldReportMissingItemWhenMovementInsertHitsForeignKey() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        when(movementRepository.insertIfAbsent(any(UUID.class), any(UUID.class), eq(itemId), eq("IN"), eq(1), anyString(),
+                any(Instant.class), anyString(), any(), any())).thenThrow(violation("fk_inventory_movements_item"));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+
+        assertThatThrownBy(() -> coordinator.release(itemId, 1, "cancel", "SALE_TRANSACTION_CANCEL", null, "sale:1:cancel-rollback"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Inventory item not found");
+        verify(itemRepository, never()).incrementQuantity(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void shouldPropagateOtherIntegrityViolationsOfTheMovementInsert() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        DataIntegrityViolationException violation = violation("ck_inventory_movements_type");
+        when(movementRepository.insertIfAbsent(any(UUID.class), any(UUID.class), eq(itemId), eq("IN"), eq(1), anyString(),
+                any(Instant.class), anyString(), any(), any())).thenThrow(violation);
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+
+        assertThatThrownBy(() -> coordinator.release(itemId, 1, "cancel", "SALE_TRANSACTION_CANCEL", null, "sale:1:cancel-rollback"))
+                .isSameAs(violation);
+        verify(itemRepository, never()).incrementQuantity(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void shouldRecordMovementBeforeDecrementingWithoutLookup() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryMovementRepository movementRepository = Mockito.mock(InventoryMovementRepository.class);
+
+        UUID itemId = UUID.randomUUID();
+        InventoryItem item = new InventoryItem();
+        item.setQuantity(5);
+
+        when(itemRepository.findReadOnlyByIdAndDeletedFalse(itemId)).thenReturn(Optional.of(item));
+        when(movementRepository.insertIfAbsent(any(UUID.class), any(UUID.class), eq(itemId), eq("OUT"), eq(-2), anyString(),
+                any(Instant.class), anyString(), any(), eq("repair:1:reserve"))).thenReturn(1);
+        when(itemRepository.decrementQuantityIfAvailable(itemId, 2)).thenReturn(Optional.of(3));
+
+        InventoryStockCoordinator coordinator = new InventoryStockCoordinator(itemRepository, movementRepository, Mockito.mock(LowStockMonitor.class), Mockito.mock(InventoryLookupIndex.class), Mockito.mock(InventoryHoldService.class));
+        InventoryItem result = coordinator.consume(itemId, 2, "repair", "REPAIR_ORDER_RESERVATION", null, "repair:1:reserve");
+
+        assertThat(result.getQuantity()).isEqualTo(3);
+        InOrder inOrder = Mockito.inOrder(movementRepository, itemRepository);
+        inOrder.verify(movementRepository).insertIfAbsent(any(UUID.class), any(UUID.class), eq(itemId), eq("OUT"), eq(-2),
+                anyString(), any(Instant.class), anyString(), any(), eq("repair:1:reserve"));
+        inOrder.verify(itemRepository).decrementQuantityIfAvailable(itemId, 2);
+        verify(movementRepository, never()).findByIdempotencyKeyAndDeletedFalse(anyString());
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violation"), constraintName));
+    }
+}
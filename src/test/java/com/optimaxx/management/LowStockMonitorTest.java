@@ -0,0 +1,198 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.optimaxx.management.domain.model.InventoryItem;
+import com.optimaxx.management.domain.repository.InventoryItemRepository;
+import com.optimaxx.management.interfaces.rest.dto.AnalyticsLowStockItem;
+import com.optimaxx.management.security.LowStockMonitor;
+import com.optimaxx.management.security.LowStockProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class LowStockMonitorTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void shouldMaintainLowStockSetIncrementallyAfterInitialLoad() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+
+        InventoryItem frame = item("FRAME-1", 1, 3);
+        InventoryItem lens = item("LENS-1", 10, 2);
+        when(itemRepository.findLowStockItems(STORE_ID)).thenReturn(List.of(frame));
+
+        LowStockMonitor monitor = new LowStockMonitor(itemRepository, new LowStockProperties(3600, 60));
+        assertThat(monitor.lowStockItems(STORE_ID)).extracting(AnalyticsLowStockItem::sku).containsExactly("FRAME-1");
+
+        lens.setQuantity(1);
+        monitor.onStockChanged(lens, 10);
+        assertThat(monitor.lowStockItems(STORE_ID)).extracting(AnalyticsLowStockItem::sku).containsExactly("FRAME-1", "LENS-1");
+
+        frame.setQuantity(8);
+        monitor.onStockChanged(frame, 1);
+        assertThat(monitor.lowStockItems(STORE_ID)).extracting(AnalyticsLowStockItem::sku).containsExactly("LENS-1");
+
+        lens.setMinQuantity(0);
+        monitor.onThresholdChanged(lens, 2);
+        assertThat(monitor.lowStockItems(STORE_ID)).isEmpty();
+
+        verify(itemRepository, times(1)).findLowStockItems(STORE_ID);
+    }
+
+    @Test
+    void shouldDropRemovedItemsAndReloadAfterInvalidation() {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+
+        InventoryItem frame = item("FRAME-1", 0, 2);
+        when(itemRepository.findLowStockItems(STORE_ID)).thenReturn(List.of(frame));
+
+        LowStockMonitor monitor = new LowStockMonitor(itemRepository, new LowStockProperties(3600, 60));
+        assertThat(monitor.lowStockItems(STORE_ID)).hasSize(1);
+        assertThat(monitor.lowStockItems(STORE_ID).get(0).deficit()).isEqualTo(2);
+
+        frame.setDeleted(true);
+        monitor.onItemRemoved(frame);
+        assertThat(monitor.lowStockItems(STORE_ID)).isEmpty();
+
+        when(itemRepository.findLowStockItems(STORE_ID)).thenReturn(List.of());
+        monitor.invalidate(STORE_ID);
+        assertThat(monitor.lowStockItems(STORE_ID)).isEmpty();
+        verify(itemRepository, times(2)).findLowStockItems(STORE_ID);
+    }
+
+    @Test
+    void shouldLoadAColdStoreOnceForConcurrentReaders() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRepository.findLowStockItems(STORE_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(item("FRAME-1", 0, 2));
+        });
+
+        LowStockMonitor monitor = new LowStockMonitor(itemRepository, new LowStockProperties(3600, 60));
+        try (ExecutorService readers = Executors.newFixedThreadPool(4)) {
+            List<Future<List<AnalyticsLowStockItem>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(readers.submit(() -> monitor.lowStockItems(STORE_ID)));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            for (Future<List<AnalyticsLowStockItem>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).extracting(AnalyticsLowStockItem::sku).containsExactly("FRAME-1");
+            }
+        }
+
+        verify(itemRepository, times(1)).findLowStockItems(STORE_ID);
+    }
+
+    @Test
+    void shouldApplyChangeCommittedWhileReloadIsReading() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryItem lens = item("LENS-1", 10, 2);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // The reload read the table before the lens sale committed.
+        when(itemRepository.findLowStockItems(STORE_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        LowStockMonitor monitor = new LowStockMonitor(itemRepository, new LowStockProperties(3600, 60));
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<List<AnalyticsLowStockItem>> reload = executor.submit(() -> monitor.lowStockItems(STORE_ID));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            lens.setQuantity(1);
+            Future<?> change = executor.submit(() -> monitor.onStockChanged(lens, 10));
+            Thread.sleep(50);
+            release.countDown();
+            reload.get(5, TimeUnit.SECONDS);
+            change.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(monitor.lowStockItems(STORE_ID)).extracting(AnalyticsLowStockItem::sku).containsExactly("LENS-1");
+    }
+
+    @Test
+    void shouldStreamSnapshotAndThresholdCrossingsToSubscribers() throws Exception {
+        InventoryItemRepository itemRepository = Mockito.mock(InventoryItemRepository.class);
+        InventoryItem lens = item("LENS-1", 10, 2);
+        when(itemRepository.findLowStockItems(STORE_ID)).thenReturn(List.of());
+
+        LowStockMonitor monitor = new LowStockMonitor(itemRepository, new LowStockProperties(3600, 60));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(monitor)).build();
+        MvcResult result = mockMvc.perform(get("/low-stock/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        lens.setQuantity(1);
+        monitor.onStockChanged(lens, 10);
+        lens.setQuantity(5);
+        monitor.onStockChanged(lens, 1);
+
+        String body = awaitBody(result, "\"CLEARED\"");
+        assertThat(body).contains("event:snapshot", "event:low-stock", "\"ENTERED\"", "\"sku\":\"LENS-1\"");
+        assertThat(body.indexOf("\"ENTERED\"")).isLessThan(body.indexOf("\"CLEARED\""));
+    }
+
+    private String awaitBody(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final LowStockMonitor monitor;
+
+        StreamController(LowStockMonitor monitor) {
+            this.monitor = monitor;
+        }
+
+        @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        SseEmitter stream() {
+            return monitor.subscribe(STORE_ID);
+        }
+    }
+
+    private InventoryItem item(String sku, int quantity, int minQuantity) {
+        InventoryItem item = new InventoryItem();
+        ReflectionTestUtils.setField(item, "id", UUID.randomUUID());
+        item.setStoreId(STORE_ID);
+        item.setSku(sku);
+        item.setName(sku);
+        item.setQuantity(quantity);
+        item.setMinQuantity(minQuantity);
+        return item;
+    }
+}
@@ -8,6 +8,7 @@ import com.optimaxx.management.domain.repository.InventoryItemRepository;
 import com.optimaxx.management.domain.repository.InventoryMovementRepository;
 import com.optimaxx.management.domain.repository.RepairOrderRepository;
 import com.optimaxx.management.domain.repository.LensPrescriptionRepository;
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
 import com.optimaxx.management.domain.repository.UserRepository;
@@ -49,6 +50,9 @@ class OptiMaxxManagementApplicationTests {
     @MockitoBean
     private SaleTransactionRepository saleTransactionRepository;
 
+    @MockitoBean
+    private SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
     @MockitoBean
     private CustomerRepository customerRepository;
 
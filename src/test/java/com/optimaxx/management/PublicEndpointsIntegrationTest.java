@@ -47,6 +47,9 @@ public class PublicEndpointsIntegrationTest {
     @org.springframework.test.context.bean.override.mockito.MockitoBean
     private com.optimaxx.management.domain.repository.SaleTransactionRepository saleTransactionRepository;
 
+    @org.springframework.test.context.bean.override.mockito.MockitoBean
+    private com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
     @org.springframework.test.context.bean.override.mockito.MockitoBean
     private com.optimaxx.management.domain.repository.RepairOrderRepository repairOrderRepository;
 
@@ -0,0 +1,90 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.interfaces.rest.dto.ReceiptVerificationResponse;
+import com.optimaxx.management.security.ReceiptVerificationGuard;
+import com.optimaxx.management.security.ReceiptVerificationProperties;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+class ReceiptVerificationGuardTest {
+
+    @Test
+    void shouldThrottleReceiptAfterRepeatedFailures() {
+        ReceiptVerificationGuard guard = new ReceiptVerificationGuard(
+                new ReceiptVerificationProperties(2, 60, 30, 100), emptyRedisProvider());
+
+        guard.checkAllowed("RCP-1");
+        guard.onFailedVerification("RCP-1");
+        guard.onFailedVerification("RCP-1");
+
+        assertThatThrownBy(() -> guard.checkAllowed("RCP-1"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Too many verify attempts");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedReceiptsOnceBoundIsReached() {
+        ReceiptVerificationGuard guard = new ReceiptVerificationGuard(
+                new ReceiptVerificationProperties(1, 60, 30, 2), emptyRedisProvider());
+
+        guard.onFailedVerification("RCP-1");
+        guard.onFailedVerification("RCP-2");
+        guard.onFailedVerification("RCP-3");
+
+        guard.checkAllowed("RCP-1");
+        assertThatThrownBy(() -> guard.checkAllowed("RCP-3")).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void shouldCacheSuccessfulVerificationUntilEvicted() {
+        ReceiptVerificationGuard guard = new ReceiptVerificationGuard(
+                new ReceiptVerificationProperties(5, 60, 30, 100), emptyRedisProvider());
+        ReceiptVerificationResponse response = new ReceiptVerificationResponse(true, "RCP-1", "INV-1",
+                new BigDecimal("10.00"), "COMPLETED", Instant.parse("2026-02-25T10:00:00Z"));
+
+        guard.onSuccessfulVerification("RCP-1", response);
+        assertThat(guard.cachedResult("RCP-1")).contains(response);
+
+        guard.evict("RCP-1");
+        assertThat(guard.cachedResult("RCP-1")).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackToMemoryWhenRedisIsUnavailable() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<StringRedisTemplate> redisProvider = Mockito.mock(ObjectProvider.class);
+        StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> valueOperations = Mockito.mock(ValueOperations.class);
+        when(redisProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(Mockito.anyString())).thenThrow(new RuntimeException("redis unavailable"));
+        when(valueOperations.increment(Mockito.anyString())).thenThrow(new RuntimeException("redis unavailable"));
+
+        ReceiptVerificationGuard guard = new ReceiptVerificationGuard(
+                new ReceiptVerificationProperties(1, 60, 30, 100), redisProvider);
+
+        guard.onFailedVerification("RCP-1");
+
+        assertThatThrownBy(() -> guard.checkAllowed("RCP-1"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Too many verify attempts");
+    }
+
+    private ObjectProvider<StringRedisTemplate> emptyRedisProvider() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<StringRedisTemplate> redisProvider = Mockito.mock(ObjectProvider.class);
+        when(redisProvider.getIfAvailable()).thenReturn(null);
+        return redisProvider;
+    }
+}
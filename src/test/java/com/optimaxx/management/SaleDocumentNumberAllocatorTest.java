@@ -0,0 +1,92 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
+import com.optimaxx.management.security.SaleDocumentNumberAllocator;
+import com.optimaxx.management.security.SalesNumberingProperties;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class SaleDocumentNumberAllocatorTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void shouldAllocateOneNumberPerCallByDefault() {
+        SaleDocumentSequenceRepository repository = Mockito.mock(SaleDocumentSequenceRepository.class);
+        when(repository.allocate(any(UUID.class), eq(STORE_ID), eq("RECEIPT"), any(LocalDate.class), eq(1)))
+                .thenReturn(7L);
+
+        SaleDocumentNumberAllocator allocator = new SaleDocumentNumberAllocator(repository, new SalesNumberingProperties(0));
+
+        assertThat(allocator.nextReceiptNumber(STORE_ID)).isEqualTo("RCP-" + today() + "-0007");
+    }
+
+    @Test
+    void shouldHandOutPreallocatedBlockBeforeHittingDatabaseAgain() {
+        SaleDocumentSequenceRepository repository = Mockito.mock(SaleDocumentSequenceRepository.class);
+        when(repository.allocate(any(UUID.class), eq(STORE_ID), eq("INVOICE"), any(LocalDate.class), eq(3)))
+                .thenReturn(3L, 6L);
+
+        SaleDocumentNumberAllocator allocator = new SaleDocumentNumberAllocator(repository, new SalesNumberingProperties(3));
+
+        assertThat(allocator.nextInvoiceNumber(STORE_ID)).endsWith("-0001");
+        assertThat(allocator.nextInvoiceNumber(STORE_ID)).endsWith("-0002");
+        assertThat(allocator.nextInvoiceNumber(STORE_ID)).endsWith("-0003");
+        assertThat(allocator.nextInvoiceNumber(STORE_ID)).isEqualTo("INV-" + today() + "-0004");
+        verify(repository, times(2)).allocate(any(UUID.class), eq(STORE_ID), eq("INVOICE"), any(LocalDate.class), eq(3));
+    }
+
+    @Test
+    void shouldShareABlockOnlyOnceItsTransactionCommits() {
+        SaleDocumentSequenceRepository repository = Mockito.mock(SaleDocumentSequenceRepository.class);
+        when(repository.allocate(any(UUID.class), eq(STORE_ID), eq("RECEIPT"), any(LocalDate.class), eq(3)))
+                .thenReturn(3L, 3L, 6L);
+        SaleDocumentNumberAllocator allocator = new SaleDocumentNumberAllocator(repository, new SalesNumberingProperties(3));
+
+        // The block's transaction rolls back, so the counter is back at 0 and 2-3 must not be handed out.
+        assertThat(inTransaction(() -> allocator.nextReceiptNumber(STORE_ID), false)).endsWith("-0001");
+        assertThat(inTransaction(() -> allocator.nextReceiptNumber(STORE_ID), true)).endsWith("-0001");
+        assertThat(inTransaction(() -> allocator.nextReceiptNumber(STORE_ID), true)).endsWith("-0002");
+        assertThat(inTransaction(() -> allocator.nextReceiptNumber(STORE_ID), true)).endsWith("-0003");
+        assertThat(inTransaction(() -> allocator.nextReceiptNumber(STORE_ID), true)).endsWith("-0004");
+        verify(repository, times(3)).allocate(any(UUID.class), eq(STORE_ID), eq("RECEIPT"), any(LocalDate.class), eq(3));
+    }
+
+    private static String inTransaction(Supplier<String> work, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            String result = work.get();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            for (TransactionSynchronization synchronization : synchronizations) {
+                if (commit) {
+                    synchronization.afterCommit();
+                }
+                synchronization.afterCompletion(commit
+                        ? TransactionSynchronization.STATUS_COMMITTED
+                        : TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private String today() {
+        return LocalDate.now(ZoneOffset.UTC).format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
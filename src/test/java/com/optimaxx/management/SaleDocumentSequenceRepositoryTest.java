@@ -0,0 +1,44 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.repository.SaleDocumentSequenceRepository;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
+
+class SaleDocumentSequenceRepositoryTest extends PostgresRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private final UUID storeId = UUID.randomUUID();
+
+    @Autowired
+    private SaleDocumentSequenceRepository saleDocumentSequenceRepository;
+
+    @Test
+    void shouldCountPerStoreDocumentAndDay() {
+        assertThat(allocate("RECEIPT", DAY, 1)).isEqualTo(1);
+        assertThat(allocate("RECEIPT", DAY, 3)).isEqualTo(4);
+        assertThat(allocate("INVOICE", DAY, 1)).isEqualTo(1);
+        assertThat(allocate("RECEIPT", DAY.plusDays(1), 1)).isEqualTo(1);
+        assertThat(saleDocumentSequenceRepository.allocate(UUID.randomUUID(), UUID.randomUUID(), "RECEIPT", DAY, 1))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldGiveNumbersBackWhenTheCallersTransactionRollsBack() {
+        assertThat(allocate("RECEIPT", DAY, 2)).isEqualTo(2);
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        TestTransaction.start();
+        assertThat(allocate("RECEIPT", DAY, 2)).isEqualTo(2);
+    }
+
+    private long allocate(String documentType, LocalDate businessDate, int blockSize) {
+        return saleDocumentSequenceRepository.allocate(UUID.randomUUID(), storeId, documentType, businessDate, blockSize);
+    }
+}
@@ -0,0 +1,183 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.model.SalePaymentMethod;
+import com.optimaxx.management.domain.model.SaleTransaction;
+import com.optimaxx.management.domain.model.SaleTransactionStatus;
+import com.optimaxx.management.domain.model.TransactionType;
+import com.optimaxx.management.domain.model.TransactionTypeCategory;
+import com.optimaxx.management.domain.repository.ActivityLogRepository;
+import com.optimaxx.management.domain.repository.CustomerRepository;
+import com.optimaxx.management.domain.repository.SaleTransactionRepository;
+import com.optimaxx.management.domain.repository.TransactionTypeRepository;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionCursorPageResponse;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionResponse;
+import com.optimaxx.management.security.InventoryStockCoordinator;
+import com.optimaxx.management.security.ReceiptVerificationGuard;
+import com.optimaxx.management.security.SaleDocumentNumberAllocator;
+import com.optimaxx.management.security.SalesTransactionService;
+import com.optimaxx.management.security.StoreContext;
+import com.optimaxx.management.security.audit.SecurityAuditService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class SaleTransactionListQueryTest extends PostgresRepositoryTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-02T09:00:00Z");
+
+    private final UUID storeId = UUID.randomUUID();
+
+    @Autowired
+    private SaleTransactionRepository saleTransactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SalesTransactionService service;
+    private TransactionType saleType;
+
+    @BeforeEach
+    void seedSales() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("owner", null, List.of());
+        authentication.setDetails(storeId.toString());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        assertThat(StoreContext.currentStoreId()).isEqualTo(storeId);
+
+        service = new SalesTransactionService(saleTransactionRepository,
+                Mockito.mock(TransactionTypeRepository.class),
+                Mockito.mock(CustomerRepository.class),
+                Mockito.mock(ActivityLogRepository.class),
+                Mockito.mock(SecurityAuditService.class),
+                Mockito.mock(InventoryStockCoordinator.class),
+                Mockito.mock(SaleDocumentNumberAllocator.class),
+                Mockito.mock(ReceiptVerificationGuard.class));
+
+        saleType = transactionType(storeId);
+        sale(storeId, saleType, "Ada Lovelace", "LIST-0001", "10.00", SalePaymentMethod.CASH, 0);
+        sale(storeId, saleType, "Grace Hopper", "LIST-0002", "20.00", SalePaymentMethod.CARD, 1);
+        sale(storeId, saleType, "Alan Turing", "LIST-0003", "20.00", SalePaymentMethod.CARD, 2);
+        sale(storeId, saleType, "Ada Byron", "LIST-0004", "20.00", SalePaymentMethod.TRANSFER, 3);
+        sale(storeId, saleType, "Edsger 100% Dijkstra", "LIST-0005", "30.00", SalePaymentMethod.CASH, 4);
+        sale(storeId, saleType, "Barbara Liskov", "LIST-0006", "40.00", SalePaymentMethod.CARD, 5);
+        SaleTransaction deleted = sale(storeId, saleType, "Ada Deleted", "LIST-0007", "50.00", SalePaymentMethod.CASH, 6);
+        deleted.setDeleted(true);
+
+        UUID otherStoreId = UUID.randomUUID();
+        sale(otherStoreId, transactionType(otherStoreId), "Ada Elsewhere", "LIST-0008", "60.00", SalePaymentMethod.CASH, 1);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void clearStore() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldScopeListsToTheStoreAndSkipDeletedSales() {
+        assertThat(customers(service.list(null, null, null, null, 0, 50, null).getContent()))
+                .containsExactly("Barbara Liskov", "Edsger 100% Dijkstra", "Ada Byron", "Alan Turing", "Grace Hopper", "Ada Lovelace");
+    }
+
+    @Test
+    void shouldFilterByTimeRangeAndPaymentMethod() {
+        assertThat(customers(service.list(hours(1), hours(3), null, null, 0, 50, null).getContent()))
+                .as("inclusive range")
+                .containsExactly("Ada Byron", "Alan Turing", "Grace Hopper");
+        assertThat(customers(service.list(null, null, null, "card", 0, 50, null).getContent()))
+                .containsExactly("Barbara Liskov", "Alan Turing", "Grace Hopper");
+        assertThat(customers(service.list(hours(2), null, null, "CASH", 0, 50, null).getContent()))
+                .containsExactly("Edsger 100% Dijkstra");
+    }
+
+    @Test
+    void shouldSearchCustomerNamesAndReceiptNumbers() {
+        assertThat(customers(service.list(null, null, "  aDa ", null, 0, 50, null).getContent()))
+                .as("case-insensitive and trimmed")
+                .containsExactly("Ada Byron", "Ada Lovelace");
+        assertThat(customers(service.list(null, null, "list-0002", null, 0, 50, null).getContent()))
+                .containsExactly("Grace Hopper");
+        assertThat(customers(service.list(null, null, "100%", null, 0, 50, null).getContent()))
+                .as("LIKE wildcards are matched literally")
+                .containsExactly("Edsger 100% Dijkstra");
+        assertThat(service.list(null, null, "nobody", null, 0, 50, null).getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldWalkKeysetPagesWithoutGapsOrRepeats() {
+        for (String sort : List.of("occurredAt,desc", "occurredAt,asc", "amount,asc", "amount,desc", "customerName,asc")) {
+            List<UUID> expected = service.list(null, null, null, null, 0, 50, sort).getContent().stream()
+                    .map(SaleTransactionResponse::id)
+                    .toList();
+
+            List<UUID> walked = new ArrayList<>();
+            String cursor = null;
+            SaleTransactionCursorPageResponse page;
+            do {
+                page = service.listByCursor(null, null, null, null, cursor, 2, sort);
+                page.items().forEach(item -> walked.add(item.id()));
+                cursor = page.nextCursor();
+            } while (page.hasNext());
+
+            assertThat(walked).as(sort).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void shouldApplyFiltersAcrossKeysetPages() {
+        SaleTransactionCursorPageResponse first = service.listByCursor(null, null, null, "CARD", null, 2, "amount,asc");
+        SaleTransactionCursorPageResponse second = service.listByCursor(null, null, null, "CARD", first.nextCursor(), 2, "amount,asc");
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(customers(first.items())).containsExactlyInAnyOrder("Grace Hopper", "Alan Turing");
+        assertThat(customers(second.items())).containsExactly("Barbara Liskov");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    private static List<String> customers(List<SaleTransactionResponse> rows) {
+        return rows.stream().map(SaleTransactionResponse::customerName).toList();
+    }
+
+    private static Instant hours(int hours) {
+        return T0.plusSeconds(hours * 3_600L);
+    }
+
+    private TransactionType transactionType(UUID typeStoreId) {
+        TransactionType type = new TransactionType();
+        type.setStoreId(typeStoreId);
+        type.setCode("LIST_" + UUID.randomUUID());
+        type.setName("List sale");
+        type.setActive(true);
+        type.setCategory(TransactionTypeCategory.SALE);
+        entityManager.persist(type);
+        return type;
+    }
+
+    private SaleTransaction sale(UUID saleStoreId, TransactionType type, String customerName, String receiptNumber,
+                                 String amount, SalePaymentMethod paymentMethod, int hour) {
+        SaleTransaction sale = new SaleTransaction();
+        sale.setStoreId(saleStoreId);
+        sale.setTransactionType(type);
+        sale.setCustomerName(customerName);
+        sale.setReceiptNumber(receiptNumber);
+        sale.setAmount(new BigDecimal(amount));
+        sale.setStatus(SaleTransactionStatus.COMPLETED);
+        sale.setPaymentMethod(paymentMethod);
+        sale.setOccurredAt(hours(hour));
+        entityManager.persist(sale);
+        return sale;
+    }
+}
@@ -0,0 +1,107 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.model.SalePaymentMethod;
+import com.optimaxx.management.domain.model.SaleTransaction;
+import com.optimaxx.management.domain.model.SaleTransactionStatus;
+import com.optimaxx.management.domain.model.TransactionType;
+import com.optimaxx.management.domain.model.TransactionTypeCategory;
+import com.optimaxx.management.domain.repository.SaleTransactionRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+class SaleTransactionStatementCountTest extends PostgresRepositoryTest {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("occurredAt"), Sort.Order.desc("id"));
+
+    @Autowired
+    private SaleTransactionRepository saleTransactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Specification<SaleTransaction> storeSales;
+
+    @BeforeEach
+    void seedSales() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        UUID storeId = UUID.randomUUID();
+        List<TransactionType> types = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TransactionType type = new TransactionType();
+            type.setStoreId(storeId);
+            type.setCode("TYPE_" + i + "_" + storeId);
+            type.setName("Type " + i);
+            type.setActive(true);
+            type.setCategory(TransactionTypeCategory.SALE);
+            entityManager.persist(type);
+            types.add(type);
+        }
+
+        Instant now = Instant.now();
+        for (int i = 0; i < 60; i++) {
+            SaleTransaction sale = new SaleTransaction();
+            sale.setStoreId(storeId);
+            sale.setTransactionType(types.get(i % types.size()));
+            sale.setCustomerName("Customer " + i);
+            sale.setAmount(new BigDecimal("10.00"));
+            sale.setStatus(SaleTransactionStatus.COMPLETED);
+            sale.setPaymentMethod(SalePaymentMethod.CASH);
+            sale.setOccurredAt(now.minusSeconds(i));
+            entityManager.persist(sale);
+        }
+        entityManager.flush();
+
+        storeSales = (root, query, cb) -> cb.and(cb.equal(root.get("storeId"), storeId), cb.isFalse(root.get("deleted")));
+    }
+
+    @Test
+    void shouldKeepPagedListStatementCountConstantAsPageSizeGrows() {
+        long small = statementsFor(() -> saleTransactionRepository.findAll(storeSales, PageRequest.of(0, 5, NEWEST_FIRST)).getContent());
+        long large = statementsFor(() -> saleTransactionRepository.findAll(storeSales, PageRequest.of(0, 50, NEWEST_FIRST)).getContent());
+
+        // One joined select for the rows plus the page count query.
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void shouldKeepKeysetAndExportStatementCountConstantAsPageSizeGrows() {
+        long keysetSmall = statementsFor(() -> saleTransactionRepository.findBy(storeSales,
+                query -> query.sortBy(NEWEST_FIRST).limit(6).project("transactionType").all()));
+        long keysetLarge = statementsFor(() -> saleTransactionRepository.findBy(storeSales,
+                query -> query.sortBy(NEWEST_FIRST).limit(51).project("transactionType").all()));
+        long export = statementsFor(() -> saleTransactionRepository.findAll(storeSales, NEWEST_FIRST));
+
+        assertThat(keysetSmall).isEqualTo(1);
+        assertThat(keysetLarge).isEqualTo(1);
+        assertThat(export).isEqualTo(1);
+    }
+
+    private long statementsFor(Supplier<List<SaleTransaction>> listing) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<SaleTransaction> rows = listing.get();
+        rows.forEach(row -> assertThat(row.getTransactionType().getCode()).isNotBlank());
+
+        assertThat(rows).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,92 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.optimaxx.management.domain.repository.SaleTransactionRepository;
+import com.optimaxx.management.domain.repository.SalesRollupTotal;
+import com.optimaxx.management.domain.repository.SalesRollupWindow;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class SalesRollupRepositoryTest extends PostgresRepositoryTest {
+
+    private static final Instant DAY = Instant.parse("2026-01-05T00:00:00Z");
+    private static final Instant TEN = Instant.parse("2026-01-05T10:00:00Z");
+    private static final Instant NOON = Instant.parse("2026-01-05T12:00:00Z");
+    private static final Instant NEXT_DAY = Instant.parse("2026-01-06T00:00:00Z");
+
+    private final UUID storeId = UUID.randomUUID();
+    private UUID saleTypeId;
+
+    @Autowired
+    private SaleTransactionRepository saleTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedSales() {
+        saleTypeId = transactionType("SALE");
+        UUID repairTypeId = transactionType("REPAIR");
+        sale(saleTypeId, "100.00", Instant.parse("2026-01-05T10:15:00Z"));
+        sale(saleTypeId, "50.00", Instant.parse("2026-01-05T11:20:00Z"));
+        sale(repairTypeId, "30.00", Instant.parse("2026-01-05T11:40:00Z"));
+
+        saleTransactionRepository.markRollupBuckets(storeId, List.of(
+                Instant.parse("2026-01-05T10:15:00Z"), Instant.parse("2026-01-05T11:20:00Z")));
+        assertThat(saleTransactionRepository.rollUpBuckets(storeId, NEXT_DAY, 10)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldServeDailyAndHourlyRollupsByCategory() {
+        assertThat(totals(new SalesRollupWindow(DAY, DAY, DAY, NEXT_DAY, NEXT_DAY, NEXT_DAY)))
+                .containsExactlyInAnyOrder(total("SALE", 2, "150.00"), total("REPAIR", 1, "30.00"));
+        assertThat(totals(new SalesRollupWindow(TEN, TEN, TEN, TEN, NOON, NOON)))
+                .containsExactlyInAnyOrder(total("SALE", 2, "150.00"), total("REPAIR", 1, "30.00"));
+    }
+
+    @Test
+    void shouldRegroupRolledUpHistoryWhenATypeChangesCategory() {
+        jdbcTemplate.update("UPDATE transaction_types SET category = 'SERVICE' WHERE id = ?", saleTypeId);
+
+        assertThat(totals(new SalesRollupWindow(DAY, DAY, DAY, NEXT_DAY, NEXT_DAY, NEXT_DAY)))
+                .containsExactlyInAnyOrder(total("SERVICE", 2, "150.00"), total("REPAIR", 1, "30.00"));
+        assertThat(totals(new SalesRollupWindow(TEN, TEN, TEN, TEN, NOON, NOON)))
+                .containsExactlyInAnyOrder(total("SERVICE", 2, "150.00"), total("REPAIR", 1, "30.00"));
+        assertThat(totals(new SalesRollupWindow(DAY, NEXT_DAY, NEXT_DAY, NEXT_DAY, NEXT_DAY, NEXT_DAY)))
+                .as("raw rows only")
+                .containsExactlyInAnyOrder(total("SERVICE", 2, "150.00"), total("REPAIR", 1, "30.00"));
+    }
+
+    private List<SalesRollupTotal> totals(SalesRollupWindow window) {
+        return saleTransactionRepository.sumSalesRollup(storeId, window).stream()
+                .map(total -> new SalesRollupTotal(total.category(), total.transactionCount(),
+                        total.grossAmount().setScale(2), total.revenueAmount().setScale(2)))
+                .toList();
+    }
+
+    private static SalesRollupTotal total(String category, long count, String amount) {
+        return new SalesRollupTotal(category, count, new BigDecimal(amount), new BigDecimal(amount));
+    }
+
+    private UUID transactionType(String category) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transaction_types (id, store_id, code, name, category) VALUES (?, ?, ?, ?, ?)",
+                id, storeId, "ROLLUP-" + id, "Rollup " + category, category);
+        return id;
+    }
+
+    private void sale(UUID transactionTypeId, String amount, Instant occurredAt) {
+        jdbcTemplate.update("INSERT INTO sale_transactions (id, store_id, transaction_type_id, customer_name, amount, "
+                        + "occurred_at, payment_method) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), storeId, transactionTypeId, "Rollup customer", new BigDecimal(amount),
+                occurredAt.atOffset(ZoneOffset.UTC), "CASH");
+    }
+}
@@ -0,0 +1,56 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.repository.SaleTransactionRepository;
+import com.optimaxx.management.domain.repository.SalesRollupWindow;
+import com.optimaxx.management.security.SalesRollupProperties;
+import com.optimaxx.management.security.SalesRollupService;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class SalesRollupServiceTest {
+
+    private static final UUID STORE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void shouldServeClosedBucketsFromRollupsAndScanOnlyTheEdges() {
+        SaleTransactionRepository repository = Mockito.mock(SaleTransactionRepository.class);
+        when(repository.findRollupWatermark(eq(STORE_ID), any(Instant.class))).thenReturn(Instant.parse("2026-03-10T15:00:00Z"));
+        when(repository.sumSalesRollup(eq(STORE_ID), any(SalesRollupWindow.class))).thenReturn(List.of());
+
+        SalesRollupService service = new SalesRollupService(repository, new SalesRollupProperties(60_000, 500));
+        service.totals(STORE_ID, Instant.parse("2026-01-05T10:30:00Z"), Instant.parse("2026-12-31T23:59:59Z"));
+
+        ArgumentCaptor<SalesRollupWindow> window = ArgumentCaptor.forClass(SalesRollupWindow.class);
+        verify(repository).sumSalesRollup(eq(STORE_ID), window.capture());
+        assertThat(window.getValue()).isEqualTo(new SalesRollupWindow(
+                Instant.parse("2026-01-05T10:30:00Z"),
+                Instant.parse("2026-01-05T11:00:00Z"),
+                Instant.parse("2026-01-06T00:00:00Z"),
+                Instant.parse("2026-03-10T00:00:00Z"),
+                Instant.parse("2026-03-10T15:00:00Z"),
+                Instant.parse("2026-12-31T23:59:59Z")));
+    }
+
+    @Test
+    void shouldRebuildInBatchesUntilNoClosedHoursRemain() {
+        SaleTransactionRepository repository = Mockito.mock(SaleTransactionRepository.class);
+        when(repository.findRollupStoreIds()).thenReturn(List.of(STORE_ID));
+        when(repository.rollUpBuckets(eq(STORE_ID), any(Instant.class), eq(2))).thenReturn(2, 2, 1);
+
+        SalesRollupService service = new SalesRollupService(repository, new SalesRollupProperties(60_000, 2));
+        service.rollUpClosedBuckets();
+
+        verify(repository, times(3)).rollUpBuckets(eq(STORE_ID), any(Instant.class), eq(2));
+    }
+}
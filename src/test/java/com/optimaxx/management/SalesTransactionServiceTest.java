@@ -3,7 +3,10 @@ package com.optimaxx.management;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -15,22 +18,45 @@ import com.optimaxx.management.domain.model.TransactionType;
 import com.optimaxx.management.domain.model.TransactionTypeCategory;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
 import com.optimaxx.management.domain.repository.CustomerRepository;
+import com.optimaxx.management.domain.repository.SalePaymentMethodAggregate;
+import com.optimaxx.management.domain.repository.SaleTransactionExportFilter;
+import com.optimaxx.management.domain.repository.SaleTransactionExportRow;
 import com.optimaxx.management.domain.repository.SaleTransactionRepository;
 import com.optimaxx.management.domain.repository.TransactionTypeRepository;
 import com.optimaxx.management.domain.model.SaleTransactionStatus;
+import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionBatchRequest;
 import com.optimaxx.management.interfaces.rest.dto.CreateSaleTransactionRequest;
+import com.optimaxx.management.interfaces.rest.dto.ReceiptVerificationResponse;
 import com.optimaxx.management.interfaces.rest.dto.RefundSaleTransactionRequest;
+import com.optimaxx.management.interfaces.rest.dto.SaleTransactionBatchItemResponse;
 import com.optimaxx.management.interfaces.rest.dto.UpdateSaleTransactionStatusRequest;
 import com.optimaxx.management.security.InventoryStockCoordinator;
+import com.optimaxx.management.security.ReceiptVerificationGuard;
+import com.optimaxx.management.security.SaleDocumentNumberAllocator;
 import com.optimaxx.management.security.SalesTransactionService;
+import com.optimaxx.management.security.audit.AuditEventType;
 import com.optimaxx.management.security.audit.SecurityAuditService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 class SalesTransactionServiceTest {
@@ -43,6 +69,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         TransactionType type = new TransactionType();
@@ -52,8 +80,7 @@ class SalesTransactionServiceTest {
         type.setCategory(TransactionTypeCategory.SALE);
 
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
-        when(saleRepository.findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(any(UUID.class), any(String.class))).thenReturn(Optional.empty());
-        when(saleRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(any(UUID.class), any(String.class))).thenReturn(false);
+        when(numberAllocator.nextReceiptNumber(any(UUID.class))).thenReturn("RCP-20260225-0001");
         when(saleRepository.save(any(SaleTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SalesTransactionService service = new SalesTransactionService(
@@ -62,7 +89,9 @@ class SalesTransactionServiceTest {
                 customerRepository,
                 activityLogRepository,
                 auditService,
-                inventoryStockCoordinator
+                inventoryStockCoordinator,
+                numberAllocator,
+                verificationGuard
         );
         var response = service.create(new CreateSaleTransactionRequest(typeId, null, "Yusuf", new BigDecimal("1500.00"), "progressive lens", null, null, null, null));
 
@@ -73,6 +102,67 @@ class SalesTransactionServiceTest {
         verify(saleRepository).save(any(SaleTransaction.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCreateSaleTransactionBatchWithPerItemResults() {
+        SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
+        TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
+        CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
+
+        UUID typeId = UUID.randomUUID();
+        TransactionType type = new TransactionType();
+        ReflectionTestUtils.setField(type, "id", typeId);
+        type.setCode("GLASS_SALE");
+        type.setActive(true);
+        type.setCategory(TransactionTypeCategory.SALE);
+
+        UUID frameId = UUID.randomUUID();
+        when(typeRepository.findByIdInAndDeletedFalse(any())).thenReturn(List.of(type));
+        when(inventoryStockCoordinator.allocate(any())).thenReturn(
+                new InventoryStockCoordinator.StockAllocation(java.util.Map.of(), java.util.Map.of(1, "Insufficient stock")));
+        when(numberAllocator.nextReceiptNumbers(any(UUID.class), Mockito.eq(2)))
+                .thenReturn(List.of("RCP-20260225-0001", "RCP-20260225-0002"));
+        when(saleRepository.saveAll(any(List.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+        var response = service.createBatch(new CreateSaleTransactionBatchRequest(List.of(
+                new CreateSaleTransactionRequest(typeId, null, "Yusuf", new BigDecimal("100.00"), null, "CARD", null, frameId, 2),
+                new CreateSaleTransactionRequest(typeId, null, null, new BigDecimal("50.00"), null, null, null, null, null),
+                new CreateSaleTransactionRequest(typeId, null, "Ayse", new BigDecimal("75.00"), null, null, null, frameId, 2),
+                new CreateSaleTransactionRequest(typeId, null, "Mehmet", new BigDecimal("20.00"), null, null, null, null, null)
+        )));
+
+        assertThat(response.createdCount()).isEqualTo(2);
+        assertThat(response.rejectedCount()).isEqualTo(2);
+        assertThat(response.results()).extracting(SaleTransactionBatchItemResponse::status)
+                .containsExactly("CREATED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(response.results().get(1).error()).isEqualTo("customerName or customerId is required");
+        assertThat(response.results().get(2).error()).isEqualTo("Insufficient stock");
+        assertThat(response.results().get(3).transaction().receiptNumber()).isEqualTo("RCP-20260225-0002");
+
+        verify(typeRepository).findByIdInAndDeletedFalse(any());
+        verify(saleRepository).saveAll(any(List.class));
+        ArgumentCaptor<List<InventoryStockCoordinator.StockDemand>> demands = ArgumentCaptor.forClass(List.class);
+        verify(inventoryStockCoordinator).allocate(demands.capture());
+        assertThat(demands.getValue()).extracting(InventoryStockCoordinator.StockDemand::quantities)
+                .containsExactly(java.util.Map.of(frameId, 2), java.util.Map.of(frameId, 2), java.util.Map.of());
+        ArgumentCaptor<List<InventoryStockCoordinator.StockConsumption>> consumptions = ArgumentCaptor.forClass(List.class);
+        verify(inventoryStockCoordinator).recordConsumptions(consumptions.capture(), any());
+        assertThat(consumptions.getValue()).singleElement()
+                .satisfies(consumption -> assertThat(consumption.inventoryItemId()).isEqualTo(frameId));
+        ArgumentCaptor<List<SecurityAuditService.AuditEntry>> auditEntries = ArgumentCaptor.forClass(List.class);
+        verify(auditService).logAll(auditEntries.capture());
+        assertThat(auditEntries.getValue()).extracting(SecurityAuditService.AuditEntry::eventType)
+                .containsExactly(AuditEventType.SALE_STOCK_DEDUCTED, AuditEventType.SALE_TRANSACTION_CREATED, AuditEventType.SALE_TRANSACTION_CREATED);
+        verify(auditService, Mockito.never()).log(any(), any(), any(), any(), any(), any());
+        verify(saleRepository, Mockito.never()).save(any(SaleTransaction.class));
+    }
+
     @Test
     void shouldLinkCustomerWhenCustomerIdProvided() {
         SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
@@ -81,6 +171,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         UUID customerId = UUID.randomUUID();
@@ -98,8 +190,7 @@ class SalesTransactionServiceTest {
 
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
         when(customerRepository.findByIdAndDeletedFalse(customerId)).thenReturn(Optional.of(customer));
-        when(saleRepository.findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(any(UUID.class), any(String.class))).thenReturn(Optional.empty());
-        when(saleRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(any(UUID.class), any(String.class))).thenReturn(false);
+        when(numberAllocator.nextReceiptNumber(any(UUID.class))).thenReturn("RCP-20260225-0001");
         when(saleRepository.save(any(SaleTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         SalesTransactionService service = new SalesTransactionService(
                 saleRepository,
@@ -107,7 +198,9 @@ class SalesTransactionServiceTest {
                 customerRepository,
                 activityLogRepository,
                 auditService,
-                inventoryStockCoordinator
+                inventoryStockCoordinator,
+                numberAllocator,
+                verificationGuard
         );
 
         var response = service.create(new CreateSaleTransactionRequest(typeId, customerId, null, new BigDecimal("1500.00"), null, null, null, null, null));
@@ -123,6 +216,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         TransactionType type = new TransactionType();
@@ -131,7 +226,7 @@ class SalesTransactionServiceTest {
 
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
 
         assertThatThrownBy(() -> service.create(new CreateSaleTransactionRequest(typeId, null, "Yusuf", new BigDecimal("1200.00"), null, null, null, null, null)))
                 .isInstanceOf(ResponseStatusException.class);
@@ -145,6 +240,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         UUID itemId = UUID.randomUUID();
@@ -155,13 +252,12 @@ class SalesTransactionServiceTest {
         type.setCategory(TransactionTypeCategory.SALE);
 
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
-        when(saleRepository.findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(any(UUID.class), any(String.class))).thenReturn(Optional.empty());
-        when(saleRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(any(UUID.class), any(String.class))).thenReturn(false);
+        when(numberAllocator.nextReceiptNumber(any(UUID.class))).thenReturn("RCP-20260225-0001");
         when(saleRepository.save(any(SaleTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         InventoryItem item = new InventoryItem();        item.setSku("SKU-1");
         when(inventoryStockCoordinator.consume(any(UUID.class), any(Integer.class), any(String.class), any(String.class), org.mockito.ArgumentMatchers.nullable(UUID.class), any(String.class))).thenReturn(item);
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         service.create(new CreateSaleTransactionRequest(typeId, null, "Yusuf", new BigDecimal("1500.00"), "progressive lens", "CARD", "POS-REF-1", itemId, 2));
 
         verify(inventoryStockCoordinator).consume(
@@ -182,6 +278,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         UUID firstItemId = UUID.randomUUID();
@@ -193,14 +291,13 @@ class SalesTransactionServiceTest {
         type.setCategory(TransactionTypeCategory.SALE);
 
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
-        when(saleRepository.findTopByStoreIdAndReceiptNumberStartingWithOrderByReceiptNumberDesc(any(UUID.class), any(String.class))).thenReturn(Optional.empty());
-        when(saleRepository.existsByStoreIdAndReceiptNumberAndDeletedFalse(any(UUID.class), any(String.class))).thenReturn(false);
+        when(numberAllocator.nextReceiptNumber(any(UUID.class))).thenReturn("RCP-20260225-0001");
         when(saleRepository.save(any(SaleTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         InventoryItem item = new InventoryItem();
         item.setSku("SKU-1");
         when(inventoryStockCoordinator.consume(any(UUID.class), any(Integer.class), any(String.class), any(String.class), org.mockito.ArgumentMatchers.nullable(UUID.class), any(String.class))).thenReturn(item);
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         service.create(new CreateSaleTransactionRequest(
                 typeId,
                 null,
@@ -243,6 +340,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID typeId = UUID.randomUUID();
         TransactionType type = new TransactionType();
@@ -251,7 +350,7 @@ class SalesTransactionServiceTest {
         type.setCategory(TransactionTypeCategory.SALE);
         when(typeRepository.findByIdAndDeletedFalse(typeId)).thenReturn(Optional.of(type));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
 
         assertThatThrownBy(() -> service.create(new CreateSaleTransactionRequest(typeId, null, "Yusuf", new BigDecimal("100.00"), null, null, null, UUID.randomUUID(), null)))
                 .isInstanceOf(ResponseStatusException.class);
@@ -266,6 +365,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID txId = UUID.randomUUID();
         UUID inventoryItemId = UUID.randomUUID();
@@ -284,7 +385,7 @@ class SalesTransactionServiceTest {
         when(inventoryStockCoordinator.release(any(UUID.class), any(Integer.class), any(String.class), any(String.class), any(UUID.class), any(String.class)))
                 .thenReturn(new InventoryItem());
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         var response = service.updateStatus(txId, new UpdateSaleTransactionStatusRequest(SaleTransactionStatus.CANCELED));
 
         assertThat(response.status()).isEqualTo("CANCELED");
@@ -299,6 +400,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID txId = UUID.randomUUID();
         UUID inventoryItemId = UUID.randomUUID();
@@ -317,7 +420,7 @@ class SalesTransactionServiceTest {
         when(inventoryStockCoordinator.release(any(UUID.class), any(Integer.class), any(String.class), any(String.class), any(UUID.class), any(String.class)))
                 .thenReturn(new InventoryItem());
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         var response = service.refund(txId, new RefundSaleTransactionRequest(new BigDecimal("100.00"), "return"));
 
         assertThat(response.status()).isEqualTo("REFUNDED");
@@ -332,6 +435,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         SaleTransaction tx = new SaleTransaction();
         tx.setReceiptNumber("RCP-20260225-0001");
@@ -342,11 +447,33 @@ class SalesTransactionServiceTest {
 
         when(saleRepository.findByReceiptNumberAndDeletedFalse("RCP-20260225-0001")).thenReturn(Optional.of(tx));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         var response = service.verifyReceipt("RCP-20260225-0001");
 
         assertThat(response.valid()).isTrue();
         assertThat(response.invoiceNumber()).isEqualTo("INV-20260225-0001");
+        verify(verificationGuard).onSuccessfulVerification("RCP-20260225-0001", response);
+    }
+
+    @Test
+    void shouldServeCachedReceiptVerificationWithoutQueryingDatabase() {
+        SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
+        TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
+        CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
+
+        ReceiptVerificationResponse cached = new ReceiptVerificationResponse(true, "RCP-20260225-0001", null,
+                new BigDecimal("200.00"), "COMPLETED", Instant.parse("2026-02-25T10:00:00Z"));
+        when(verificationGuard.cachedResult("RCP-20260225-0001")).thenReturn(Optional.of(cached));
+
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+
+        assertThat(service.verifyReceipt(" RCP-20260225-0001 ")).isEqualTo(cached);
+        verifyNoInteractions(saleRepository);
     }
 
     @Test
@@ -357,6 +484,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID txId = UUID.randomUUID();
         TransactionType type = new TransactionType();
@@ -374,10 +503,9 @@ class SalesTransactionServiceTest {
         tx.setOccurredAt(Instant.parse("2026-02-25T10:00:00Z"));
 
         when(saleRepository.findByIdAndDeletedFalse(txId)).thenReturn(Optional.of(tx));
-        when(saleRepository.findTopByStoreIdAndInvoiceNumberStartingWithOrderByInvoiceNumberDesc(any(UUID.class), any(String.class)))
-                .thenReturn(Optional.empty());
+        when(numberAllocator.nextInvoiceNumber(any(UUID.class))).thenReturn("INV-20260225-0001");
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         byte[] pdf = service.invoicePdf(txId);
 
         assertThat(new String(pdf)).startsWith("%PDF-");
@@ -392,6 +520,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         TransactionType type = new TransactionType();
         type.setCode("GLASS_SALE");
@@ -407,9 +537,9 @@ class SalesTransactionServiceTest {
         tx.setStatus(SaleTransactionStatus.COMPLETED);
         tx.setOccurredAt(Instant.parse("2026-02-25T10:00:00Z"));
 
-        when(saleRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(List.of(tx));
+        when(saleRepository.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of(tx));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         String csv = service.exportCsv(null, null, null, null, "occurredAt,desc");
 
         assertThat(csv).contains("receiptNumber,occurredAt,customerName,amount,refundedAmount,netAmount,paymentMethod,status");
@@ -418,35 +548,66 @@ class SalesTransactionServiceTest {
     }
 
     @Test
-    void shouldReturnSummaryWithPaymentBreakdown() {
+    @SuppressWarnings("unchecked")
+    void shouldStreamExportRowsAsCsv() throws IOException {
         SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
         TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
         CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
+
+        doAnswer(invocation -> {
+            Consumer<SaleTransactionExportRow> consumer = invocation.getArgument(2);
+            consumer.accept(new SaleTransactionExportRow("RCP-20260225-0001", Instant.parse("2026-02-25T10:00:00Z"),
+                    "Yusuf", new BigDecimal("200.00"), new BigDecimal("50.00"), "CARD", "COMPLETED"));
+            return null;
+        }).when(saleRepository).streamExportRows(any(SaleTransactionExportFilter.class), anyInt(), any(Consumer.class));
+
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+        SaleTransactionExportFilter filter = service.exportFilter(null, null, "50%_off", "card", "amount,asc");
+
+        assertThat(filter.storeId()).isEqualTo(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        assertThat(filter.searchPattern()).isEqualTo("%50\\%\\_off%");
+        assertThat(filter.paymentMethod()).isEqualTo(SalePaymentMethod.CARD);
+        assertThat(filter.sortField()).isEqualTo("amount");
+        assertThat(filter.ascending()).isTrue();
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        service.writeCsv(filter, plain, false);
+        String csv = plain.toString(StandardCharsets.UTF_8);
+
+        assertThat(csv).startsWith("receiptNumber,occurredAt,customerName,amount,refundedAmount,netAmount,paymentMethod,status\n");
+        assertThat(csv).contains("\"RCP-20260225-0001\"");
+        assertThat(csv).contains("\"150.00\"");
 
-        TransactionType type = new TransactionType();
-        type.setCode("GLASS_SALE");
-
-        SaleTransaction card = new SaleTransaction();
-        card.setStoreId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
-        card.setTransactionType(type);
-        card.setAmount(new BigDecimal("200.00"));
-        card.setRefundedAmount(new BigDecimal("50.00"));
-        card.setPaymentMethod(SalePaymentMethod.CARD);
-        card.setOccurredAt(Instant.now());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        service.writeCsv(filter, compressed, true);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+        }
+    }
 
-        SaleTransaction cash = new SaleTransaction();
-        cash.setStoreId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
-        cash.setTransactionType(type);
-        cash.setAmount(new BigDecimal("100.00"));
-        cash.setPaymentMethod(SalePaymentMethod.CASH);
-        cash.setOccurredAt(Instant.now());
+    @Test
+    void shouldReturnSummaryWithPaymentBreakdown() {
+        SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
+        TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
+        CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
-        when(saleRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(List.of(card, cash));
+        UUID storeId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        when(saleRepository.summarizeByPaymentMethod(storeId, null, null, null)).thenReturn(List.of(
+                new SalePaymentMethodAggregate(SalePaymentMethod.CASH, 1, new BigDecimal("100.00"), null),
+                new SalePaymentMethodAggregate(SalePaymentMethod.CARD, 1, new BigDecimal("200.00"), new BigDecimal("50.00"))
+        ));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         var summary = service.summary(null, null, null);
 
         assertThat(summary.transactionCount()).isEqualTo(2);
@@ -454,6 +615,10 @@ class SalesTransactionServiceTest {
         assertThat(summary.refundedAmount()).isEqualByComparingTo("50.00");
         assertThat(summary.netAmount()).isEqualByComparingTo("250.00");
         assertThat(summary.paymentMethodBreakdown()).hasSize(2);
+        assertThat(summary.paymentMethodBreakdown().getFirst().paymentMethod()).isEqualTo("CASH");
+        assertThat(summary.paymentMethodBreakdown().get(1).netAmount()).isEqualByComparingTo("150.00");
+        verify(saleRepository).summarizeByPaymentMethod(storeId, null, null, null);
+        verifyNoMoreInteractions(saleRepository);
     }
 
     @Test
@@ -464,6 +629,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         UUID txId = UUID.randomUUID();
         TransactionType type = new TransactionType();
@@ -485,9 +652,9 @@ class SalesTransactionServiceTest {
         when(saleRepository.findByIdAndDeletedFalse(txId)).thenReturn(Optional.of(tx));
         when(activityLogRepository.findUnifiedTimelineForSaleTransaction(
                 UUID.fromString("00000000-0000-0000-0000-000000000001"),
-                txId.toString())).thenReturn(List.of(log));
+                txId)).thenReturn(List.of(log));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
         var detail = service.detail(txId);
 
         assertThat(detail.id()).isEqualTo(txId);
@@ -503,6 +670,8 @@ class SalesTransactionServiceTest {
         SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
         ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
         InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
 
         TransactionType type = new TransactionType();
         type.setCode("LENS_ORDER");
@@ -518,14 +687,97 @@ class SalesTransactionServiceTest {
         sale.setPaymentMethod(com.optimaxx.management.domain.model.SalePaymentMethod.CARD);
         sale.setOccurredAt(Instant.now());
 
-        when(saleRepository.findByDeletedFalseOrderByOccurredAtDesc()).thenReturn(List.of(sale));
+        when(saleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(sale)));
+
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+
+        assertThat(service.list(null, null, "20260225", "CARD", 1, 20, "amount,asc").getContent()).hasSize(1);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(saleRepository).findAll(any(Specification.class), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort().getOrderFor("amount").isAscending()).isTrue();
+        assertThat(pageable.getValue().getSort().getOrderFor("id")).isNotNull();
+
+        assertThatThrownBy(() -> service.list(null, null, null, "BARTER", 0, 20, "occurredAt,desc"))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.list(null, null, null, null, 0, 20, "notes,desc"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void shouldListTransactionsByCursor() {
+        SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
+        TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
+        CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
+
+        TransactionType type = new TransactionType();
+        type.setCode("LENS_ORDER");
+
+        List<SaleTransaction> rows = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SaleTransaction sale = new SaleTransaction();
+            ReflectionTestUtils.setField(sale, "id", UUID.randomUUID());
+            sale.setStoreId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+            sale.setTransactionType(type);
+            sale.setCustomerName("Customer " + i);
+            sale.setAmount(new BigDecimal("100.00"));
+            sale.setPaymentMethod(SalePaymentMethod.CASH);
+            sale.setOccurredAt(Instant.parse("2026-02-25T10:00:00Z").minusSeconds(i));
+            rows.add(sale);
+        }
+
+        when(saleRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+
+        var firstPage = service.listByCursor(null, null, null, null, null, 2, "occurredAt,desc");
+        assertThat(firstPage.items()).hasSize(2);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.nextCursor()).isNotBlank();
+
+        when(saleRepository.findBy(any(Specification.class), any())).thenReturn(rows.subList(2, 3));
+        var secondPage = service.listByCursor(null, null, null, null, firstPage.nextCursor(), 2, "occurredAt,desc");
+        assertThat(secondPage.items()).hasSize(1);
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.nextCursor()).isNull();
+
+        assertThatThrownBy(() -> service.listByCursor(null, null, null, null, firstPage.nextCursor(), 2, "amount,desc"))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.listByCursor(null, null, null, null, "not-a-cursor", 2, "occurredAt,desc"))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.listByCursor(null, null, null, null, null, 2, "receiptNumber,desc"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldProjectTransactionTypeOnKeysetQuery() {
+        SaleTransactionRepository saleRepository = Mockito.mock(SaleTransactionRepository.class);
+        TransactionTypeRepository typeRepository = Mockito.mock(TransactionTypeRepository.class);
+        CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+        SecurityAuditService auditService = Mockito.mock(SecurityAuditService.class);
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        InventoryStockCoordinator inventoryStockCoordinator = Mockito.mock(InventoryStockCoordinator.class);
+        SaleDocumentNumberAllocator numberAllocator = Mockito.mock(SaleDocumentNumberAllocator.class);
+        ReceiptVerificationGuard verificationGuard = Mockito.mock(ReceiptVerificationGuard.class);
+
+        FluentQuery.FetchableFluentQuery<SaleTransaction> fluentQuery =
+                Mockito.mock(FluentQuery.FetchableFluentQuery.class, Mockito.RETURNS_SELF);
+        when(fluentQuery.all()).thenReturn(List.of());
+        when(saleRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<FluentQuery.FetchableFluentQuery<SaleTransaction>, List<SaleTransaction>>>getArgument(1)
+                        .apply(fluentQuery));
 
-        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator);
+        SalesTransactionService service = new SalesTransactionService(saleRepository, typeRepository, customerRepository, activityLogRepository, auditService, inventoryStockCoordinator, numberAllocator, verificationGuard);
+        service.listByCursor(null, null, null, null, null, 50, "occurredAt,desc");
 
-        assertThat(service.list(null, null, null, null, 0, 20, "occurredAt,desc").getContent()).hasSize(1);
-        assertThat(service.list(null, null, "20260225", null, 0, 20, "occurredAt,desc").getContent()).hasSize(1);
-        assertThat(service.list(null, null, "missing", null, 0, 20, "occurredAt,desc").getContent()).isEmpty();
-        assertThat(service.list(null, null, null, "CARD", 0, 20, "occurredAt,desc").getContent()).hasSize(1);
-        assertThat(service.list(null, null, null, "CASH", 0, 20, "occurredAt,desc").getContent()).isEmpty();
+        verify(fluentQuery).project("transactionType");
+        verify(fluentQuery).limit(51);
     }
 }
@@ -10,8 +10,11 @@ import com.optimaxx.management.domain.model.User;
 import com.optimaxx.management.domain.model.UserRole;
 import com.optimaxx.management.domain.repository.ActivityLogRepository;
 import com.optimaxx.management.security.audit.AuditEventType;
+import com.optimaxx.management.security.audit.AuditPipeline;
+import com.optimaxx.management.security.audit.AuditPipelineProperties;
 import com.optimaxx.management.security.audit.ClickhouseAuditPublisher;
 import com.optimaxx.management.security.audit.SecurityAuditService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
@@ -34,7 +37,7 @@ class SecurityAuditServiceTest {
 
         when(activityLogRepository.save(any(ActivityLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        SecurityAuditService securityAuditService = new SecurityAuditService(activityLogRepository, clickhouseAuditPublisher);
+        SecurityAuditService securityAuditService = syncAuditService(activityLogRepository, clickhouseAuditPublisher);
 
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         when(request.getHeader("X-Request-Id")).thenReturn("req-123");
@@ -61,7 +64,7 @@ class SecurityAuditServiceTest {
 
         when(activityLogRepository.save(any(ActivityLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        SecurityAuditService securityAuditService = new SecurityAuditService(activityLogRepository, clickhouseAuditPublisher);
+        SecurityAuditService securityAuditService = syncAuditService(activityLogRepository, clickhouseAuditPublisher);
 
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         when(request.getHeader("X-Request-Id")).thenReturn(null);
@@ -76,4 +79,26 @@ class SecurityAuditServiceTest {
             return true;
         }));
     }
+
+    @Test
+    void shouldLinkAuditLogToSaleTransaction() {
+        ActivityLogRepository activityLogRepository = Mockito.mock(ActivityLogRepository.class);
+        ClickhouseAuditPublisher clickhouseAuditPublisher = Mockito.mock(ClickhouseAuditPublisher.class);
+
+        when(activityLogRepository.save(any(ActivityLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SecurityAuditService securityAuditService = syncAuditService(activityLogRepository, clickhouseAuditPublisher);
+
+        UUID saleTransactionId = UUID.randomUUID();
+        securityAuditService.log(AuditEventType.SALE_STOCK_DEDUCTED, null, "INVENTORY", "SKU-1", "{}", saleTransactionId);
+
+        verify(activityLogRepository).save(Mockito.argThat(log ->
+                saleTransactionId.equals(log.getSaleTransactionId()) && "INVENTORY".equals(log.getResourceType())));
+    }
+
+    private SecurityAuditService syncAuditService(ActivityLogRepository activityLogRepository,
+                                                  ClickhouseAuditPublisher clickhouseAuditPublisher) {
+        return new SecurityAuditService(new AuditPipeline(activityLogRepository, clickhouseAuditPublisher,
+                new AuditPipelineProperties("sync", 0, 0, 0), new SimpleMeterRegistry()));
+    }
 }
@@ -0,0 +1,82 @@
+package com.optimaxx.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.optimaxx.management.domain.model.ActivityLog;
+import com.optimaxx.management.domain.model.User;
+import com.optimaxx.management.domain.repository.UserRepository;
+import com.optimaxx.management.security.UsernameDirectory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class UsernameDirectoryTest {
+
+    @Test
+    void shouldResolveAllActorsWithOneLookupAndServeRepeatsFromCache() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UsernameDirectory directory = new UsernameDirectory(userRepository);
+
+        UUID ownerId = UUID.randomUUID();
+        UUID staffId = UUID.randomUUID();
+        UUID deletedId = UUID.randomUUID();
+        User owner = new User();
+        ReflectionTestUtils.setField(owner, "id", ownerId);
+        owner.setUsername("owner");
+        User staff = new User();
+        ReflectionTestUtils.setField(staff, "id", staffId);
+        staff.setUsername("staff");
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(owner, staff));
+
+        Map<UUID, String> first = directory.usernames(List.of(ownerId, staffId, deletedId, ownerId));
+        Map<UUID, String> second = directory.usernames(List.of(staffId, ownerId));
+
+        assertThat(first).containsOnly(Map.entry(ownerId, "owner"), Map.entry(staffId, "staff"));
+        assertThat(second).containsOnly(Map.entry(staffId, "staff"), Map.entry(ownerId, "owner"));
+        verify(userRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldKeepCachedActorsWhenManyUnknownIdsAreResolved() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UsernameDirectory directory = new UsernameDirectory(userRepository);
+
+        UUID ownerId = UUID.randomUUID();
+        User owner = new User();
+        ReflectionTestUtils.setField(owner, "id", ownerId);
+        owner.setUsername("owner");
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(owner)).thenReturn(List.of());
+        directory.usernames(List.of(ownerId));
+
+        List<UUID> unknown = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            unknown.add(UUID.randomUUID());
+        }
+        assertThat(directory.usernames(unknown)).isEmpty();
+
+        assertThat(directory.usernames(List.of(ownerId))).containsOnly(Map.entry(ownerId, "owner"));
+        verify(userRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldSkipSystemActorsWithoutLookup() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UsernameDirectory directory = new UsernameDirectory(userRepository);
+
+        ActivityLog systemEvent = new ActivityLog();
+        systemEvent.setActorUserId(UUID.randomUUID());
+        systemEvent.setActorRole("SYSTEM");
+
+        assertThat(directory.actorUsernames(List.of(systemEvent))).isEmpty();
+        verify(userRepository, never()).findAllById(anyIterable());
+    }
+}
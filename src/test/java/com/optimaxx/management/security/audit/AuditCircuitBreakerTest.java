@@ -0,0 +1,114 @@
+package com.optimaxx.management.security.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AuditCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresAndLetOneProbeThrough() {
+        AuditCircuitBreaker breaker = breaker(2, 1_000, 60_000, 0);
+
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(AuditCircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AuditCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.tryProbe()).isFalse();
+
+        advanceMillis(1_000);
+        assertThat(breaker.tryProbe()).isTrue();
+        assertThat(breaker.state()).isEqualTo(AuditCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryProbe()).isFalse();
+        assertThat(breaker.allowRequest()).isFalse();
+
+        advanceMillis(250);
+        assertThat(breaker.onSuccess()).isEqualTo(Duration.ofMillis(1_250));
+        assertThat(breaker.state()).isEqualTo(AuditCircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.openedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDoubleTheBackoffUpToTheCap() {
+        AuditCircuitBreaker breaker = breaker(1, 1_000, 5_000, 0);
+
+        breaker.onFailure();
+        for (long backoff : new long[]{1_000, 2_000, 4_000, 5_000, 5_000}) {
+            assertNextProbeAfter(breaker, backoff);
+            breaker.onFailure();
+        }
+        assertThat(breaker.openedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReopenAfterAFailedProbeAndResetBackoffOnceClosed() {
+        AuditCircuitBreaker breaker = breaker(1, 1_000, 60_000, 0);
+
+        breaker.onFailure();
+        advanceMillis(1_000);
+        assertThat(breaker.tryProbe()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AuditCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertNextProbeAfter(breaker, 2_000);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.openedCount()).isEqualTo(2);
+        assertNextProbeAfter(breaker, 1_000);
+    }
+
+    @Test
+    void shouldKeepJitteredBackoffWithinBounds() {
+        for (int i = 0; i < 200; i++) {
+            AuditCircuitBreaker breaker = breaker(1, 1_000, 60_000, 0.5);
+            breaker.onFailure();
+
+            advanceMillis(499);
+            assertThat(breaker.tryProbe()).as("probe before the lower bound").isFalse();
+            advanceMillis(1_001);
+            assertThat(breaker.tryProbe()).as("probe at the upper bound").isTrue();
+        }
+    }
+
+    @Test
+    void shouldNotLetJitterExceedTheCap() {
+        for (int i = 0; i < 200; i++) {
+            AuditCircuitBreaker breaker = breaker(1, 1_000, 1_000, 0.5);
+            breaker.onFailure();
+
+            advanceMillis(499);
+            assertThat(breaker.tryProbe()).as("probe before the lower bound").isFalse();
+            advanceMillis(501);
+            assertThat(breaker.tryProbe()).as("probe at the cap").isTrue();
+        }
+    }
+
+    private void assertNextProbeAfter(AuditCircuitBreaker breaker, long backoffMs) {
+        advanceMillis(backoffMs - 1);
+        assertThat(breaker.tryProbe()).as("probe before %d ms", backoffMs).isFalse();
+        advanceMillis(1);
+        assertThat(breaker.tryProbe()).as("probe after %d ms", backoffMs).isTrue();
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(Duration.ofMillis(millis).toNanos());
+    }
+
+    private AuditCircuitBreaker breaker(int failureThreshold, long initialBackoffMs, long maxBackoffMs, double jitter) {
+        ClickhouseAuditCircuitProperties properties = new ClickhouseAuditCircuitProperties();
+        properties.setFailureThreshold(failureThreshold);
+        properties.setInitialBackoffMs(initialBackoffMs);
+        properties.setMaxBackoffMs(maxBackoffMs);
+        properties.setJitter(jitter);
+        return new AuditCircuitBreaker(properties, now::get);
+    }
+}
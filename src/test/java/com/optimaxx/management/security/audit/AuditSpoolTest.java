@@ -0,0 +1,206 @@
+package com.optimaxx.management.security.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditSpoolTest {
+
+    private static final byte FORMAT = 7;
+    private static final long SEGMENT_BYTES = 4_096;
+
+    @TempDir
+    Path directory;
+
+    private final List<AuditSpool> spools = new ArrayList<>();
+
+    @AfterEach
+    void closeSpools() throws IOException {
+        for (AuditSpool spool : spools) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void shouldTruncateACorruptTailOnRecovery() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+        spool.append(FORMAT, rows("a", "b", "c"), 0);
+        spool.close();
+        Path segment = segments().getFirst();
+        long validSize = Files.size(segment);
+        // A torn frame: a header that promises more bytes than were written.
+        Files.write(segment, new byte[]{0, 0, 0, 50, 1, 2, 3, 4, FORMAT, 'd'}, StandardOpenOption.APPEND);
+
+        AuditSpool recovered = open(1_024 * 1_024);
+
+        assertThat(Files.size(segment)).isEqualTo(validSize);
+        assertThat(recovered.pendingRecords()).isEqualTo(3);
+        assertThat(read(recovered, 10)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void shouldRotateSegmentsAndDeleteThemOnceDelivered() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String row = i + "-" + "x".repeat(1_000);
+            written.add(row);
+            spool.append(FORMAT, rows(row), 0);
+        }
+
+        assertThat(spool.segmentCount()).isGreaterThanOrEqualTo(3);
+
+        assertThat(drain(spool)).containsExactlyElementsOf(written);
+        assertThat(spool.pendingRecords()).isZero();
+        assertThat(spool.segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictTheOldestSegmentsOnceOverTheCap() throws IOException {
+        AuditSpool spool = open(2 * SEGMENT_BYTES);
+        for (int i = 0; i < 20; i++) {
+            spool.append(FORMAT, rows(i + "-" + "x".repeat(1_000)), 0);
+        }
+
+        assertThat(spool.bytes()).isLessThanOrEqualTo(2 * SEGMENT_BYTES);
+        assertThat(spool.droppedRecords()).isPositive();
+        assertThat(spool.pendingRecords() + spool.droppedRecords()).isEqualTo(20);
+        List<String> remaining = drain(spool);
+        assertThat(remaining.getFirst()).doesNotStartWith("0-");
+        assertThat(remaining.getLast()).startsWith("19-");
+    }
+
+    @Test
+    void shouldResumeFromTheCursorAfterRestart() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+        spool.append(FORMAT, rows("r0", "r1", "r2", "r3", "r4"), 0);
+        AuditRowBuffer rows = new AuditRowBuffer(64);
+        spool.acknowledge(spool.read(2, rows));
+        spool.close();
+
+        AuditSpool restarted = open(1_024 * 1_024);
+
+        assertThat(restarted.pendingRecords()).isEqualTo(3);
+        assertThat(read(restarted, 10)).containsExactly("r2", "r3", "r4");
+    }
+
+    @Test
+    void shouldAcknowledgeTheDeliveredPartOfABatch() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+        AuditRowBuffer source = rows("r0", "r1", "r2", "r3");
+        spool.append(FORMAT, source, 1);
+
+        AuditRowBuffer rows = new AuditRowBuffer(64);
+        AuditSpool.Batch batch = spool.read(10, rows);
+        assertThat(contents(rows)).containsExactly("r1", "r2", "r3");
+        spool.acknowledge(batch, 1);
+
+        assertThat(spool.pendingRecords()).isEqualTo(2);
+        assertThat(read(spool, 10)).containsExactly("r2", "r3");
+    }
+
+    @Test
+    void shouldReadOneFormatPerBatch() throws IOException {
+        byte other = (byte) (FORMAT + 1);
+        AuditSpool spool = open(1_024 * 1_024);
+        spool.append(FORMAT, rows("a1", "a2"), 0);
+        spool.append(other, rows("b1"), 0);
+        spool.close();
+
+        AuditSpool recovered = open(1_024 * 1_024);
+        AuditRowBuffer rows = new AuditRowBuffer(64);
+        AuditSpool.Batch first = recovered.read(10, rows);
+        assertThat(first.format()).isEqualTo(FORMAT);
+        assertThat(contents(rows)).containsExactly("a1", "a2");
+        recovered.acknowledge(first);
+
+        AuditSpool.Batch second = recovered.read(10, rows);
+        assertThat(second.format()).isEqualTo(other);
+        assertThat(contents(rows)).containsExactly("b1");
+    }
+
+    @Test
+    void shouldKeepQuarantinedRowsOutOfThePendingQueue() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+
+        spool.quarantine(FORMAT, rows("good", "bad"), 1, 2);
+
+        assertThat(spool.quarantinedRecords()).isEqualTo(1);
+        assertThat(spool.pendingRecords()).isZero();
+        assertThat(new String(Files.readAllBytes(directory.resolve("dead-letter.spool")), StandardCharsets.UTF_8))
+                .endsWith("bad")
+                .doesNotContain("good");
+    }
+
+    @Test
+    void shouldRefuseADirectoryThatIsAlreadyOpen() throws IOException {
+        AuditSpool spool = open(1_024 * 1_024);
+
+        AuditSpool second = new AuditSpool(directory, SEGMENT_BYTES, 1_024 * 1_024);
+        assertThatThrownBy(second::open)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in use");
+
+        spool.close();
+        open(1_024 * 1_024);
+    }
+
+    private AuditSpool open(long maxBytes) throws IOException {
+        AuditSpool spool = new AuditSpool(directory, SEGMENT_BYTES, maxBytes);
+        spool.open();
+        spools.add(spool);
+        return spool;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static List<String> drain(AuditSpool spool) throws IOException {
+        List<String> delivered = new ArrayList<>();
+        AuditRowBuffer rows = new AuditRowBuffer(1_024);
+        AuditSpool.Batch batch;
+        while ((batch = spool.read(4, rows)).rowCount() > 0) {
+            assertThat(batch.format()).isEqualTo(FORMAT);
+            delivered.addAll(contents(rows));
+            spool.acknowledge(batch);
+        }
+        return delivered;
+    }
+
+    private static List<String> read(AuditSpool spool, int maxRecords) throws IOException {
+        AuditRowBuffer rows = new AuditRowBuffer(64);
+        spool.read(maxRecords, rows);
+        return contents(rows);
+    }
+
+    private static AuditRowBuffer rows(String... values) {
+        AuditRowBuffer rows = new AuditRowBuffer(64);
+        for (String value : values) {
+            rows.writeUtf8(value);
+            rows.endRow();
+        }
+        return rows;
+    }
+
+    private static List<String> contents(AuditRowBuffer rows) {
+        List<String> values = new ArrayList<>(rows.rowCount());
+        for (int row = 0; row < rows.rowCount(); row++) {
+            values.add(new String(rows.array(), rows.rowStart(row), rows.rowEnd(row) - rows.rowStart(row), StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+}